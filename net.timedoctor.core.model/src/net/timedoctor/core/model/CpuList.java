@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Holds the cpus of the model in the order in which they were added, which
+ * gives each cpu a dense index, see {@link SampleCPU#getIndex()}, so that
+ * data kept per cpu can be stored in arrays. Cpus are looked up by id in
+ * constant time, as the parser does for every cpu switch in the trace.
+ */
+public class CpuList {
+
+	/**
+	 * Ids below this bound are looked up in an array indexed by id, the
+	 * others in a map.
+	 */
+	private static final int MAX_DIRECT_ID = 1 << 12;
+
+	/**
+	 * The cpus, in the order in which they were added.
+	 */
+	private final ArrayList < SampleCPU > cpus = new ArrayList < SampleCPU > ();
+
+	/**
+	 * The first cpu added with each small id, indexed by id.
+	 */
+	private SampleCPU[] byId = new SampleCPU[0];
+
+	/**
+	 * The first cpu added with each other id.
+	 */
+	private final HashMap < Integer, SampleCPU > byLargeId = new HashMap < Integer, SampleCPU > ();
+
+	/**
+	 * The number of cpus in the lookup tables, or -1 once an id changed.
+	 */
+	private int indexed = 0;
+
+	/**
+	 * Adds a cpu, and gives it the next index.
+	 *
+	 * @param cpu
+	 *            the cpu to be added
+	 */
+	public final void add(final SampleCPU cpu) {
+		cpus.add(cpu);
+		if (indexed == cpus.size() - 1) {
+			index(cpu, indexed++);
+		} else {
+			cpu.setIndex(cpus.size() - 1);
+		}
+	}
+
+	/**
+	 * Returns the cpu with the given id. If several cpus have the id, the one
+	 * added first is returned.
+	 *
+	 * @param id
+	 *            the id of the cpu
+	 * @return the cpu, or null if there is none
+	 */
+	public final SampleCPU get(final int id) {
+		if (indexed != cpus.size()) {
+			// A cpu was added to the list directly, or an id changed
+			rebuild();
+		}
+		return lookup(id);
+	}
+
+	/**
+	 * Makes the next lookup index the cpus again, after the id of a cpu
+	 * changed.
+	 */
+	final void idChanged() {
+		indexed = -1;
+	}
+
+	/**
+	 * @return the cpus, in the order in which they were added, so that the
+	 *         index of each cpu is its position; cpus are added with
+	 *         {@link #add(SampleCPU)} rather than to this list
+	 */
+	public final ArrayList < SampleCPU > getCPUs() {
+		return cpus;
+	}
+
+	/**
+	 * @return the number of cpus
+	 */
+	public final int size() {
+		return cpus.size();
+	}
+
+	private SampleCPU lookup(final int id) {
+		if ((id >= 0) && (id < MAX_DIRECT_ID)) {
+			return (id < byId.length) ? byId[id] : null;
+		}
+		return byLargeId.get(id);
+	}
+
+	private void index(final SampleCPU cpu, final int index) {
+		cpu.setIndex(index);
+		final int id = cpu.getID();
+		if ((id >= 0) && (id < MAX_DIRECT_ID)) {
+			if (id >= byId.length) {
+				byId = Arrays.copyOf(byId, Math.min(MAX_DIRECT_ID, Math.max(2 * byId.length, id + 1)));
+			}
+			if (byId[id] == null) {
+				byId[id] = cpu;
+			}
+		} else if (!byLargeId.containsKey(id)) {
+			byLargeId.put(id, cpu);
+		}
+	}
+
+	private void rebuild() {
+		Arrays.fill(byId, null);
+		byLargeId.clear();
+		for (int i = 0; i < cpus.size(); i++) {
+			index(cpus.get(i), i);
+		}
+		indexed = cpus.size();
+	}
+}
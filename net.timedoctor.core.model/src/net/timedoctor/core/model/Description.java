@@ -38,7 +38,19 @@ public class Description {
 		 * @return the associated type, or null if none exists
 		 */
 		public static DescrType parseString(final String type) {
-			switch (Integer.parseInt(type)) {
+			return parseType(Integer.parseInt(type));
+		}
+
+		/**
+		 * Returns the type constant associated with the given integer. For use
+		 * in file parsing.
+		 * 
+		 * @param type
+		 *            the integer type as it appears in the trace file
+		 * @return the associated type, or null if none exists
+		 */
+		public static DescrType parseType(final int type) {
+			switch (type) {
 			case 0:
 				return STRING;
 			case 1:
@@ -0,0 +1,662 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model;
+
+import java.util.Arrays;
+
+import net.timedoctor.core.model.Sample.SampleType;
+
+/**
+ * Indexes the executions of a task line, so that the statistics of the task
+ * in any time window are computed without visiting its samples.
+ * <p>
+ * An execution runs from a start sample to the matching stop sample. Within
+ * an execution the task is active between its samples, except from a suspend
+ * sample to the matching resume sample, when it is interrupted. For each
+ * execution the index keeps its time, its active time, its interrupted time
+ * and its number of interrupts, with prefix sums and a tree of their minimum
+ * and maximum over ranges of executions. The execution, active and
+ * interrupted intervals are kept in time order with prefix sums of their
+ * durations, so that the time within a window is found with binary searches,
+ * clipping only the intervals at the ends of the window.
+ */
+public final class ExecutionIndex {
+
+	/**
+	 * Holds a value per execution, with the sum, minimum and maximum over any
+	 * range of executions.
+	 */
+	public static final class Series {
+
+		/**
+		 * The sum of the values before each execution, and in total at the
+		 * end.
+		 */
+		private final double[] sums;
+
+		/**
+		 * Segment trees of the minimum and maximum values. The values are
+		 * the leaves, from index <code>n</code>; node <code>i</code> covers
+		 * nodes <code>2i</code> and <code>2i + 1</code>.
+		 */
+		private final double[] mins;
+
+		private final double[] maxs;
+
+		private final int n;
+
+		/**
+		 * Constructs the series of the first values of an array.
+		 *
+		 * @param values
+		 *            the value per execution, not negative
+		 * @param n
+		 *            the number of executions
+		 */
+		public Series(final double[] values, final int n) {
+			this.n = n;
+			sums = new double[n + 1];
+			mins = new double[2 * n];
+			maxs = new double[2 * n];
+			for (int i = 0; i < n; i++) {
+				sums[i + 1] = sums[i] + values[i];
+				mins[n + i] = values[i];
+				maxs[n + i] = values[i];
+			}
+			for (int i = n - 1; i > 0; i--) {
+				mins[i] = Math.min(mins[2 * i], mins[2 * i + 1]);
+				maxs[i] = Math.max(maxs[2 * i], maxs[2 * i + 1]);
+			}
+		}
+
+		/**
+		 * @return the number of executions
+		 */
+		public int getCount() {
+			return n;
+		}
+
+		/**
+		 * Returns the value of an execution.
+		 *
+		 * @param i
+		 *            the index of the execution
+		 * @return the value
+		 */
+		public double get(final int i) {
+			return mins[n + i];
+		}
+
+		/**
+		 * Returns the sum of the values of a range of executions.
+		 *
+		 * @param from
+		 *            the index of the first execution
+		 * @param to
+		 *            the index after the last execution
+		 * @return the sum
+		 */
+		public double getSum(final int from, final int to) {
+			return (from < to) ? sums[to] - sums[from] : 0d;
+		}
+
+		/**
+		 * Returns the minimum value of a range of executions.
+		 *
+		 * @param from
+		 *            the index of the first execution
+		 * @param to
+		 *            the index after the last execution
+		 * @return the minimum, or <code>Double.MAX_VALUE</code> if the range
+		 *         is empty
+		 */
+		public double getMin(final int from, final int to) {
+			double min = Double.MAX_VALUE;
+			for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+				if ((l & 1) == 1) {
+					min = Math.min(min, mins[l++]);
+				}
+				if ((r & 1) == 1) {
+					min = Math.min(min, mins[--r]);
+				}
+			}
+			return min;
+		}
+
+		/**
+		 * Returns the maximum value of a range of executions. The values are
+		 * never negative.
+		 *
+		 * @param from
+		 *            the index of the first execution
+		 * @param to
+		 *            the index after the last execution
+		 * @return the maximum, or 0 if the range is empty
+		 */
+		public double getMax(final int from, final int to) {
+			double max = 0d;
+			for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+				if ((l & 1) == 1) {
+					max = Math.max(max, maxs[l++]);
+				}
+				if ((r & 1) == 1) {
+					max = Math.max(max, maxs[--r]);
+				}
+			}
+			return max;
+		}
+	}
+
+	/**
+	 * Intervals in time order that do not overlap, grouped by execution.
+	 */
+	private static final class Intervals {
+
+		/**
+		 * The index of the first interval of each execution, and the number
+		 * of intervals at the end.
+		 */
+		private final int[] firsts;
+
+		private final double[] starts;
+
+		private final double[] ends;
+
+		/**
+		 * The duration of the intervals before each interval.
+		 */
+		private final double[] sums;
+
+		private Intervals(final int[] firsts, final double[] starts,
+				final double[] ends, final int count) {
+			this.firsts = firsts;
+			this.starts = starts;
+			this.ends = ends;
+			sums = new double[count + 1];
+			for (int i = 0; i < count; i++) {
+				sums[i + 1] = sums[i] + (ends[i] - starts[i]);
+			}
+		}
+
+		/**
+		 * Returns the time the intervals of a range of executions overlap a
+		 * window.
+		 */
+		private double overlap(final int from, final int to,
+				final double windowStartTime, final double windowEndTime) {
+			if (from >= to) {
+				return 0d;
+			}
+			// The first interval ending after, and the last starting before
+			// the window
+			final int first = upperBound(ends, firsts[from], firsts[to], windowStartTime);
+			final int last = lowerBound(starts, first, firsts[to], windowEndTime) - 1;
+			if (first > last) {
+				return 0d;
+			}
+			double time = sums[last + 1] - sums[first];
+			time -= Math.max(0d, windowStartTime - starts[first]);
+			time -= Math.max(0d, ends[last] - windowEndTime);
+			return Math.max(0d, time);
+		}
+	}
+
+	/**
+	 * Grows arrays while the index is built.
+	 */
+	private static final class Builder {
+		private int[] firsts;
+		private double[] starts = new double[16];
+		private double[] ends = new double[16];
+		private int count = 0;
+
+		Builder(final int nExecutions) {
+			firsts = new int[nExecutions + 1];
+		}
+
+		void add(final double start, final double end) {
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, 2 * count);
+				ends = Arrays.copyOf(ends, 2 * count);
+			}
+			starts[count] = start;
+			ends[count] = end;
+			count++;
+		}
+
+		void endExecution(final int execution) {
+			firsts[execution + 1] = count;
+		}
+
+		Intervals build(final int nExecutions) {
+			return new Intervals(Arrays.copyOf(firsts, nExecutions + 1),
+					Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), count);
+		}
+	}
+
+	private final SampleLine line;
+
+	private final int count;
+
+	private final int[] startIndices;
+
+	private final double[] startTimes;
+
+	private final Intervals executions;
+
+	private final Intervals active;
+
+	private final Intervals interrupted;
+
+	/**
+	 * The suspend samples, also those of interrupts of interrupts, as
+	 * intervals without duration.
+	 */
+	private final Intervals interrupts;
+
+	private final Series executionTimes;
+
+	private final Series activeTimes;
+
+	private final Series interruptTimes;
+
+	private final Series interruptCounts;
+
+	private ExecutionIndex(final SampleLine line) {
+		this.line = line;
+		final int nSamples = line.getCount();
+
+		// At most one execution per two samples
+		final int capacity = nSamples / 2;
+		int[] startIdx = new int[capacity];
+		double[] starts = new double[capacity];
+		double[] execTimes = new double[capacity];
+		double[] activeSums = new double[capacity];
+		double[] interruptSums = new double[capacity];
+		double[] interruptNrs = new double[capacity];
+		final Builder execBuilder = new Builder(capacity);
+		final Builder activeBuilder = new Builder(capacity);
+		final Builder interruptBuilder = new Builder(capacity);
+		final Builder suspendBuilder = new Builder(capacity);
+
+		// The same walk over the samples as a statistic visiting the
+		// executions one by one
+		int n = 0;
+		for (int i = 0; i < nSamples; i++) {
+			if (line.getSampleType(i) != SampleType.START) {
+				continue;
+			}
+			final int stopIndex = (int) line.getVal(i);
+			if ((stopIndex <= i) || (stopIndex >= nSamples)
+					|| (line.getSampleType(stopIndex) != SampleType.STOP)) {
+				break;
+			}
+			final double execStartTime = line.getTime(i);
+			final double execEndTime = line.getTime(stopIndex);
+			startIdx[n] = i;
+			starts[n] = execStartTime;
+			execTimes[n] = execEndTime - execStartTime;
+			execBuilder.add(execStartTime, execEndTime);
+
+			double activeTime = 0d;
+			double interruptTime = 0d;
+			int nInterrupts = 0;
+			for (; i < stopIndex; i++) {
+				if (line.getSampleType(i) == SampleType.SUSPEND) {
+					int resumeIndex = (int) line.getVal(i);
+					if ((resumeIndex <= i) || (resumeIndex > stopIndex)) {
+						resumeIndex = stopIndex;
+					}
+					final double suspendTime = line.getTime(i);
+					final double resumeTime = line.getTime(resumeIndex);
+					interruptBuilder.add(suspendTime, resumeTime);
+					interruptTime += resumeTime - suspendTime;
+					suspendBuilder.add(suspendTime, suspendTime);
+					nInterrupts++;
+
+					// Interrupts of the interrupt are counted, but do not
+					// add to the interrupted time
+					for (i++; i < resumeIndex; i++) {
+						if (line.getSampleType(i) == SampleType.SUSPEND) {
+							suspendBuilder.add(line.getTime(i), line.getTime(i));
+							nInterrupts++;
+						}
+					}
+					i = resumeIndex - 1;
+				} else {
+					final double activeStartTime = line.getTime(i);
+					final double activeEndTime = line.getTime(i + 1);
+					activeBuilder.add(activeStartTime, activeEndTime);
+					activeTime += activeEndTime - activeStartTime;
+				}
+			}
+			activeSums[n] = activeTime;
+			interruptSums[n] = interruptTime;
+			interruptNrs[n] = nInterrupts;
+			execBuilder.endExecution(n);
+			activeBuilder.endExecution(n);
+			interruptBuilder.endExecution(n);
+			suspendBuilder.endExecution(n);
+			n++;
+		}
+
+		count = n;
+		startIndices = Arrays.copyOf(startIdx, n);
+		startTimes = Arrays.copyOf(starts, n);
+		executions = execBuilder.build(n);
+		active = activeBuilder.build(n);
+		interrupted = interruptBuilder.build(n);
+		interrupts = suspendBuilder.build(n);
+		executionTimes = new Series(execTimes, n);
+		activeTimes = new Series(activeSums, n);
+		interruptTimes = new Series(interruptSums, n);
+		interruptCounts = new Series(interruptNrs, n);
+	}
+
+	/**
+	 * Builds the index of a task line. The line must be calculated.
+	 *
+	 * @param line
+	 *            the line
+	 * @return the index
+	 */
+	public static ExecutionIndex build(final SampleLine line) {
+		return new ExecutionIndex(line);
+	}
+
+	/**
+	 * @return the number of executions
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the first execution whose statistics count for a window
+	 * starting at the given time: the execution running at that time, or
+	 * else the last execution starting before it.
+	 *
+	 * @param windowStartTime
+	 *            the start of the window
+	 * @return the index of the execution, or 0
+	 */
+	public int getFirst(final double windowStartTime) {
+		if (count == 0) {
+			return 0;
+		}
+		final int sampleIndex = line.binarySearch(windowStartTime);
+		// The last execution starting at or before the sample
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (startIndices[mid] <= sampleIndex) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return Math.max(0, low - 1);
+	}
+
+	/**
+	 * Returns the end of the executions whose statistics count for a window
+	 * ending at the given time: the executions start at or before it.
+	 *
+	 * @param first
+	 *            the first execution, see {@link #getFirst(double)}
+	 * @param windowEndTime
+	 *            the end of the window
+	 * @return the index after the last execution
+	 */
+	public int getEnd(final int first, final double windowEndTime) {
+		return Math.max(first, upperBound(startTimes, first, count, windowEndTime));
+	}
+
+	/**
+	 * Returns the sample index of the start of an execution.
+	 *
+	 * @param i
+	 *            the index of the execution
+	 * @return the index of the start sample
+	 */
+	public int getStartIndex(final int i) {
+		return startIndices[i];
+	}
+
+	/**
+	 * Returns the start time of an execution.
+	 *
+	 * @param i
+	 *            the index of the execution
+	 * @return the time of the start sample
+	 */
+	public double getStartTime(final int i) {
+		return startTimes[i];
+	}
+
+	/**
+	 * Returns the end time of an execution.
+	 *
+	 * @param i
+	 *            the index of the execution
+	 * @return the time of the stop sample
+	 */
+	public double getEndTime(final int i) {
+		return executions.ends[i];
+	}
+
+	/**
+	 * @return the time of each execution, including interrupts
+	 */
+	public Series getExecutionTimes() {
+		return executionTimes;
+	}
+
+	/**
+	 * @return the time each execution is active, excluding interrupts
+	 */
+	public Series getActiveTimes() {
+		return activeTimes;
+	}
+
+	/**
+	 * @return the time each execution is interrupted
+	 */
+	public Series getInterruptTimes() {
+		return interruptTimes;
+	}
+
+	/**
+	 * @return the number of interrupts of each execution, including
+	 *         interrupts of interrupts
+	 */
+	public Series getInterruptCounts() {
+		return interruptCounts;
+	}
+
+	/**
+	 * Returns the number of executions of a range starting within a window.
+	 *
+	 * @param from
+	 *            the index of the first execution
+	 * @param to
+	 *            the index after the last execution
+	 * @param windowStartTime
+	 *            the start of the window
+	 * @param windowEndTime
+	 *            the end of the window
+	 * @return the number of executions
+	 */
+	public int countStarts(final int from, final int to,
+			final double windowStartTime, final double windowEndTime) {
+		return countWithin(startTimes, from, to, windowStartTime, windowEndTime);
+	}
+
+	/**
+	 * Returns the number of interrupts of a range of executions starting
+	 * within a window, including interrupts of interrupts.
+	 *
+	 * @param from
+	 *            the index of the first execution
+	 * @param to
+	 *            the index after the last execution
+	 * @param windowStartTime
+	 *            the start of the window
+	 * @param windowEndTime
+	 *            the end of the window
+	 * @return the number of interrupts
+	 */
+	public int countInterrupts(final int from, final int to,
+			final double windowStartTime, final double windowEndTime) {
+		if (from >= to) {
+			return 0;
+		}
+		return countWithin(interrupts.starts, interrupts.firsts[from], interrupts.firsts[to],
+				windowStartTime, windowEndTime);
+	}
+
+	/**
+	 * Returns the time a range of executions runs within a window, including
+	 * interrupts.
+	 *
+	 * @param from
+	 *            the index of the first execution
+	 * @param to
+	 *            the index after the last execution
+	 * @param windowStartTime
+	 *            the start of the window
+	 * @param windowEndTime
+	 *            the end of the window
+	 * @return the time
+	 */
+	public double getExecutionTime(final int from, final int to,
+			final double windowStartTime, final double windowEndTime) {
+		return executions.overlap(from, to, windowStartTime, windowEndTime);
+	}
+
+	/**
+	 * Returns the time a range of executions is active within a window,
+	 * excluding interrupts.
+	 *
+	 * @param from
+	 *            the index of the first execution
+	 * @param to
+	 *            the index after the last execution
+	 * @param windowStartTime
+	 *            the start of the window
+	 * @param windowEndTime
+	 *            the end of the window
+	 * @return the time
+	 */
+	public double getActiveTime(final int from, final int to,
+			final double windowStartTime, final double windowEndTime) {
+		return active.overlap(from, to, windowStartTime, windowEndTime);
+	}
+
+	/**
+	 * Returns the time a range of executions is interrupted within a window.
+	 *
+	 * @param from
+	 *            the index of the first execution
+	 * @param to
+	 *            the index after the last execution
+	 * @param windowStartTime
+	 *            the start of the window
+	 * @param windowEndTime
+	 *            the end of the window
+	 * @return the time
+	 */
+	public double getInterruptTime(final int from, final int to,
+			final double windowStartTime, final double windowEndTime) {
+		return interrupted.overlap(from, to, windowStartTime, windowEndTime);
+	}
+
+	/**
+	 * Returns the index of the first active interval of an execution. The
+	 * intervals of execution <code>i</code> run up to the first interval of
+	 * execution <code>i + 1</code>.
+	 *
+	 * @param i
+	 *            the index of the execution, or the number of executions
+	 * @return the index of the interval
+	 */
+	public int getFirstActive(final int i) {
+		return active.firsts[i];
+	}
+
+	/**
+	 * Returns the start time of an active interval.
+	 *
+	 * @param j
+	 *            the index of the interval
+	 * @return the start time
+	 */
+	public double getActiveStartTime(final int j) {
+		return active.starts[j];
+	}
+
+	/**
+	 * Returns the end time of an active interval.
+	 *
+	 * @param j
+	 *            the index of the interval
+	 * @return the end time
+	 */
+	public double getActiveEndTime(final int j) {
+		return active.ends[j];
+	}
+
+	private static int countWithin(final double[] times, final int from, final int to,
+			final double startTime, final double endTime) {
+		final int first = lowerBound(times, from, to, startTime);
+		final int end = upperBound(times, first, to, endTime);
+		return end - first;
+	}
+
+	/**
+	 * Returns the first index in a range of sorted values whose value is not
+	 * less than the given value.
+	 */
+	private static int lowerBound(final double[] values, final int from, final int to,
+			final double value) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (values[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the first index in a range of sorted values whose value is
+	 * greater than the given value.
+	 */
+	private static int upperBound(final double[] values, final int from, final int to,
+			final double value) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (values[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
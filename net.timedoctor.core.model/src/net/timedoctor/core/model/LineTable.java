@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model;
+
+import java.util.Arrays;
+
+/**
+ * Looks up the lines of a section by CPU and line id, for every record of a
+ * trace that is parsed. The keys are stored in a primitive array with open
+ * addressing and linear probing, so a lookup neither boxes its key nor
+ * allocates.
+ * <p>
+ * A key holds all lines created with its ids, in the order in which they
+ * were registered, as a line id is reused once its line is deleted. A
+ * lookup returns the first of them that is valid at the given time. The
+ * line found last for a key is tried first, which is the right one as long
+ * as all lines registered before it were deleted before the given time.
+ */
+final class LineTable {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Multiplier spreading the keys over the table (the golden ratio).
+	 */
+	private static final long HASH_MULTIPLIER = 0x9e3779b97f4a7c15L;
+
+	private long[] keys = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The lines of each key, or null for a free slot.
+	 */
+	private SampleLine[][] lines = new SampleLine[INITIAL_CAPACITY][];
+
+	private int[] counts = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The index of the line found last for each key.
+	 */
+	private int[] recent = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The latest delete time of the lines of each key registered before the
+	 * line found last.
+	 */
+	private double[] recentBound = new double[INITIAL_CAPACITY];
+
+	private int mask = INITIAL_CAPACITY - 1;
+
+	private int used = 0;
+
+	/**
+	 * Registers a line under its key, after the lines registered before.
+	 *
+	 * @param line
+	 *            the line
+	 */
+	void add(final SampleLine line) {
+		final long key = line.getKey();
+		int slot = find(key);
+		if (slot < 0) {
+			if (2 * (used + 1) > keys.length) {
+				resize();
+			}
+			slot = ~find(key);
+			keys[slot] = key;
+			lines[slot] = new SampleLine[1];
+			recentBound[slot] = Double.NEGATIVE_INFINITY;
+			used++;
+		}
+		SampleLine[] list = lines[slot];
+		if (counts[slot] == list.length) {
+			list = Arrays.copyOf(list, 2 * list.length);
+			lines[slot] = list;
+		}
+		list[counts[slot]++] = line;
+	}
+
+	/**
+	 * Unregisters a line. The key stays in the table.
+	 *
+	 * @param line
+	 *            the line
+	 */
+	void remove(final SampleLine line) {
+		final int slot = find(line.getKey());
+		if (slot < 0) {
+			return;
+		}
+		final SampleLine[] list = lines[slot];
+		final int count = counts[slot];
+		for (int i = 0; i < count; i++) {
+			if (list[i] == line) {
+				System.arraycopy(list, i + 1, list, i, count - i - 1);
+				list[count - 1] = null;
+				counts[slot] = count - 1;
+				recent[slot] = 0;
+				recentBound[slot] = Double.NEGATIVE_INFINITY;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the first line registered under a key that belongs to the CPU
+	 * and is valid at the given time.
+	 *
+	 * @param key
+	 *            the key of the CPU and line ids
+	 * @param cpu
+	 *            the CPU of the line
+	 * @param time
+	 *            a time at which the line is valid
+	 * @return the line, or null if there is none
+	 */
+	SampleLine get(final long key, final SampleCPU cpu, final double time) {
+		final int slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+		final SampleLine[] list = lines[slot];
+		final int count = counts[slot];
+		final int last = recent[slot];
+		if ((last < count) && (time > recentBound[slot])) {
+			final SampleLine line = list[last];
+			if (line.isValid(time) && cpu.equals(line.getCPU())) {
+				return line;
+			}
+		}
+
+		double bound = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			final SampleLine line = list[i];
+			if (line.isValid(time) && cpu.equals(line.getCPU())) {
+				recent[slot] = i;
+				recentBound[slot] = bound;
+				return line;
+			}
+			bound = Math.max(bound, line.getTimeDelete());
+		}
+		return null;
+	}
+
+	/**
+	 * @return the slot of the key, or the one's complement of the free slot
+	 *         where it would be added
+	 */
+	private int find(final long key) {
+		int slot = hash(key) & mask;
+		while (lines[slot] != null) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ~slot;
+	}
+
+	private static int hash(final long key) {
+		final long h = key * HASH_MULTIPLIER;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Doubles the number of slots.
+	 */
+	private void resize() {
+		final long[] oldKeys = keys;
+		final SampleLine[][] oldLines = lines;
+		final int[] oldCounts = counts;
+		final int[] oldRecent = recent;
+		final double[] oldBound = recentBound;
+		final int capacity = 2 * oldKeys.length;
+		keys = new long[capacity];
+		lines = new SampleLine[capacity][];
+		counts = new int[capacity];
+		recent = new int[capacity];
+		recentBound = new double[capacity];
+		mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldLines[i] != null) {
+				final int slot = ~find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				lines[slot] = oldLines[i];
+				counts[slot] = oldCounts[i];
+				recent[slot] = oldRecent[i];
+				recentBound[slot] = oldBound[i];
+			}
+		}
+	}
+}
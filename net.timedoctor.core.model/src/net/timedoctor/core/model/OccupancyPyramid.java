@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model;
+
+import java.util.Arrays;
+
+import net.timedoctor.core.model.Sample.SampleType;
+
+/**
+ * Summarizes when a task, ISR or agent line runs, so that the line can be
+ * painted zoomed out without visiting every sample. The time range of the
+ * line is split into a power-of-two number of buckets of equal width, as in
+ * {@link SamplePyramid}.
+ * <p>
+ * The running and suspended time before each bucket is kept, so that the
+ * running time within any time range is exact: only the samples in the
+ * buckets holding the ends of the range are visited. Each level holds the
+ * dominant color per bucket: the color running longest in it, as far as
+ * merging the dominant colors of the finer buckets tells.
+ */
+public final class OccupancyPyramid {
+
+	/**
+	 * The color of a range in which the line does not run.
+	 */
+	public static final int NO_COLOR = Integer.MIN_VALUE;
+
+	/**
+	 * The average number of samples per bucket of the finest level.
+	 */
+	private static final int SAMPLES_PER_BUCKET = 4;
+
+	private final SampleLine line;
+
+	private final double startTime;
+
+	private final double endTime;
+
+	private final double[] bucketWidths;
+
+	/**
+	 * The running and suspended time before each bucket of the finest level,
+	 * and in total at the end.
+	 */
+	private final double[] busyBefore;
+
+	private final double[] suspendedBefore;
+
+	/**
+	 * The dominant color per bucket and the time it runs in the bucket, by
+	 * level. Level 0 is the finest.
+	 */
+	private final int[][] colors;
+
+	private final double[][] colorTimes;
+
+	private OccupancyPyramid(final SampleLine sampleLine, final int bucketCount) {
+		line = sampleLine;
+		startTime = line.getTime(0);
+		endTime = line.getTime(line.getCount() - 1);
+		int levels = Integer.numberOfTrailingZeros(bucketCount) + 1;
+		bucketWidths = new double[levels];
+		colors = new int[levels][];
+		colorTimes = new double[levels][];
+		for (int level = 0; level < levels; level++) {
+			int count = bucketCount >> level;
+			bucketWidths[level] = (endTime - startTime) / count;
+			colors[level] = new int[count];
+			colorTimes[level] = new double[count];
+		}
+		busyBefore = new double[bucketCount + 1];
+		suspendedBefore = new double[bucketCount + 1];
+	}
+
+	/**
+	 * Builds the pyramid of a calculated task, ISR or agent line.
+	 *
+	 * @param line
+	 *            the calculated line
+	 * @return the pyramid, or null if the line has too few samples or no
+	 *         duration
+	 */
+	public static OccupancyPyramid build(final SampleLine line) {
+		int count = line.getCount();
+		if ((count < SamplePyramid.MIN_SAMPLES)
+				|| !(line.getTime(count - 1) > line.getTime(0))) {
+			return null;
+		}
+		OccupancyPyramid pyramid = new OccupancyPyramid(line,
+				Integer.highestOneBit((count - 1) / SAMPLES_PER_BUCKET));
+		pyramid.fill();
+		return pyramid;
+	}
+
+	/**
+	 * Spreads the running and suspended segments over the finest buckets,
+	 * and merges the dominant colors into the coarser levels.
+	 */
+	private void fill() {
+		int bucketCount = colors[0].length;
+		double width = bucketWidths[0];
+		double[] busy = new double[bucketCount];
+		double[] suspended = new double[bucketCount];
+		int[] color = colors[0];
+		double[] colorTime = colorTimes[0];
+		Arrays.fill(color, NO_COLOR);
+
+		for (int i = 0; i < line.getCount() - 1; i++) {
+			SampleType type = line.getSampleType(i);
+			boolean running = (type == SampleType.START) || (type == SampleType.RESUME);
+			if (!running && (type != SampleType.SUSPEND)) {
+				continue;
+			}
+			double from = line.getTime(i);
+			double to = line.getTime(i + 1);
+			if (!(to > from)) {
+				continue;
+			}
+			int segmentColor = running ? getColor(i) : NO_COLOR;
+			// A sample out of time order may lie outside the buckets, such as
+			// a suspend timed before the start of the line
+			int first = Math.max(0,
+					Math.min(bucketCount - 1, (int) Math.floor((from - startTime) / width)));
+			int last = Math.max(first,
+					Math.min(bucketCount - 1, (int) Math.ceil((to - startTime) / width) - 1));
+			for (int b = first; b <= last; b++) {
+				double overlap = Math.min(to, getBucketStart(b + 1))
+						- Math.max(from, getBucketStart(b));
+				if (overlap <= 0) {
+					continue;
+				}
+				if (!running) {
+					suspended[b] += overlap;
+				} else {
+					busy[b] += overlap;
+					if (color[b] == segmentColor) {
+						colorTime[b] += overlap;
+					} else if (overlap > colorTime[b]) {
+						color[b] = segmentColor;
+						colorTime[b] = overlap;
+					}
+				}
+			}
+		}
+
+		for (int b = 0; b < bucketCount; b++) {
+			busyBefore[b + 1] = busyBefore[b] + busy[b];
+			suspendedBefore[b + 1] = suspendedBefore[b] + suspended[b];
+		}
+
+		for (int level = 1; level < colors.length; level++) {
+			int[] finer = colors[level - 1];
+			int[] coarser = colors[level];
+			double[] coarserTime = colorTimes[level];
+			for (int b = 0; b < coarser.length; b++) {
+				int left = 2 * b;
+				int right = left + 1;
+				if (finer[left] == finer[right]) {
+					coarser[b] = finer[left];
+					coarserTime[b] = colorTime[left] + colorTime[right];
+				} else if (colorTime[left] >= colorTime[right]) {
+					coarser[b] = finer[left];
+					coarserTime[b] = colorTime[left];
+				} else {
+					coarser[b] = finer[right];
+					coarserTime[b] = colorTime[right];
+				}
+			}
+			colorTime = coarserTime;
+		}
+	}
+
+	/**
+	 * Returns the color of the running segment starting at a sample: the
+	 * value of a resume sample, or the value of the stop sample a start
+	 * sample refers to.
+	 */
+	private int getColor(final int i) {
+		if (line.getSampleType(i) == SampleType.RESUME) {
+			return (int) line.getVal(i);
+		}
+		int stop = (int) line.getVal(i);
+		if ((stop <= i) || (stop >= line.getCount())) {
+			return -1;
+		}
+		return (int) line.getVal(stop);
+	}
+
+	private double getBucketStart(final int b) {
+		if (b >= colors[0].length) {
+			return endTime;
+		}
+		return startTime + b * bucketWidths[0];
+	}
+
+	/**
+	 * Returns the coarsest level whose buckets are at most the given
+	 * duration wide.
+	 *
+	 * @param duration
+	 *            the duration of a pixel
+	 * @return the level, or -1 if even the finest buckets are wider
+	 */
+	public int getLevel(final double duration) {
+		int level = -1;
+		while ((level + 1 < bucketWidths.length) && (bucketWidths[level + 1] <= duration)) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * Returns the time the line runs within a time range.
+	 *
+	 * @param from
+	 *            the start of the range
+	 * @param to
+	 *            the end of the range
+	 * @return the running time
+	 */
+	public double getBusyTime(final double from, final double to) {
+		return getTimeBefore(to, true) - getTimeBefore(from, true);
+	}
+
+	/**
+	 * Returns the time the line is suspended within a time range.
+	 *
+	 * @param from
+	 *            the start of the range
+	 * @param to
+	 *            the end of the range
+	 * @return the suspended time
+	 */
+	public double getSuspendedTime(final double from, final double to) {
+		return getTimeBefore(to, false) - getTimeBefore(from, false);
+	}
+
+	/**
+	 * Returns the running or suspended time before a time, from the time
+	 * before its bucket and the samples in its bucket up to the time.
+	 */
+	private double getTimeBefore(final double time, final boolean busy) {
+		double[] before = busy ? busyBefore : suspendedBefore;
+		if (time <= startTime) {
+			return 0;
+		}
+		if (time >= endTime) {
+			return before[before.length - 1];
+		}
+		int b = Math.min(colors[0].length - 1, (int) ((time - startTime) / bucketWidths[0]));
+		double bucketStart = getBucketStart(b);
+		double result = before[b];
+		for (int i = line.binarySearch(bucketStart); (i < line.getCount() - 1)
+				&& (line.getTime(i) < time); i++) {
+			SampleType type = line.getSampleType(i);
+			boolean counted;
+			if (busy) {
+				counted = (type == SampleType.START) || (type == SampleType.RESUME);
+			} else {
+				counted = type == SampleType.SUSPEND;
+			}
+			if (counted) {
+				double overlap = Math.min(line.getTime(i + 1), time)
+						- Math.max(line.getTime(i), bucketStart);
+				if (overlap > 0) {
+					result += overlap;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the dominant color of the buckets of a level overlapping a
+	 * time range.
+	 *
+	 * @param level
+	 *            the level, as returned by {@link #getLevel(double)}
+	 * @param from
+	 *            the start of the range
+	 * @param to
+	 *            the end of the range
+	 * @return the color, -1 for a segment without color, or
+	 *         {@link #NO_COLOR} if the line does not run in the range
+	 */
+	public int getColor(final int level, final double from, final double to) {
+		if ((to <= startTime) || (from >= endTime)) {
+			return NO_COLOR;
+		}
+		int[] levelColors = colors[level];
+		double[] levelColorTimes = colorTimes[level];
+		double width = bucketWidths[level];
+		int first = (int) Math.max(0, Math.floor((from - startTime) / width));
+		int last = (int) Math.min(levelColors.length - 1, Math.ceil((to - startTime) / width) - 1);
+		int color = NO_COLOR;
+		double colorTime = 0;
+		for (int b = first; b <= last; b++) {
+			if (levelColorTimes[b] > colorTime) {
+				color = levelColors[b];
+				colorTime = levelColorTimes[b];
+			}
+		}
+		return color;
+	}
+}
@@ -51,6 +51,11 @@ public class SampleCPU {
 	 */
 	private int id = 0;
 
+	/**
+	 * The position of the cpu in the cpus of its model, or -1.
+	 */
+	private int index = -1;
+
 	/**
 	 * Constructor for a new CPU.
 	 * 
@@ -96,6 +101,29 @@ public class SampleCPU {
 	 */
 	public final void setID(final int id) {
 		this.id = id;
+		if (model != null) {
+			model.getCPUList().idChanged();
+		}
+	}
+
+	/**
+	 * Returns the dense index of the cpu, which is its position in the cpus
+	 * of its model. Data kept per cpu can be stored in arrays indexed by it.
+	 * 
+	 * @return the index, or -1 if the cpu was not added to its model
+	 */
+	public final int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Sets the index of the cpu, when it is added to a {@link CpuList}.
+	 * 
+	 * @param index
+	 *            the position of the cpu in the list
+	 */
+	final void setIndex(final int index) {
+		this.index = index;
 	}
 
 	/**
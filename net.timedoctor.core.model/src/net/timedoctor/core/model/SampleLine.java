@@ -30,9 +30,19 @@ import net.timedoctor.core.model.lines.ValueSampleLine;
  * needed.
  */
 public abstract class SampleLine {
-	private static final int MAX_INIT = 5000;
+	/**
+	 * The initial sizes of the sample and description arrays. The arrays
+	 * double in size when they fill up, so lines with few samples stay small
+	 * and long lines are only copied a logarithmic number of times.
+	 */
+	private static final int MIN_SAMPLE_CAPACITY = 16;
 
-	private static final int D_MAX_INIT = 100;
+	private static final int MIN_DESCR_CAPACITY = 4;
+
+	/**
+	 * The largest array size that can be allocated on all virtual machines.
+	 */
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
 
 	/**
 	 * Ordinals used to convert integers to LineTypes.
@@ -59,15 +69,7 @@ public abstract class SampleLine {
 
 	private static final int PORT_INT_VALUE = 11;
 
-	private static final int HASH_CONSTANT = 28;
-
-	/**
-	 * The minimum amount by which to increase the description 
-	 * and sample arrays when they fill up.
-	 */
-	private static final int MIN_DESCR_INCREASE = 100;
-
-	private static final int SAMPLE_ARRAY_INCREASE = 10000;
+	private static final SampleType[] SAMPLE_TYPES = SampleType.values();
 
 	private TraceModel model;
 
@@ -83,9 +85,17 @@ public abstract class SampleLine {
 
 	private int sampleCount = 0;
 
-	private int maxNrSamples = MAX_INIT;
+	private int maxNrSamples = MIN_SAMPLE_CAPACITY;
 
-	private Sample[] samples = new Sample[maxNrSamples];
+	/**
+	 * The samples, stored column-wise: the time, value and type ordinal of
+	 * sample i are at index i of each array.
+	 */
+	private double[] sampleTimes = new double[maxNrSamples];
+
+	private double[] sampleVals = new double[maxNrSamples];
+
+	private byte[] sampleTypes = new byte[maxNrSamples];
 
 	private double maxSampleValue = 0;
 
@@ -93,16 +103,62 @@ public abstract class SampleLine {
 
 	private int descCount = 0;
 
-	private int maxNrDesc = D_MAX_INIT;
+	private int maxNrDesc = 0;
 
 	private Description[] descriptions = new Description[maxNrDesc];
 
+	/**
+	 * The description strings built so far, by the index of the first
+	 * description at their time. Dropped when descriptions are added.
+	 */
+	private String[] descrStrings = null;
+
 	private double timeCreate = 0;
 
 	private double timeDelete = Double.MAX_VALUE;
 	
 	private boolean isVisible = true;
 
+	private SamplePyramid pyramid = null;
+
+	private OccupancyPyramid occupancy = null;
+
+	/**
+	 * Whether the pyramids were built, and are to be built again on demand
+	 * once the line is reopened and calculated.
+	 */
+	private boolean summarized = false;
+
+	private boolean summaryStale = false;
+
+	/**
+	 * The number of samples calculated so far. Samples added after a call
+	 * of {@link #reopen()} are calculated from here on.
+	 */
+	private int calculatedCount = 0;
+
+	/**
+	 * The number of samples before the samples closing the line at the end
+	 * time, or -1 if the line is not closed.
+	 */
+	private int openCount = -1;
+
+	/**
+	 * The maximum value before the samples closing the line were added.
+	 */
+	private double openMaxValue = 0;
+
+	/**
+	 * The value the last sample before closing the line was added with,
+	 * before calculating the line changed it.
+	 */
+	private double addedVal = 0;
+
+	/**
+	 * The index of the executions of a task line, built on demand.
+	 */
+	private volatile ExecutionIndex executionIndex = null;
+
 	/**
 	 * Enumerates the possible line types, and provides a static method to parse
 	 * strings containing integers to the associated type (for use in file
@@ -280,6 +336,21 @@ public abstract class SampleLine {
 		}
 	}
 
+	/**
+	 * @return the creation time of the task/queue/etc.
+	 */
+	public final double getTimeCreate() {
+		return timeCreate;
+	}
+
+	/**
+	 * @return the deletion time of the task/queue/etc., or
+	 *         <code>Double.MAX_VALUE</code> if it was not deleted
+	 */
+	public final double getTimeDelete() {
+		return timeDelete;
+	}
+
 	/**
 	 * Returns a boolean value that is true if the time is a valid time (between
 	 * <code>timeCreate</code> and <code>timeDelete</code>).
@@ -338,7 +409,10 @@ public abstract class SampleLine {
 	}
 
 	/**
-	 * Return the sample at the given index.
+	 * Return a copy of the sample at the given index. Changing the returned
+	 * sample does not change the line. Prefer {@link #getTime(int)},
+	 * {@link #getVal(int)} and {@link #getSampleType(int)}, which do not
+	 * create objects.
 	 * 
 	 * @param i
 	 * 			the index of the desired sample
@@ -348,11 +422,88 @@ public abstract class SampleLine {
 	 * 			Thrown, if index < 0 or index >= size
 	 */
 	public final Sample getSample(final int i) throws IndexOutOfBoundsException {
+		checkSampleIndex(i);
+		return new Sample(SAMPLE_TYPES[sampleTypes[i]], sampleTimes[i], sampleVals[i]);
+	}
+
+	/**
+	 * Returns the time of the sample at the given index.
+	 * 
+	 * @param i
+	 * 			the index of the sample
+	 * @return the time of the sample
+	 * @throws IndexOutOfBoundsException 
+	 * 			Thrown, if index < 0 or index >= size
+	 */
+	public final double getTime(final int i) throws IndexOutOfBoundsException {
+		checkSampleIndex(i);
+		return sampleTimes[i];
+	}
+
+	/**
+	 * Returns the value of the sample at the given index.
+	 * 
+	 * @param i
+	 * 			the index of the sample
+	 * @return the value of the sample
+	 * @throws IndexOutOfBoundsException 
+	 * 			Thrown, if index < 0 or index >= size
+	 */
+	public final double getVal(final int i) throws IndexOutOfBoundsException {
+		checkSampleIndex(i);
+		return sampleVals[i];
+	}
+
+	/**
+	 * Returns the ordinal of the {@link SampleType} of the sample at the given
+	 * index.
+	 * 
+	 * @param i
+	 * 			the index of the sample
+	 * @return the type ordinal of the sample
+	 * @throws IndexOutOfBoundsException 
+	 * 			Thrown, if index < 0 or index >= size
+	 */
+	public final int getTypeOrdinal(final int i) throws IndexOutOfBoundsException {
+		checkSampleIndex(i);
+		return sampleTypes[i];
+	}
+
+	/**
+	 * Returns the type of the sample at the given index.
+	 * 
+	 * @param i
+	 * 			the index of the sample
+	 * @return the type of the sample
+	 * @throws IndexOutOfBoundsException 
+	 * 			Thrown, if index < 0 or index >= size
+	 */
+	public final SampleType getSampleType(final int i) throws IndexOutOfBoundsException {
+		checkSampleIndex(i);
+		return SAMPLE_TYPES[sampleTypes[i]];
+	}
+
+	/**
+	 * Sets the value of the sample at the given index. Used by subclasses
+	 * when calculating the line.
+	 * 
+	 * @param i
+	 * 			the index of the sample
+	 * @param value
+	 * 			the new value of the sample
+	 * @throws IndexOutOfBoundsException 
+	 * 			Thrown, if index < 0 or index >= size
+	 */
+	protected final void setVal(final int i, final double value) throws IndexOutOfBoundsException {
+		checkSampleIndex(i);
+		sampleVals[i] = value;
+		dropExecutionIndex();
+	}
+
+	private void checkSampleIndex(final int i) throws IndexOutOfBoundsException {
 		if (i < 0 || i >= sampleCount) {
 			throw new IndexOutOfBoundsException(i + " is out of range");
 		}
-		
-		return samples[i];
 	}
 
 	// MR improve name
@@ -387,11 +538,11 @@ public abstract class SampleLine {
 		if (sampleCount == 0) {
 			return Double.MAX_VALUE;
 			// MR remove
-		} else if (samples[0].time == 0.0) { // this case seems unnecessary
+		} else if (sampleTimes[0] == 0.0) { // this case seems unnecessary
 			// to me
 			return 0.0;
 		} else {
-			return samples[0].time;
+			return sampleTimes[0];
 		}
 	}
 
@@ -405,7 +556,7 @@ public abstract class SampleLine {
 		if (sampleCount == 0) {
 			return 0;
 		} else {
-			return samples[sampleCount - 1].time;
+			return sampleTimes[sampleCount - 1];
 		}
 	}
 
@@ -418,7 +569,7 @@ public abstract class SampleLine {
 	public final void compensateStartTime(final double time) {
 		int i;
 		for (i = 0; i < sampleCount; i++) {
-			samples[i].time -= time;
+			sampleTimes[i] -= time;
 		}
 		for (i = 0; i < descCount; i++) {
 			Description desc = descriptions[i];
@@ -433,6 +584,9 @@ public abstract class SampleLine {
 		if (timeDelete < Double.MAX_VALUE) {
 			timeDelete -= time;
 		}
+		pyramid = null;
+		occupancy = null;
+		executionIndex = null;
 	}
 
 	/**
@@ -501,33 +655,28 @@ public abstract class SampleLine {
 		if (sampleCount == 0) {
 			return;
 		}
-		// MR extract generic method to grow array
 		if (descCount == maxNrDesc) {
-			maxNrDesc += Math.max(maxNrDesc / 2, MIN_DESCR_INCREASE);
-
-			Description[] tmp = new Description[maxNrDesc];
-			System.arraycopy(descriptions, 0, tmp, 0, descCount);
-			descriptions = tmp;
+			resizeDescriptions(grownCapacity(maxNrDesc, MIN_DESCR_CAPACITY));
 		}
 		descriptions[descCount] = new Description(
-				samples[sampleCount - 1].time, descId, descType, txt, value);
+				sampleTimes[sampleCount - 1], descId, descType, txt, value);
 		descCount++;
+		descrStrings = null;
 	}
 
 	/**
 	 * Finds and formats the description string for a certain time. Returns null
 	 * if the description is not of type <code>STRING</code>,
-	 * <code>NUMBER</code>, or <code>cycles</code>.
+	 * <code>NUMBER</code>, or <code>cycles</code>. The string of the
+	 * descriptions at a time is built once, when first asked for.
 	 * 
 	 * @param time
 	 *            the time at which to find descriptions
 	 * @return a formatted string containing all the descriptions at that time
 	 */
 	public final String descrString(final double time) {
-		String s = "";
-		
 		if (descCount == 0) {
-			return s;
+			return "";
 		}
 		
 		/*
@@ -550,38 +699,59 @@ public abstract class SampleLine {
 				break;
 			}
 		}
-
+		if (descriptions[low].time != time) {
+			return "";
+		}
+		// The search may end on any of the descriptions at the time
+		while (low > 0 && descriptions[low - 1].time == time) {
+			low--;
+		}
+		
+		String[] strings = descrStrings;
+		if (strings == null || strings.length != descCount) {
+			strings = new String[descCount];
+			descrStrings = strings;
+		}
+		if (strings[low] == null) {
+			strings[low] = buildDescrString(low, time);
+		}
+		return strings[low];
+	}
+	
+	private String buildDescrString(final int first, final double time) {
 		// MR move to description class
 		/*
 		 * Create description string
 		 */
-		String modelDescString;
-
-		for (; low < descCount && descriptions[low].time == time; low++) {
-			modelDescString = model.findDescrName(descriptions[low].id);
+		StringBuilder s = new StringBuilder();
+		for (int i = first; i < descCount && descriptions[i].time == time; i++) {
+			switch (descriptions[i].type) {
+			case STRING:
+			case NUMBER:
+			case CYCLES:
+				break;
+			default:
+				continue;
+			}
+			
+			String modelDescString = model.findDescrName(descriptions[i].id);
 			if (modelDescString == null) {
-				modelDescString = "String (" + descriptions[low].id + ")";
+				modelDescString = "String (" + descriptions[i].id + ")";
 			}
+			s.append('\n').append(modelDescString).append(" = ");
 			
-			modelDescString = "\n" + modelDescString;
-
-			switch (descriptions[low].type) {
+			switch (descriptions[i].type) {
 			case STRING:
-				modelDescString += " = " + descriptions[low].text;
+				s.append(descriptions[i].text);
 				break;
 			case NUMBER:
-				modelDescString += " = " + (int) descriptions[low].value;
+				s.append((int) descriptions[i].value);
 				break;
-			case CYCLES:
-				modelDescString += " = " + Times.timeToString(descriptions[low].value);
-				break;				
 			default:
-				modelDescString = "";
+				s.append(Times.timeToString(descriptions[i].value));
 			}
-			
-			s += modelDescString;
 		}
-		return s;
+		return s.toString();
 	}
 
 	/**
@@ -598,9 +768,9 @@ public abstract class SampleLine {
 		int pivot;
 		while (low < (high - 1)) {
 			pivot = (low + high) >> 1;
-			if (samples[pivot].time < time) {
+			if (sampleTimes[pivot] < time) {
 				low = pivot;
-			} else if (samples[pivot].time > time) {
+			} else if (sampleTimes[pivot] > time) {
 				high = pivot;
 			} else {
 				return pivot;
@@ -631,11 +801,11 @@ public abstract class SampleLine {
 		double[] result = new double[2];
 		int ff = binarySearch(from);
 		int tt = binarySearch(to);
-		if (samples[tt].time <= to && tt < (sampleCount - 1)) {
+		if (sampleTimes[tt] <= to && tt < (sampleCount - 1)) {
 			tt++;
 		}
-		double newTime = samples[tt].time - samples[ff].time;
-		double newVal = samples[tt].val - samples[ff].val;
+		double newTime = sampleTimes[tt] - sampleTimes[ff];
+		double newVal = sampleVals[tt] - sampleVals[ff];
 		result[0] = newTime;
 		result[1] = newVal;
 		return result;
@@ -693,14 +863,18 @@ public abstract class SampleLine {
 	 	final int endIndex = binarySearch(endTime);
 	 	
 	 	if ((startIndex == 0) && (endIndex == 0)) {
-	 		return (startTime <= samples[0].time) && (endTime >= samples[0].time);
+	 		return (startTime <= sampleTimes[0]) && (endTime >= sampleTimes[0]);
 	 	} else {
 	 		return (startIndex != endIndex);
 	 	}
 	}
 	
 	/**
-	 * Empty method to be overridden by subclasses.
+	 * Calculates the samples added since the line was last calculated, and
+	 * closes the line with samples at the end time. The state of the
+	 * calculation is kept, so that the samples of a growing trace are
+	 * calculated once: after {@link #reopen()}, the next call continues with
+	 * the samples added since.
 	 * 
 	 * @param endTime
 	 *            the end time for the calculation
@@ -708,6 +882,53 @@ public abstract class SampleLine {
 	// MR improve name
 	public abstract void calculate(double endTime);
 
+	/**
+	 * Returns the index of the first sample that was not calculated yet.
+	 * 
+	 * @return the number of samples calculated
+	 */
+	protected final int getCalculatedCount() {
+		return calculatedCount;
+	}
+
+	/**
+	 * Marks all samples as calculated. Called by {@link #calculate(double)}
+	 * before closing the line, so that {@link #reopen()} removes the samples
+	 * added from here on.
+	 */
+	protected final void setCalculated() {
+		calculatedCount = sampleCount;
+		openCount = sampleCount;
+		openMaxValue = maxSampleValue;
+	}
+
+	/**
+	 * Removes the samples closing the line at the end time, so that the
+	 * samples following in a growing trace can be added and calculated.
+	 * Does nothing if the line is not closed.
+	 */
+	public final void reopen() {
+		if (openCount < 0) {
+			return;
+		}
+		sampleCount = openCount;
+		openCount = -1;
+		maxSampleValue = openMaxValue;
+		pyramid = null;
+		occupancy = null;
+		summaryStale = summarized;
+		dropExecutionIndex();
+		reopened();
+	}
+
+	/**
+	 * Restores the state of adding samples to what it was before the line
+	 * was closed. Called by {@link #reopen()}; does nothing by default.
+	 */
+	protected void reopened() {
+		// Only lines changing their state while closing need to restore it
+	}
+
 	/**
 	 * Returns the string containing the name of the line. Overrides
 	 * <code>toString()</code> in <code>java.lang.Object</code>.
@@ -727,8 +948,32 @@ public abstract class SampleLine {
 	 */
 	@Override
 	public final int hashCode() {
-		int hash = (cpu.getID() << HASH_CONSTANT) | id;
-		return hash;
+		final long key = getKey();
+		return (int) (key ^ (key >>> 32));
+	}
+
+	/**
+	 * Returns the key under which the line is looked up in its section. Each
+	 * CPU has its own range of keys, holding all line ids.
+	 * 
+	 * @return the key of the cpu and line ids of the line
+	 */
+	final long getKey() {
+		return getKey(cpu, id);
+	}
+
+	/**
+	 * Returns the key of the lines with the given cpu and line id.
+	 * 
+	 * @param lineCPU
+	 *            the cpu of the lines
+	 * @param lineID
+	 *            the id of the lines
+	 * @return the key, with the cpu id in the high 32 bits and the line id in
+	 *         the low 32 bits
+	 */
+	static long getKey(final SampleCPU lineCPU, final int lineID) {
+		return ((long) lineCPU.getID() << 32) | (lineID & 0xffffffffL);
 	}
 
 	/**
@@ -756,7 +1001,7 @@ public abstract class SampleLine {
 	 * @param value
 	 *            the maximum value
 	 */
-	protected final void setMaxSampleValue(final double value) {
+	public final void setMaxSampleValue(final double value) {
 		maxSampleValue = value;
 	}
 
@@ -766,7 +1011,7 @@ public abstract class SampleLine {
 	 * @param duration
 	 *            the new maximum duration
 	 */
-	protected final void setMaxSampleDuration(final double duration) {
+	public final void setMaxSampleDuration(final double duration) {
 		maxSampleDuration = duration;
 	}
 
@@ -807,7 +1052,7 @@ public abstract class SampleLine {
 	 * 
 	 * @return the description count
 	 */
-	protected final int getDescCount() {
+	public final int getDescCount() {
 		return descCount;
 	}
 
@@ -818,7 +1063,7 @@ public abstract class SampleLine {
 	 *            the index of the description
 	 * @return the description at that index.
 	 */
-	protected final Description getDescription(final int i) {
+	public final Description getDescription(final int i) {
 		return descriptions[i];
 	}
 
@@ -836,18 +1081,205 @@ public abstract class SampleLine {
 	protected final void addOneSample(final SampleType sampleType,
 			final double time, final double value) {
 		if (sampleCount == maxNrSamples) {
-			// MR extract to generic code to grow array
-			maxNrSamples += SAMPLE_ARRAY_INCREASE;
-			Sample[] tmp = new Sample[maxNrSamples];
-			System.arraycopy(samples, 0, tmp, 0, sampleCount);
-			samples = tmp;
+			resizeSamples(grownCapacity(maxNrSamples, MIN_SAMPLE_CAPACITY));
 		}
-		samples[sampleCount] = new Sample(sampleType, time, value);
+		sampleTimes[sampleCount] = time;
+		sampleVals[sampleCount] = value;
+		sampleTypes[sampleCount] = (byte) sampleType.ordinal();
 		if (sampleCount > 0) {
-			maxSampleValue = Math.max(maxSampleValue, samples[sampleCount].val
-					- samples[sampleCount - 1].val);
+			// The increase of a sample added to the open line is taken from
+			// the value the sample before was added with, so that it does not
+			// depend on whether the line was calculated in between
+			final double previous = (openCount < 0) ? addedVal
+					: sampleVals[sampleCount - 1];
+			maxSampleValue = Math.max(maxSampleValue, value - previous);
+		}
+		if (openCount < 0) {
+			addedVal = value;
 		}
 		sampleCount++;
+		pyramid = null;
+		occupancy = null;
+		dropExecutionIndex();
+	}
+
+	/**
+	 * Replaces the samples of the line, for instance by samples that were
+	 * calculated before and stored in a binary trace file. The arrays are
+	 * used as they are, without copying.
+	 * 
+	 * @param times
+	 *            the sample times
+	 * @param vals
+	 *            the sample values
+	 * @param types
+	 *            the ordinals of the sample types
+	 * @throws IllegalArgumentException
+	 *             if the arrays differ in length
+	 */
+	public final void setSamples(final double[] times, final double[] vals,
+			final byte[] types) throws IllegalArgumentException {
+		if (vals.length != times.length || types.length != times.length) {
+			throw new IllegalArgumentException("Sample arrays differ in length");
+		}
+		sampleTimes = times;
+		sampleVals = vals;
+		sampleTypes = types;
+		sampleCount = times.length;
+		maxNrSamples = times.length;
+		pyramid = null;
+		occupancy = null;
+		executionIndex = null;
+	}
+
+	/**
+	 * Replaces the descriptions of the line. The array is used as it is,
+	 * without copying, and must be sorted by time.
+	 * 
+	 * @param descrs
+	 *            the descriptions
+	 */
+	public final void setDescriptions(final Description[] descrs) {
+		descriptions = descrs;
+		descCount = descrs.length;
+		maxNrDesc = descrs.length;
+		descrStrings = null;
+	}
+
+	/**
+	 * Shrinks the sample and description arrays to the number of samples and
+	 * descriptions in the line. Called once the line is complete; adding
+	 * samples afterwards grows the arrays again.
+	 */
+	public final void trimToSize() {
+		if (sampleCount < maxNrSamples) {
+			resizeSamples(sampleCount);
+		}
+		if (descCount < maxNrDesc) {
+			resizeDescriptions(descCount);
+		}
+	}
+
+	/**
+	 * Builds the {@link SamplePyramid} of a value, cycles, memory cycles,
+	 * queue or semaphore line, or the {@link OccupancyPyramid} of a task, ISR
+	 * or agent line, for painting it zoomed out. Called once the line is
+	 * complete; adding samples afterwards drops the pyramid, and reopening
+	 * the line has it built again when it is next asked for.
+	 */
+	public final void buildPyramid() {
+		pyramid = null;
+		occupancy = null;
+		summarized = true;
+		summaryStale = false;
+		switch (type) {
+		case VALUES:
+			pyramid = SamplePyramid.build(this, SamplePyramid.Measure.DIFFERENCE);
+			break;
+		case CYCLES:
+		case MEM_CYCLES:
+			pyramid = SamplePyramid.build(this, SamplePyramid.Measure.RATE);
+			break;
+		case QUEUES:
+			pyramid = SamplePyramid.build(this, SamplePyramid.Measure.QUEUE_LEVEL);
+			break;
+		case SEMAPHORES:
+			pyramid = SamplePyramid.build(this, SamplePyramid.Measure.LEVEL);
+			break;
+		case TASKS:
+		case ISRS:
+		case AGENTS:
+			occupancy = OccupancyPyramid.build(this);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Returns the pyramid built by {@link #buildPyramid()}.
+	 * 
+	 * @return the pyramid, or null if the line has none
+	 */
+	public final SamplePyramid getPyramid() {
+		if (summaryStale) {
+			buildPyramid();
+		}
+		return pyramid;
+	}
+
+	/**
+	 * Returns the occupancy pyramid built by {@link #buildPyramid()}.
+	 * 
+	 * @return the pyramid, or null if the line has none
+	 */
+	public final OccupancyPyramid getOccupancy() {
+		if (summaryStale) {
+			buildPyramid();
+		}
+		return occupancy;
+	}
+
+	/**
+	 * Drops the index of the executions after a change of the samples.
+	 * Reads before writing, as writing the volatile field for every sample
+	 * parsed would slow down parsing.
+	 */
+	private void dropExecutionIndex() {
+		if (executionIndex != null) {
+			executionIndex = null;
+		}
+	}
+
+	/**
+	 * Returns the index of the executions of a task line, building it on the
+	 * first call after the line changed. The line must be calculated.
+	 * 
+	 * @return the index
+	 */
+	public final ExecutionIndex getExecutionIndex() {
+		ExecutionIndex index = executionIndex;
+		if (index == null) {
+			index = ExecutionIndex.build(this);
+			executionIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the capacity to grow an array of the given capacity to.
+	 * 
+	 * @param capacity
+	 *            the current capacity
+	 * @param minCapacity
+	 *            the initial capacity of the array
+	 * @return the new capacity, twice the current one
+	 */
+	private static int grownCapacity(final int capacity, final int minCapacity) {
+		if (capacity >= MAX_ARRAY_SIZE) {
+			throw new OutOfMemoryError("Too many samples in line");
+		}
+		return (int) Math.min(Math.max(2L * capacity, minCapacity), MAX_ARRAY_SIZE);
+	}
+
+	private void resizeSamples(final int capacity) {
+		maxNrSamples = capacity;
+		double[] tmpTimes = new double[capacity];
+		System.arraycopy(sampleTimes, 0, tmpTimes, 0, sampleCount);
+		sampleTimes = tmpTimes;
+		double[] tmpVals = new double[capacity];
+		System.arraycopy(sampleVals, 0, tmpVals, 0, sampleCount);
+		sampleVals = tmpVals;
+		byte[] tmpTypes = new byte[capacity];
+		System.arraycopy(sampleTypes, 0, tmpTypes, 0, sampleCount);
+		sampleTypes = tmpTypes;
+	}
+
+	private void resizeDescriptions(final int capacity) {
+		maxNrDesc = capacity;
+		Description[] tmp = new Description[capacity];
+		System.arraycopy(descriptions, 0, tmp, 0, descCount);
+		descriptions = tmp;
 	}
 
 	/**
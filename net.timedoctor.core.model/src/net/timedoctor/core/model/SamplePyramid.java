@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model;
+
+import java.util.Arrays;
+
+/**
+ * Summarizes the samples of a line at several resolutions, so that a line
+ * can be painted zoomed out without visiting every sample. The time range of
+ * the line is split into a power-of-two number of buckets of equal width.
+ * Each bucket holds the minimum, maximum and last value of the segments
+ * between consecutive samples that overlap it. Every coarser level halves
+ * the number of buckets, up to a single bucket.
+ * <p>
+ * The value of a segment is given by a {@link Measure}, and is independent
+ * of the zoom level and the height of the canvas; painters scale it.
+ */
+public final class SamplePyramid {
+
+	/**
+	 * The value of the segment from sample <code>i - 1</code> to sample
+	 * <code>i</code>.
+	 */
+	public enum Measure {
+		/**
+		 * The value of the sample starting the segment.
+		 */
+		LEVEL,
+		/**
+		 * The filling of a queue, held in the upper 32 bits of the sample
+		 * starting the segment.
+		 */
+		QUEUE_LEVEL,
+		/**
+		 * The increase of the value over the segment.
+		 */
+		DIFFERENCE,
+		/**
+		 * The increase of the value per second over the segment.
+		 */
+		RATE
+	}
+
+	/**
+	 * Lines with fewer samples are cheap to paint sample by sample, and get
+	 * no pyramid.
+	 */
+	public static final int MIN_SAMPLES = 1024;
+
+	/**
+	 * The average number of samples per bucket of the finest level. Zoomed
+	 * in further, painting sample by sample is cheap enough.
+	 */
+	private static final int SAMPLES_PER_BUCKET = 4;
+
+	private final double startTime;
+
+	private final double endTime;
+
+	/**
+	 * The minimum, maximum and last value per bucket, by level. Level 0 is
+	 * the finest.
+	 */
+	private final double[][] mins;
+
+	private final double[][] maxs;
+
+	private final double[][] lasts;
+
+	private final double[] bucketWidths;
+
+	private SamplePyramid(final double start, final double end, final int bucketCount) {
+		startTime = start;
+		endTime = end;
+		int levels = Integer.numberOfTrailingZeros(bucketCount) + 1;
+		mins = new double[levels][];
+		maxs = new double[levels][];
+		lasts = new double[levels][];
+		bucketWidths = new double[levels];
+		for (int level = 0; level < levels; level++) {
+			int count = bucketCount >> level;
+			mins[level] = new double[count];
+			maxs[level] = new double[count];
+			lasts[level] = new double[count];
+			bucketWidths[level] = (end - start) / count;
+		}
+	}
+
+	/**
+	 * Builds the pyramid of a line.
+	 *
+	 * @param line
+	 *            the calculated line
+	 * @param measure
+	 *            the value of the segments of the line
+	 * @return the pyramid, or null if the line has too few samples or no
+	 *         duration
+	 */
+	public static SamplePyramid build(final SampleLine line, final Measure measure) {
+		int count = line.getCount();
+		if (count < MIN_SAMPLES) {
+			return null;
+		}
+		double start = line.getTime(0);
+		double end = line.getTime(count - 1);
+		if (!(end > start)) {
+			return null;
+		}
+
+		SamplePyramid pyramid = new SamplePyramid(start, end,
+				Integer.highestOneBit((count - 1) / SAMPLES_PER_BUCKET));
+		pyramid.fill(line, measure);
+		pyramid.merge();
+		return pyramid;
+	}
+
+	/**
+	 * Fills the finest level with the segments of the line. A segment is
+	 * added to every bucket it overlaps, so that a long segment shows in all
+	 * buckets it spans.
+	 */
+	private void fill(final SampleLine line, final Measure measure) {
+		double[] min = mins[0];
+		double[] max = maxs[0];
+		double[] last = lasts[0];
+		Arrays.fill(min, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		Arrays.fill(last, Double.NaN);
+
+		double width = bucketWidths[0];
+		int lastBucket = min.length - 1;
+		for (int i = 1; i < line.getCount(); i++) {
+			double from = line.getTime(i - 1);
+			double to = line.getTime(i);
+			double value = segmentValue(line, measure, i);
+			if (Double.isNaN(value)) {
+				// An empty segment without a rate
+				continue;
+			}
+			// A sample out of time order may lie outside the buckets
+			int first = Math.max(0,
+					Math.min(lastBucket, (int) Math.floor((from - startTime) / width)));
+			// A segment ending on a bucket boundary does not overlap the
+			// bucket starting there
+			int end = Math.max(first,
+					Math.min(lastBucket, (int) Math.ceil((to - startTime) / width) - 1));
+			for (int b = first; b <= end; b++) {
+				min[b] = Math.min(min[b], value);
+				max[b] = Math.max(max[b], value);
+				last[b] = value;
+			}
+		}
+	}
+
+	/**
+	 * Fills each coarser level from the level below it.
+	 */
+	private void merge() {
+		for (int level = 1; level < mins.length; level++) {
+			double[] min = mins[level];
+			double[] max = maxs[level];
+			double[] last = lasts[level];
+			double[] finerMin = mins[level - 1];
+			double[] finerMax = maxs[level - 1];
+			double[] finerLast = lasts[level - 1];
+			for (int b = 0; b < min.length; b++) {
+				int left = 2 * b;
+				int right = left + 1;
+				min[b] = Math.min(finerMin[left], finerMin[right]);
+				max[b] = Math.max(finerMax[left], finerMax[right]);
+				last[b] = Double.isNaN(finerLast[right]) ? finerLast[left] : finerLast[right];
+			}
+		}
+	}
+
+	private static double segmentValue(final SampleLine line,
+			final Measure measure, final int i) {
+		switch (measure) {
+		case LEVEL:
+			return line.getVal(i - 1);
+		case QUEUE_LEVEL:
+			return (long) line.getVal(i - 1) >> 32;
+		case DIFFERENCE:
+			return line.getVal(i) - line.getVal(i - 1);
+		case RATE:
+			return (line.getVal(i) - line.getVal(i - 1))
+					/ (line.getTime(i) - line.getTime(i - 1));
+		default:
+			throw new IllegalArgumentException("Unknown measure " + measure);
+		}
+	}
+
+	/**
+	 * Returns the coarsest level whose buckets are at most the given
+	 * duration wide.
+	 *
+	 * @param duration
+	 *            the duration of a pixel
+	 * @return the level, or -1 if even the finest buckets are wider
+	 */
+	public int getLevel(final double duration) {
+		int level = -1;
+		while ((level + 1 < bucketWidths.length) && (bucketWidths[level + 1] <= duration)) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * Returns the minimum, maximum and last value of the segments
+	 * overlapping a time range, as far as the buckets of a level tell. The
+	 * result may include segments up to one bucket outside the range.
+	 *
+	 * @param level
+	 *            the level, as returned by {@link #getLevel(double)}
+	 * @param from
+	 *            the start of the range
+	 * @param to
+	 *            the end of the range
+	 * @param minMaxLast
+	 *            receives the minimum, maximum and last value
+	 * @return false if no segment overlaps the range
+	 */
+	public boolean fold(final int level, final double from, final double to,
+			final double[] minMaxLast) {
+		if ((to <= startTime) || (from >= endTime)) {
+			return false;
+		}
+		double width = bucketWidths[level];
+		int lastBucket = mins[level].length - 1;
+		int first = (int) Math.max(0, Math.floor((from - startTime) / width));
+		int end = (int) Math.min(lastBucket, Math.ceil((to - startTime) / width) - 1);
+
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		double last = Double.NaN;
+		for (int b = first; b <= end; b++) {
+			min = Math.min(min, mins[level][b]);
+			max = Math.max(max, maxs[level][b]);
+			if (!Double.isNaN(lasts[level][b])) {
+				last = lasts[level][b];
+			}
+		}
+		if (Double.isNaN(last)) {
+			return false;
+		}
+		minMaxLast[0] = min;
+		minMaxLast[1] = max;
+		minMaxLast[2] = last;
+		return true;
+	}
+}
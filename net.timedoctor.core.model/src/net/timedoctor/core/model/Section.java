@@ -11,7 +11,6 @@
 package net.timedoctor.core.model;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 
 import net.timedoctor.core.model.SampleLine.LineType;
@@ -22,11 +21,6 @@ import net.timedoctor.core.model.SampleLine.LineType;
  * store, retrieve and manipulate the collection.
  */
 public class Section {
-// MR change name, little more clear what a "key" is
-	/**
-	 * Constant equal to 28 for creating lines' lookups keys.
-	 */
-	private static final int KEY_CONSTANT = 28;
 
 	/**
 	 * The model that contains this section.
@@ -41,11 +35,9 @@ public class Section {
 	private ArrayList < SampleLine > lines = new ArrayList < SampleLine > ();
 
 	/**
-	 * HashMap for easy lookup of lines. Uses the integer hash code of the line
-	 * (constructed from line and CPU ids) as the lookup key.
+	 * Table for quick lookup of lines by their CPU and line ids.
 	 */
-	// checkstyle seems to not be updated for J2SE5 type parameterization.
-	private HashMap < Integer, ArrayList < SampleLine > > hash = new HashMap < Integer, ArrayList < SampleLine > > ();
+	private final LineTable table = new LineTable();
 
 	/**
 	 * The type of lines contained in this section.
@@ -140,19 +132,13 @@ public class Section {
 	}
 
 	/**
-	 * Registers a line in this section's HashMap for quick line lookup.
+	 * Registers a line in this section's lookup table for quick line lookup.
 	 * 
 	 * @param line
 	 *            the line to be registered
 	 */
 	public final void registerLine(final SampleLine line) {
-		int key = line.hashCode();
-		ArrayList < SampleLine > lineList = hash.get(key);
-		if (lineList == null) {
-			lineList = new ArrayList < SampleLine > ();
-			hash.put(key, lineList);
-		}
-		lineList.add(line);
+		table.add(line);
 	}
 	
 	/**
@@ -164,10 +150,7 @@ public class Section {
 		boolean success = lines.remove(line);
 		if (success) {
 			line.setSection(null);
-			
-			int key = line.hashCode();
-			ArrayList < SampleLine > lineList = hash.get(key);
-			lineList.remove(line);
+			table.remove(line);
 		}
 	}
 
@@ -185,20 +168,7 @@ public class Section {
 	 */
 	public final SampleLine getLine(final SampleCPU cpu, final int id,
 			final double time) {
-		int key = (cpu.getID() << KEY_CONSTANT) | id;
-		ArrayList < SampleLine > lineList = hash.get(key);
-		// MR hash.get will never return null but create a new entry if the key does not exist?
-		SampleLine activeLine = null;
-		if (lineList != null) {
-			// MR add comment explaining this
-			for (SampleLine line : lineList) {
-				if (line.isValid(time) && cpu.equals(line.getCPU())) {
-					activeLine = line;
-					break;
-				}
-			}
-		}
-		return activeLine;
+		return table.get(SampleLine.getKey(cpu, id), cpu, time);
 	}
 
 	/**
@@ -11,7 +11,9 @@
 package net.timedoctor.core.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Observable;
 
 import net.timedoctor.core.model.SampleLine.LineType;
@@ -37,10 +39,9 @@ public class TraceModel extends Observable {
 	private SectionList sections = new SectionList();
 
 	/**
-	 * ArrayList of all cpus in the model.
+	 * The list of cpus in the model.
 	 */
-	// Checkstyle not updated for type parameterization in J2SE5
-	private ArrayList < SampleCPU > cpus = new ArrayList < SampleCPU > ();
+	private CpuList cpus = new CpuList();
 
 	private HashMap<LineType, Double> maxValueMap = new HashMap<LineType, Double>();
 	
@@ -101,6 +102,15 @@ public class TraceModel extends Observable {
 		return descrNames.get(id);
 	}
 
+	/**
+	 * Returns the description names keyed by description id.
+	 * 
+	 * @return an unmodifiable view of the description names
+	 */
+	public final Map < Integer, String > getDescrNames() {
+		return Collections.unmodifiableMap(descrNames);
+	}
+
 	/**
 	 * @return the list of sections in this model
 	 */
@@ -108,30 +118,31 @@ public class TraceModel extends Observable {
 		return sections;
 	}
 
-	// MR Factor out into CpuList class, including getCpu and multiCpu functions
 	/**
 	 * Returns the ArrayList of cpus.
 	 * 
 	 * @return ArrayList of cpus
 	 */
 	public final ArrayList < SampleCPU > getCPUs() {
+		return cpus.getCPUs();
+	}
+
+	/**
+	 * @return the list of cpus in this model
+	 */
+	public final CpuList getCPUList() {
 		return cpus;
 	}
 
 	/**
-	 * Returns the cpu with the given id from the ArrayList of cpus.
+	 * Returns the cpu with the given id from the list of cpus.
 	 * 
 	 * @param id
 	 *            the id to use in the search
 	 * @return the associated cpu
 	 */
 	public final SampleCPU getCPU(final int id) {
-		for (SampleCPU cpu : cpus) {
-			if (cpu.getID() == id) {
-				return cpu;
-			}
-		}
-		return null;
+		return cpus.get(id);
 	}
 
 	/**
@@ -141,7 +152,6 @@ public class TraceModel extends Observable {
 		return (cpus.size() > 1);
 	}
 
-	// MR move to CpuLIst class
 	/**
 	 * Adds the given cpu to the list of cpus.
 	 * 
@@ -184,7 +194,7 @@ public class TraceModel extends Observable {
 	}
 
 	private void computeMaxClockSpeed() {
-		for (SampleCPU cpu: cpus) {
+		for (SampleCPU cpu: cpus.getCPUs()) {
 			maxClockSpeed = Math.max(maxClockSpeed, cpu.getClocksPerSec());
 		}
 		
@@ -10,19 +10,46 @@
  *******************************************************************************/
 package net.timedoctor.core.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Observable;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * Holds data on the current zoom and offset of trace lines in the view. Extends
  * the observable class in order to be able to automatically update all
  * interested observers when either field changes. Updated by listeners in the
  * view to reflect actions requested by the user.
+ * <p>
+ * Observers are passed the set of {@link Change}s since the previous
+ * notification. If a notifier is set, changes are collected and observers
+ * are notified once the notifier runs the notification, so that a burst of
+ * changes, for example while dragging a slider, notifies them once.
  *
  * @see Observable
  */
 // MR change name, should reflect that it holds more than just zoom data
 public class ZoomModel extends Observable {
 
+	/**
+	 * The kinds of changes observers are notified of.
+	 */
+	public enum Change {
+		/**
+		 * The start or end time of the visible portion changed.
+		 */
+		TIMES,
+		/**
+		 * The time set by the baseline cursor changed.
+		 */
+		SELECT_TIME,
+		/**
+		 * The selected line changed.
+		 */
+		SELECTED_LINE
+	}
+
     /**
      * The initial size of the stacks for storing zoom data to allow for the
      * zoom back feature.
@@ -76,6 +103,17 @@ public class ZoomModel extends Observable {
     private SampleLine selectedLine =  null;
 
 	private int pixeslsWidth = -1;
+
+	/**
+	 * Runs the notification of collected changes, or null to notify
+	 * observers on every change.
+	 */
+	private Executor notifier = null;
+
+	/**
+	 * The changes since the previous notification.
+	 */
+	private EnumSet<Change> pendingChanges = EnumSet.noneOf(Change.class);
     
     /**
      * Sets the zoom and updates all observers with the new value.
@@ -87,8 +125,7 @@ public class ZoomModel extends Observable {
     	if (time != startTime) {
     		this.startTime = time;
     		updateTimeDisplayAccuracy();
-    		setChanged();
-    		notifyObservers();
+    		fireChange(Change.TIMES);
     	}
     }
 
@@ -102,16 +139,14 @@ public class ZoomModel extends Observable {
         if (time != endTime) {
         	this.endTime = time;
         	updateTimeDisplayAccuracy();
-        	setChanged();
-        	notifyObservers();
+        	fireChange(Change.TIMES);
         }
     }
 
     public final void setSelectTime(final double time) {
     	if (time != selectTime) {
     		this.selectTime = time;
-    		setChanged();
-    		notifyObservers();
+    		fireChange(Change.SELECT_TIME);
     	}
     }
 
@@ -134,8 +169,7 @@ public class ZoomModel extends Observable {
 			this.startTime = start;
 			this.endTime = end;
 			updateTimeDisplayAccuracy();
-			setChanged();
-			notifyObservers();
+			fireChange(Change.TIMES);
 		}
     }
 
@@ -265,8 +299,61 @@ public class ZoomModel extends Observable {
 	
 	public void setSelectedLine(SampleLine line) {
 		this.selectedLine = line;
+		fireChange(Change.SELECTED_LINE);
+	}
+	
+	/**
+	 * Sets the executor running the notification of collected changes. The
+	 * notification must run on the thread changing the model.
+	 * 
+	 * @param notifier
+	 *            the executor, or null to notify observers on every change
+	 */
+	public final void setNotifier(final Executor notifier) {
+		flushChanges();
+		this.notifier = notifier;
+	}
+
+	/**
+	 * Notifies observers of the changes collected since the previous
+	 * notification, if any.
+	 */
+	public final void flushChanges() {
+		if (pendingChanges.isEmpty()) {
+			return;
+		}
+		Set<Change> changes = Collections.unmodifiableSet(pendingChanges);
+		pendingChanges = EnumSet.noneOf(Change.class);
 		setChanged();
-		notifyObservers();
+		notifyObservers(changes);
+	}
+
+	/**
+	 * Returns whether the data passed to observers includes a change.
+	 * 
+	 * @param data
+	 *            the data passed to {@link java.util.Observer#update}
+	 * @param change
+	 *            the kind of change
+	 * @return true if the change is included, or if the data is not a set
+	 *         of changes
+	 */
+	public static boolean isChanged(final Object data, final Change change) {
+		return !(data instanceof Set) || ((Set<?>) data).contains(change);
+	}
+
+	private void fireChange(final Change change) {
+		boolean scheduled = !pendingChanges.isEmpty();
+		pendingChanges.add(change);
+		if (notifier == null) {
+			flushChanges();
+		} else if (!scheduled) {
+			notifier.execute(new Runnable() {
+				public void run() {
+					flushChanges();
+				}
+			});
+		}
 	}
 	
 	public SampleLine getSelectedLine() {
@@ -12,7 +12,6 @@ package net.timedoctor.core.model.lines;
 
 import net.timedoctor.core.model.SampleCPU;
 import net.timedoctor.core.model.SampleLine;
-import net.timedoctor.core.model.Description.DescrType;
 import net.timedoctor.core.model.Sample.SampleType;
 
 /**
@@ -27,6 +26,11 @@ public class AgentSampleLine extends SampleLine {
      */
     private int suspendCount = 0;
 
+    /**
+     * The state of calculate, kept for the samples added after reopening.
+     */
+    private final OpenExecutions open = new OpenExecutions();
+
     /**
      * Constructor takes a cpu and integer id and constructs and AgentSampleLine
      * using them. Sets its own type and section.
@@ -49,67 +53,53 @@ public class AgentSampleLine extends SampleLine {
      */
     @Override
     public final void calculate(final double endTime) {
-        int[] clr = new int[getCount() + 1];
-        int[] st = new int[getCount() + 1];
+        reopen();
         if (getName() == null) {
             setName(String.format("Agent 0x%x", getID()));
         }
-        int n = 0;
-        setMaxSampleDuration(0);
-        for (int i = 0, ii = 0; i < getCount(); i++) {
-            if (getSample(i).type == SampleType.START) {
-                clr[n] = -1;
-                for (; ii < getDescCount(); ii++) {
-                    if (getDescription(ii).time >= getSample(i).time) {
-                        break;
-                    }
-                }
-                for (; ii < getDescCount(); ii++) {
-                    if (getDescription(ii).time == getSample(i).time) {
-                        if (getDescription(ii).type == DescrType.COLOR) {
-                            clr[n] = (int) getDescription(ii).value;
-                        }
-                    } else {
-                        break;
-                    }
-                }
-                st[n++] = i;
-            } else if (getSample(i).type == SampleType.SUSPEND) {
-                if (n > 0) {
-                    clr[n] = clr[n - 1];
-                } else {
-                    clr[n] = -1;
-                }
-                st[n++] = i;
-            } else if (getSample(i).type == SampleType.STOP
-                    || getSample(i).type == SampleType.RESUME) {
-                if (n > 0) {
-                    n--;
-                    int j = st[n];
-                    getSample(j).val = i;
-                    getSample(i).val = clr[n];
-                    if (getSample(i).type == SampleType.STOP) {
+        
+        final int first = getCalculatedCount();
+        if (first == 0) {
+            setMaxSampleDuration(0);
+        } else {
+            open.reopen(this, first);
+        }
+        for (int i = first; i < getCount(); i++) {
+            if (getSampleType(i) == SampleType.START) {
+                open.start(this, i);
+            } else if (getSampleType(i) == SampleType.SUSPEND) {
+                open.push(i, open.getColor());
+            } else if (getSampleType(i) == SampleType.STOP
+                    || getSampleType(i) == SampleType.RESUME) {
+                if (open.size() > 0) {
+                    final int color = open.getColor();
+                    int j = open.pop();
+                    setVal(j, i);
+                    setVal(i, color);
+                    if (getSampleType(i) == SampleType.STOP) {
                         setMaxSampleDuration(Math.max(getMaxSampleDuration(),
-                                getSample(i).time - getSample(j).time));
+                                getTime(i) - getTime(j)));
                     }
                 }
             }
         }
+        setCalculated();
+        
         /*
          * Add samples at end time to conclude still open task
          */
-        for (n--; n >= 0; n--) {
-            if (getSample(st[n]).type == SampleType.START) {
+        for (int k = open.size() - 1; k >= 0; k--) {
+            if (getSampleType(open.getSample(k)) == SampleType.START) {
                 addSample(SampleType.STOP, endTime);
             } else {
                 while (suspendCount > 0) {
                     addSample(SampleType.RESUME, endTime);
                 }
             }
-            getSample(st[n]).val = getCount() - 1;
+            setVal(open.getSample(k), getCount() - 1);
         }
         if (getCount() > 0) {
-            addSample(SampleType.END, endTime, getSample(getCount() - 1).val);
+            addSample(SampleType.END, endTime, getVal(getCount() - 1));
         } else {
             addSample(SampleType.END, endTime);
         }
@@ -139,16 +129,16 @@ public class AgentSampleLine extends SampleLine {
 			return true;
 		} else {
 			//startIndex is same as endIndex
-			if (getSample(startIndex).type == SampleType.STOP
-					|| getSample(startIndex).type == SampleType.END) {
+			if (getSampleType(startIndex) == SampleType.STOP
+					|| getSampleType(startIndex) == SampleType.END) {
 				// No samples in between and the last sample before startTime is a stop
 				return false;
 			}
 
-			double startIndexTime = getSample(startIndex).time;
+			double startIndexTime = getTime(startIndex);
 			double nextIndexTime;
 			try {
-				nextIndexTime = getSample(startIndex + 1).time;
+				nextIndexTime = getTime(startIndex + 1);
 			} catch (IndexOutOfBoundsException e) {
 				return false;
 			}
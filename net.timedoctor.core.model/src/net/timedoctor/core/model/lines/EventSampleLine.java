@@ -19,6 +19,12 @@ import net.timedoctor.core.model.Sample.SampleType;
  */
 public class EventSampleLine extends SampleLine {
 
+	/**
+	 * The sequence number of the last event, kept for the samples added
+	 * after reopening.
+	 */
+	private int n = 0;
+
 	/**
 	 * Constructs a line with the given cpu and id, setting the type and adding
 	 * it to the appropriate section.
@@ -37,22 +43,24 @@ public class EventSampleLine extends SampleLine {
 	 */
 	@Override
 	public final void calculate(final double endTime) {
+		reopen();
 		if (getName() == null) {
 			setName(String.format("Event 0x%x", getID()));
 		}
 		/*
 		 * Value on start/stop is event sequence number.
 		 */
-		for (int i = 0, n = 0; i < getCount(); i++) {
-			if (getSample(i).type == SampleType.START) {
+		for (int i = getCalculatedCount(); i < getCount(); i++) {
+			if (getSampleType(i) == SampleType.START) {
 				n++;
-				getSample(i).val = n;
-			} else if (getSample(i).type == SampleType.STOP) {
-				getSample(i).val = n;
+				setVal(i, n);
+			} else if (getSampleType(i) == SampleType.STOP) {
+				setVal(i, n);
 			}
 		}
+		setCalculated();
 		if (getCount() > 0) {
-			addSample(SampleType.END, endTime, getSample(getCount() - 1).val);
+			addSample(SampleType.END, endTime, getVal(getCount() - 1));
 		} else {
 			addSample(SampleType.END, endTime);
 		}
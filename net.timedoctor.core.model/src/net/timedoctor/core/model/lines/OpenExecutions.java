@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model.lines;
+
+import java.util.Arrays;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Description.DescrType;
+import net.timedoctor.core.model.Sample.SampleType;
+
+/**
+ * The state of calculating a task, ISR or agent line, kept for the samples
+ * added after the line is reopened: the indices of the open start and
+ * suspend samples, the colors of their executions, and the next description
+ * of the line to look at for a color.
+ */
+final class OpenExecutions {
+
+	/**
+	 * The initial number of open samples held while calculating.
+	 */
+	private static final int INITIAL_DEPTH = 4;
+
+	private int[] samples = new int[INITIAL_DEPTH];
+
+	private int[] colors = new int[INITIAL_DEPTH];
+
+	private int count = 0;
+
+	private int nextDescr = 0;
+
+	/**
+	 * @return the number of open samples
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * @param k
+	 *            the depth of the open sample, from the first one opened
+	 * @return the index of the open sample in the line
+	 */
+	int getSample(final int k) {
+		return samples[k];
+	}
+
+	/**
+	 * @return the color of the execution opened last, or -1 if there is none
+	 *         or it has no color
+	 */
+	int getColor() {
+		return (count > 0) ? colors[count - 1] : -1;
+	}
+
+	/**
+	 * Pushes an open start or suspend sample.
+	 *
+	 * @param i
+	 *            the index of the sample
+	 * @param color
+	 *            the color of the execution, or -1
+	 */
+	void push(final int i, final int color) {
+		if (count == samples.length) {
+			samples = Arrays.copyOf(samples, 2 * count);
+			colors = Arrays.copyOf(colors, 2 * count);
+		}
+		colors[count] = color;
+		samples[count++] = i;
+	}
+
+	/**
+	 * Pops the sample opened last.
+	 *
+	 * @return the index of the sample
+	 */
+	int pop() {
+		return samples[--count];
+	}
+
+	/**
+	 * Pushes a start sample with the color described at its time.
+	 *
+	 * @param line
+	 *            the line of the sample
+	 * @param i
+	 *            the index of the sample
+	 */
+	void start(final SampleLine line, final int i) {
+		push(i, findColor(line, line.getTime(i), -1));
+	}
+
+	/**
+	 * Looks again for the color of the start sample calculated last, if it is
+	 * still open, as its descriptions may follow it in the file and be added
+	 * after the line was calculated.
+	 *
+	 * @param line
+	 *            the line being calculated again
+	 * @param first
+	 *            the index of the first sample not calculated yet
+	 */
+	void reopen(final SampleLine line, final int first) {
+		if ((count > 0) && (samples[count - 1] == first - 1)
+				&& (line.getSampleType(first - 1) == SampleType.START)) {
+			colors[count - 1] = findColor(line, line.getTime(first - 1),
+					colors[count - 1]);
+		}
+	}
+
+	/**
+	 * Finds the color description at the time of a start sample. The
+	 * descriptions are visited once, in the order of the samples.
+	 *
+	 * @param line
+	 *            the line of the sample
+	 * @param time
+	 *            the time of the start sample
+	 * @param found
+	 *            the color found among the descriptions visited before
+	 * @return the color, or the color found before if there is none
+	 */
+	private int findColor(final SampleLine line, final double time, final int found) {
+		int color = found;
+		for (; nextDescr < line.getDescCount(); nextDescr++) {
+			if (line.getDescription(nextDescr).time >= time) {
+				break;
+			}
+		}
+		for (; nextDescr < line.getDescCount(); nextDescr++) {
+			if (line.getDescription(nextDescr).time == time) {
+				if (line.getDescription(nextDescr).type == DescrType.COLOR) {
+					color = (int) line.getDescription(nextDescr).value;
+				}
+			} else {
+				break;
+			}
+		}
+		return color;
+	}
+}
@@ -73,11 +73,13 @@ public class PortSampleLine extends SampleLine {
 	 */
 	@Override
 	public final void calculate(final double endTime) {
+		reopen();
 		if (getName() == null) {
 			setName(String.format("Port 0x%x", getID()));
 		}
+		setCalculated();
 		if (getCount() > 0) {
-			addSample(SampleType.END, endTime, getSample(getCount() - 1).val);
+			addSample(SampleType.END, endTime, getVal(getCount() - 1));
 		} else {
 			addSample(SampleType.END, endTime);
 		}
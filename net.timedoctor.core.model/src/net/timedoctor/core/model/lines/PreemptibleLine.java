@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model.lines;
+
+/**
+ * A line that can be suspended and resumed by other lines, such as tasks and
+ * ISRs. Exposes the state kept while adding samples, so that the parser only
+ * needs to send suspend and resume samples to lines that are started.
+ */
+public interface PreemptibleLine {
+
+	/**
+	 * @return true if the line has been started and not stopped since
+	 */
+	boolean isStarted();
+
+	/**
+	 * @return true if the line has been suspended and not resumed since
+	 */
+	boolean isSuspended();
+}
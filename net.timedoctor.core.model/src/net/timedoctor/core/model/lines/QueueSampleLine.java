@@ -10,6 +10,8 @@
  *******************************************************************************/
 package net.timedoctor.core.model.lines;
 
+import java.util.Arrays;
+
 import net.timedoctor.core.model.SampleCPU;
 import net.timedoctor.core.model.SampleLine;
 import net.timedoctor.core.model.Sample.SampleType;
@@ -25,6 +27,26 @@ public class QueueSampleLine extends SampleLine {
 	 */
 	private static final long FIFO_CONSTANT = 0x100000000L;
 
+	/**
+	 * The initial number of writes held while calculating.
+	 */
+	private static final int INITIAL_WRITES = 16;
+
+	/**
+	 * The state of the fifo, kept for the samples added after reopening:
+	 * the indices of the samples of the writes from nr up to nw that were not
+	 * read yet, the filling and its maximum.
+	 */
+	private int[] st = new int[INITIAL_WRITES];
+
+	private int nr = 0;
+
+	private int nw = 0;
+
+	private int m = 0;
+
+	private int maxFilling = 0;
+
 	/**
 	 * QueueSampleLine constructor. Calls the parent constructor to set cpu and
 	 * id values, then sets its type.
@@ -62,17 +84,18 @@ public class QueueSampleLine extends SampleLine {
 	 */
 	@Override
 	public final void calculate(final double endTime) {
-		int[] st = new int[getCount() + 1];
+		reopen();
 		if (getName() == null) {
 			setName(String.format("Queue 0x%x", getID()));
 		}
-		setMaxSampleDuration(0);
+		if (getCalculatedCount() == 0) {
+			setMaxSampleDuration(0);
+		}
 		/*
 		 * Value on start/stop is number of matching queue commands and
 		 * queue size after comment
 		 */
-		setMaxSampleValue(0);
-		for (int i = 0, nr = 0, nw = 0, m = 0; i < getCount(); i++) {
+		for (int i = getCalculatedCount(); i < getCount(); i++) {
 
 			/*
 			 * m = current fifo of the fifo. nr = number of reads so far. nw =
@@ -81,30 +104,51 @@ public class QueueSampleLine extends SampleLine {
 			 * the index of the sample with the write that corresponds to the
 			 * current read.
 			 */
-			if (getSample(i).type == SampleType.START) {
-				m += (int) getSample(i).val;
-				setMaxSampleValue(Math.max(m, getMaxSampleValue()));
-				st[nw] = i;
-				nw = (nw + 1) % getCount();
-				getSample(i).val = m * (double) FIFO_CONSTANT;
-			} else if (getSample(i).type == SampleType.STOP) {
-				m = Math.max(0, m - (int) getSample(i).val);
+			if (getSampleType(i) == SampleType.START) {
+				m += (int) getVal(i);
+				maxFilling = Math.max(m, maxFilling);
+				write(i);
+				setVal(i, m * (double) FIFO_CONSTANT);
+			} else if (getSampleType(i) == SampleType.STOP) {
+				m = Math.max(0, m - (int) getVal(i));
 				if (nr == nw) {
-					getSample(i).val = m * (double) FIFO_CONSTANT;
+					setVal(i, m * (double) FIFO_CONSTANT);
 				} else {
 					int j = st[nr]; // index of sample of write action that
 					// corresponds to this read
-					nr = (nr + 1) % getCount();
-					getSample(i).val = m * (double) FIFO_CONSTANT + j;
-					getSample(j).val += i;
+					nr++;
+					setVal(i, m * (double) FIFO_CONSTANT + j);
+					setVal(j, getVal(j) + i);
 				}
 			}
 		}
+		setMaxSampleValue(maxFilling);
+		setCalculated();
 		if (getCount() > 0) {
-			addSample(SampleType.END, endTime, getSample(getCount() - 1).val);
+			addSample(SampleType.END, endTime, getVal(getCount() - 1));
 		} else {
 			addSample(SampleType.END, endTime);
 		}
 	}
 
+	/**
+	 * Adds a write to the writes that were not read yet, moving them to the
+	 * start of the array or growing it when it is full.
+	 * 
+	 * @param i
+	 *            the index of the sample of the write
+	 */
+	private void write(final int i) {
+		if (nw == st.length) {
+			if (nr > 0) {
+				System.arraycopy(st, nr, st, 0, nw - nr);
+				nw -= nr;
+				nr = 0;
+			} else {
+				st = Arrays.copyOf(st, 2 * nw);
+			}
+		}
+		st[nw++] = i;
+	}
+
 }
@@ -20,6 +20,14 @@ import net.timedoctor.core.model.Sample.SampleType;
  */
 public class SemaphoreSampleLine extends SampleLine {
 
+	/**
+	 * The number of open semaphores and its maximum, kept for the samples
+	 * added after reopening.
+	 */
+	private int n = 0;
+
+	private int maxLevel = 0;
+
 	/**
 	 * Constructs a sample line of type semaphore using the given cpu and id.
 	 * 
@@ -37,26 +45,28 @@ public class SemaphoreSampleLine extends SampleLine {
 	 */
 	@Override
 	public final void calculate(final double endTime) {
+		reopen();
 		if (getName() == null) {
 			setName(String.format("Semaphore 0x%x", getID()));
 		}
 		/*
 		 * Value on start/stop is number of open semaphores
 		 */
-		setMaxSampleValue(0);
-		for (int i = 0, n = 0; i < getCount(); i++) {
-			if (getSample(i).type == SampleType.START) {
+		for (int i = getCalculatedCount(); i < getCount(); i++) {
+			if (getSampleType(i) == SampleType.START) {
 				n++;
-				getSample(i).val = n;
-				setMaxSampleValue(Math.max(getMaxSampleValue(), n));
-			} else if (getSample(i).type == SampleType.STOP) {
-				setMaxSampleValue(Math.max(getMaxSampleValue(), n));
+				setVal(i, n);
+				maxLevel = Math.max(maxLevel, n);
+			} else if (getSampleType(i) == SampleType.STOP) {
+				maxLevel = Math.max(maxLevel, n);
 				n = Math.max(0, n - 1);
-				getSample(i).val = n;
+				setVal(i, n);
 			}
 		}
+		setMaxSampleValue(maxLevel);
+		setCalculated();
 		if (getCount() > 0) {
-			addSample(SampleType.END, endTime, getSample(getCount() - 1).val);
+			addSample(SampleType.END, endTime, getVal(getCount() - 1));
 		} else {
 			addSample(SampleType.END, endTime);
 		}
@@ -12,14 +12,13 @@ package net.timedoctor.core.model.lines;
 
 import net.timedoctor.core.model.SampleCPU;
 import net.timedoctor.core.model.SampleLine;
-import net.timedoctor.core.model.Description.DescrType;
 import net.timedoctor.core.model.Sample.SampleType;
 
 /**
  * Sample line for tasks. Overrides much of the SampleLine implementation for
  * type-specific functionality.
  */
-public class TaskSampleLine extends SampleLine {
+public class TaskSampleLine extends SampleLine implements PreemptibleLine {
 
 	/**
 	 * Variable for use in adding samples, to track the state of the sample
@@ -31,6 +30,19 @@ public class TaskSampleLine extends SampleLine {
 	 */
 	private int suspendCount = 0;
 
+	/**
+	 * The adding state when the line was closed, restored when it is
+	 * reopened.
+	 */
+	private int closedStartCount = 0;
+
+	private int closedSuspendCount = 0;
+
+	/**
+	 * The state of calculate, kept for the samples added after reopening.
+	 */
+	private final OpenExecutions open = new OpenExecutions();
+
 	/**
 	 * Constructs a task sample line using the given cpu and id, and adds it to
 	 * the tasks section of the model (creating it if it does not exist).
@@ -110,6 +122,20 @@ public class TaskSampleLine extends SampleLine {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public final boolean isStarted() {
+		return startCount > 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public final boolean isSuspended() {
+		return suspendCount > 0;
+	}
+
 	// MR explain what it does!
 	/**
 	 * Implements the abstract calculate function from superclass.
@@ -119,77 +145,72 @@ public class TaskSampleLine extends SampleLine {
 	 */
 	@Override
 	public final void calculate(final double endTime) {
-		int[] clr = new int[getCount() + 1];
-		int[] st = new int[getCount() + 1];
+		reopen();
 		// MR extract (generic) method
 		if (getName() == null) {
 			setName(String.format("Task 0x%x", getID()));
 		}
 		
 		// MR add comments, extract sub methods
-		int n = 0;
-		setMaxSampleDuration(0);
-		for (int i = 0, ii = 0; i < getCount(); i++) {
-			if (getSample(i).type == SampleType.START) {
-				clr[n] = -1;
-				for (; ii < getDescCount(); ii++) {
-					if (getDescription(ii).time >= getSample(i).time) {
-						break;
-					}
-				}
-				for (; ii < getDescCount(); ii++) {
-					if (getDescription(ii).time == getSample(i).time) {
-						if (getDescription(ii).type == DescrType.COLOR) {
-							clr[n] = (int) getDescription(ii).value;
-						}
-					} else {
-						break;
-					}
-				}
-				st[n++] = i;
-			} else if (getSample(i).type == SampleType.SUSPEND) {
-				if (n > 0) {
-					clr[n] = clr[n - 1];
-				} else {
-					clr[n] = -1;
-				}
-				st[n++] = i;
-			} else if (getSample(i).type == SampleType.STOP
-					|| getSample(i).type == SampleType.RESUME) {
-				if (n > 0) {
-					n--;
-					int j = st[n];
-					getSample(j).val = i;
-					getSample(i).val = clr[n];
-					if (getSample(i).type == SampleType.STOP) {
+		final int first = getCalculatedCount();
+		if (first == 0) {
+			setMaxSampleDuration(0);
+		} else {
+			open.reopen(this, first);
+		}
+		for (int i = first; i < getCount(); i++) {
+			if (getSampleType(i) == SampleType.START) {
+				open.start(this, i);
+			} else if (getSampleType(i) == SampleType.SUSPEND) {
+				open.push(i, open.getColor());
+			} else if (getSampleType(i) == SampleType.STOP
+					|| getSampleType(i) == SampleType.RESUME) {
+				if (open.size() > 0) {
+					final int color = open.getColor();
+					int j = open.pop();
+					setVal(j, i);
+					setVal(i, color);
+					if (getSampleType(i) == SampleType.STOP) {
 						setMaxSampleDuration(Math.max(getMaxSampleDuration(),
-								getSample(i).time - getSample(j).time));
+								getTime(i) - getTime(j)));
 					}
 				}
 			}
 		}
+		setCalculated();
+		closedStartCount = startCount;
+		closedSuspendCount = suspendCount;
 		
 		// MR extract method
 		/*
 		 * Add samples at end time to conclude still open task
 		 */
-		for (n--; n >= 0; n--) {
-			if (getSample(st[n]).type == SampleType.START) {
+		for (int k = open.size() - 1; k >= 0; k--) {
+			if (getSampleType(open.getSample(k)) == SampleType.START) {
 				addSample(SampleType.STOP, endTime);
 			} else {
 				while (suspendCount > 0) {
 					addSample(SampleType.RESUME, endTime);
 				}
 			}
-			getSample(st[n]).val = getCount() - 1;
+			setVal(open.getSample(k), getCount() - 1);
 		}
 		if (getCount() > 0) {
-			addSample(SampleType.END, endTime, getSample(getCount() - 1).val);
+			addSample(SampleType.END, endTime, getVal(getCount() - 1));
 		} else {
 			addSample(SampleType.END, endTime);
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected final void reopened() {
+		startCount = closedStartCount;
+		suspendCount = closedSuspendCount;
+	}
+
 	/**
 	 * Determines whether or not the line has samples within the given time
 	 * window.
@@ -214,17 +235,17 @@ public class TaskSampleLine extends SampleLine {
 			return true;
 		} else {
 			// startIndex is same as endIndex
-			if (getSample(startIndex).type == SampleType.STOP
-					|| getSample(startIndex).type == SampleType.END) {
+			if (getSampleType(startIndex) == SampleType.STOP
+					|| getSampleType(startIndex) == SampleType.END) {
 				// No samples in between and the last sample before startTime is
 				// a stop
 				return false;
 			}
 
-			double startIndexTime = getSample(startIndex).time;
+			double startIndexTime = getTime(startIndex);
 			double nextIndexTime;
 			try {
-				nextIndexTime = getSample(startIndex + 1).time;
+				nextIndexTime = getTime(startIndex + 1);
 			} catch (IndexOutOfBoundsException e) {
 				return false;
 			}
@@ -26,6 +26,14 @@ public class ValueSampleLine extends SampleLine {
 	 */
 	private static final long OVERFLOW_CONSTANT = 0x100000000L;
 
+	/**
+	 * The last value and the correction for the overflows so far, kept for
+	 * the samples added after reopening.
+	 */
+	private double val = 0;
+
+	private double baseVal = 0;
+
 	/**
 	 * Constructs and value sample line using the given cpu and id.
 	 * 
@@ -47,25 +55,25 @@ public class ValueSampleLine extends SampleLine {
 	 */
 	@Override
 	public final void calculate(final double endTime) {
+		reopen();
 		if (getName() == null) {
 			setName(String.format("Value 0x%x", getID()));
 		}
-		double val = 0;
-		double baseVal = 0;
 
 		/*
 		 * Correct for 32-bit overflows (is this necessary in Java?)
 		 */
-		for (int i = 0; i < getCount(); i++) {
-			getSample(i).val += baseVal;
-			if (getSample(i).val < val) {
+		for (int i = getCalculatedCount(); i < getCount(); i++) {
+			setVal(i, getVal(i) + baseVal);
+			if (getVal(i) < val) {
 				baseVal += OVERFLOW_CONSTANT;
-				getSample(i).val += OVERFLOW_CONSTANT;
+				setVal(i, getVal(i) + OVERFLOW_CONSTANT);
 			}
-			val = getSample(i).val;
+			val = getVal(i);
 		}
+		setCalculated();
 		if (getCount() > 0) {
-			addSample(SampleType.END, endTime, getSample(getCount() - 1).val);
+			addSample(SampleType.END, endTime, getVal(getCount() - 1));
 		} else {
 			addSample(SampleType.END, endTime);
 		}
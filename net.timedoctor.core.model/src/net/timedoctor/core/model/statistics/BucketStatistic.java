@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model.statistics;
+
+import net.timedoctor.core.model.Times;
+
+/**
+ * The number of executions in one bucket of the histogram of a
+ * {@link DistributionStatistic}.
+ */
+public class BucketStatistic extends Statistic {
+	private final long nExecutions;
+	private final double share;
+
+	BucketStatistic(final DistributionStatistic parent,
+			final int bucket,
+			final long nExecutions,
+			final long nTotal) {
+		super(parent, getBucketName(bucket));
+		this.nExecutions = nExecutions;
+		this.share = (nTotal == 0) ? 0d : (double) nExecutions / nTotal;
+	}
+
+	private static String getBucketName(final int bucket) {
+		double lowerBound = Histogram.getLowerBound(bucket);
+		double upperBound = Histogram.getUpperBound(bucket);
+		if (Double.isInfinite(upperBound)) {
+			return ">= " + Times.timeToString(lowerBound);
+		}
+		return Times.timeToString(lowerBound, upperBound) 
+				+ " - " + Times.timeToString(upperBound);
+	}
+	
+	/**
+	 * @return the number of executions in the bucket
+	 */
+	public long getNExecutions() {
+		return nExecutions;
+	}
+	
+	/**
+	 * @return the fraction of all executions in the bucket
+	 */
+	public double getShare() {
+		return share;
+	}
+}
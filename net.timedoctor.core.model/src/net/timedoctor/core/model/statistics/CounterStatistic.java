@@ -10,11 +10,12 @@
  *******************************************************************************/
 package net.timedoctor.core.model.statistics;
 
+import net.timedoctor.core.model.ExecutionIndex;
 import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.ExecutionIndex.Series;
 
 public class CounterStatistic extends Statistic {
 	private SampleLine line;
-	private int index = 0;
 	
 	// Setup of the window
 	double windowStartTime;
@@ -24,11 +25,13 @@ public class CounterStatistic extends Statistic {
 	private double minCountVal;
 	private double totalCountVal;
 	private double maxCountVal;
+	private int nExecutions;
 	
-	// Counters per task execution 
-	private double execCountVal;
-	private double windowExecCountVal;
-	private int nExecutions;	
+	// Counted value per task execution, for the executions of the index, 
+	// and the number of counter samples they were counted from
+	private ExecutionIndex executionIndex = null;
+	private int lineCount = 0;
+	private Series execCountVals = null;
 		
 	public CounterStatistic(final Statistic parent, final SampleLine line) {
 		super(parent, line.getName());
@@ -81,55 +84,101 @@ public class CounterStatistic extends Statistic {
 	}
 
 	/**
-	 * (re-)initialize all counters for a new time window.
+	 * Calculate the counter statistics of a range of task executions 
+	 * in a time window. The value counted per execution is kept, so that 
+	 * only the executions at the ends of the window are counted again.
 	 * 
-	 * @param firstStartTime start time at which to look for the first sample.
-	 * 		Note: this may be before the start time of the window.
+	 * @param index index of the executions of the task
+	 * @param first index of the first execution
+	 * @param end index after the last execution
+	 * @param windowStartTime start of the window
+	 * @param windowEndTime end of the window
 	 */
-	@Override
-	public void init(final double firstSampleTime, 
+	public void calculate(final ExecutionIndex index,
+			final int first,
+			final int end,
 			final double windowStartTime,
 			final double windowEndTime) {
-		index = line.binarySearch(firstSampleTime);
-		
 		this.windowStartTime = windowStartTime;
 		this.windowEndTime = windowEndTime;
 		
-		minCountVal = Double.MAX_VALUE;
-		maxCountVal = 0d;
-		totalCountVal = 0d;
-
-		execCountVal = 0d;
-		windowExecCountVal = 0d;
+		if ((index != executionIndex) || (line.getCount() != lineCount)) {
+			countExecutions(index);
+		}
+		
+		nExecutions = end - first;
+		minCountVal = execCountVals.getMin(first, end);
+		maxCountVal = execCountVals.getMax(first, end);
+		totalCountVal = execCountVals.getSum(first, end);
 		
-		nExecutions = 0;
+		// Only the executions at the ends of the window may run 
+		// partly outside it
+		if (nExecutions > 0) {
+			totalCountVal += clipExecution(index, first);
+		}
+		if (nExecutions > 1) {
+			totalCountVal += clipExecution(index, end - 1);
+		}
+	}
+	
+	/**
+	 * Count the value of every task execution.
+	 */
+	private void countExecutions(final ExecutionIndex index) {
+		double[] values = new double[index.getCount()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = countExecution(index, i, index.getStartTime(i), index.getEndTime(i));
+		}
+		execCountVals = new Series(values, values.length);
+		executionIndex = index;
+		lineCount = line.getCount();
+	}
+	
+	/**
+	 * Return the difference between the value counted for a task execution 
+	 * within the window and the value counted for the whole execution.
+	 */
+	private double clipExecution(final ExecutionIndex index, final int i) {
+		if ((index.getStartTime(i) >= windowStartTime) && (index.getEndTime(i) <= windowEndTime)) {
+			return 0d;
+		}
+		return countExecution(index, i, windowStartTime, windowEndTime) - execCountVals.get(i);
 	}
 	
 	/**
-	 * Update counter statistics for given active slice of task execution.
+	 * Return the value counted in the active slices of a task execution,
+	 * restricted to a time window.
+	 */
+	private double countExecution(final ExecutionIndex index, 
+			final int i,
+			final double clipStartTime,
+			final double clipEndTime) {
+		double countVal = 0d;
+		for (int j = index.getFirstActive(i); j < index.getFirstActive(i + 1); j++) {
+			double activeStartTime = Math.max(index.getActiveStartTime(j), clipStartTime);
+			double activeEndTime = Math.min(index.getActiveEndTime(j), clipEndTime);
+			if (activeStartTime <= activeEndTime) {
+				countVal += count(activeStartTime, activeEndTime);
+			}
+		}
+		return countVal;
+	}
+	
+	/**
+	 * Return the value counted in an active slice of a task execution.
 	 * 
 	 * @param activeStartTime 
 	 * 		Start time of an active slice of a single task execution
 	 * @param activeEndTime 
 	 * 		End time of the active slice started 
 	 * 		with <code>activeStartTime</code>
-	 * @param windowActiveStartTime
-	 * 		Start time of the active slice restricted to the selected time
-	 * 		window
-	 * @param
-	 * 		End time of the active slice restricted to the selected time
-	 * 		window
 	 */
-	@Override
-	public void update(final double activeStartTime, final double activeEndTime) {
-		// Active slice within the selected time window
-		double windowActiveStartTime = Math.max(activeStartTime, windowStartTime);
-		double windowActiveEndTime = Math.min(activeEndTime, windowEndTime);
-		
-		for(; index < line.getCount()-1; index++)
+	private double count(final double activeStartTime, final double activeEndTime) {
+		double countVal = 0d;
+		for (int index = line.binarySearch(activeStartTime); index < line.getCount()-1; index++)
 		{
-			double countSampleStartTime = line.getSample(index).time;
-			double countSampleEndTime = line.getSample(index+1).time;
+			double countSampleStartTime = line.getTime(index);
+			double countSampleEndTime = line.getTime(index+1);
 			if (activeStartTime >= countSampleEndTime) {
 				continue;
 			}
@@ -139,35 +188,13 @@ public class CounterStatistic extends Statistic {
 			
 			double countSampleTime = countSampleEndTime - countSampleStartTime;
 			double countTime = clipExecTime(activeStartTime, activeEndTime, countSampleStartTime, countSampleEndTime);
-			double countVal = line.getSample(index+1).val - line.getSample(index).val;
-			countVal = clipCountVal(countVal, countTime, countSampleTime);
-			execCountVal += countVal;
-
-			double windowCountTime = clipExecTime(windowActiveStartTime, windowActiveEndTime, countSampleStartTime, countSampleEndTime);
-			double windowCountVal = clipCountVal(countVal, windowCountTime, countSampleTime);
-			windowExecCountVal += windowCountVal;
+			countVal += clipCountVal(line.getVal(index+1) - line.getVal(index), countTime, countSampleTime);
 
 			if (countSampleEndTime > activeEndTime) {
 				break;
 			}
 		}
-	}
-
-	/**
-	 * Consolidate counter updates at the completion of a single task execution.
-	 */
-	@Override
-	public void consolidate() {
-		minCountVal = Math.min(minCountVal, execCountVal);
-		maxCountVal = Math.max(maxCountVal, execCountVal);
-		
-		totalCountVal += windowExecCountVal;
-
-		// Reset interval variables for next interval
-		execCountVal = 0d;
-		windowExecCountVal = 0d;
-
-		nExecutions++;
+		return countVal;
 	}
 	
 	/**
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model.statistics;
+
+import java.util.List;
+
+import net.timedoctor.core.model.ExecutionIndex.Series;
+
+/**
+ * An execution statistic that also counts the time per execution in a
+ * {@link Histogram}, for percentiles and a child statistic per non-empty
+ * bucket.
+ * <p>
+ * The histogram is only filled when asked for, so that calculating the
+ * statistics of all tasks does not pay for it. For a window set from a
+ * series of execution times, it is the difference of the summed histograms
+ * of the blocks of executions around the window, plus the executions in the
+ * partial blocks at its ends.
+ */
+public class DistributionStatistic extends ExecutionStatistic {
+	private static final int BLOCK = 4096;
+	
+	private final Histogram histogram = new Histogram();
+	
+	private Series times;
+	private int first;
+	private int end;
+	private boolean histogramValid;
+	private boolean bucketsValid;
+	
+	/**
+	 * The summed histograms of the blocks of {@link #blockTimes}: row
+	 * <code>b</code> counts the executions before block <code>b</code>.
+	 */
+	private int[] blockCounts;
+	private Series blockTimes;
+	
+	public DistributionStatistic(final Statistic parent, final String name) {
+		super(parent, name);
+	}
+	
+	@Override
+	public void init(final double firstSampleTime,
+			final double windowStartTime,
+			final double windowEndTime) {
+		super.init(firstSampleTime, windowStartTime, windowEndTime);
+		histogram.clear();
+		times = null;
+		histogramValid = true;
+		bucketsValid = false;
+	}
+	
+	@Override
+	protected void addExecution(final double time) {
+		histogram.add(time);
+		bucketsValid = false;
+	}
+	
+	/**
+	 * Sets the executions whose times the histogram counts, after the
+	 * statistic was set for a window.
+	 * 
+	 * @param times the time per execution
+	 * @param first the index of the first execution
+	 * @param end the index after the last execution
+	 */
+	void setDistribution(final Series times, final int first, final int end) {
+		this.times = times;
+		this.first = first;
+		this.end = end;
+		histogramValid = false;
+		bucketsValid = false;
+	}
+	
+	/**
+	 * @return the histogram of the time per execution
+	 */
+	public Histogram getHistogram() {
+		if (!histogramValid) {
+			fillHistogram();
+			histogramValid = true;
+		}
+		return histogram;
+	}
+	
+	/**
+	 * Returns the time per execution below which a fraction of the
+	 * executions lie.
+	 * 
+	 * @param fraction the fraction, for instance 0.99 for the 99th percentile
+	 * @return the time, within the bucket width of the histogram
+	 */
+	public double getPercentile(final double fraction) {
+		return getHistogram().getPercentile(fraction);
+	}
+	
+	@Override
+	public List<Statistic> getChildren() {
+		if (!bucketsValid) {
+			Histogram hist = getHistogram();
+			removeChildren();
+			for (int bucket = 0; bucket < Histogram.BUCKETS; bucket++) {
+				long n = hist.getCount(bucket);
+				if (n > 0) {
+					addChild(new BucketStatistic(this, bucket, n, hist.getCount()));
+				}
+			}
+			bucketsValid = true;
+		}
+		return super.getChildren();
+	}
+	
+	private void fillHistogram() {
+		histogram.clear();
+		if (first >= end) {
+			return;
+		}
+		
+		// The blocks entirely within the executions
+		int firstBlock = (first + BLOCK - 1) / BLOCK;
+		int endBlock = end / BLOCK;
+		if (firstBlock < endBlock) {
+			if (blockTimes != times) {
+				buildBlocks();
+			}
+			addTimes(first, firstBlock * BLOCK);
+			histogram.addDifference(blockCounts, firstBlock, endBlock);
+			addTimes(endBlock * BLOCK, end);
+		} else {
+			addTimes(first, end);
+		}
+		histogram.setRange(times.getMin(first, end), times.getMax(first, end));
+	}
+	
+	private void addTimes(final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			histogram.add(times.get(i));
+		}
+	}
+	
+	private void buildBlocks() {
+		int nBlocks = times.getCount() / BLOCK;
+		blockCounts = new int[(nBlocks + 1) * Histogram.BUCKETS];
+		for (int block = 0; block < nBlocks; block++) {
+			int offset = block * Histogram.BUCKETS;
+			System.arraycopy(blockCounts, offset, blockCounts, offset + Histogram.BUCKETS, 
+					Histogram.BUCKETS);
+			offset += Histogram.BUCKETS;
+			for (int i = block * BLOCK; i < (block + 1) * BLOCK; i++) {
+				blockCounts[offset + Histogram.getBucket(times.get(i))]++;
+			}
+		}
+		blockTimes = times;
+	}
+}
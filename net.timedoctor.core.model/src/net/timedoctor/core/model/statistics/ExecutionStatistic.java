@@ -58,6 +58,7 @@ public class ExecutionStatistic extends Statistic {
 		
 		avgTime += execTime;
 		totalTime += windowExecTime;
+		addExecution(execTime);
 
 		// Reset interval variables for next interval
 		execTime = 0d;
@@ -66,6 +67,42 @@ public class ExecutionStatistic extends Statistic {
 		nExecutions++;
 	}
 	
+	/**
+	 * Called for every execution consolidated, to let subclasses follow the
+	 * time per execution.
+	 * 
+	 * @param time time of the execution
+	 */
+	protected void addExecution(final double time) {
+	}
+	
+	/**
+	 * Sets the statistic for a window at once, from the sums over the
+	 * executions counted instead of visiting them one by one.
+	 * 
+	 * @param windowStartTime start of the window
+	 * @param windowEndTime end of the window
+	 * @param totalTime time of the executions within the window
+	 * @param minTime minimum time per execution
+	 * @param sumTime sum of the time per execution
+	 * @param maxTime maximum time per execution
+	 * @param nExecutions number of executions
+	 */
+	void set(final double windowStartTime,
+			final double windowEndTime,
+			final double totalTime,
+			final double minTime,
+			final double sumTime,
+			final double maxTime,
+			final int nExecutions) {
+		init(0d, windowStartTime, windowEndTime);
+		this.totalTime = totalTime;
+		this.minTime = minTime;
+		this.avgTime = sumTime;
+		this.maxTime = maxTime;
+		this.nExecutions = nExecutions;
+	}
+	
 	public double getTotalTime() {
 		return totalTime;
 	}
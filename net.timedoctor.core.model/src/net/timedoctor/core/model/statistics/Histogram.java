@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Counts times in buckets of a fixed log-linear layout: every power of two
+ * is split in {@link #SUB_BUCKETS} buckets of equal width, so that a bucket
+ * is at most 1/16 of its lower bound wide at any scale. The buckets cover
+ * 2^-30 s, about a nanosecond, up to 256 s; shorter and longer times are
+ * counted in the first and last bucket.
+ * <p>
+ * The memory used does not depend on the number of times counted, and as
+ * all histograms share the layout, histograms of separate windows or tasks
+ * are merged by adding their counts.
+ */
+public final class Histogram {
+
+	/**
+	 * The number of buckets per power of two.
+	 */
+	public static final int SUB_BUCKETS = 16;
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int MIN_EXPONENT = -30;
+
+	private static final int MAX_EXPONENT = 8;
+
+	/**
+	 * The number of buckets: one for short times, the log-linear buckets and
+	 * one for long times.
+	 */
+	public static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS + 2;
+
+	private final long[] counts = new long[BUCKETS];
+
+	private long count = 0;
+
+	private double minTime = Double.MAX_VALUE;
+
+	private double maxTime = 0d;
+
+	/**
+	 * Returns the bucket a time is counted in.
+	 *
+	 * @param time
+	 *            the time in seconds
+	 * @return the index of the bucket
+	 */
+	public static int getBucket(final double time) {
+		if (!(time >= Math.scalb(1d, MIN_EXPONENT))) {
+			return 0;
+		}
+		final int exponent = Math.getExponent(time);
+		if (exponent >= MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		// The highest bits of the mantissa select the bucket within the
+		// power of two
+		final int sub = (int) (Double.doubleToRawLongBits(time) >>> (52 - SUB_BUCKET_BITS))
+				& (SUB_BUCKETS - 1);
+		return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * Returns the lowest time counted in a bucket.
+	 *
+	 * @param bucket
+	 *            the index of the bucket
+	 * @return the time in seconds
+	 */
+	public static double getLowerBound(final int bucket) {
+		if (bucket == 0) {
+			return 0d;
+		}
+		final int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+		final int sub = (bucket - 1) % SUB_BUCKETS;
+		return Math.scalb(1d + (double) sub / SUB_BUCKETS, exponent);
+	}
+
+	/**
+	 * Returns the time above the times counted in a bucket.
+	 *
+	 * @param bucket
+	 *            the index of the bucket
+	 * @return the time in seconds, infinite for the last bucket
+	 */
+	public static double getUpperBound(final int bucket) {
+		if (bucket == BUCKETS - 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return getLowerBound(bucket + 1);
+	}
+
+	/**
+	 * Removes all counted times.
+	 */
+	public void clear() {
+		Arrays.fill(counts, 0L);
+		count = 0;
+		minTime = Double.MAX_VALUE;
+		maxTime = 0d;
+	}
+
+	/**
+	 * Counts a time.
+	 *
+	 * @param time
+	 *            the time in seconds
+	 */
+	public void add(final double time) {
+		counts[getBucket(time)]++;
+		count++;
+		minTime = Math.min(minTime, time);
+		maxTime = Math.max(maxTime, time);
+	}
+
+	/**
+	 * Counts the times of another histogram.
+	 *
+	 * @param other
+	 *            the histogram to merge into this one
+	 */
+	public void add(final Histogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		minTime = Math.min(minTime, other.minTime);
+		maxTime = Math.max(maxTime, other.maxTime);
+	}
+
+	/**
+	 * Counts the times of a range of histograms whose counts are summed in a
+	 * table, one row of {@link #BUCKETS} counts per histogram.
+	 *
+	 * @param cumulative
+	 *            the table of summed counts
+	 * @param from
+	 *            the row of the sum before the first histogram
+	 * @param to
+	 *            the row of the sum up to the last histogram
+	 */
+	void addDifference(final int[] cumulative, final int from, final int to) {
+		final int fromOffset = from * BUCKETS;
+		final int toOffset = to * BUCKETS;
+		for (int i = 0; i < BUCKETS; i++) {
+			final int n = cumulative[toOffset + i] - cumulative[fromOffset + i];
+			counts[i] += n;
+			count += n;
+		}
+	}
+
+	/**
+	 * Narrows the times the percentiles are reported in, when the times
+	 * were counted without being passed one by one.
+	 *
+	 * @param min
+	 *            the minimum time counted
+	 * @param max
+	 *            the maximum time counted
+	 */
+	void setRange(final double min, final double max) {
+		minTime = min;
+		maxTime = max;
+	}
+
+	/**
+	 * @return the number of times counted
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of times counted in a bucket.
+	 *
+	 * @param bucket
+	 *            the index of the bucket
+	 * @return the number of times
+	 */
+	public long getCount(final int bucket) {
+		return counts[bucket];
+	}
+
+	/**
+	 * Returns the time below which a fraction of the times counted lie, as
+	 * the middle of the bucket holding it, within the minimum and maximum
+	 * time counted.
+	 *
+	 * @param fraction
+	 *            the fraction, for instance 0.99 for the 99th percentile
+	 * @return the time in seconds, or 0 if no times were counted
+	 */
+	public double getPercentile(final double fraction) {
+		if (count == 0) {
+			return 0d;
+		}
+		final long rank = Math.max(1L, (long) Math.ceil(fraction * count));
+		long seen = 0;
+		int bucket = 0;
+		for (; bucket < BUCKETS - 1; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank) {
+				break;
+			}
+		}
+		final double lower = getLowerBound(bucket);
+		final double upper = getUpperBound(bucket);
+		final double middle = Double.isInfinite(upper) ? lower : (lower + upper) / 2;
+		return Math.max(minTime, Math.min(maxTime, middle));
+	}
+}
@@ -67,6 +67,33 @@ public class InterruptStatistic extends Statistic {
 		nExecutions++;
 	}
 	
+	/**
+	 * Sets the statistic for a window at once, from the counts over the
+	 * executions instead of visiting them one by one.
+	 * 
+	 * @param windowStartTime start of the window
+	 * @param windowEndTime end of the window
+	 * @param nTotal number counted within the window
+	 * @param nMin minimum number per execution
+	 * @param nSum sum of the number per execution
+	 * @param nMax maximum number per execution
+	 * @param nExecutions number of executions
+	 */
+	void set(final double windowStartTime,
+			final double windowEndTime,
+			final int nTotal,
+			final int nMin,
+			final int nSum,
+			final int nMax,
+			final int nExecutions) {
+		init(0d, windowStartTime, windowEndTime);
+		this.nTotal = nTotal;
+		this.nMin = nMin;
+		this.nAvg = nSum;
+		this.nMax = nMax;
+		this.nExecutions = nExecutions;
+	}
+	
 	public int getNTotal() {
 		return nTotal;
 	}
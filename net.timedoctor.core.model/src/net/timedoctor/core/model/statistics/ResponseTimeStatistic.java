@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model.statistics;
+
+import java.util.List;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Sample.SampleType;
+
+/**
+ * The activations of a periodic task or ISR starting in a window: the
+ * period between them, its jitter, and the response time from activation
+ * to completion, interrupts included.
+ * <p>
+ * The statistic is calculated when first read after the window is set, in
+ * one pass from each START sample to the next after its STOP sample,
+ * without allocating.
+ */
+public class ResponseTimeStatistic extends Statistic {
+	private final SampleLine line;
+	
+	private double windowStartTime;
+	private double windowEndTime;
+	private boolean valid = true;
+	
+	private int nActivations;
+	private final SpreadStatistic periodStat;
+	private final SpreadStatistic jitterStat;
+	private final SpreadStatistic responseStat;
+	
+	public ResponseTimeStatistic(final Statistic parent, final SampleLine line) {
+		super(parent, "Activations");
+		this.line = line;
+		
+		periodStat = new SpreadStatistic(this, "Period");
+		addChild(periodStat);
+		jitterStat = new SpreadStatistic(this, "Period jitter");
+		addChild(jitterStat);
+		responseStat = new SpreadStatistic(this, "Response time");
+		addChild(responseStat);
+	}
+	
+	/**
+	 * Sets the window of the activations. They are counted when the
+	 * statistic is read.
+	 * 
+	 * @param windowStartTime start of the window
+	 * @param windowEndTime end of the window
+	 */
+	public void calculate(final double windowStartTime, final double windowEndTime) {
+		this.windowStartTime = windowStartTime;
+		this.windowEndTime = windowEndTime;
+		valid = false;
+	}
+	
+	private void ensureCalculated() {
+		if (valid) {
+			return;
+		}
+		valid = true;
+		
+		nActivations = 0;
+		periodStat.clear();
+		jitterStat.clear();
+		responseStat.clear();
+		
+		final int nSamples = line.getCount();
+		if (nSamples == 0) {
+			return;
+		}
+		
+		double lastStartTime = 0d;
+		double lastPeriod = 0d;
+		int i = line.binarySearch(windowStartTime);
+		while (i < nSamples) {
+			if (line.getSampleType(i) != SampleType.START) {
+				i++;
+				continue;
+			}
+			final double startTime = line.getTime(i);
+			if (startTime > windowEndTime) {
+				break;
+			}
+			final int stopIndex = (int) line.getVal(i);
+			if ((stopIndex <= i) || (stopIndex >= nSamples)
+					|| (line.getSampleType(stopIndex) != SampleType.STOP)) {
+				break;
+			}
+			if (startTime >= windowStartTime) {
+				if (nActivations > 0) {
+					final double period = startTime - lastStartTime;
+					if (nActivations > 1) {
+						jitterStat.add(Math.abs(period - lastPeriod));
+					}
+					periodStat.add(period);
+					lastPeriod = period;
+				}
+				responseStat.add(line.getTime(stopIndex) - startTime);
+				lastStartTime = startTime;
+				nActivations++;
+			}
+			
+			// The samples up to the stop belong to this activation
+			i = stopIndex + 1;
+		}
+	}
+	
+	@Override
+	public List<Statistic> getChildren() {
+		ensureCalculated();
+		return super.getChildren();
+	}
+	
+	/**
+	 * @return the number of activations starting in the window
+	 */
+	public int getNActivations() {
+		ensureCalculated();
+		return nActivations;
+	}
+	
+	/**
+	 * @return the number of activations per second
+	 */
+	public double getLoad() {
+		ensureCalculated();
+		double timeInterval = windowEndTime - windowStartTime;
+		return ((timeInterval == 0d) ? 0d : nActivations / timeInterval);
+	}
+	
+	/**
+	 * @return the time between successive activations
+	 */
+	public SpreadStatistic getPeriodStatistic() {
+		ensureCalculated();
+		return periodStat;
+	}
+	
+	/**
+	 * @return the change of the period from one activation to the next
+	 */
+	public SpreadStatistic getJitterStatistic() {
+		ensureCalculated();
+		return jitterStat;
+	}
+	
+	/**
+	 * @return the time from activation to completion, interrupts included
+	 */
+	public SpreadStatistic getResponseTimeStatistic() {
+		ensureCalculated();
+		return responseStat;
+	}
+	
+	/**
+	 * @return the difference between the longest and shortest period
+	 */
+	public double getJitter() {
+		ensureCalculated();
+		return periodStat.getMaxTime() - periodStat.getMinTime();
+	}
+	
+	/**
+	 * @return the longest response time
+	 */
+	public double getWorstCaseResponseTime() {
+		ensureCalculated();
+		return responseStat.getMaxTime();
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.model.statistics;
+
+/**
+ * The number, minimum, average and maximum of a time measured repeatedly,
+ * such as the period between activations.
+ */
+public class SpreadStatistic extends Statistic {
+	private int n;
+	private double minTime;
+	private double sumTime;
+	private double maxTime;
+	
+	public SpreadStatistic(final Statistic parent, final String name) {
+		super(parent, name);
+		clear();
+	}
+	
+	void clear() {
+		n = 0;
+		minTime = Double.MAX_VALUE;
+		sumTime = 0d;
+		maxTime = 0d;
+	}
+	
+	void add(final double time) {
+		n++;
+		minTime = Math.min(minTime, time);
+		sumTime += time;
+		maxTime = Math.max(maxTime, time);
+	}
+	
+	public int getN() {
+		return n;
+	}
+	
+	public double getMinTime() {
+		return ((n == 0) ? 0d : minTime);
+	}
+	
+	public double getAvgTime() {
+		return ((n == 0) ? 0d : (sumTime / n));
+	}
+	
+	public double getMaxTime() {
+		return maxTime;
+	}
+}
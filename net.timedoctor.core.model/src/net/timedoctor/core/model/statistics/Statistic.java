@@ -39,6 +39,10 @@ public class Statistic {
 		children.add(child);
 	}
 	
+	protected void removeChildren() {
+		children.clear();
+	}
+	
 	public void init(final double firstSampleTime, 
 			final double windowStartTime, 
 			final double windowEndTime) {
@@ -55,8 +59,7 @@ public class Statistic {
 			final double clipEndTime, 
 			final double startTime, 
 			final double endTime) {
-		return Math.max(0, Math.min( 
-				Math.min(endTime - startTime, clipEndTime - startTime), 
-				endTime - clipStartTime));
+		return Math.max(0, Math.min(endTime, clipEndTime) 
+				- Math.max(startTime, clipStartTime));
 	}	
 }
@@ -10,10 +10,11 @@
  *******************************************************************************/
 package net.timedoctor.core.model.statistics;
 
+import net.timedoctor.core.model.ExecutionIndex;
 import net.timedoctor.core.model.SampleLine;
 import net.timedoctor.core.model.Section;
 import net.timedoctor.core.model.TraceModel;
-import net.timedoctor.core.model.Sample.SampleType;
+import net.timedoctor.core.model.ExecutionIndex.Series;
 import net.timedoctor.core.model.SampleLine.LineType;
 
 public class TaskStatistic extends Statistic {
@@ -21,10 +22,11 @@ public class TaskStatistic extends Statistic {
 	private SampleLine line;
 
 	private InterruptStatistic executionStat;
-	private ExecutionStatistic incExecutionStat;
-	private ExecutionStatistic exExecutionStat;
+	private DistributionStatistic incExecutionStat;
+	private DistributionStatistic exExecutionStat;
 	private InterruptStatistic interruptStat;
 	private ExecutionStatistic intExecutionStat;
+	private ResponseTimeStatistic responseTimeStat;
 	private CompositeStatistic counterStats;
 	
 	public TaskStatistic(final Statistic parent,
@@ -41,9 +43,9 @@ public class TaskStatistic extends Statistic {
 		Statistic executions = new CompositeStatistic(this, "Executions");
 		executionStat = new InterruptStatistic(this, "Nr. executions");
 		executions.addChild(executionStat);
-		incExecutionStat = new ExecutionStatistic(executions, "Time inc. interrupts");
+		incExecutionStat = new DistributionStatistic(executions, "Time inc. interrupts");
 		executions.addChild(incExecutionStat);
-		exExecutionStat = new ExecutionStatistic(executions, "Time ex. interrupts");
+		exExecutionStat = new DistributionStatistic(executions, "Time ex. interrupts");
 		executions.addChild(exExecutionStat);
 		addChild(executions);
 
@@ -54,6 +56,9 @@ public class TaskStatistic extends Statistic {
 		intExecutionStat = new ExecutionStatistic(interrupts, "Interrupt time");
 		interrupts.addChild(intExecutionStat);
 		
+		responseTimeStat = new ResponseTimeStatistic(this, line);
+		addChild(responseTimeStat);
+		
 		counterStats = new CompositeStatistic(this, "Counters");
 		Section cycles = traceModel.getSections().getSection(LineType.CYCLES);
 		if (cycles != null) {
@@ -64,90 +69,63 @@ public class TaskStatistic extends Statistic {
 		}
 	}
 	
+	/**
+	 * Calculates the statistics of the task in a window, from the index of
+	 * its executions.
+	 * 
+	 * @param windowStartTime start of the window
+	 * @param windowEndTime end of the window
+	 */
 	public void calculate(final double windowStartTime, final double windowEndTime) {
-		// Find first relevant start sample
-		int startIndex = line.binarySearch(windowStartTime);
-		while ((startIndex>0) && (line.getSample(startIndex).type != SampleType.START)) {
-			startIndex--;
-		}
-		double firstSampleTime = line.getSample(startIndex).time;
+		ExecutionIndex index = line.getExecutionIndex();
 		
-		executionStat.init(firstSampleTime, windowStartTime, windowEndTime);
-		exExecutionStat.init(firstSampleTime, windowStartTime, windowEndTime);
-		incExecutionStat.init(firstSampleTime, windowStartTime, windowEndTime);
+		// The executions from the one running at the start of the window
+		// up to the last one starting in it
+		int first = index.getFirst(windowStartTime);
+		int end = index.getEnd(first, windowEndTime);
+		int n = end - first;
 		
-		interruptStat.init(firstSampleTime, windowStartTime, windowEndTime);
-		intExecutionStat.init(firstSampleTime, windowStartTime, windowEndTime);		
+		executionStat.set(windowStartTime, windowEndTime,
+				index.countStarts(first, end, windowStartTime, windowEndTime),
+				(n == 0) ? Integer.MAX_VALUE : 1, n, (n == 0) ? 0 : 1, n);
+		setExecutionStatistic(incExecutionStat, index.getExecutionTimes(), 
+				index.getExecutionTime(first, end, windowStartTime, windowEndTime), 
+				first, end, windowStartTime, windowEndTime);
+		incExecutionStat.setDistribution(index.getExecutionTimes(), first, end);
+		setExecutionStatistic(exExecutionStat, index.getActiveTimes(), 
+				index.getActiveTime(first, end, windowStartTime, windowEndTime), 
+				first, end, windowStartTime, windowEndTime);
+		exExecutionStat.setDistribution(index.getActiveTimes(), first, end);
+		setExecutionStatistic(intExecutionStat, index.getInterruptTimes(), 
+				index.getInterruptTime(first, end, windowStartTime, windowEndTime), 
+				first, end, windowStartTime, windowEndTime);
 		
-		counterStats.init(firstSampleTime, windowStartTime, windowEndTime);
-
-		// Scan all samples for this task within the interval (firstStartTime, endTime).
-		for (; startIndex < line.getCount(); startIndex++) {
-			// Find matching start/stop pair
-			// Walk over start samples, look up the matching stop sample
-			if (line.getSample(startIndex).type != SampleType.START) {
-				continue;
-			}
-			int stopIndex = (int) line.getSample(startIndex).val;			
-			if (line.getSample(stopIndex).type != SampleType.STOP) {
-				break;
-			}
-			
-			// Task execution start/end time (including interruptions)
-			double execStartTime = line.getSample(startIndex).time;
-			double execEndTime = line.getSample(stopIndex).time;
-									
-			// Restrict measurement to the given window
-			if (execStartTime > windowEndTime) {
-				break;
-			}
-			
-			executionStat.update(execStartTime, execEndTime);
-			incExecutionStat.update(execStartTime, execEndTime);
-			
-			// Walk over all possible interruptions within the task activation
-			for (; startIndex < stopIndex; startIndex++) {
-				if (line.getSample(startIndex).type == SampleType.SUSPEND) {
-					int resumeIndex = (int) line.getSample(startIndex).val;
-					double suspendTime = line.getSample(startIndex).time;
-					double resumeTime = line.getSample(resumeIndex).time;
-					
-					// Only count first level interrupt, not subsequennt interruptions of this
-					// interrupt as the task is suspended anyhow
-					intExecutionStat.update(suspendTime, resumeTime);
-					interruptStat.update(suspendTime, 0);
-					
-					for (startIndex++; startIndex < resumeIndex; startIndex++) {
-						if (line.getSample(startIndex).type == SampleType.SUSPEND) {
-							suspendTime = line.getSample(startIndex).time;
-							// Only count interrupts, no need to compute resume time here.
-							interruptStat.update(suspendTime, 0);
-						}
-					}
-					
-					startIndex = resumeIndex - 1;
-				} else {
-					// Active slice of the task execution period (excl. interrupts)
-					double activeStartTime = line.getSample(startIndex).time;
-					double activeEndTime = line.getSample(startIndex + 1).time;
-										
-					counterStats.update(activeStartTime, activeEndTime);
-					exExecutionStat.update(activeStartTime, activeEndTime);
-				}
-			}
-			
-			// Consolidate all children for the task execution interval
-			executionStat.consolidate();
-			incExecutionStat.consolidate();
-			exExecutionStat.consolidate();
-			
-			interruptStat.consolidate();
-			intExecutionStat.consolidate();
-
-			counterStats.consolidate();
+		Series interrupts = index.getInterruptCounts();
+		interruptStat.set(windowStartTime, windowEndTime,
+				index.countInterrupts(first, end, windowStartTime, windowEndTime),
+				(int) interrupts.getMin(first, end),
+				(int) interrupts.getSum(first, end),
+				(int) interrupts.getMax(first, end), n);
+		
+		responseTimeStat.calculate(windowStartTime, windowEndTime);
+		
+		for (Statistic counter : counterStats.getChildren()) {
+			((CounterStatistic) counter).calculate(index, first, end, windowStartTime, windowEndTime);
 		}
 	}
 	
+	private void setExecutionStatistic(final ExecutionStatistic stat, 
+			final Series times,
+			final double windowTime,
+			final int first, 
+			final int end,
+			final double windowStartTime,
+			final double windowEndTime) {
+		stat.set(windowStartTime, windowEndTime, windowTime,
+				times.getMin(first, end), times.getSum(first, end), 
+				times.getMax(first, end), end - first);
+	}
+	
 	public InterruptStatistic getInterruptStatistic() {
 		return interruptStat;
 	}
@@ -156,7 +134,15 @@ public class TaskStatistic extends Statistic {
 		return executionStat;
 	}
 	
-	public ExecutionStatistic getExExecTimeStatistic() {
+	public ResponseTimeStatistic getResponseTimeStatistic() {
+		return responseTimeStat;
+	}
+	
+	public DistributionStatistic getIncExecTimeStatistic() {
+		return incExecutionStat;
+	}
+	
+	public DistributionStatistic getExExecTimeStatistic() {
 		return exExecutionStat;
 	}
 }
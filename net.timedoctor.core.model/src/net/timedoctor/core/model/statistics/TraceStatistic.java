@@ -10,12 +10,74 @@
  *******************************************************************************/
 package net.timedoctor.core.model.statistics;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import net.timedoctor.core.model.SampleLine;
 import net.timedoctor.core.model.Section;
 import net.timedoctor.core.model.TraceModel;
 import net.timedoctor.core.model.SampleLine.LineType;
 
 public class TraceStatistic extends Statistic {
+	/**
+	 * Tells a calculation on several threads to stop, and is told of its
+	 * progress. Called from any of the threads.
+	 */
+	public interface Progress {
+		/**
+		 * @return true, if the calculation should stop
+		 */
+		boolean isCanceled();
+		
+		/**
+		 * @param nTasks the number of tasks calculated since the last call
+		 */
+		void worked(int nTasks);
+	}
+	
+	/**
+	 * Calculates the statistics of a range of tasks, splitting the range
+	 * in halves until single tasks are left. Each task only reads its own 
+	 * line and writes its own statistics.
+	 */
+	private static final class CalculateAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final List<Statistic> tasks;
+		private final int from;
+		private final int to;
+		private final double windowStartTime;
+		private final double windowEndTime;
+		private final Progress progress;
+		
+		CalculateAction(final List<Statistic> tasks, final int from, final int to,
+				final double windowStartTime, final double windowEndTime, 
+				final Progress progress) {
+			this.tasks = tasks;
+			this.from = from;
+			this.to = to;
+			this.windowStartTime = windowStartTime;
+			this.windowEndTime = windowEndTime;
+			this.progress = progress;
+		}
+		
+		@Override
+		protected void compute() {
+			if (progress.isCanceled()) {
+				return;
+			}
+			if (to - from == 1) {
+				((TaskStatistic) tasks.get(from)).calculate(windowStartTime, windowEndTime);
+				progress.worked(1);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new CalculateAction(tasks, from, mid, windowStartTime, windowEndTime, progress),
+						new CalculateAction(tasks, mid, to, windowStartTime, windowEndTime, progress));
+			}
+		}
+	}
+	
 	private TraceModel traceModel;
 
 	public TraceStatistic(final TraceModel traceModel) {
@@ -40,4 +102,26 @@ public class TraceStatistic extends Statistic {
 			((TaskStatistic) task).calculate(windowStartTime, windowEndTime);
 		}
 	}
+	
+	/**
+	 * Calculates the statistics of the tasks on the threads of the common
+	 * fork/join pool, returning once all tasks are calculated or the 
+	 * calculation is cancelled. The statistics must not be read until then.
+	 * 
+	 * @param windowStartTime start of the window
+	 * @param windowEndTime end of the window
+	 * @param progress tells the calculation to stop, and is told of its progress
+	 * @return true, if all tasks were calculated; false, if the calculation
+	 * 		was cancelled, leaving some tasks calculated for the previous window
+	 */
+	public boolean calculate(final double windowStartTime, 
+			final double windowEndTime, 
+			final Progress progress) {
+		List<Statistic> tasks = getChildren();
+		if (!tasks.isEmpty()) {
+			ForkJoinPool.commonPool().invoke(new CalculateAction(tasks, 0, tasks.size(),
+					windowStartTime, windowEndTime, progress));
+		}
+		return !progress.isCanceled();
+	}
 }
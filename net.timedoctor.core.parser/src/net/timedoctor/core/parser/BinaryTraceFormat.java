@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Layout of a binary trace file (<code>.tdb</code>), which holds a parsed and
+ * calculated model. All numbers are little-endian. The file consists of:
+ * <ol>
+ * <li>a prefix: the magic bytes, the format version as int and the offset
+ * of the data part as long</li>
+ * <li>a header: the ticks per second, the CPUs, the description names, and
+ * per section the lines with their names, times, maxima, descriptions and
+ * the position of their samples in the data part</li>
+ * <li>a data part, aligned to 8 bytes: per line the sample times and values
+ * as doubles and the sample type ordinals as bytes, each column in one
+ * block, padded to 8 bytes</li>
+ * </ol>
+ * Strings are stored as their length in UTF-8 bytes followed by the bytes, a
+ * length of -1 meaning null. Sections are stored in the order of their line
+ * type, so that queues are loaded before the ports using them.
+ */
+final class BinaryTraceFormat {
+
+	/**
+	 * The first bytes of a binary trace file.
+	 */
+	static final byte[] MAGIC = {'T', 'D', 'B', 0};
+
+	static final int VERSION = 1;
+
+	/**
+	 * Size of the magic bytes, version and data offset.
+	 */
+	static final int PREFIX_SIZE = 16;
+
+	/**
+	 * Alignment of the data part and of the sample blocks in it.
+	 */
+	static final int ALIGNMENT = 8;
+
+	/**
+	 * Stored instead of an index if a port has no queue.
+	 */
+	static final int NO_LINE = -1;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private BinaryTraceFormat() {
+	}
+
+	/**
+	 * Checks whether a file starts with the magic bytes of a binary trace
+	 * file.
+	 *
+	 * @param file
+	 *            the file to check
+	 * @return true if the file is a binary trace file
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	static boolean isBinaryTrace(final File file) throws IOException {
+		final FileInputStream stream = new FileInputStream(file);
+		try {
+			final byte[] bytes = new byte[MAGIC.length];
+			int n = 0;
+			while (n < bytes.length) {
+				final int read = stream.read(bytes, n, bytes.length - n);
+				if (read < 0) {
+					return false;
+				}
+				n += read;
+			}
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (bytes[i] != MAGIC[i]) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Returns the size of the data block of a line.
+	 *
+	 * @param sampleCount
+	 *            the number of samples of the line
+	 * @return the size in bytes, including padding
+	 */
+	static long blockSize(final int sampleCount) {
+		return align((2L * Double.SIZE / Byte.SIZE + 1) * sampleCount);
+	}
+
+	/**
+	 * Rounds a size or offset up to the alignment.
+	 *
+	 * @param n
+	 *            the size or offset
+	 * @return the aligned size or offset
+	 */
+	static long align(final long n) {
+		return (n + ALIGNMENT - 1) & ~(long) (ALIGNMENT - 1);
+	}
+
+	/**
+	 * Creates a little-endian buffer.
+	 *
+	 * @param capacity
+	 *            the capacity of the buffer
+	 * @return the buffer
+	 */
+	static ByteBuffer allocate(final int capacity) {
+		return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
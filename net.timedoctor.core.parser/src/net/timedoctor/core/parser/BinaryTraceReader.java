@@ -0,0 +1,359 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import net.timedoctor.core.model.CheckedIllegalArgumentException;
+import net.timedoctor.core.model.Description;
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Section;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.Description.DescrType;
+import net.timedoctor.core.model.Sample.SampleType;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.model.lines.PortSampleLine;
+
+/**
+ * Loads a binary trace file written by {@link BinaryTraceWriter} into a
+ * model. The file is memory-mapped, and the sample columns of each line are
+ * copied in bulk into the arrays of the line. The lines are not calculated
+ * again, as the file holds the calculated samples.
+ * <p>
+ * The file is checked by {@link #open()} before {@link #read(IProgressMonitor)}
+ * changes the model, so that a file written by another version can be
+ * skipped.
+ */
+class BinaryTraceReader {
+
+	/**
+	 * Size of the region of the data part that is mapped at once.
+	 */
+	private static final long MAX_WINDOW = 1L << 28;
+
+	private static final LineType[] LINE_TYPES = LineType.values();
+
+	private static final DescrType[] DESCR_TYPES = DescrType.values();
+
+	private static final int SAMPLE_TYPE_COUNT = SampleType.values().length;
+
+	private final TraceModel model;
+
+	private final File file;
+
+	private FileInputStream stream;
+
+	private FileChannel channel;
+
+	private ByteBuffer header;
+
+	private long fileSize;
+
+	private long dataOffset;
+
+	/**
+	 * The currently mapped region of the data part, and its file offsets.
+	 */
+	private ByteBuffer window;
+
+	private long windowStart = 0;
+
+	private long windowEnd = 0;
+
+	/**
+	 * Creates a reader filling a model.
+	 *
+	 * @param model
+	 *            the empty model to fill
+	 * @param file
+	 *            the binary trace file
+	 */
+	BinaryTraceReader(final TraceModel model, final File file) {
+		this.model = model;
+		this.file = file;
+	}
+
+	/**
+	 * Opens the file and checks that it is a binary trace file of a
+	 * supported version. Leaves the model unchanged.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be opened or is not a supported binary
+	 *             trace file
+	 */
+	void open() throws IOException {
+		stream = new FileInputStream(file);
+		try {
+			channel = stream.getChannel();
+			fileSize = channel.size();
+			header = mapHeader();
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Loads the opened file into the model, and closes it.
+	 *
+	 * @param monitor
+	 *            the progress monitor, checked for cancellation before
+	 *            loading each line
+	 * @throws IOException
+	 *             if the file cannot be read or is corrupt
+	 * @throws InterruptedException
+	 *             if the user pressed cancel
+	 */
+	void read(final IProgressMonitor monitor) throws IOException, InterruptedException {
+		try {
+			readHeader(monitor);
+		} catch (IndexOutOfBoundsException e) {
+			throw corrupt();
+		} catch (BufferUnderflowException e) {
+			throw corrupt();
+		} finally {
+			close();
+		}
+		model.setEndTime();
+		model.computeMaxValues();
+	}
+
+	private void close() throws IOException {
+		header = null;
+		window = null;
+		channel = null;
+		stream.close();
+	}
+
+	/**
+	 * Checks the prefix of the file and maps the header.
+	 *
+	 * @return the header, positioned after the prefix
+	 */
+	private ByteBuffer mapHeader() throws IOException {
+		if (fileSize < BinaryTraceFormat.PREFIX_SIZE) {
+			throw corrupt();
+		}
+		final ByteBuffer prefix = BinaryTraceFormat.allocate(BinaryTraceFormat.PREFIX_SIZE);
+		while (prefix.hasRemaining()) {
+			if (channel.read(prefix, prefix.position()) < 0) {
+				throw corrupt();
+			}
+		}
+		prefix.flip();
+		for (int i = 0; i < BinaryTraceFormat.MAGIC.length; i++) {
+			if (prefix.get() != BinaryTraceFormat.MAGIC[i]) {
+				throw corrupt();
+			}
+		}
+		final int version = prefix.getInt();
+		if (version != BinaryTraceFormat.VERSION) {
+			throw new IOException("Unsupported binary trace version " + version);
+		}
+		dataOffset = prefix.getLong();
+		if ((dataOffset < BinaryTraceFormat.PREFIX_SIZE) || (dataOffset > fileSize)
+				|| (dataOffset > Integer.MAX_VALUE)) {
+			throw corrupt();
+		}
+
+		final ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, dataOffset);
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		mapped.position(BinaryTraceFormat.PREFIX_SIZE);
+		return mapped;
+	}
+
+	private void readHeader(final IProgressMonitor monitor)
+			throws IOException, InterruptedException {
+		model.setTicksPerSec(header.getDouble());
+
+		final int cpuCount = header.getInt();
+		final List<SampleCPU> cpus = new ArrayList<SampleCPU>(Math.max(0, cpuCount));
+		for (int i = 0; i < cpuCount; i++) {
+			final int id = header.getInt();
+			final String name = getString();
+			final double cps = header.getDouble();
+			final double mcps = header.getDouble();
+			final boolean singleMem = header.get() != 0;
+			// Changing the memory speed of a CPU that has a memory speed
+			// other than 1 is what clears its single memory speed flag
+			final SampleCPU cpu = new SampleCPU(model, id, name, singleMem ? mcps : 2);
+			if (!singleMem) {
+				cpu.setMemClocksPerSec(mcps);
+			}
+			cpu.setClocksPerSec(cps);
+			model.addCPU(cpu);
+			cpus.add(cpu);
+		}
+
+		final int descrNameCount = header.getInt();
+		for (int i = 0; i < descrNameCount; i++) {
+			final int id = header.getInt();
+			model.addDescrName(id, getString());
+		}
+
+		final int sectionCount = header.getInt();
+		for (int s = 0; s < sectionCount; s++) {
+			final LineType type = LINE_TYPES[header.get()];
+			final int lineCount = header.getInt();
+			for (int l = 0; l < lineCount; l++) {
+				if (monitor.isCanceled()) {
+					throw new InterruptedException("User interrupted");
+				}
+				readLine(type, cpus);
+			}
+		}
+	}
+
+	/**
+	 * Creates a line from its properties in the header and its samples in
+	 * the data part.
+	 */
+	private void readLine(final LineType type,
+			final List<SampleCPU> cpus) throws IOException {
+		final SampleCPU cpu = cpus.get(header.getInt());
+		final int id = header.getInt();
+		final String name = getString();
+		final double timeCreate = header.getDouble();
+		final double timeDelete = header.getDouble();
+		final double maxValue = header.getDouble();
+		final double maxDuration = header.getDouble();
+		final int channelIndex = header.getInt();
+		final int count = header.getInt();
+		final long dataPos = header.getLong();
+
+		final SampleLine line;
+		if (type == LineType.PORTS) {
+			SampleLine channelLine = null;
+			if (channelIndex != BinaryTraceFormat.NO_LINE) {
+				final Section queues = model.getSections().getSection(LineType.QUEUES);
+				if (queues == null) {
+					throw corrupt();
+				}
+				channelLine = queues.getLine(channelIndex);
+			}
+			line = new PortSampleLine(cpu, id, channelLine, null);
+			line.addToSection(LineType.PORTS);
+			line.setTimeCreate(timeCreate);
+		} else {
+			line = SampleLine.createLine(cpu, type, id, timeCreate);
+			if (line == null) {
+				throw corrupt();
+			}
+		}
+		line.setName(name);
+		if (timeDelete != Double.MAX_VALUE) {
+			try {
+				line.setTimeDelete(timeDelete);
+			} catch (CheckedIllegalArgumentException e) {
+				throw corrupt();
+			}
+		}
+
+		final Description[] descrs = new Description[header.getInt()];
+		for (int i = 0; i < descrs.length; i++) {
+			final double time = header.getDouble();
+			final int descrId = header.getInt();
+			final DescrType descrType = DESCR_TYPES[header.get()];
+			final String text = getString();
+			descrs[i] = new Description(time, descrId, descrType, text, header.getDouble());
+		}
+		line.setDescriptions(descrs);
+
+		readSamples(line, count, dataPos);
+		line.setMaxSampleValue(maxValue);
+		line.setMaxSampleDuration(maxDuration);
+	}
+
+	/**
+	 * Copies the sample columns of a line from the mapped data part.
+	 */
+	private void readSamples(final SampleLine line, final int count, final long dataPos)
+			throws IOException {
+		if (count < 0) {
+			throw corrupt();
+		}
+		final ByteBuffer block = mapBlock(dataOffset + dataPos, BinaryTraceFormat.blockSize(count));
+		final int start = block.position();
+		final int doubleSize = Double.SIZE / Byte.SIZE;
+
+		final double[] times = new double[count];
+		block.asDoubleBuffer().get(times);
+		block.position(start + count * doubleSize);
+		final double[] vals = new double[count];
+		block.asDoubleBuffer().get(vals);
+		block.position(start + 2 * count * doubleSize);
+		final byte[] types = new byte[count];
+		block.get(types);
+
+		for (int i = 0; i < count; i++) {
+			if ((types[i] < 0) || (types[i] >= SAMPLE_TYPE_COUNT)) {
+				throw corrupt();
+			}
+		}
+		line.setSamples(times, vals, types);
+		line.buildPyramid();
+	}
+
+	/**
+	 * Returns a buffer positioned at a block of the data part, mapping a new
+	 * window if the block is not in the current one.
+	 *
+	 * @param offset
+	 *            the file offset of the block
+	 * @param size
+	 *            the size of the block
+	 * @return the buffer, positioned at the block
+	 */
+	private ByteBuffer mapBlock(final long offset, final long size) throws IOException {
+		if ((offset < dataOffset) || (size > fileSize - offset)) {
+			throw corrupt();
+		}
+		if ((offset < windowStart) || (offset + size > windowEnd)) {
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Line too large to map: " + size + " bytes");
+			}
+			windowStart = offset;
+			windowEnd = Math.min(fileSize, offset + Math.max(size, MAX_WINDOW));
+			window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+		}
+		final ByteBuffer block = window.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		block.position((int) (offset - windowStart));
+		return block;
+	}
+
+	private String getString() throws IOException {
+		final int length = header.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > header.remaining()) {
+			throw corrupt();
+		}
+		final byte[] bytes = new byte[length];
+		header.get(bytes);
+		return new String(bytes, BinaryTraceFormat.UTF8);
+	}
+
+	private IOException corrupt() {
+		return new IOException("Corrupt binary trace file " + file.getName());
+	}
+}
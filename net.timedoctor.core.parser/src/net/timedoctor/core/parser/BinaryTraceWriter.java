@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import net.timedoctor.core.model.Description;
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Section;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.model.lines.PortSampleLine;
+
+/**
+ * Writes a parsed model to a binary trace file, which the {@link Parser}
+ * loads without decoding any text. See {@link BinaryTraceFormat} for the
+ * layout of the file.
+ */
+public class BinaryTraceWriter {
+
+	/**
+	 * Initial size of the header buffer, and size of the buffer through
+	 * which the samples are written.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final TraceModel model;
+
+	private ByteBuffer header;
+
+	private ByteBuffer data;
+
+	private FileChannel channel;
+
+	/**
+	 * Creates a writer for a model.
+	 *
+	 * @param model
+	 *            the model, as left by {@link Parser#doParse(IProgressMonitor)}
+	 */
+	public BinaryTraceWriter(final TraceModel model) {
+		this.model = model;
+	}
+
+	/**
+	 * Parses a trace file and writes the resulting model to a binary trace
+	 * file.
+	 *
+	 * @param tdi
+	 *            the trace file to parse
+	 * @param tdb
+	 *            the binary trace file to write
+	 * @param monitor
+	 *            the progress monitor of the parser
+	 * @return true, if all the lines in the trace file were parsed, false
+	 *         otherwise
+	 * @throws InterruptedException
+	 *             if the user pressed cancel
+	 * @throws InvocationTargetException
+	 *             if parsing or writing failed
+	 */
+	public static boolean convert(final File tdi, final File tdb,
+			final IProgressMonitor monitor) throws InterruptedException, InvocationTargetException {
+		final TraceModel model = new TraceModel();
+		final boolean complete = new Parser("Converting trace", model, tdi).doParse(monitor);
+		try {
+			new BinaryTraceWriter(model).write(tdb);
+		} catch (IOException e) {
+			throw new InvocationTargetException(e);
+		}
+		return complete;
+	}
+
+	/**
+	 * Writes the model to a file, replacing its contents.
+	 *
+	 * @param file
+	 *            the binary trace file to write
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public final void write(final File file) throws IOException {
+		final List<SampleLine> lines = new ArrayList<SampleLine>();
+		header = BinaryTraceFormat.allocate(BUFFER_SIZE);
+		writeHeader(lines);
+
+		final long dataOffset = BinaryTraceFormat.align(BinaryTraceFormat.PREFIX_SIZE + header.position());
+		final ByteBuffer prefix = BinaryTraceFormat.allocate(BinaryTraceFormat.PREFIX_SIZE);
+		prefix.put(BinaryTraceFormat.MAGIC);
+		prefix.putInt(BinaryTraceFormat.VERSION);
+		prefix.putLong(dataOffset);
+
+		final FileOutputStream stream = new FileOutputStream(file);
+		try {
+			channel = stream.getChannel();
+			data = BinaryTraceFormat.allocate(BUFFER_SIZE);
+			writeFully(prefix);
+			writeFully(header);
+			header = null;
+			pad(channel.position());
+
+			for (SampleLine line : lines) {
+				writeSamples(line);
+			}
+			flush();
+		} finally {
+			channel = null;
+			data = null;
+			stream.close();
+		}
+	}
+
+	/**
+	 * Fills the header, and collects the lines in the order in which their
+	 * samples are written.
+	 */
+	private void writeHeader(final List<SampleLine> lines) {
+		header.putDouble(model.getTicksPerSec());
+
+		ensureHeader(Integer.SIZE / Byte.SIZE);
+		header.putInt(model.getCPUs().size());
+		for (SampleCPU cpu : model.getCPUs()) {
+			ensureHeader(Integer.SIZE / Byte.SIZE);
+			header.putInt(cpu.getID());
+			putString(cpu.getName());
+			ensureHeader(2 * Double.SIZE / Byte.SIZE + 1);
+			header.putDouble(cpu.getClocksPerSec());
+			header.putDouble(cpu.getMemClocksPerSec());
+			header.put((byte) (cpu.getSingleMemSpeed() ? 1 : 0));
+		}
+
+		final Map<Integer, String> descrNames = model.getDescrNames();
+		ensureHeader(Integer.SIZE / Byte.SIZE);
+		header.putInt(descrNames.size());
+		for (Map.Entry<Integer, String> entry : descrNames.entrySet()) {
+			ensureHeader(Integer.SIZE / Byte.SIZE);
+			header.putInt(entry.getKey());
+			putString(entry.getValue());
+		}
+
+		final List<Section> sections = new ArrayList<Section>();
+		for (LineType type : LineType.values()) {
+			final Section section = model.getSections().getSection(type);
+			if (section != null) {
+				sections.add(section);
+			}
+		}
+
+		ensureHeader(Integer.SIZE / Byte.SIZE);
+		header.putInt(sections.size());
+		long dataPos = 0;
+		for (Section section : sections) {
+			ensureHeader(1 + Integer.SIZE / Byte.SIZE);
+			header.put((byte) section.getType().ordinal());
+			header.putInt(section.getNrLines());
+			for (SampleLine line : section.getLines()) {
+				writeLine(line, line.getCPU().getIndex(), dataPos);
+				dataPos += BinaryTraceFormat.blockSize(line.getCount());
+				lines.add(line);
+			}
+		}
+	}
+
+	/**
+	 * Adds the properties and descriptions of a line to the header.
+	 */
+	private void writeLine(final SampleLine line, final int cpuIndex, final long dataPos) {
+		ensureHeader(2 * Integer.SIZE / Byte.SIZE);
+		header.putInt(cpuIndex);
+		header.putInt(line.getID());
+		putString(line.getName());
+
+		int channelIndex = BinaryTraceFormat.NO_LINE;
+		if (line instanceof PortSampleLine) {
+			final SampleLine channelLine = ((PortSampleLine) line).getChannelLine();
+			if (channelLine != null) {
+				channelIndex = channelLine.getSection().getIndex(channelLine);
+			}
+		}
+
+		ensureHeader(4 * Double.SIZE / Byte.SIZE + 3 * Integer.SIZE / Byte.SIZE + Long.SIZE / Byte.SIZE);
+		header.putDouble(line.getTimeCreate());
+		header.putDouble(line.getTimeDelete());
+		header.putDouble(line.getMaxSampleValue());
+		header.putDouble(line.getMaxSampleDuration());
+		header.putInt(channelIndex);
+		header.putInt(line.getCount());
+		header.putLong(dataPos);
+		header.putInt(line.getDescCount());
+
+		for (int i = 0; i < line.getDescCount(); i++) {
+			final Description descr = line.getDescription(i);
+			ensureHeader(Double.SIZE / Byte.SIZE + Integer.SIZE / Byte.SIZE + 1);
+			header.putDouble(descr.time);
+			header.putInt(descr.id);
+			header.put((byte) descr.type.ordinal());
+			putString(descr.text);
+			ensureHeader(Double.SIZE / Byte.SIZE);
+			header.putDouble(descr.value);
+		}
+	}
+
+	/**
+	 * Writes the sample columns of a line to the data part.
+	 */
+	private void writeSamples(final SampleLine line) throws IOException {
+		final int count = line.getCount();
+		for (int i = 0; i < count; i++) {
+			if (data.remaining() < Double.SIZE / Byte.SIZE) {
+				flush();
+			}
+			data.putDouble(line.getTime(i));
+		}
+		for (int i = 0; i < count; i++) {
+			if (data.remaining() < Double.SIZE / Byte.SIZE) {
+				flush();
+			}
+			data.putDouble(line.getVal(i));
+		}
+		for (int i = 0; i < count; i++) {
+			if (!data.hasRemaining()) {
+				flush();
+			}
+			data.put((byte) line.getTypeOrdinal(i));
+		}
+		pad(count);
+	}
+
+	/**
+	 * Writes zeros up to the alignment, given the number of bytes written
+	 * since the last aligned position.
+	 */
+	private void pad(final long written) throws IOException {
+		final long padding = BinaryTraceFormat.align(written) - written;
+		for (long i = 0; i < padding; i++) {
+			if (!data.hasRemaining()) {
+				flush();
+			}
+			data.put((byte) 0);
+		}
+	}
+
+	private void flush() throws IOException {
+		writeFully(data);
+		data.clear();
+	}
+
+	private void writeFully(final ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private void putString(final String s) {
+		if (s == null) {
+			ensureHeader(Integer.SIZE / Byte.SIZE);
+			header.putInt(-1);
+		} else {
+			final byte[] bytes = s.getBytes(BinaryTraceFormat.UTF8);
+			ensureHeader(Integer.SIZE / Byte.SIZE + bytes.length);
+			header.putInt(bytes.length);
+			header.put(bytes);
+		}
+	}
+
+	/**
+	 * Makes room in the header for the given number of bytes.
+	 */
+	private void ensureHeader(final int size) {
+		if (header.remaining() < size) {
+			final ByteBuffer grown = BinaryTraceFormat.allocate(
+					Math.max(2 * header.capacity(), header.position() + size));
+			header.flip();
+			grown.put(header);
+			header = grown;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Recognizes trace files compressed with gzip or packaged in a ZIP archive,
+ * by their first bytes rather than by their name, and opens the trace they
+ * hold as a stream, decompressed while it is read.
+ */
+final class CompressedTrace {
+
+	/**
+	 * The first bytes of a gzip file.
+	 */
+	private static final byte[] GZIP_MAGIC = { (byte) 0x1f, (byte) 0x8b };
+
+	/**
+	 * The first bytes of a ZIP archive, starting with a local file header.
+	 */
+	private static final byte[] ZIP_MAGIC = { 'P', 'K', 3, 4 };
+
+	/**
+	 * The extension of the entry preferred in a ZIP archive holding several
+	 * files.
+	 */
+	private static final String TRACE_EXTENSION = ".tdi";
+
+	private CompressedTrace() {
+		// Only static methods
+	}
+
+	/**
+	 * Checks whether a file is compressed with gzip or is a ZIP archive.
+	 *
+	 * @param file
+	 *            the file
+	 * @return true if the file is compressed
+	 * @throws IOException
+	 *             if reading the file fails
+	 */
+	static boolean isCompressed(final File file) throws IOException {
+		final byte[] bytes = readStart(file);
+		return startsWith(bytes, GZIP_MAGIC) || startsWith(bytes, ZIP_MAGIC);
+	}
+
+	/**
+	 * Opens the trace of a compressed file. The trace of a ZIP archive is its
+	 * first file ending in <code>.tdi</code>, or its first file if none
+	 * does.
+	 *
+	 * @param file
+	 *            a file for which {@link #isCompressed(File)} holds
+	 * @param parallel
+	 *            true to decompress parts of the file in parallel where its
+	 *            format allows
+	 * @return the decompressed trace, to be closed by the caller
+	 * @throws IOException
+	 *             if the file cannot be opened, or an archive holds no file
+	 */
+	static InputStream open(final File file, final boolean parallel) throws IOException {
+		if (startsWith(readStart(file), GZIP_MAGIC)) {
+			return new GzipTraceInputStream(file, parallel);
+		}
+
+		final ZipFile zip = new ZipFile(file);
+		try {
+			ZipEntry trace = null;
+			final Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				final ZipEntry entry = entries.nextElement();
+				if (entry.isDirectory()) {
+					continue;
+				}
+				if (entry.getName().toLowerCase(Locale.ENGLISH).endsWith(TRACE_EXTENSION)) {
+					trace = entry;
+					break;
+				}
+				if (trace == null) {
+					trace = entry;
+				}
+			}
+			if (trace == null) {
+				throw new ZipException("No trace in " + file.getName());
+			}
+			return new FilterInputStream(zip.getInputStream(trace)) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						zip.close();
+					}
+				}
+			};
+		} catch (IOException e) {
+			zip.close();
+			throw e;
+		}
+	}
+
+	private static byte[] readStart(final File file) throws IOException {
+		final FileInputStream stream = new FileInputStream(file);
+		try {
+			final byte[] bytes = new byte[ZIP_MAGIC.length];
+			int n = 0;
+			while (n < bytes.length) {
+				final int read = stream.read(bytes, n, bytes.length - n);
+				if (read < 0) {
+					return new byte[0];
+				}
+				n += read;
+			}
+			return bytes;
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static boolean startsWith(final byte[] bytes, final byte[] magic) {
+		if (bytes.length < magic.length) {
+			return false;
+		}
+		for (int i = 0; i < magic.length; i++) {
+			if (bytes[i] != magic[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
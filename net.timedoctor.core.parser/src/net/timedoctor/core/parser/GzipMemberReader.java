@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Inflates the members of a gzip file one at a time, reading the file at
+ * absolute offsets, so that several readers can share the channel of the
+ * file and each start at any member. A gzip file written in several parts,
+ * for instance by a parallel compressor, is a sequence of such members.
+ */
+final class GzipMemberReader {
+
+	private static final int BUFFER_SIZE = 64 << 10;
+
+	private static final int FHCRC = 2;
+
+	private static final int FEXTRA = 4;
+
+	private static final int FNAME = 8;
+
+	private static final int FCOMMENT = 16;
+
+	private static final int RESERVED_FLAGS = 0xe0;
+
+	/**
+	 * The longest file name or comment accepted in a member header, beyond
+	 * which the header is taken to be damaged.
+	 */
+	private static final int MAX_HEADER_FIELD = 64 << 10;
+
+	private final FileChannel channel;
+
+	private final Inflater inflater = new Inflater(true);
+
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * The bytes of the file read last, and their file offset.
+	 */
+	private final byte[] input = new byte[BUFFER_SIZE];
+
+	private long inputStart = 0;
+
+	private int inputLength = 0;
+
+	/**
+	 * The file offset of the next byte not passed to the inflater or read
+	 * from a header or trailer.
+	 */
+	private long next;
+
+	/**
+	 * The number of bytes inflated from the current member.
+	 */
+	private long inflated;
+
+	/**
+	 * The file offset after the current member once it is read completely,
+	 * or -1.
+	 */
+	private long end = -1;
+
+	/**
+	 * Creates a reader.
+	 *
+	 * @param channel
+	 *            the channel of the gzip file, not closed by the reader
+	 */
+	GzipMemberReader(final FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Checks whether the bytes at a file offset may start a member, for
+	 * finding the start of a member at any offset. Besides the fields that
+	 * must have fixed values, checks the fields that all known compressors
+	 * set to a few values only.
+	 *
+	 * @param bytes
+	 *            the bytes read
+	 * @param i
+	 *            the index of the offset in the bytes, followed by at least
+	 *            10 bytes
+	 * @return true if the bytes look like the header of a member
+	 */
+	static boolean isHeader(final byte[] bytes, final int i) {
+		if ((bytes[i] != (byte) 0x1f) || (bytes[i + 1] != (byte) 0x8b) || (bytes[i + 2] != 8)
+				|| ((bytes[i + 3] & RESERVED_FLAGS) != 0)) {
+			return false;
+		}
+		final int extraFlags = bytes[i + 8] & 0xff;
+		final int os = bytes[i + 9] & 0xff;
+		return ((extraFlags == 0) || (extraFlags == 2) || (extraFlags == 4))
+				&& ((os <= 13) || (os == 255));
+	}
+
+	/**
+	 * Reads the header of the member at a file offset, and prepares for
+	 * inflating it.
+	 *
+	 * @param offset
+	 *            the file offset of the member
+	 * @throws IOException
+	 *             if the file cannot be read, or there is no member header at
+	 *             the offset
+	 */
+	void start(final long offset) throws IOException {
+		next = offset;
+		end = -1;
+		inflated = 0;
+		inflater.reset();
+		crc.reset();
+
+		if ((readByte() != 0x1f) || (readByte() != 0x8b) || (readByte() != 8)) {
+			throw new ZipException("Not in GZIP format");
+		}
+		final int flags = readByte();
+		if ((flags & RESERVED_FLAGS) != 0) {
+			throw new ZipException("Unsupported GZIP flags");
+		}
+		// Modification time, extra flags and operating system
+		skip(6);
+		if ((flags & FEXTRA) != 0) {
+			skip(readByte() | (readByte() << 8));
+		}
+		if ((flags & FNAME) != 0) {
+			skipString();
+		}
+		if ((flags & FCOMMENT) != 0) {
+			skipString();
+		}
+		if ((flags & FHCRC) != 0) {
+			skip(2);
+		}
+	}
+
+	/**
+	 * Inflates bytes of the current member.
+	 *
+	 * @param bytes
+	 *            receives the bytes
+	 * @param offset
+	 *            the index of the first byte to inflate in the array
+	 * @param length
+	 *            the maximum number of bytes to inflate
+	 * @return the number of bytes inflated, or -1 at the end of the member,
+	 *         once its trailer has been checked
+	 * @throws IOException
+	 *             if the file cannot be read, or the member is damaged
+	 */
+	int read(final byte[] bytes, final int offset, final int length) throws IOException {
+		if (end >= 0) {
+			return -1;
+		} else if (length == 0) {
+			return 0;
+		}
+		try {
+			while (true) {
+				final int n = inflater.inflate(bytes, offset, length);
+				if (n > 0) {
+					crc.update(bytes, offset, n);
+					inflated += n;
+					return n;
+				}
+				if (inflater.finished()) {
+					next -= inflater.getRemaining();
+					readTrailer();
+					return -1;
+				}
+				if (inflater.needsDictionary()) {
+					throw new ZipException("Unexpected GZIP dictionary");
+				}
+				if (inflater.needsInput()) {
+					fill();
+					final int available = (int) (inputStart + inputLength - next);
+					inflater.setInput(input, (int) (next - inputStart), available);
+					next += available;
+				}
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		}
+	}
+
+	/**
+	 * @return the file offset after the current member, or -1 if it was not
+	 *         read completely
+	 */
+	long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Releases the inflater.
+	 */
+	void close() {
+		inflater.end();
+	}
+
+	private void readTrailer() throws IOException {
+		final long expectedCrc = readInt();
+		final long size = readInt();
+		if ((expectedCrc != crc.getValue()) || (size != (inflated & 0xffffffffL))) {
+			throw new ZipException("Corrupt GZIP trailer");
+		}
+		end = next;
+	}
+
+	private long readInt() throws IOException {
+		return (readByte() | (readByte() << 8) | (readByte() << 16) | ((long) readByte() << 24));
+	}
+
+	private void skipString() throws IOException {
+		for (int i = 0; readByte() != 0; i++) {
+			if (i == MAX_HEADER_FIELD) {
+				throw new ZipException("Corrupt GZIP header");
+			}
+		}
+	}
+
+	private void skip(final int n) throws IOException {
+		for (int i = 0; i < n; i++) {
+			readByte();
+		}
+	}
+
+	private int readByte() throws IOException {
+		fill();
+		return input[(int) (next++ - inputStart)] & 0xff;
+	}
+
+	/**
+	 * Makes sure the input holds the byte at the next offset.
+	 */
+	private void fill() throws IOException {
+		if ((next >= inputStart) && (next < inputStart + inputLength)) {
+			return;
+		}
+		final int read = channel.read(ByteBuffer.wrap(input), next);
+		if (read <= 0) {
+			throw new EOFException("Unexpected end of GZIP file");
+		}
+		inputStart = next;
+		inputLength = read;
+	}
+}
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads the decompressed contents of a gzip file, inflating its members in
+ * parallel when it has several, as written by parallel compressors or by
+ * concatenating gzip files.
+ * <p>
+ * The compressed file is divided into regions of a fixed size. A task
+ * inflates the members starting in a region, from the first offset in the
+ * region where a member can be inflated and checked against its trailer,
+ * ahead of the reader. The output of a task is only used if it starts where
+ * the output before it ended; otherwise, as when a member spans several
+ * regions and the task started at bytes inside it that look like a member
+ * header, the members are inflated by the reader itself as they are read.
+ * A file made of one member is thus inflated sequentially, the tasks after
+ * its first region finding no member.
+ */
+final class GzipTraceInputStream extends InputStream {
+
+	/**
+	 * The number of compressed bytes of a region.
+	 */
+	private static final int REGION_SIZE = 1 << 20;
+
+	/**
+	 * The maximum number of bytes inflated by a task, beyond which the
+	 * region is left to the reader, which inflates it as it is read.
+	 */
+	private static final int MAX_REGION_OUTPUT = 64 << 20;
+
+	/**
+	 * The number of bytes of a member header checked when looking for one.
+	 */
+	private static final int HEADER_SIZE = 10;
+
+	/**
+	 * The members inflated by a task, and the compressed bytes they took.
+	 */
+	private static final class Region {
+
+		private final long start;
+
+		private final long end;
+
+		private final byte[] data;
+
+		private final int length;
+
+		private Region(final long start, final long end, final byte[] data, final int length) {
+			this.start = start;
+			this.end = end;
+			this.data = data;
+			this.length = length;
+		}
+	}
+
+	private final FileInputStream stream;
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	/**
+	 * The pool of the tasks, or null if the file is inflated sequentially.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * The tasks submitted, for consecutive regions starting at
+	 * <code>firstTask</code>.
+	 */
+	private final ArrayDeque<ForkJoinTask<Region>> tasks = new ArrayDeque<ForkJoinTask<Region>>();
+
+	private long firstTask = 1;
+
+	private final int maxAhead;
+
+	/**
+	 * Inflates the members read by the reader itself.
+	 */
+	private final GzipMemberReader reader;
+
+	/**
+	 * The file offset of the member read next, once the bytes before it
+	 * are read.
+	 */
+	private long position = 0;
+
+	/**
+	 * True while the reader inflates members itself, until the first member
+	 * starting at or after <code>readLimit</code>.
+	 */
+	private boolean reading = false;
+
+	private long readLimit;
+
+	/**
+	 * The output of a task being read.
+	 */
+	private Region region = null;
+
+	private int regionPosition;
+
+	private boolean finished = false;
+
+	private final byte[] one = new byte[1];
+
+	/**
+	 * Opens a gzip file.
+	 *
+	 * @param file
+	 *            the gzip file
+	 * @param parallel
+	 *            true to inflate the members on all processors, false to
+	 *            inflate them as they are read
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	GzipTraceInputStream(final File file, final boolean parallel) throws IOException {
+		stream = new FileInputStream(file);
+		channel = stream.getChannel();
+		size = channel.size();
+		reader = new GzipMemberReader(channel);
+		if (parallel && (size > REGION_SIZE)) {
+			pool = new ForkJoinPool();
+			maxAhead = 2 * pool.getParallelism();
+		} else {
+			pool = null;
+			maxAhead = 0;
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		return (read(one, 0, 1) < 0) ? -1 : (one[0] & 0xff);
+	}
+
+	@Override
+	public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		while (!finished) {
+			if (region != null) {
+				final int n = Math.min(length, region.length - regionPosition);
+				if (n > 0) {
+					System.arraycopy(region.data, regionPosition, bytes, offset, n);
+					regionPosition += n;
+					return n;
+				}
+				region = null;
+			} else if (reading) {
+				final int n = reader.read(bytes, offset, length);
+				if (n >= 0) {
+					return n;
+				}
+				position = reader.getEnd();
+				nextMember();
+			} else {
+				nextMember();
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void close() throws IOException {
+		finished = true;
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+		try {
+			reader.close();
+			channel.close();
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Prepares for reading the member at the current position, from the
+	 * output of the task of its region if that task started there, or else
+	 * by inflating the members of the region.
+	 */
+	private void nextMember() throws IOException {
+		if (position >= size) {
+			finished = true;
+			return;
+		}
+		if (reading && (position < readLimit)) {
+			startMember();
+			return;
+		}
+		reading = false;
+
+		final long index = position / REGION_SIZE;
+		submitTasks(index);
+		if ((firstTask == index) && !tasks.isEmpty()) {
+			final Region done = join(tasks.removeFirst());
+			firstTask++;
+			if ((done != null) && (done.start == position)) {
+				region = done;
+				regionPosition = 0;
+				position = done.end;
+				return;
+			}
+		}
+		reading = true;
+		readLimit = (index + 1) * REGION_SIZE;
+		startMember();
+	}
+
+	/**
+	 * Starts inflating the member at the current position. Bytes that do not
+	 * start a member end the file, as gzip tools ignore trailing garbage.
+	 */
+	private void startMember() throws IOException {
+		try {
+			reader.start(position);
+		} catch (IOException e) {
+			if (position == 0) {
+				throw e;
+			}
+			finished = true;
+		}
+	}
+
+	/**
+	 * Drops the tasks of the regions before a region, and submits the tasks
+	 * of the regions after it, up to the maximum number of tasks ahead.
+	 */
+	private void submitTasks(final long index) {
+		if (pool == null) {
+			return;
+		}
+		while ((firstTask < index) && !tasks.isEmpty()) {
+			tasks.removeFirst().cancel(true);
+			firstTask++;
+		}
+		if (tasks.isEmpty()) {
+			firstTask = Math.max(firstTask, index);
+		}
+		long next = firstTask + tasks.size();
+		while ((tasks.size() < maxAhead) && (next * REGION_SIZE < size)) {
+			final long start = next * REGION_SIZE;
+			tasks.addLast(pool.submit(new Callable<Region>() {
+				public Region call() {
+					return inflateRegion(start, Math.min(size, start + REGION_SIZE));
+				}
+			}));
+			next++;
+		}
+	}
+
+	private Region join(final ForkJoinTask<Region> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while inflating");
+		} catch (ExecutionException e) {
+			// Left to the reader, which reports the error if it is real
+			return null;
+		}
+	}
+
+	/**
+	 * Inflates the members starting in a region, from the first offset in it
+	 * where a member can be inflated.
+	 *
+	 * @return the members inflated, or null if no member could be inflated
+	 *         from the region or their output was too large
+	 */
+	private Region inflateRegion(final long start, final long limit) {
+		final GzipMemberReader member = new GzipMemberReader(channel);
+		try {
+			long candidate = findHeader(start, limit);
+			while (candidate >= 0) {
+				try {
+					return inflateMembers(member, candidate, limit);
+				} catch (IOException e) {
+					if (Thread.currentThread().isInterrupted()) {
+						return null;
+					}
+					candidate = findHeader(candidate + 1, limit);
+				}
+			}
+			return null;
+		} catch (IOException e) {
+			return null;
+		} finally {
+			member.close();
+		}
+	}
+
+	/**
+	 * Inflates the members from a file offset up to the first member
+	 * starting at or after the limit.
+	 *
+	 * @return the members inflated, or null if their output was too large
+	 */
+	private Region inflateMembers(final GzipMemberReader member, final long start,
+			final long limit) throws IOException {
+		byte[] data = new byte[4 * REGION_SIZE];
+		int length = 0;
+		long offset = start;
+		while (true) {
+			member.start(offset);
+			int n;
+			while ((n = member.read(data, length, data.length - length)) >= 0) {
+				length += n;
+				if (length == data.length) {
+					if (data.length >= MAX_REGION_OUTPUT) {
+						return null;
+					}
+					data = Arrays.copyOf(data, 2 * data.length);
+				}
+			}
+			offset = member.getEnd();
+			if ((offset >= limit) || (offset >= size)) {
+				return new Region(start, offset, data, length);
+			}
+		}
+	}
+
+	/**
+	 * Finds the first bytes that look like a member header in a range of
+	 * file offsets.
+	 *
+	 * @return the offset of the header, or -1 if there is none
+	 */
+	private long findHeader(final long from, final long limit) throws IOException {
+		final byte[] bytes = new byte[64 << 10];
+		long offset = from;
+		while (offset < limit) {
+			final int read = channel.read(ByteBuffer.wrap(bytes), offset);
+			if (read < HEADER_SIZE) {
+				return -1;
+			}
+			final int last = (int) Math.min(read - HEADER_SIZE, limit - 1 - offset);
+			for (int i = 0; i <= last; i++) {
+				if ((bytes[i] == (byte) 0x1f) && GzipMemberReader.isHeader(bytes, i)) {
+					return offset + i;
+				}
+			}
+			offset += last + 1;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.IOException;
+
+/**
+ * The input that decoded records came from, asked for the text of a line
+ * only when the line could not be parsed.
+ */
+interface LineSource {
+
+	/**
+	 * Returns the text of a line, for error reporting.
+	 *
+	 * @param offset
+	 *            the offset of the line, as stored in its record
+	 * @return the text of the line
+	 * @throws IOException
+	 *             if reading the input fails
+	 */
+	String getLine(int offset) throws IOException;
+}
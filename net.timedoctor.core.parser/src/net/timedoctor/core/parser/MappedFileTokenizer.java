@@ -0,0 +1,463 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Tokenizer scanning a memory-mapped trace file in place. Lines and tokens are
+ * kept as offsets into the mapped buffer, and numbers are decoded straight
+ * from the bytes, so no objects are created for lines holding only numeric
+ * arguments. Strings are only created for name and description tokens.
+ * <p>
+ * Files larger than one mapping window are mapped in consecutive windows,
+ * each starting at a line boundary. A tokenizer can also be restricted to a
+ * region of an already opened file, which must start at a line boundary,
+ * or scan bytes already in memory, such as a decompressed part of a trace.
+ */
+class MappedFileTokenizer extends TraceTokenizer {
+
+	/**
+	 * Size of the region of the file that is mapped at once.
+	 */
+	private static final long MAX_WINDOW = 1L << 28;
+
+	/**
+	 * Largest mantissa that can be converted to a double without rounding.
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * Largest power of ten that is exactly representable as a double.
+	 */
+	private static final int MAX_EXACT_POW10 = 22;
+
+	private static final double[] POW10 = new double[MAX_EXACT_POW10 + 1];
+
+	static {
+		POW10[0] = 1d;
+		for (int i = 1; i <= MAX_EXACT_POW10; i++) {
+			POW10[i] = POW10[i - 1] * 10d;
+		}
+	}
+
+	/**
+	 * The stream owning the channel, or null if the channel is shared.
+	 */
+	private final FileInputStream stream;
+
+	private final FileChannel channel;
+
+	/**
+	 * The file offset up to which the file is scanned.
+	 */
+	private final long regionEnd;
+
+	private final Charset charset = Charset.defaultCharset();
+
+	/**
+	 * The currently mapped window, its offset in the file and its length.
+	 */
+	private ByteBuffer buffer;
+
+	private long windowStart;
+
+	private int limit = 0;
+
+	/**
+	 * Offset in the window of the first byte after the current line.
+	 */
+	private int pos = 0;
+
+	private int lineStart;
+
+	private int lineEnd;
+
+	private final int[] tokenStart = new int[MAX_TAG_ARGS];
+
+	private final int[] tokenEnd = new int[MAX_TAG_ARGS];
+
+	private int tokenLength;
+
+	/**
+	 * Opens the file for scanning.
+	 *
+	 * @param file
+	 *            the trace file
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	MappedFileTokenizer(final File file) throws IOException {
+		stream = new FileInputStream(file);
+		channel = stream.getChannel();
+		windowStart = 0;
+		regionEnd = channel.size();
+	}
+
+	/**
+	 * Scans a region of a file opened by the caller. Closing the tokenizer
+	 * leaves the channel open.
+	 * 
+	 * @param channel
+	 *            the channel of the trace file
+	 * @param start
+	 *            the file offset of the first line of the region
+	 * @param end
+	 *            the file offset of the end of the region
+	 */
+	MappedFileTokenizer(final FileChannel channel, final long start, final long end) {
+		this.stream = null;
+		this.channel = channel;
+		this.windowStart = start;
+		this.regionEnd = end;
+	}
+
+	/**
+	 * Scans lines held in memory. The line offsets are indexes in the buffer.
+	 * 
+	 * @param bytes
+	 *            the buffer, holding whole lines from its position up to its
+	 *            limit
+	 */
+	MappedFileTokenizer(final ByteBuffer bytes) {
+		this.stream = null;
+		this.channel = null;
+		this.buffer = bytes;
+		this.windowStart = 0;
+		this.limit = bytes.limit();
+		this.regionEnd = limit;
+		this.pos = bytes.position();
+	}
+
+	/**
+	 * Maps the window starting at the given file offset.
+	 *
+	 * @param offset
+	 *            the file offset of the new window
+	 * @throws IOException
+	 *             if the mapping fails
+	 */
+	private void map(final long offset) throws IOException {
+		windowStart = offset;
+		limit = (int) Math.min(MAX_WINDOW, regionEnd - offset);
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, limit);
+		pos = 0;
+	}
+
+	@Override
+	boolean nextLine() throws IOException {
+		while (true) {
+			if (pos >= limit) {
+				if (windowStart + limit >= regionEnd) {
+					return false;
+				}
+				map(windowStart + limit);
+			}
+
+			final int lineTerminator = scanLine(pos);
+			final boolean moreInFile = (windowStart + limit) < regionEnd;
+			if (moreInFile && ((lineTerminator == limit)
+					|| ((lineTerminator == limit - 1) && (buffer.get(lineTerminator) == '\r')))) {
+				// The line, or its line terminator, continues in the next window
+				if (pos == 0) {
+					throw new IOException("Line too long at offset " + windowStart);
+				}
+				map(windowStart + pos);
+				continue;
+			}
+
+			lineStart = pos;
+			lineEnd = lineTerminator;
+			pos = lineTerminator;
+			if (pos < limit) {
+				// Skip the line terminator: \n, \r or \r\n
+				if ((buffer.get(pos++) == '\r') && (pos < limit)
+						&& (buffer.get(pos) == '\n')) {
+					pos++;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Splits the line starting at the given offset into tokens.
+	 *
+	 * @param start
+	 *            the offset of the first byte of the line
+	 * @return the offset of the line terminator, or <code>limit</code>
+	 */
+	private int scanLine(final int start) {
+		final ByteBuffer buf = buffer;
+		final int lim = limit;
+		int count = 0;
+		int i = start;
+		while (i < lim) {
+			byte b = buf.get(i);
+			if ((b == '\n') || (b == '\r')) {
+				break;
+			}
+			if ((b == ' ') || (b == '\t') || (b == '\f')) {
+				i++;
+				continue;
+			}
+			final int begin = i;
+			do {
+				i++;
+				if (i == lim) {
+					break;
+				}
+				b = buf.get(i);
+			} while ((b != ' ') && (b != '\t') && (b != '\f') && (b != '\n') && (b != '\r'));
+			if (count < MAX_TAG_ARGS) {
+				tokenStart[count] = begin;
+				tokenEnd[count] = i;
+			}
+			count++;
+		}
+		tokenLength = count;
+		return i;
+	}
+
+	@Override
+	int getTokenCount() {
+		return tokenLength;
+	}
+
+	@Override
+	int getCommand() {
+		final int start = tokenStart[0];
+		final int length = tokenEnd[0] - start;
+		final ByteBuffer buf = buffer;
+		switch (length) {
+		case 3:
+			final byte b0 = buf.get(start);
+			final byte b1 = buf.get(start + 1);
+			final byte b2 = buf.get(start + 2);
+			if (b0 == 'S' && b1 == 'T') {
+				if (b2 == 'A') {
+					return CMD_STA;
+				} else if (b2 == 'O') {
+					return CMD_STO;
+				}
+			} else if (b0 == 'O' && b1 == 'C' && b2 == 'C') {
+				return CMD_OCC;
+			} else if (b0 == 'T' && b1 == 'I' && b2 == 'M') {
+				return CMD_TIM;
+			} else if (b0 == 'V' && b1 == 'A' && b2 == 'L') {
+				return CMD_VAL;
+			} else if (b0 == 'D') {
+				if (b1 == 'S' && b2 == 'C') {
+					return CMD_DSC;
+				} else if (b1 == 'N' && b2 == 'M') {
+					return CMD_DNM;
+				} else if (b1 == 'E' && b2 == 'L') {
+					return CMD_DEL;
+				}
+			} else if (b0 == 'N' && b1 == 'A' && b2 == 'M') {
+				return CMD_NAM;
+			} else if (b0 == 'C') {
+				if (b1 == 'R' && b2 == 'E') {
+					return CMD_CRE;
+				} else if (b1 == 'P' && b2 == 'U') {
+					return CMD_CPU;
+				}
+			} else if (b0 == 'E' && b1 == 'N' && b2 == 'D') {
+				return CMD_END;
+			}
+			return CMD_UNKNOWN;
+		case 4:
+		case 5:
+		case 8:
+			return parseCommand(getString(0));
+		default:
+			return CMD_UNKNOWN;
+		}
+	}
+
+	/**
+	 * Decodes an integer the same way as <code>Integer.parseInt</code>, for
+	 * decimal ASCII digits.
+	 */
+	@Override
+	int getInt(final int index) {
+		checkIndex(index);
+		final ByteBuffer buf = buffer;
+		int i = tokenStart[index];
+		final int end = tokenEnd[index];
+		boolean negative = false;
+		final byte first = buf.get(i);
+		if (first == '-' || first == '+') {
+			negative = (first == '-');
+			i++;
+		}
+		if (i == end) {
+			throw numberFormatException(index);
+		}
+		// At most 10 digits after the leading zeros fit in an int, so the
+		// long cannot overflow
+		int significant = i;
+		while ((significant < end - 1) && (buf.get(significant) == '0')) {
+			significant++;
+		}
+		if (end - significant > 10) {
+			throw numberFormatException(index);
+		}
+		long result = 0;
+		for (; i < end; i++) {
+			final int digit = buf.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw numberFormatException(index);
+			}
+			result = result * 10 + digit;
+		}
+		if (negative) {
+			result = -result;
+		}
+		if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+			throw numberFormatException(index);
+		}
+		return (int) result;
+	}
+
+	/**
+	 * Decodes a double. Plain decimal numbers whose mantissa and power of ten
+	 * are both exactly representable are converted with a single correctly
+	 * rounded multiplication or division, which gives the same result as
+	 * <code>Double.parseDouble</code>. All other forms fall back to
+	 * <code>Double.parseDouble</code>.
+	 */
+	@Override
+	double getDouble(final int index) {
+		checkIndex(index);
+		final ByteBuffer buf = buffer;
+		int i = tokenStart[index];
+		final int end = tokenEnd[index];
+		boolean negative = false;
+		byte b = buf.get(i);
+		if (b == '-' || b == '+') {
+			negative = (b == '-');
+			i++;
+		}
+
+		long mantissa = 0;
+		int nDigits = 0;
+		int exponent = 0;
+		boolean fraction = false;
+		for (; i < end; i++) {
+			b = buf.get(i);
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				if (mantissa > MAX_EXACT_MANTISSA) {
+					return Double.parseDouble(getString(index));
+				}
+				nDigits++;
+				if (fraction) {
+					exponent--;
+				}
+			} else if (b == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (nDigits == 0) {
+			return Double.parseDouble(getString(index));
+		}
+
+		if (i < end) {
+			// Only an exponent may follow the mantissa
+			if (b != 'e' && b != 'E') {
+				return Double.parseDouble(getString(index));
+			}
+			i++;
+			boolean negativeExp = false;
+			if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+				negativeExp = (buf.get(i) == '-');
+				i++;
+			}
+			if ((i == end) || (end - i > 3)) {
+				return Double.parseDouble(getString(index));
+			}
+			int exp = 0;
+			for (; i < end; i++) {
+				final int digit = buf.get(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return Double.parseDouble(getString(index));
+				}
+				exp = exp * 10 + digit;
+			}
+			exponent += negativeExp ? -exp : exp;
+		}
+
+		double result = mantissa;
+		if (mantissa != 0 && exponent != 0) {
+			if (exponent > 0 && exponent <= MAX_EXACT_POW10) {
+				result *= POW10[exponent];
+			} else if (exponent < 0 && exponent >= -MAX_EXACT_POW10) {
+				result /= POW10[-exponent];
+			} else {
+				return Double.parseDouble(getString(index));
+			}
+		}
+		return negative ? -result : result;
+	}
+
+	@Override
+	String getString(final int index) {
+		checkIndex(index);
+		return decode(tokenStart[index], tokenEnd[index]);
+	}
+
+	@Override
+	String getLine() {
+		return decode(lineStart, lineEnd);
+	}
+
+	/**
+	 * @return the file offset of the start of the current line
+	 */
+	long getLineOffset() {
+		return windowStart + lineStart;
+	}
+
+	@Override
+	void close() throws IOException {
+		buffer = null;
+		if (stream != null) {
+			try {
+				channel.close();
+			} finally {
+				stream.close();
+			}
+		}
+	}
+
+	/**
+	 * Decodes a range of the current window into a string.
+	 */
+	private String decode(final int start, final int end) {
+		final byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+		return new String(bytes, charset);
+	}
+
+	private NumberFormatException numberFormatException(final int index) {
+		return new NumberFormatException("For input string: \"" + getString(index) + "\"");
+	}
+}
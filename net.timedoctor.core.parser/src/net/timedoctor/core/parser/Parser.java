@@ -10,15 +10,26 @@
  *******************************************************************************/
 package net.timedoctor.core.parser;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.StringTokenizer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 
 import net.timedoctor.core.model.CheckedIllegalArgumentException;
 import net.timedoctor.core.model.SampleCPU;
@@ -33,35 +44,67 @@ import net.timedoctor.core.model.lines.PortSampleLine;
 /**
  * TimeDoctor parser. Designed to run in its own thread, and show a progress
  * monitor in the eclipse window. Parses the file and populates the model with
- * the data. 
+ * the data. A trace file compressed with gzip or packaged in a ZIP archive
+ * is decompressed while it is parsed.
  */
 public class Parser {
 
 	/**
-	 * Max number of arguments (including the command itself)
-	 * in a tag in the trace file.
+	 * The ways in which the trace file can be read.
 	 */
-	private static final int MAX_TAG_ARGS = 10;
-	
+	public enum ParseMode {
+		/**
+		 * Read the file through a <code>Reader</code>, one string per line
+		 * and per token.
+		 */
+		READER,
+		/**
+		 * Memory-map the file and decode the tokens in place.
+		 */
+		MAPPED,
+		/**
+		 * Memory-map the file and decode chunks of it on all processors,
+		 * applying the decoded lines to the model in file order.
+		 */
+		PARALLEL
+	}
+
 	/**
-	 * Constant for the command position in the tokens array.
+	 * Approximate number of bytes of the trace file decoded by one task
+	 * in parallel mode.
 	 */
-	private static final int TAG_CMD_INDEX = 0;
+	private static final long CHUNK_SIZE = 4L << 20;
 
 	/**
-	 * Constants for the indices of the arguments of the TimeDoctor commands
-	 * in the trace file.
+	 * How long the parser waits at most for the next decompressed chunk
+	 * before checking whether the user pressed cancel, in milliseconds.
 	 */
-	private static final int TAG_ARG1_INDEX = 1;
-	private static final int TAG_ARG2_INDEX = 2;
-	private static final int TAG_ARG3_INDEX = 3;
-	private static final int TAG_ARG4_INDEX = 4;
-	private static final int TAG_ARG5_INDEX = 5;
-	private static final int TAG_ARG6_INDEX = 6;
-	private static final int TAG_ARG7_INDEX = 7;
+	private static final long POLL_MILLIS = 100;
+
+	/**
+	 * A chunk of a decompressed trace, and the task decoding it; or the end
+	 * of the trace, or the error that ended reading it.
+	 */
+	private static final class PendingChunk {
+
+		private final StreamChunk chunk;
+
+		private final Future<RecordBuffer> records;
+
+		private final Exception error;
+
+		private PendingChunk(final StreamChunk chunk, final Future<RecordBuffer> records,
+				final Exception error) {
+			this.chunk = chunk;
+			this.records = records;
+			this.error = error;
+		}
+	}
 
 	private TraceModel model;
 	private File       ioFile;
+	private ParseMode  parseMode = ParseMode.PARALLEL;
+	private TraceCache cache = null;
 
 	/**
 	 * The sample CPU currently active. Null until run is called and parsing
@@ -80,12 +123,47 @@ public class Parser {
 	 */
 	private SampleLine lastLine = null;
 	
-	// MR move to argument of methods
-	private int tokenLength;
-	
+	/**
+	 * Tracks the started tasks and ISRs, to add preemption samples.
+	 */
+	private final PreemptionTracker preemption = new PreemptionTracker();
+
 	private List<String> unParsedLinesList = new ArrayList<String>(10);
 
 	private int lineCount = 0;
+
+	/**
+	 * The file offset after the last complete line parsed when following
+	 * the file as it grows, or -1 if the file is not followed.
+	 */
+	private long followOffset = -1;
+
+	/**
+	 * The time of the first sample in seconds, subtracted from all times
+	 * parsed once the start of the trace has been compensated.
+	 */
+	private double timeOffset = 0;
+
+	/**
+	 * The lines appended to a followed file that were decoded by
+	 * {@link #readAppended()}, waiting to be applied, the chunk and stream
+	 * they were read from, and the offset after them.
+	 */
+	private RecordBuffer appendedRecords = null;
+
+	private TraceChunk appendedChunk = null;
+
+	private FileInputStream appendedStream = null;
+
+	private long appendedEnd;
+
+	/**
+	 * The records taken from a source receiving the trace, reused for every
+	 * batch, and whether the start of the received trace was set.
+	 */
+	private RecordBuffer receivedRecords = null;
+
+	private boolean receiving = false;
 	
 	/**
 	 * Initializes the model and input variables, and passes the name to the
@@ -104,6 +182,21 @@ public class Parser {
 		this.ioFile = ioFile;
 	}
 
+	/**
+	 * Initializes a parser filling the model with a trace received from a
+	 * {@link TraceSocketSource}, by
+	 * {@link #applyReceived(TraceSocketSource, int)}, rather than from a
+	 * file.
+	 * 
+	 * @param name
+	 *            the name of the job
+	 * @param model
+	 *            the model to populate with data
+	 */
+	public Parser(final String name, final TraceModel model) {
+		this(name, model, null);
+	}
+
 	/**
 	 * Run method for multithreading. Contains all parser functionality.
 	 * 
@@ -120,15 +213,44 @@ public class Parser {
 		monitor.beginTask("Parsing trace...", IProgressMonitor.UNKNOWN);
 
 		try {
-			parseFile(monitor);
-			compensateStartTime(calculateStartTime());
-			model.setEndTime();
-			closeLines();
-			model.computeMaxValues();
+			// The version of the file that is parsed, for the cache
+			final long length = ioFile.length();
+			final long lastModified = ioFile.lastModified();
+			boolean parsed = false;
+
+			if (CompressedTrace.isCompressed(ioFile)) {
+				// Compressed traces are written at once, and cannot be read
+				// on from where the previous read stopped
+				followOffset = -1;
+			}
+
+			if (BinaryTraceFormat.isBinaryTrace(ioFile)) {
+				// Holds a model that has been parsed and calculated before
+				final BinaryTraceReader reader = new BinaryTraceReader(model, ioFile);
+				reader.open();
+				reader.read(monitor);
+				// Binary traces are written at once, and do not grow
+				followOffset = -1;
+			} else if ((followOffset >= 0) || !loadFromCache(monitor)) {
+				parseFile(monitor);
+				timeOffset = calculateStartTime();
+				compensateStartTime(timeOffset);
+				model.setEndTime();
+				closeLines();
+				model.computeMaxValues();
+				parsed = true;
+			}
 			
 			if (model.getEndTime() <= 0.0d || (unParsedLinesList.size() > lineCount/2)) {
 				throw new TraceParseException("Parse failed, because of a corrupt trace file");
 			}
+
+			// Only complete models are cached, as the unparsed lines are
+			// not stored, and a followed file is not complete yet
+			if (parsed && (cache != null) && unParsedLinesList.isEmpty() && (followOffset < 0)
+					&& (ioFile.length() == length) && (ioFile.lastModified() == lastModified)) {
+				storeInCache();
+			}
 		} catch (InterruptedException e) {
 			//User pressed cancel
 			throw e;
@@ -141,6 +263,240 @@ public class Parser {
 		
 		return (unParsedLinesList.size() == 0);
 	}
+
+	/**
+	 * Sets the cache in which the model of the trace file is looked up
+	 * before parsing, and stored after parsing. By default no cache is used.
+	 * 
+	 * @param cache
+	 *            the cache, or null
+	 */
+	public final void setCache(final TraceCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Sets the way in which the trace file is read. Defaults to
+	 * {@link ParseMode#PARALLEL}.
+	 * 
+	 * @param mode
+	 *            the parse mode to use
+	 */
+	public final void setParseMode(final ParseMode mode) {
+		this.parseMode = mode;
+	}
+
+	/**
+	 * @return the way in which the trace file is read
+	 */
+	public final ParseMode getParseMode() {
+		return parseMode;
+	}
+
+	/**
+	 * Sets whether the trace file is followed as it grows, for instance while
+	 * a target is still writing it. A followed file is parsed up to its last
+	 * complete line, and is not looked up in or stored in the cache. The
+	 * lines appended afterwards are added to the model in batches by
+	 * {@link #readAppended()} and {@link #applyAppended()}. Must be called
+	 * before {@link #doParse(IProgressMonitor)}.
+	 * 
+	 * @param follow
+	 *            true to follow the file
+	 */
+	public final void setFollow(final boolean follow) {
+		followOffset = follow ? 0 : -1;
+	}
+
+	/**
+	 * @return true if the trace file is followed as it grows
+	 */
+	public final boolean isFollowing() {
+		return followOffset >= 0;
+	}
+
+	/**
+	 * Decodes a batch of the complete lines appended to a followed trace
+	 * file since it was parsed, of about {@link #CHUNK_SIZE} bytes. Does not
+	 * touch the model, so it can run in the background while the model is
+	 * shown; the batch is added to the model by {@link #applyAppended()}.
+	 * 
+	 * @return true if lines were decoded, false if no complete line was
+	 *         appended
+	 * @throws IOException
+	 *             if reading the file fails
+	 */
+	public final boolean readAppended() throws IOException {
+		if (followOffset < 0) {
+			throw new IllegalStateException("The trace file is not followed");
+		}
+		closeAppended();
+
+		final FileInputStream stream = new FileInputStream(ioFile);
+		boolean decoded = false;
+		try {
+			final FileChannel channel = stream.getChannel();
+			final long size = channel.size();
+			long end = TraceChunk.lastLineEnd(channel, followOffset,
+					Math.min(size, followOffset + CHUNK_SIZE));
+			if (end == followOffset) {
+				// A line longer than a batch
+				end = TraceChunk.lastLineEnd(channel, followOffset, size);
+			}
+			if (end > followOffset) {
+				appendedChunk = new TraceChunk(channel, followOffset, end);
+				appendedRecords = appendedChunk.call();
+				appendedStream = stream;
+				appendedEnd = end;
+				decoded = true;
+			}
+		} finally {
+			if (!decoded) {
+				stream.close();
+			}
+		}
+		return decoded;
+	}
+
+	/**
+	 * Adds the batch decoded by {@link #readAppended()} to the model. The
+	 * lines are reopened, the records applied, and the lines calculated from
+	 * where they were left and closed at the new end time. Must not run
+	 * while the model is read, for instance painted. The observers of the
+	 * model are not notified, so that the caller notifies them once per
+	 * batch.
+	 * 
+	 * @throws IOException
+	 *             if reading a line that could not be parsed fails
+	 */
+	public final void applyAppended() throws IOException {
+		if (appendedRecords == null) {
+			return;
+		}
+		try {
+			applyBatch(appendedRecords, appendedChunk);
+			followOffset = appendedEnd;
+		} finally {
+			closeAppended();
+		}
+	}
+
+	/**
+	 * Takes a batch of the records received by a source and adds them to the
+	 * model, like {@link #applyAppended()} adds the lines appended to a
+	 * followed file. The first batch holding samples sets the start of the
+	 * trace. Must not run while the model is read, for instance painted. The
+	 * observers of the model are not notified, so that the caller notifies
+	 * them once per batch.
+	 * 
+	 * @param source
+	 *            the source receiving the trace
+	 * @param maxRecords
+	 *            the maximum number of records to take
+	 * @return true if records were taken
+	 * @throws IOException
+	 *             never, as the text of the lines that could not be parsed
+	 *             is kept with the batch
+	 */
+	public final boolean applyReceived(final TraceSocketSource source, final int maxRecords)
+			throws IOException {
+		if (receivedRecords == null) {
+			receivedRecords = new RecordBuffer(maxRecords);
+		}
+		final List<String> lines = new ArrayList<String>();
+		if (source.drain(receivedRecords, lines, maxRecords) == 0) {
+			return false;
+		}
+		final LineSource batch = new LineSource() {
+			public String getLine(final int offset) {
+				return (offset < 0) ? "<received record>" : lines.get(offset);
+			}
+		};
+
+		if (receiving) {
+			applyBatch(receivedRecords, batch);
+			return true;
+		}
+
+		// Collect the records until there are samples to start from
+		try {
+			applyRecords(receivedRecords, batch, new NullProgressMonitor());
+		} catch (InterruptedException e) {
+			// Not cancelled, as no progress monitor is passed
+			throw new IllegalStateException(e);
+		}
+		if (hasSamples()) {
+			receiving = true;
+			timeOffset = calculateStartTime();
+			compensateStartTime(timeOffset);
+			model.setEndTime();
+			calculateLines();
+			model.computeMaxValues();
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a batch of records to a model that was calculated before. The
+	 * lines are reopened, the records applied, and the lines calculated from
+	 * where they were left and closed at the new end time.
+	 * 
+	 * @param records
+	 *            the decoded lines
+	 * @param source
+	 *            the input they were decoded from
+	 * @throws IOException
+	 *             if reading a line that could not be parsed fails
+	 */
+	private void applyBatch(final RecordBuffer records, final LineSource source) throws IOException {
+		for (Section section : model.getSections().values()) {
+			for (SampleLine line : section.getLines()) {
+				line.reopen();
+			}
+		}
+		try {
+			applyRecords(records, source, new NullProgressMonitor());
+		} catch (InterruptedException e) {
+			// Not cancelled, as no progress monitor is passed
+			throw new IllegalStateException(e);
+		}
+		model.setEndTime();
+		calculateLines();
+		model.computeMaxValues();
+	}
+
+	/**
+	 * @return true if any line of the model holds a sample
+	 */
+	private boolean hasSamples() {
+		for (Section section : model.getSections().values()) {
+			for (SampleLine line : section.getLines()) {
+				if (line.getCount() > 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Drops the batch decoded by {@link #readAppended()}, if any, and closes
+	 * the file it was read from.
+	 * 
+	 * @throws IOException
+	 *             if closing the file fails
+	 */
+	private void closeAppended() throws IOException {
+		appendedRecords = null;
+		appendedChunk = null;
+		if (appendedStream != null) {
+			try {
+				appendedStream.close();
+			} finally {
+				appendedStream = null;
+			}
+		}
+	}
 	
 	public String getUnparsedLines() {
 		StringBuilder sb = new StringBuilder("<Line #>: <Parsed Line> (Because of <reason>)\n");
@@ -153,103 +509,446 @@ public class Parser {
 	}
 
 	/**
-	 * Parse the trace file and fill the model.
+	 * Loads the model from the cache, if it holds the current version of the
+	 * trace file.
+	 * 
+	 * @param monitor
+	 *            the progress monitor
+	 * @return true if the model was loaded, false if the file has to be
+	 *         parsed
+	 * @throws Exception
+	 *             if the cache entry could not be loaded completely
+	 */
+	private boolean loadFromCache(final IProgressMonitor monitor) throws Exception {
+		final File entry = (cache == null) ? null : cache.lookup(ioFile);
+		if (entry == null) {
+			return false;
+		}
+
+		final BinaryTraceReader reader = new BinaryTraceReader(model, entry);
+		try {
+			reader.open();
+		} catch (IOException e) {
+			// Written by another version or damaged, parse the file instead
+			cache.remove(ioFile);
+			return false;
+		}
+		try {
+			reader.read(monitor);
+		} catch (IOException e) {
+			// The model is partly filled, so the file cannot be parsed into it
+			cache.remove(ioFile);
+			throw e;
+		}
+		return true;
+	}
+
+	/**
+	 * Stores the model in the cache.
+	 */
+	private void storeInCache() {
+		try {
+			cache.store(ioFile, model);
+		} catch (IOException e) {
+			// The cache only speeds up opening the file again, which
+			// parses the file if it is not in the cache
+			cache.remove(ioFile);
+		}
+	}
+
+	/**
+	 * Parse the trace file and fill the model. A followed file is parsed up
+	 * to its last complete line, and always memory-mapped, as a line still
+	 * being written is parsed once it is complete.
 	 * @param monitor
 	 * 				    the <code>IProgressMonitor</code> object. IProgressMonitor is checked, before parsing each line, if the user pressed cancel
 	 * @throws Exception 
 	 *                  throws any reported <code>Exception</code>
 	 */
 	private void parseFile(final IProgressMonitor monitor) throws Exception {
-		FileReader fileReader = null;
-		
-		try {
-			fileReader = new FileReader(ioFile);
-			final BufferedReader file = new BufferedReader(fileReader);
+		// Decoding ahead only pays off with more than one processor
+		final boolean parallel = (parseMode == ParseMode.PARALLEL)
+				&& (Runtime.getRuntime().availableProcessors() > 1);
+		if (CompressedTrace.isCompressed(ioFile)) {
+			final InputStream in = CompressedTrace.open(ioFile, parallel);
+			try {
+				parseStream(in, parallel, monitor);
+			} finally {
+				in.close();
+			}
+			return;
+		}
+		if (!parallel && (followOffset < 0)) {
+			parseLines(createTokenizer(), monitor);
+			return;
+		}
 
-			String parseLine;
-			String[] tokens = new String[MAX_TAG_ARGS];
+		final FileInputStream stream = new FileInputStream(ioFile);
+		try {
+			final FileChannel channel = stream.getChannel();
+			long end = channel.size();
+			if (followOffset >= 0) {
+				end = TraceChunk.lastLineEnd(channel, 0, end);
+				followOffset = end;
+			}
+			if (parallel) {
+				parseFileParallel(TraceChunk.split(channel, end, CHUNK_SIZE), monitor);
+			} else {
+				parseLines(new MappedFileTokenizer(channel, 0, end), monitor);
+			}
+		} finally {
+			stream.close();
+		}
+	}
 
-			while ((parseLine = file.readLine()) != null) {
+	/**
+	 * Parse the lines of a tokenizer one by one, and close it.
+	 * 
+	 * @param tokenizer
+	 *            the tokenizer of the trace file
+	 * @param monitor
+	 *            the progress monitor, checked for cancellation before
+	 *            applying each line
+	 * @throws Exception
+	 *             throws any reported <code>Exception</code>
+	 */
+	private void parseLines(final TraceTokenizer tokenizer, final IProgressMonitor monitor) throws Exception {
+		final RecordBuffer records = new RecordBuffer(1);
+		
+		try {
+			while (tokenizer.nextLine()) {
 				if (monitor.isCanceled()) {
 					throw new InterruptedException("User interrupted");
 				}
 				
 				lineCount++;
-		
-				// Although it is deprecated, use a StringTokenizer
-				// instead of String.split(), for increased performance
-				// in simple splitting of strings separated by whitespaces
-				StringTokenizer tokenizer = new StringTokenizer(parseLine);
-				
-				for (tokenLength = 0; tokenizer.hasMoreTokens(); tokenLength++) {
-					tokens[tokenLength] = tokenizer.nextToken();
-				}
 
-				if (tokenLength > 0) {
+				records.clear();
+				records.add(tokenizer, 0);
+				if (records.getStatus(0) == RecordBuffer.STATUS_BLANK) {
+					unParsedLinesList.add(lineCount + ": (Because of blank line)");
+				} else {
 					try {
-						parseLine(tokens);
+						applyRecord(records, 0);
 					} catch (Exception e) {
-						unParsedLinesList.add(lineCount + ": " + parseLine + " (Because of " + e.getClass().getSimpleName() + ": " + e.getMessage() + ")");
+						addUnparsedLine(tokenizer.getLine(), e);
 					}
-				} else {
-					unParsedLinesList.add(lineCount + ": (Because of blank line)");
 				}
 			}
 		} finally {
-			if (fileReader != null) {
-				fileReader.close();
+			tokenizer.close();
+		}
+	}
+
+	/**
+	 * Parse the trace file in chunks. The chunks are decoded concurrently,
+	 * a few chunks ahead, and the decoded records are applied to the model in
+	 * file order on the calling thread.
+	 * 
+	 * @param chunks
+	 *            the chunks of the trace file, in file order
+	 * @param monitor
+	 *            the progress monitor, checked for cancellation before
+	 *            applying each line
+	 * @throws Exception
+	 *             throws any reported <code>Exception</code>
+	 */
+	private void parseFileParallel(final TraceChunk[] chunks, final IProgressMonitor monitor) throws Exception {
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			final List<ForkJoinTask<RecordBuffer>> tasks = new ArrayList<ForkJoinTask<RecordBuffer>>(chunks.length);
+			// Bounds the memory used by decoded records waiting to be applied
+			final int maxAhead = 2 * pool.getParallelism();
+
+			for (int c = 0; c < chunks.length; c++) {
+				while ((tasks.size() < chunks.length) && (tasks.size() <= c + maxAhead)) {
+					tasks.add(pool.submit(chunks[tasks.size()]));
+				}
+
+				final RecordBuffer records;
+				try {
+					records = tasks.get(c).get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception) {
+						throw (Exception) e.getCause();
+					}
+					throw e;
+				}
+				tasks.set(c, null);
+
+				applyRecords(records, chunks[c], monitor);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Parse a decompressed trace. In parallel mode the trace is read and
+	 * decompressed on a thread of its own, in chunks, which are decoded
+	 * concurrently, a few chunks ahead, so that decompressing, decoding and
+	 * applying the records to the model on the calling thread overlap.
+	 * 
+	 * @param in
+	 *            the decompressed trace, closed by the caller
+	 * @param parallel
+	 *            true to decode the chunks concurrently
+	 * @param monitor
+	 *            the progress monitor, checked for cancellation before
+	 *            applying each line
+	 * @throws Exception
+	 *             throws any reported <code>Exception</code>
+	 */
+	private void parseStream(final InputStream in, final boolean parallel,
+			final IProgressMonitor monitor) throws Exception {
+		if (parseMode == ParseMode.READER) {
+			parseLines(new ReaderTokenizer(new InputStreamReader(in)), monitor);
+			return;
+		}
+		if (!parallel) {
+			StreamChunk chunk = null;
+			while ((chunk = StreamChunk.read(in, chunk, (int) CHUNK_SIZE)) != null) {
+				applyRecords(chunk.call(), chunk, monitor);
+			}
+			return;
+		}
+
+		final ForkJoinPool pool = new ForkJoinPool();
+		// Bounds the memory used by chunks waiting to be applied
+		final BlockingQueue<PendingChunk> pending = new ArrayBlockingQueue<PendingChunk>(
+				2 * pool.getParallelism());
+		final Thread reader = new Thread(new Runnable() {
+			public void run() {
+				readChunks(in, pool, pending);
 			}
+		}, "Trace decompressor");
+		reader.setDaemon(true);
+		reader.start();
+		try {
+			while (true) {
+				final PendingChunk next = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (monitor.isCanceled()) {
+					throw new InterruptedException("User interrupted");
+				}
+				if (next == null) {
+					continue;
+				} else if (next.error != null) {
+					throw next.error;
+				} else if (next.chunk == null) {
+					break;
+				}
+
+				final RecordBuffer records;
+				try {
+					records = next.records.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception) {
+						throw (Exception) e.getCause();
+					}
+					throw e;
+				}
+				applyRecords(records, next.chunk, monitor);
+			}
+		} finally {
+			reader.interrupt();
+			reader.join();
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Reads a decompressed trace in chunks, and submits the decoding of each
+	 * chunk, until the end of the trace, an error, or an interrupt.
+	 * 
+	 * @param in
+	 *            the decompressed trace
+	 * @param pool
+	 *            the pool decoding the chunks
+	 * @param pending
+	 *            receives the chunks, then the end of the trace or the error
+	 */
+	private static void readChunks(final InputStream in, final ForkJoinPool pool,
+			final BlockingQueue<PendingChunk> pending) {
+		try {
+			StreamChunk chunk = null;
+			while ((chunk = StreamChunk.read(in, chunk, (int) CHUNK_SIZE)) != null) {
+				pending.put(new PendingChunk(chunk, pool.submit(chunk), null));
+			}
+			pending.put(new PendingChunk(null, null, null));
+		} catch (InterruptedException e) {
+			// Parsing stopped
+		} catch (Exception e) {
+			try {
+				pending.put(new PendingChunk(null, null, e));
+			} catch (InterruptedException stopped) {
+				// Parsing stopped
+			}
+		}
+	}
+
+	/**
+	 * Applies decoded lines to the model, in the order of their input.
+	 * 
+	 * @param records
+	 *            the decoded lines
+	 * @param source
+	 *            the input they were decoded from, to read the lines that
+	 *            could not be parsed again
+	 * @param monitor
+	 *            the progress monitor, checked for cancellation before
+	 *            applying each line
+	 * @throws InterruptedException
+	 *             if the user pressed cancel
+	 * @throws IOException
+	 *             if reading a line that could not be parsed fails
+	 */
+	private void applyRecords(final RecordBuffer records, final LineSource source,
+			final IProgressMonitor monitor) throws InterruptedException, IOException {
+		for (int i = 0; i < records.size(); i++) {
+			if (monitor.isCanceled()) {
+				throw new InterruptedException("User interrupted");
+			}
+
+			lineCount++;
+
+			if (records.getStatus(i) == RecordBuffer.STATUS_BLANK) {
+				unParsedLinesList.add(lineCount + ": (Because of blank line)");
+			} else {
+				try {
+					applyRecord(records, i);
+				} catch (Exception e) {
+					addUnparsedLine(source.getLine(records.getOffset(i)), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a line to the list of lines that could not be parsed.
+	 * 
+	 * @param line
+	 *            the text of the line
+	 * @param e
+	 *            the reason why the line could not be parsed
+	 */
+	private void addUnparsedLine(final String line, final Exception e) {
+		unParsedLinesList.add(lineCount + ": " + line + " (Because of " + e.getClass().getSimpleName() + ": " + e.getMessage() + ")");
+	}
+
+	/**
+	 * Creates the tokenizer for the input file, according to the parse mode.
+	 * 
+	 * @return the tokenizer
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	private TraceTokenizer createTokenizer() throws IOException {
+		if (parseMode != ParseMode.READER) {
+			return new MappedFileTokenizer(ioFile);
 		}
+		return new ReaderTokenizer(new FileReader(ioFile));
 	}
 
-	private void parseLine(final String[] tokens) throws Exception {
-		String command = tokens[TAG_CMD_INDEX];
+	/**
+	 * Passes a decoded line to the handler of its command.
+	 * 
+	 * @param records
+	 *            the decoded lines
+	 * @param i
+	 *            the index of the line to apply
+	 * @throws Exception
+	 *             if the line cannot be parsed
+	 */
+	private void applyRecord(final RecordBuffer records, final int i) throws Exception {
+		final byte status = records.getStatus(i);
+		if (status == RecordBuffer.STATUS_REJECTED) {
+			throw records.getError(i);
+		}
+		final int command = records.getCommand(i);
 
-		if (command.compareTo("CPU") == 0) { // CPU <id> <name>
-			parseCpuCommand(tokens);
+		if (command == TraceTokenizer.CMD_CPU) {
+			parseCpuCommand(records.getArg1(i), records.getString(i), records.getArg2(i) != 0);
 			return;
-		} else if ((currentCPU == null) && (command.compareTo("TIME") != 0)) {
+		} else if ((currentCPU == null) && (command != TraceTokenizer.CMD_TIME)) {
 			// Single-cpu file with no cpu tag
 			currentCPU = new SampleCPU(model, 0, null, 1);
 			model.addCPU(currentCPU);
 		}
+
+		if (status == RecordBuffer.STATUS_FAILED) {
+			// Values and descriptions are ignored, without being read,
+			// as long as there is nothing to attach them to
+			if (((command == TraceTokenizer.CMD_VAL) && (lastTime == Double.MIN_VALUE))
+					|| ((command == TraceTokenizer.CMD_DSC) && (lastLine == null))) {
+				return;
+			}
+			throw records.getError(i);
+		}
 		
-		// The following statements are ordered to the average occurence in
-		// a trace file to optimize parsing performance.
-		if (command.compareTo("STA") == 0) {
-			parseStaCommand(tokens);
-		} else if (command.compareTo("STO") == 0) {
-			parseStoCommand(tokens);
-		} else if (command.compareTo("OCC") == 0) {
-			parseOccCommand(tokens);
-		} else if (command.compareTo("TIM") == 0) {
-			parseTimCommand(tokens);
-		} else if (command.compareTo("VAL") == 0) {
-			parseValCommand(tokens);
-		} else if (command.compareTo("DSC") == 0) {
-			parseDscCommand(tokens);
-		} else if (command.compareTo("NAM") == 0) {
-			parseNamCommand(tokens);
-		} else if (command.compareTo("DNM") == 0) {
-			parseDnmCommand(tokens);
-		} else if (command.compareTo("CRE") == 0) {
-			parseCreCommand(tokens);
-		} else if (command.compareTo("DEL") == 0) {
-			parseDelCommand(tokens);
-		} else if (command.compareTo("TIME") == 0) {
-			parseTimeCommand(tokens);
-		} else if (command.compareTo("SPEED") == 0) {
-			parseSpeedCommand(tokens);
-		} else if (command.compareTo("MEMSPEED") == 0) {
-			parseMemspeedCommand(tokens);
-		} else if (command.compareTo("END") == 0) { // breaks the
-			// read-eval loop if
-			// the end-of-file
-			// command is found
-			return;
-		} else {
-			//Unknown command
-			throw new IllegalArgumentException("Unknown command \"" + command + "\"");
+		// The cases are ordered to the average occurence in
+		// a trace file.
+		switch (command) {
+		case TraceTokenizer.CMD_STA:
+			parseStaCommand(records.getTime(i), records.getArg1(i),
+					records.getArg2(i), records.getValue(i));
+			break;
+		case TraceTokenizer.CMD_STO:
+			parseStoCommand(records.getTime(i), records.getArg1(i),
+					records.getArg2(i), records.getValue(i));
+			break;
+		case TraceTokenizer.CMD_OCC:
+			parseOccCommand(records.getTime(i), records.getArg1(i), records.getArg2(i));
+			break;
+		case TraceTokenizer.CMD_TIM:
+			parseTimCommand(records.getTime(i));
+			break;
+		case TraceTokenizer.CMD_VAL:
+			if (lastTime != Double.MIN_VALUE) {
+				parseValCommand(records.getArg1(i), records.getArg2(i), records.getValue(i));
+			}
+			break;
+		case TraceTokenizer.CMD_DSC:
+			if (lastLine != null) {
+				parseDscCommand(DescrType.parseType(records.getArg1(i)), records.getArg2(i),
+						records.getString(i), records.getValue(i));
+			}
+			break;
+		case TraceTokenizer.CMD_NAM:
+			parseNamCommand(records.getArg1(i), records.getArg2(i), records.getString(i));
+			break;
+		case TraceTokenizer.CMD_DNM:
+			parseDnmCommand(records.getArg2(i), records.getString(i));
+			break;
+		case TraceTokenizer.CMD_CRE:
+			parseCreCommand(records.getArg1(i), records.getArg2(i), records.getTime(i));
+			break;
+		case RecordBuffer.CMD_PORT_CRE:
+			final int[] cpus = (int[]) records.getObject(i);
+			if (cpus != null) {
+				parsePortCreCommand(records.getArg1(i), records.getTime(i),
+						records.getArg2(i), model.getCPU(cpus[0]),
+						records.getArg3(i), model.getCPU(cpus[1]));
+			} else {
+				parsePortCreCommand(records.getArg1(i), records.getTime(i),
+						records.getArg2(i), currentCPU,
+						records.getArg3(i), currentCPU);
+			}
+			break;
+		case TraceTokenizer.CMD_DEL:
+			parseDelCommand(records.getArg1(i), records.getArg2(i), records.getTime(i));
+			break;
+		case TraceTokenizer.CMD_TIME:
+			parseTimeCommand(records.getValue(i));
+			break;
+		case TraceTokenizer.CMD_SPEED:
+			parseSpeedCommand(records.getValue(i));
+			break;
+		case TraceTokenizer.CMD_MEMSPEED:
+			parseMemspeedCommand(records.getValue(i));
+			break;
+		default:
+			// END, nothing to do
+			break;
 		}
 	}
 
@@ -275,17 +974,55 @@ public class Parser {
 
 	// MR explain what "closing" means
 	/**
-	 * Consolidates and closes all sample lines.
+	 * Consolidates and closes all sample lines, and releases the unused
+	 * space of their sample arrays.
 	 * 
 	 */
 	private void closeLines() {
+		calculateLines();
+		// Calculating some lines adds samples to others (ports to queues),
+		// so only trim and summarize once all lines are calculated
 		for (Section section : model.getSections().values()) {
 			for (SampleLine line : section.getLines()) {
+				line.trimToSize();
+				line.buildPyramid();
+			}
+		}
+	}
+
+	/**
+	 * Calculates all sample lines up to the end time of the model. Ports
+	 * are calculated last, as they close the queues they feed: the samples
+	 * they add then follow the samples closing the queue, and are removed
+	 * with them when the queue is reopened.
+	 */
+	private void calculateLines() {
+		for (Section section : model.getSections().values()) {
+			if (section.getType() != LineType.PORTS) {
+				for (SampleLine line : section.getLines()) {
+					line.calculate(model.getEndTime());
+				}
+			}
+		}
+		final Section ports = model.getSections().getSection(LineType.PORTS);
+		if (ports != null) {
+			for (SampleLine line : ports.getLines()) {
 				line.calculate(model.getEndTime());
 			}
 		}
 	}
 
+	/**
+	 * Converts a time in ticks to seconds since the start of the trace.
+	 * 
+	 * @param ticks
+	 *            the time in ticks
+	 * @return the time in seconds
+	 */
+	private double toSeconds(final double ticks) {
+		return ticks / model.getTicksPerSec() - timeOffset;
+	}
+
 	/**
 	 * Compensates for dead time at the beginning of the trace.
 	 * 
@@ -298,159 +1035,158 @@ public class Parser {
 				line.compensateStartTime(startTime);
 			}
 		}
+		// Values appended to a followed file are added at the last time
+		if (lastTime != Double.MIN_VALUE) {
+			lastTime -= startTime;
+		}
 	}
 
 	/**
-	 * Parses a CPU command from the supplied token array and instantiates the
-	 * CPU. TDIII commands are in the form
+	 * Handles a CPU command, switching to the CPU and instantiating it if
+	 * needed. TDIII commands are in the form
 	 * <code>CPU &lt;id&gt; &lt;name&gt;</code>. TDII commands in the form
-	 * <code>CPU &lt;name&gt;</code> are also supported.
-	 * 
-	 * @param tokens
-	 *            the array of tokens containing the command
-	 */
-	private void parseCpuCommand(final String[] tokens) {
-		int id;
-		String name = null;
-		if (tokenLength > 2) {
-			id = Integer.parseInt(tokens[1]);
-			name = tokens[2];
-			SampleCPU cpu = model.getCPU(id);
-			if (cpu != null) {
-				currentCPU = cpu;
-			} else {
-				double mcps;
-				if (currentCPU == null) {
-					mcps = 1;
-				} else {
-					mcps = currentCPU.getMemClocksPerSec();
-				}
-				currentCPU = new SampleCPU(model, id, name, mcps);
-				model.addCPU(currentCPU);
-			}
+	 * <code>CPU &lt;name&gt;</code> are also supported, and always create a
+	 * new CPU with id 0.
+	 * 
+	 * @param id
+	 *            the id of the CPU
+	 * @param name
+	 *            the name of the CPU
+	 * @param tdiii
+	 *            true if the command carried a CPU id
+	 */
+	private void parseCpuCommand(final int id, final String name, final boolean tdiii) {
+		SampleCPU cpu = null;
+		if (tdiii) {
+			cpu = model.getCPU(id);
+		}
+		if (cpu != null) {
+			currentCPU = cpu;
 		} else {
-			// backwards compatibility
-			name = tokens[1];
 			double mcps;
 			if (currentCPU == null) {
 				mcps = 1;
 			} else {
 				mcps = currentCPU.getMemClocksPerSec();
 			}
-			currentCPU = new SampleCPU(model, 0, name, mcps);
+			currentCPU = new SampleCPU(model, id, name, mcps);
 			model.addCPU(currentCPU);
 		}
 	}
 
 	/**
-	 * Parses a create command from the tokens array, creating the trace line
-	 * and setting the creation time. Commands are in the form
-	 * <code>CRE &lt;type&gt; &lt;id&gt; &lt;time&gt; [&lt;prod_id&gt;
-	 * [&lt;prod_cpu_id&gt;] &lt;cons_id&gt; [&lt;cons_cpu_id&gt;]]</code>.
+	 * Handles a create command, creating the trace line and setting the
+	 * creation time. Commands are in the form
+	 * <code>CRE &lt;type&gt; &lt;id&gt; &lt;time&gt;</code>.
 	 * 
-	 * @param tokens
-	 *            the token array to parse from
+	 * @param type
+	 *            the line type as it appears in the trace file
+	 * @param id
+	 *            the id of the line
+	 * @param time
+	 *            the creation time in ticks
 	 */
-	private void parseCreCommand(final String[] tokens) {
-		// CRE <type> <id> <time> [<prod_id> [<prod_cpu_id>] <cons_id>
-		// [<cons_cpu_id>]]
-		double time = Double.parseDouble(tokens[TAG_ARG3_INDEX]);
-		lastTime = time / model.getTicksPerSec();
-		int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-		/*
-		 * Needs to deal with ports manually
-		 */
-		// MR extract method to handle ports specifically
-		if (tokenLength > TAG_ARG4_INDEX) {
-			int prodID = Integer.MIN_VALUE;
-			int consID = Integer.MIN_VALUE;
-			SampleCPU prodCpu = null;
-			SampleCPU consCPU = null;
-			prodID = Integer.parseInt(tokens[TAG_ARG4_INDEX]);
-			consID = Integer.parseInt(tokens[TAG_ARG5_INDEX]);
-			if (tokenLength == TAG_ARG6_INDEX) {
-				prodCpu = currentCPU;
-				consCPU = currentCPU;
-			} else if (tokenLength > TAG_ARG6_INDEX) {
-				int prodCpuId = Integer.parseInt(tokens[TAG_ARG6_INDEX]);
-				int consCpuId = Integer.parseInt(tokens[TAG_ARG7_INDEX]);
-				prodCpu = model.getCPU(prodCpuId);
-				consCPU = model.getCPU(consCpuId);
-			}
-			SampleLine prod = null;
-			SampleLine cons = null;
-			Section tasks = model.getSections().getSection(LineType.TASKS);
-			Section queues = model.getSections().getSection(LineType.QUEUES);
-			Section isrs = model.getSections().getSection(LineType.ISRS);
-			if (tasks != null) {
-				prod = tasks.getLine(prodCpu, prodID, lastTime);
-			}
-			if ((prod == null) && (queues != null)) {
-				prod = queues.getLine(prodCpu, prodID, lastTime);
-			}
-			if ((prod == null) && (isrs != null)) {
-				prod = isrs.getLine(prodCpu, prodID, lastTime);
-			}
-			if (tasks != null) {
-				cons = tasks.getLine(consCPU, consID, lastTime);
-			}
-			if ((cons == null) && (queues != null)) {
-				cons = queues.getLine(consCPU, consID, lastTime);
-			}
-			if ((cons == null) && (isrs != null)) {
-				cons = isrs.getLine(consCPU, consID, lastTime);
-			}
-			lastLine = new PortSampleLine(currentCPU, id, prod, cons);
-			lastLine.addToSection(LineType.PORTS);
-			lastLine.setTimeCreate(lastTime);
-		} else {
-			LineType type = LineType.parseType(Integer.parseInt(tokens[TAG_ARG1_INDEX]));
-			lastLine = SampleLine.createLine(currentCPU, type, id, lastTime);
+	private void parseCreCommand(final int type, final int id, final double time) {
+		lastTime = toSeconds(time);
+		lastLine = SampleLine.createLine(currentCPU, LineType.parseType(type), id, lastTime);
+	}
+
+	/**
+	 * Handles a create command for a port, connecting the producing and
+	 * consuming lines. Commands are in the form
+	 * <code>CRE &lt;type&gt; &lt;id&gt; &lt;time&gt; &lt;prod_id&gt;
+	 * &lt;cons_id&gt; [&lt;prod_cpu_id&gt; &lt;cons_cpu_id&gt;]</code>.
+	 * 
+	 * @param id
+	 *            the id of the port
+	 * @param time
+	 *            the creation time in ticks
+	 * @param prodID
+	 *            the id of the producing line
+	 * @param prodCpu
+	 *            the cpu of the producing line
+	 * @param consID
+	 *            the id of the consuming line
+	 * @param consCPU
+	 *            the cpu of the consuming line
+	 */
+	private void parsePortCreCommand(final int id, final double time,
+			final int prodID, final SampleCPU prodCpu,
+			final int consID, final SampleCPU consCPU) {
+		lastTime = toSeconds(time);
+		SampleLine prod = null;
+		SampleLine cons = null;
+		Section tasks = model.getSections().getSection(LineType.TASKS);
+		Section queues = model.getSections().getSection(LineType.QUEUES);
+		Section isrs = model.getSections().getSection(LineType.ISRS);
+		if (tasks != null) {
+			prod = tasks.getLine(prodCpu, prodID, lastTime);
+		}
+		if ((prod == null) && (queues != null)) {
+			prod = queues.getLine(prodCpu, prodID, lastTime);
+		}
+		if ((prod == null) && (isrs != null)) {
+			prod = isrs.getLine(prodCpu, prodID, lastTime);
 		}
+		if (tasks != null) {
+			cons = tasks.getLine(consCPU, consID, lastTime);
+		}
+		if ((cons == null) && (queues != null)) {
+			cons = queues.getLine(consCPU, consID, lastTime);
+		}
+		if ((cons == null) && (isrs != null)) {
+			cons = isrs.getLine(consCPU, consID, lastTime);
+		}
+		lastLine = new PortSampleLine(currentCPU, id, prod, cons);
+		lastLine.addToSection(LineType.PORTS);
+		lastLine.setTimeCreate(lastTime);
 	}
 
 	/**
-	 * Parses a delete command, finds the associated line, and sets that line's
+	 * Handles a delete command, finds the associated line, and sets that line's
 	 * delete time. Command is in the form
 	 * <code>DEL &lt;type&gt; &lt;id&gt; &lt;time&gt;</code>.
 	 * 
-	 * @param tokens
-	 *            the tokens array to parse from
+	 * @param lineType
+	 *            the line type as it appears in the trace file
+	 * @param id
+	 *            the id of the line
+	 * @param time
+	 *            the delete time in ticks
 	 */
-	private void parseDelCommand(final String[] tokens) throws Exception {
-		LineType type = LineType.parseType(Integer.parseInt(tokens[TAG_ARG1_INDEX]));
+	private void parseDelCommand(final int lineType, final int id, final double time) throws Exception {
+		LineType type = LineType.parseType(lineType);
 		Section section = model.getSections().getSection(type);
 		if (section != null) {
-			int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-			double time = Double.parseDouble(tokens[TAG_ARG3_INDEX]);
-			lastTime = time / model.getTicksPerSec();
+			lastTime = toSeconds(time);
 			lastLine = section.getLine(currentCPU, id, lastTime);
 			lastLine.setTimeDelete(lastTime);
 		}
 	}
 
 	/**
-	 * Parses a start command and handles adding the appropriate samples to the
+	 * Handles a start command, adding the appropriate samples to the
 	 * line, performing line interrupts if necessary, etc. Command is in the
 	 * form <code>STA &lt;type&gt; &lt;id&gt; &lt;time&gt;
 	 * [&lt;size&gt;]</code>.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to parse from
+	 * @param time
+	 *            the start time in ticks
+	 * @param lineType
+	 *            the line type as it appears in the trace file
+	 * @param id
+	 *            the id of the line
+	 * @param val
+	 *            the size argument, 1 if absent
 	 */
-	private void parseStaCommand(final String[] tokens) throws CheckedIllegalArgumentException {
-		double time = Double.parseDouble(tokens[TAG_ARG3_INDEX]);
+	private void parseStaCommand(final double time, final int lineType, final int id,
+			final double val) throws CheckedIllegalArgumentException {
 		if (time < 0) {
 			throw new CheckedIllegalArgumentException("STA time is negative: " + time);
 		}
 		
-		LineType type = LineType.parseType(Integer.parseInt(tokens[TAG_ARG1_INDEX]));
-		int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-		lastTime = time / model.getTicksPerSec();
-		double val = 1;
-		if (tokenLength > TAG_ARG4_INDEX) {
-			val = Double.parseDouble(tokens[TAG_ARG4_INDEX]);
-		}
+		LineType type = LineType.parseType(lineType);
+		lastTime = toSeconds(time);
 		// MR extract method for getting/creating the line and section
 		Section section = model.getSections().getSection(type);
 		if (section == null) {
@@ -464,39 +1200,40 @@ public class Parser {
 		}
 		
 		lastLine.addSample(SampleType.START, lastTime, val);
+		preemption.update(lastLine);
 		if ((type == LineType.TASKS) || (type == LineType.ISRS)) {
 			handlePreemption(SampleType.SUSPEND, lastTime, lastLine);
 		}
 	}
 
 	/**
-	 * Parses and handles a stop command from the tokens array. Command is in
-	 * the form
+	 * Handles a stop command. Command is in the form
 	 * <code>STO &lt;type&gt; &lt;id&gt; &lt;time&gt; [&lt;size&gt;]</code>.
 	 * 
-	 * @param tokens
-	 *            the tokens array to br parsed from
+	 * @param time
+	 *            the stop time in ticks
+	 * @param lineType
+	 *            the line type as it appears in the trace file
+	 * @param id
+	 *            the id of the line
+	 * @param size
+	 *            the size argument, 1 if absent
 	 */
-	private void parseStoCommand(final String[] tokens) throws CheckedIllegalArgumentException {
-		double time = Double.parseDouble(tokens[TAG_ARG3_INDEX]);
+	private void parseStoCommand(final double time, final int lineType, final int id,
+			final double size) throws CheckedIllegalArgumentException {
 		if (time < 0) {
 			throw new CheckedIllegalArgumentException("STO time is negative: " + time);
 		}
 		
-		LineType type = LineType.parseType(Integer.parseInt(tokens[TAG_ARG1_INDEX]));
-		int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-		double size = 1;
-
+		LineType type = LineType.parseType(lineType);
 		Section section = model.getSections().getSection(type);
-		if (tokenLength > TAG_ARG4_INDEX) {
-			size = Integer.parseInt(tokens[TAG_ARG4_INDEX]);
-		}
-		lastTime = time / model.getTicksPerSec();
+		lastTime = toSeconds(time);
 		if (section != null) {
 			lastLine = section.getLine(currentCPU, id, lastTime);
 		}
 		if (lastLine != null) {
 			lastLine.addSample(SampleType.STOP, lastTime, size);
+			preemption.update(lastLine);
 			if ((type == LineType.TASKS) || (type == LineType.ISRS)) {
 				handlePreemption(SampleType.RESUME, lastTime, lastLine);
 			}
@@ -504,16 +1241,18 @@ public class Parser {
 	}
 
 	/**
-	 * Parses and handles an OCC command.
+	 * Handles an OCC command.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to parse from
+	 * @param time
+	 *            the time of the occurrence in ticks
+	 * @param lineType
+	 *            the line type as it appears in the trace file
+	 * @param id
+	 *            the id of the line
 	 */
-	private void parseOccCommand(final String[] tokens) {
-		double time = Double.parseDouble(tokens[TAG_ARG3_INDEX]);
-		LineType type = LineType.parseType(Integer.parseInt(tokens[TAG_ARG1_INDEX]));
-		int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-		lastTime = time / model.getTicksPerSec();
+	private void parseOccCommand(final double time, final int lineType, final int id) {
+		LineType type = LineType.parseType(lineType);
+		lastTime = toSeconds(time);
 		Section section = model.getSections().getSection(type);
 		if (section == null) {
 			lastLine = SampleLine.createLine(currentCPU, type, id, lastTime);
@@ -525,82 +1264,86 @@ public class Parser {
 			}
 		}
 		lastLine.addSample(SampleType.EVENT, lastTime);
+		preemption.update(lastLine);
 	}
 
 	/**
-	 * Parses and handles a TIM command.
+	 * Handles a TIM command.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param time
+	 *            the new current time in ticks
 	 */
-	private void parseTimCommand(final String[] tokens) {
-		double time = Double.parseDouble(tokens[TAG_ARG1_INDEX]);
-		lastTime = time / model.getTicksPerSec();
+	private void parseTimCommand(final double time) {
+		lastTime = toSeconds(time);
 	}
 
 	/**
-	 * Parses and handles a VAL command.
+	 * Handles a VAL command, adding a value at the current time. Only called
+	 * once a time has been set.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param lineType
+	 *            the line type as it appears in the trace file
+	 * @param id
+	 *            the id of the line
+	 * @param val
+	 *            the value
 	 */
-	private void parseValCommand(final String[] tokens) {
-		if (lastTime != Double.MIN_VALUE) {
-			LineType type = LineType.parseType(Integer.parseInt(tokens[TAG_ARG1_INDEX]));
-			int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-			double val = Double.parseDouble(tokens[TAG_ARG3_INDEX]);
-			Section section = model.getSections().getSection(type);
-			SampleLine sl = null;
-			if (section == null) {
+	private void parseValCommand(final int lineType, final int id, final double val) {
+		LineType type = LineType.parseType(lineType);
+		Section section = model.getSections().getSection(type);
+		SampleLine sl = null;
+		if (section == null) {
+			sl = SampleLine.createLine(currentCPU, type, id, lastTime);
+		} else {
+			sl = section.getLine(currentCPU, id, lastTime);
+			if (sl == null) {
 				sl = SampleLine.createLine(currentCPU, type, id, lastTime);
-			} else {
-				sl = section.getLine(currentCPU, id, lastTime);
-				if (sl == null) {
-					sl = SampleLine.createLine(currentCPU, type, id, lastTime);
-				}
 			}
-			sl.addSample(SampleType.EVENT, lastTime, val);
 		}
+		sl.addSample(SampleType.EVENT, lastTime, val);
+		preemption.update(sl);
 	}
 
 	/**
-	 * Parses and handles a DSC command, adding the description to the last line
-	 * modified.
+	 * Handles a DSC command, adding the description to the last line
+	 * modified. Only called if there is such a line.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param type
+	 *            the type of the description
+	 * @param id
+	 *            the id of the description
+	 * @param string
+	 *            the text of a <code>STRING</code> description
+	 * @param value
+	 *            the value of any other description
 	 */
-	private void parseDscCommand(final String[] tokens) {
+	private void parseDscCommand(final DescrType type, final int id,
+			final String string, final double value) {
 		// DSC <type> <id> <name>
-		if (lastLine != null) {
-			DescrType type = DescrType.parseString(tokens[TAG_ARG1_INDEX]);
-			int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-			if (type == DescrType.STRING) {
-				String string = tokens[TAG_ARG3_INDEX];
-				lastLine.addDescription(type, id, string);
-			} else if (type == DescrType.CYCLES) {
-				double cycles = Double.parseDouble(tokens[TAG_ARG3_INDEX])
-						/ model.getTicksPerSec();
-				lastLine.addDescription(type, id, cycles);
-			} else {
-				double val = Double.parseDouble(tokens[TAG_ARG3_INDEX]);
-				lastLine.addDescription(type, id, val);
-			}
+		if (type == DescrType.STRING) {
+			lastLine.addDescription(type, id, string);
+		} else if (type == DescrType.CYCLES) {
+			double cycles = toSeconds(value);
+			lastLine.addDescription(type, id, cycles);
+		} else {
+			lastLine.addDescription(type, id, value);
 		}
 	}
 
 	/**
-	 * Parses and handles a name command, setting the name of the last line
-	 * modified.
+	 * Handles a name command, setting the name of the line and making it the
+	 * last line modified.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param lineType
+	 *            the line type as it appears in the trace file
+	 * @param id
+	 *            the id of the line
+	 * @param name
+	 *            the name of the line
 	 */
-	private void parseNamCommand(final String[] tokens) {
+	private void parseNamCommand(final int lineType, final int id, final String name) {
 		// NAM <type> <id> <name>
-		LineType type = LineType.parseType(Integer.parseInt(tokens[TAG_ARG1_INDEX]));
-		int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-		String name = tokens[TAG_ARG3_INDEX];
+		LineType type = LineType.parseType(lineType);
 		Section section = model.getSections().getSection(type);
 		if (section == null) {
 			lastLine = SampleLine.createLine(currentCPU, type, id, 0);
@@ -615,29 +1358,28 @@ public class Parser {
 	}
 
 	/**
-	 * Parses and handles a description name command, registering the name and
+	 * Handles a description name command, registering the name and
 	 * id in the model's description name hash table.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param id
+	 *            the id of the description
+	 * @param name
+	 *            the name of the description
 	 */
-	private void parseDnmCommand(final String[] tokens) {
+	private void parseDnmCommand(final int id, final String name) {
 		// DNM <type> <id> <name>
-		int id = Integer.parseInt(tokens[TAG_ARG2_INDEX]);
-		String name = tokens[TAG_ARG3_INDEX];
 		model.addDescrName(id, name);
 	}
 
 	/**
-	 * Parses and handles a time command, setting the model's ticks per second
+	 * Handles a time command, setting the model's ticks per second
 	 * field. If the new value is zero, restores to the default of 1.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param ticksPerSec
+	 *            the number of ticks per second
 	 */
-	private void parseTimeCommand(final String[] tokens) {
+	private void parseTimeCommand(final double ticksPerSec) {
 		// TIME <ticks_per_sec>
-		double ticksPerSec = Double.parseDouble(tokens[1]);
 		model.setTicksPerSec(ticksPerSec);
 		if (model.getTicksPerSec() == 0) {
 			model.setTicksPerSec(1);
@@ -645,36 +1387,34 @@ public class Parser {
 	}
 
 	/**
-	 * Parses and handles a speed command, setting the speed of the current CPU
+	 * Handles a speed command, setting the speed of the current CPU
 	 * in clocks per second. If the new speed is less than 1, restores to the
 	 * default value of 1.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param cps
+	 *            the number of clocks per second
 	 */
-	private void parseSpeedCommand(final String[] tokens) {
+	private void parseSpeedCommand(final double cps) {
 		// SPEED clocks_per_second>
-		double cps = Double.parseDouble(tokens[TAG_ARG1_INDEX]);
 		currentCPU.setClocksPerSec(Math.max(1, cps));
 	}
 
 	/**
-	 * Parses and handles a memspeed command, setting the memory speed of the
+	 * Handles a memspeed command, setting the memory speed of the
 	 * current cpu in clocks per second. If the new speed is less than one,
 	 * restores to the default value of 1.
 	 * 
-	 * @param tokens
-	 *            the array of tokens to be parsed from
+	 * @param mcps
+	 *            the number of memory clocks per second
 	 */
-	private void parseMemspeedCommand(final String[] tokens) {
+	private void parseMemspeedCommand(final double mcps) {
 		// MEMSPEED <memclocks_per_sec>
-		double mcps = Double.parseDouble(tokens[TAG_ARG1_INDEX]);
 		currentCPU.setMemClocksPerSec(Math.max(1, mcps));
 	}
 
 	/**
-	 * Add preemption (suspend and resume) samples to all other tasks
-	 * and/or ISRs. Used by the parser in adding samples.
+	 * Add preemption (suspend and resume) samples to all other started tasks
+	 * and/or ISRs of the same CPU. Used by the parser in adding samples.
 	 * 
 	 * @param time
 	 *            the time at which to interrupt tasks
@@ -686,23 +1426,10 @@ public class Parser {
 	private void handlePreemption(final SampleType type, final double time,
 			final SampleLine line) {
 		// Assert(lineType == LineType.TASK || lineType == LineType.ISR)
-		addPreemptionSamples(line, type, time, LineType.TASKS);
-
-		// Tasks cannot interrupt ISRs
-		if (line.getType() == LineType.ISRS) {
-			addPreemptionSamples(line, type, time, LineType.ISRS);
-		}
-	}
-
-	private void addPreemptionSamples(final SampleLine line, final SampleType type,
-			final double time, final LineType lineType) {
-		Section section = model.getSections().getSection(lineType);
-		if (section != null) {
-			for (SampleLine l : section.getLines()) {
-				if (l != line) {
-					l.addSample(type, time);
-				}
-			}
+		if (type == SampleType.SUSPEND) {
+			preemption.suspendOthers(line, time);
+		} else {
+			preemption.resumeOthers(line, time);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Sample.SampleType;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.model.lines.PreemptibleLine;
+
+/**
+ * Adds the suspend and resume samples that a task or ISR starting or
+ * stopping causes on the other tasks and ISRs of the same CPU. Only lines that
+ * are started are tracked, so the cost of a start or stop does not depend on
+ * the number of lines in the trace.
+ * <p>
+ * A started line ignores a suspend or resume, apart from counting it, unless
+ * it makes the line go from running to suspended or back. The count of a
+ * suspended line is not stored in the line but derived from a level that
+ * moves with every suspend and resume: lines suspended at the same level
+ * are kept together, so that all lines that have to be resumed are found
+ * at once.
+ */
+class PreemptionTracker {
+
+	/**
+	 * The started lines of one kind, which are suspended and resumed
+	 * together.
+	 */
+	private static final class Scope {
+		/**
+		 * Number of suspends minus number of resumes seen by the scope.
+		 */
+		private int level = 0;
+
+		/**
+		 * The started lines that are not suspended.
+		 */
+		private Set<SampleLine> running = new LinkedHashSet<SampleLine>();
+
+		/**
+		 * The suspended lines, by the level at which they would be running
+		 * again. The number of times such a line has been suspended is the
+		 * current level minus that level.
+		 */
+		private final Map<Integer, Set<SampleLine>> suspended = new HashMap<Integer, Set<SampleLine>>();
+
+		private final Map<SampleLine, Integer> suspendedLevels = new HashMap<SampleLine, Integer>();
+
+		/**
+		 * Updates the state of a line after a sample was added to it.
+		 */
+		void update(final SampleLine line, final PreemptibleLine state) {
+			if (!state.isStarted()) {
+				running.remove(line);
+				removeSuspended(line);
+			} else if (!state.isSuspended()) {
+				removeSuspended(line);
+				running.add(line);
+			}
+		}
+
+		/**
+		 * Suspends all started lines but the given one.
+		 */
+		void suspend(final SampleLine source, final double time) {
+			final boolean sourceRunning = running.remove(source);
+			final Integer sourceLevel = removeSuspended(source);
+
+			level++;
+			if (!running.isEmpty()) {
+				final Integer resumeLevel = Integer.valueOf(level - 1);
+				for (SampleLine line : running) {
+					line.addSample(SampleType.SUSPEND, time);
+					suspendedLevels.put(line, resumeLevel);
+				}
+				suspended.put(resumeLevel, running);
+				running = new LinkedHashSet<SampleLine>();
+			}
+
+			// The source keeps its state
+			if (sourceRunning) {
+				running.add(source);
+			} else if (sourceLevel != null) {
+				addSuspended(source, sourceLevel.intValue() + 1);
+			}
+		}
+
+		/**
+		 * Resumes all started lines but the given one.
+		 */
+		void resume(final SampleLine source, final double time) {
+			final boolean sourceRunning = running.remove(source);
+			final Integer sourceLevel = removeSuspended(source);
+
+			level--;
+			final Set<SampleLine> resumed = suspended.remove(Integer.valueOf(level));
+			if (resumed != null) {
+				for (SampleLine line : resumed) {
+					line.addSample(SampleType.RESUME, time);
+					suspendedLevels.remove(line);
+				}
+				running.addAll(resumed);
+			}
+
+			// The source keeps its state
+			if (sourceRunning) {
+				running.add(source);
+			} else if (sourceLevel != null) {
+				addSuspended(source, sourceLevel.intValue() - 1);
+			}
+		}
+
+		private void addSuspended(final SampleLine line, final int resumeLevel) {
+			final Integer key = Integer.valueOf(resumeLevel);
+			Set<SampleLine> lines = suspended.get(key);
+			if (lines == null) {
+				lines = new LinkedHashSet<SampleLine>();
+				suspended.put(key, lines);
+			}
+			lines.add(line);
+			suspendedLevels.put(line, key);
+		}
+
+		private Integer removeSuspended(final SampleLine line) {
+			final Integer key = suspendedLevels.remove(line);
+			if (key != null) {
+				final Set<SampleLine> lines = suspended.get(key);
+				lines.remove(line);
+				if (lines.isEmpty()) {
+					suspended.remove(key);
+				}
+			}
+			return key;
+		}
+	}
+
+	/**
+	 * The started tasks and ISRs of one CPU.
+	 */
+	private static final class CpuScopes {
+		private final Scope tasks = new Scope();
+
+		private final Scope isrs = new Scope();
+	}
+
+	/**
+	 * The scopes of each CPU, indexed by the index of the CPU in its model.
+	 */
+	private CpuScopes[] cpus = new CpuScopes[1];
+
+	/**
+	 * Updates the state of a line after the parser added a sample to it.
+	 * Must be called for every such sample, so that the tracked state
+	 * matches the state of the line.
+	 *
+	 * @param line
+	 *            the line to which a sample was added
+	 */
+	void update(final SampleLine line) {
+		if (line instanceof PreemptibleLine) {
+			final CpuScopes scopes = getScopes(line.getCPU());
+			final Scope scope = (line.getType() == LineType.ISRS) ? scopes.isrs : scopes.tasks;
+			scope.update(line, (PreemptibleLine) line);
+		}
+	}
+
+	/**
+	 * Suspends the tasks, and for an ISR also the other ISRs, of the CPU of
+	 * a line when the line starts.
+	 *
+	 * @param line
+	 *            the line that started, which is not suspended
+	 * @param time
+	 *            the time of the start
+	 */
+	void suspendOthers(final SampleLine line, final double time) {
+		final CpuScopes scopes = getScopes(line.getCPU());
+		scopes.tasks.suspend(line, time);
+
+		// Tasks cannot interrupt ISRs
+		if (line.getType() == LineType.ISRS) {
+			scopes.isrs.suspend(line, time);
+		}
+	}
+
+	/**
+	 * Resumes the tasks, and for an ISR also the other ISRs, of the CPU of
+	 * a line when the line stops.
+	 *
+	 * @param line
+	 *            the line that stopped, which is not resumed
+	 * @param time
+	 *            the time of the stop
+	 */
+	void resumeOthers(final SampleLine line, final double time) {
+		final CpuScopes scopes = getScopes(line.getCPU());
+		scopes.tasks.resume(line, time);
+
+		// Tasks cannot interrupt ISRs
+		if (line.getType() == LineType.ISRS) {
+			scopes.isrs.resume(line, time);
+		}
+	}
+
+	private CpuScopes getScopes(final SampleCPU cpu) {
+		final int index = cpu.getIndex();
+		if (index < 0) {
+			throw new IllegalArgumentException("CPU " + cpu.getID() + " is not in the model");
+		}
+		if (index >= cpus.length) {
+			cpus = Arrays.copyOf(cpus, Math.max(2 * cpus.length, index + 1));
+		}
+		CpuScopes scopes = cpus[index];
+		if (scopes == null) {
+			scopes = new CpuScopes();
+			cpus[index] = scopes;
+		}
+		return scopes;
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.StringTokenizer;
+
+/**
+ * Tokenizer reading the trace through a <code>Reader</code>, one
+ * <code>String</code> per line and per token. Works on any character source.
+ */
+class ReaderTokenizer extends TraceTokenizer {
+	private final BufferedReader reader;
+
+	private final String[] tokens = new String[MAX_TAG_ARGS];
+
+	private int tokenLength;
+
+	private String line;
+
+	/**
+	 * Creates a tokenizer reading from the given reader.
+	 *
+	 * @param reader
+	 *            the character source of the trace
+	 */
+	ReaderTokenizer(final Reader reader) {
+		this.reader = new BufferedReader(reader);
+	}
+
+	@Override
+	boolean nextLine() throws IOException {
+		line = reader.readLine();
+		if (line == null) {
+			return false;
+		}
+
+		// Although it is deprecated, use a StringTokenizer
+		// instead of String.split(), for increased performance
+		// in simple splitting of strings separated by whitespaces
+		StringTokenizer tokenizer = new StringTokenizer(line);
+		for (tokenLength = 0; tokenizer.hasMoreTokens(); tokenLength++) {
+			String token = tokenizer.nextToken();
+			if (tokenLength < MAX_TAG_ARGS) {
+				tokens[tokenLength] = token;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	int getTokenCount() {
+		return tokenLength;
+	}
+
+	@Override
+	int getCommand() {
+		return parseCommand(tokens[0]);
+	}
+
+	@Override
+	int getInt(final int index) {
+		checkIndex(index);
+		return Integer.parseInt(tokens[index]);
+	}
+
+	@Override
+	double getDouble(final int index) {
+		checkIndex(index);
+		return Double.parseDouble(tokens[index]);
+	}
+
+	@Override
+	String getString(final int index) {
+		checkIndex(index);
+		return tokens[index];
+	}
+
+	@Override
+	String getLine() {
+		return line;
+	}
+
+	@Override
+	void close() throws IOException {
+		reader.close();
+	}
+}
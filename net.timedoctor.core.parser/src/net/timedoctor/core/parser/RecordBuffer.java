@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.util.ArrayList;
+
+import net.timedoctor.core.model.Description.DescrType;
+
+/**
+ * Decoded lines of a trace file, one record per line, stored in primitive
+ * arrays. Decoding only depends on the text of a line, so it can be done for
+ * any number of lines ahead of the parser applying them to the model. Strings,
+ * port CPU ids and decoding errors are kept in a separate object list, as only
+ * few records carry them.
+ * <p>
+ * The meaning of the argument fields depends on the command:
+ * <ul>
+ * <li><code>STA</code>, <code>STO</code>, <code>OCC</code>, <code>DEL</code>
+ * and <code>CRE</code>: line type, id, time and size</li>
+ * <li>port <code>CRE</code>: id, producer id, consumer id, time, and the CPU
+ * ids as object</li>
+ * <li><code>TIM</code>: time</li>
+ * <li><code>VAL</code>: line type, id and value</li>
+ * <li><code>DSC</code>: description type, id, value and string</li>
+ * <li><code>NAM</code> and <code>DNM</code>: line type, id and name</li>
+ * <li><code>CPU</code>: id, 1 for a TDIII command, and name</li>
+ * <li><code>TIME</code>, <code>SPEED</code> and <code>MEMSPEED</code>:
+ * value</li>
+ * </ul>
+ */
+class RecordBuffer {
+
+	/**
+	 * Command code of a port create command, which has more arguments than
+	 * the other create commands.
+	 */
+	static final int CMD_PORT_CRE = 100;
+
+	/**
+	 * The line was decoded.
+	 */
+	static final byte STATUS_OK = 0;
+
+	/**
+	 * The line holds no tokens.
+	 */
+	static final byte STATUS_BLANK = 1;
+
+	/**
+	 * The line was rejected before its command took effect.
+	 */
+	static final byte STATUS_REJECTED = 2;
+
+	/**
+	 * The arguments of the command could not be decoded.
+	 */
+	static final byte STATUS_FAILED = 3;
+
+	/**
+	 * Constants for the indices of the arguments of the TimeDoctor commands
+	 * in the trace file.
+	 */
+	private static final int TAG_ARG1_INDEX = 1;
+	private static final int TAG_ARG2_INDEX = 2;
+	private static final int TAG_ARG3_INDEX = 3;
+	private static final int TAG_ARG4_INDEX = 4;
+	private static final int TAG_ARG5_INDEX = 5;
+	private static final int TAG_ARG6_INDEX = 6;
+	private static final int TAG_ARG7_INDEX = 7;
+
+	private static final int MIN_CAPACITY = 16;
+
+	private int size = 0;
+
+	private byte[] status;
+
+	private int[] command;
+
+	private int[] arg1;
+
+	private int[] arg2;
+
+	private int[] arg3;
+
+	private double[] time;
+
+	private double[] value;
+
+	private int[] offset;
+
+	/**
+	 * Index in <code>objects</code> of the object of each record, or -1.
+	 */
+	private int[] object;
+
+	private final ArrayList<Object> objects = new ArrayList<Object>();
+
+	/**
+	 * Creates an empty buffer.
+	 *
+	 * @param capacity
+	 *            the expected number of records
+	 */
+	RecordBuffer(final int capacity) {
+		allocate(Math.max(MIN_CAPACITY, capacity));
+	}
+
+	private void allocate(final int capacity) {
+		status = copyOf(status, new byte[capacity]);
+		command = copyOf(command, new int[capacity]);
+		arg1 = copyOf(arg1, new int[capacity]);
+		arg2 = copyOf(arg2, new int[capacity]);
+		arg3 = copyOf(arg3, new int[capacity]);
+		time = copyOf(time, new double[capacity]);
+		value = copyOf(value, new double[capacity]);
+		offset = copyOf(offset, new int[capacity]);
+		object = copyOf(object, new int[capacity]);
+	}
+
+	private <T> T copyOf(final T from, final T to) {
+		if (from != null) {
+			System.arraycopy(from, 0, to, 0, size);
+		}
+		return to;
+	}
+
+	/**
+	 * Removes all records.
+	 */
+	void clear() {
+		size = 0;
+		objects.clear();
+	}
+
+	/**
+	 * @return the number of records, which is the number of lines added
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Decodes the current line of the tokenizer and appends it as a record.
+	 * Lines that cannot be decoded are appended with the exception that
+	 * occurred.
+	 *
+	 * @param tokens
+	 *            the tokenizer positioned on the line
+	 * @param lineOffset
+	 *            the position of the line, used to find the line again for
+	 *            error reporting
+	 */
+	void add(final TraceTokenizer tokens, final int lineOffset) {
+		if (size == status.length) {
+			allocate(size * 2);
+		}
+		final int i = size++;
+		offset[i] = lineOffset;
+		object[i] = -1;
+		command[i] = TraceTokenizer.CMD_UNKNOWN;
+
+		final int tokenLength = tokens.getTokenCount();
+		if (tokenLength == 0) {
+			status[i] = STATUS_BLANK;
+			return;
+		}
+
+		status[i] = STATUS_REJECTED;
+		try {
+			if (tokenLength > TraceTokenizer.MAX_TAG_ARGS) {
+				throw new IllegalArgumentException("Too many arguments");
+			}
+			final int cmd = tokens.getCommand();
+			command[i] = cmd;
+			if (cmd == TraceTokenizer.CMD_CPU) { // CPU <id> <name>
+				if (tokenLength > TAG_ARG2_INDEX) {
+					arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+					arg2[i] = 1;
+					setObject(i, tokens.getString(TAG_ARG2_INDEX));
+				} else {
+					// backwards compatibility
+					arg1[i] = 0;
+					arg2[i] = 0;
+					setObject(i, tokens.getString(TAG_ARG1_INDEX));
+				}
+				status[i] = STATUS_OK;
+				return;
+			}
+
+			status[i] = STATUS_FAILED;
+			decodeArguments(tokens, i, cmd, tokenLength);
+			status[i] = STATUS_OK;
+		} catch (Exception e) {
+			setObject(i, e);
+		}
+	}
+
+	/**
+	 * Appends a record that was decoded elsewhere, for instance from a
+	 * binary record stream or from another buffer.
+	 *
+	 * @param recordStatus
+	 *            the status of the record
+	 * @param cmd
+	 *            the command code
+	 * @param a1
+	 *            the first argument
+	 * @param a2
+	 *            the second argument
+	 * @param a3
+	 *            the third argument
+	 * @param t
+	 *            the time
+	 * @param v
+	 *            the value
+	 * @param o
+	 *            the string, port CPU ids or decoding error, or null
+	 * @param lineOffset
+	 *            the position of the line, used to find the line again for
+	 *            error reporting
+	 */
+	void add(final byte recordStatus, final int cmd, final int a1, final int a2,
+			final int a3, final double t, final double v, final Object o,
+			final int lineOffset) {
+		if (size == status.length) {
+			allocate(size * 2);
+		}
+		final int i = size++;
+		status[i] = recordStatus;
+		command[i] = cmd;
+		arg1[i] = a1;
+		arg2[i] = a2;
+		arg3[i] = a3;
+		time[i] = t;
+		value[i] = v;
+		offset[i] = lineOffset;
+		object[i] = -1;
+		if (o != null) {
+			setObject(i, o);
+		}
+	}
+
+	/**
+	 * Decodes the arguments of any command but <code>CPU</code>, in the
+	 * order in which the parser has always read them.
+	 */
+	private void decodeArguments(final TraceTokenizer tokens, final int i,
+			final int cmd, final int tokenLength) {
+		switch (cmd) {
+		case TraceTokenizer.CMD_STA:
+			time[i] = tokens.getDouble(TAG_ARG3_INDEX);
+			arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			value[i] = (tokenLength > TAG_ARG4_INDEX) ? tokens.getDouble(TAG_ARG4_INDEX) : 1;
+			break;
+		case TraceTokenizer.CMD_STO:
+			time[i] = tokens.getDouble(TAG_ARG3_INDEX);
+			arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			value[i] = (tokenLength > TAG_ARG4_INDEX) ? tokens.getInt(TAG_ARG4_INDEX) : 1;
+			break;
+		case TraceTokenizer.CMD_OCC:
+			time[i] = tokens.getDouble(TAG_ARG3_INDEX);
+			arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			break;
+		case TraceTokenizer.CMD_TIM:
+			time[i] = tokens.getDouble(TAG_ARG1_INDEX);
+			break;
+		case TraceTokenizer.CMD_VAL:
+			arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			value[i] = tokens.getDouble(TAG_ARG3_INDEX);
+			break;
+		case TraceTokenizer.CMD_DSC:
+			arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			if (DescrType.parseType(arg1[i]) == DescrType.STRING) {
+				setObject(i, tokens.getString(TAG_ARG3_INDEX));
+			} else {
+				value[i] = tokens.getDouble(TAG_ARG3_INDEX);
+			}
+			break;
+		case TraceTokenizer.CMD_NAM:
+			arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			setObject(i, tokens.getString(TAG_ARG3_INDEX));
+			break;
+		case TraceTokenizer.CMD_DNM:
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			setObject(i, tokens.getString(TAG_ARG3_INDEX));
+			break;
+		case TraceTokenizer.CMD_CRE:
+			if (tokenLength > TAG_ARG4_INDEX) {
+				command[i] = CMD_PORT_CRE;
+				arg1[i] = tokens.getInt(TAG_ARG2_INDEX);
+				time[i] = tokens.getDouble(TAG_ARG3_INDEX);
+				arg2[i] = tokens.getInt(TAG_ARG4_INDEX);
+				if (tokenLength > TAG_ARG6_INDEX) {
+					final int prodCpu = tokens.getInt(TAG_ARG6_INDEX);
+					arg3[i] = tokens.getInt(TAG_ARG5_INDEX);
+					setObject(i, new int[] {prodCpu, tokens.getInt(TAG_ARG7_INDEX)});
+				} else {
+					arg3[i] = tokens.getInt(TAG_ARG5_INDEX);
+				}
+			} else {
+				arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+				arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+				time[i] = tokens.getDouble(TAG_ARG3_INDEX);
+			}
+			break;
+		case TraceTokenizer.CMD_DEL:
+			arg1[i] = tokens.getInt(TAG_ARG1_INDEX);
+			arg2[i] = tokens.getInt(TAG_ARG2_INDEX);
+			time[i] = tokens.getDouble(TAG_ARG3_INDEX);
+			break;
+		case TraceTokenizer.CMD_TIME:
+		case TraceTokenizer.CMD_SPEED:
+		case TraceTokenizer.CMD_MEMSPEED:
+			value[i] = tokens.getDouble(TAG_ARG1_INDEX);
+			break;
+		case TraceTokenizer.CMD_END:
+			// end-of-file command, nothing to do
+			break;
+		default:
+			//Unknown command
+			throw new IllegalArgumentException("Unknown command \"" + tokens.getString(0) + "\"");
+		}
+	}
+
+	private void setObject(final int i, final Object o) {
+		object[i] = objects.size();
+		objects.add(o);
+	}
+
+	byte getStatus(final int i) {
+		return status[i];
+	}
+
+	int getCommand(final int i) {
+		return command[i];
+	}
+
+	int getArg1(final int i) {
+		return arg1[i];
+	}
+
+	int getArg2(final int i) {
+		return arg2[i];
+	}
+
+	int getArg3(final int i) {
+		return arg3[i];
+	}
+
+	double getTime(final int i) {
+		return time[i];
+	}
+
+	double getValue(final int i) {
+		return value[i];
+	}
+
+	int getOffset(final int i) {
+		return offset[i];
+	}
+
+	/**
+	 * @return the string, port CPU ids or decoding error of the record, or
+	 *         null
+	 */
+	Object getObject(final int i) {
+		return (object[i] < 0) ? null : objects.get(object[i]);
+	}
+
+	String getString(final int i) {
+		return (String) getObject(i);
+	}
+
+	Exception getError(final int i) {
+		return (Exception) getObject(i);
+	}
+}
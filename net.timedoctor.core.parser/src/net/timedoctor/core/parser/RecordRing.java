@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring of decoded records, passed from one producer thread to one
+ * consumer thread without locks. The records are stored in primitive arrays
+ * like in a {@link RecordBuffer}, so a full ring holds no objects but the
+ * strings of the records.
+ * <p>
+ * When the ring is full the producer either waits for the consumer, or drops
+ * the oldest record by moving the head itself. The consumer copies records
+ * before taking them by moving the head from where it read them; if the
+ * producer dropped one of them meanwhile, the move fails and the consumer
+ * reads the records again from the new head, so that it never takes a slot
+ * that the producer overwrote.
+ */
+final class RecordRing {
+
+	/**
+	 * The time the producer waits for room in a full ring before checking
+	 * again, and at most for the consumer copying the oldest records before
+	 * dropping them, in nanoseconds.
+	 */
+	private static final long WAIT_NANOS = 100000L;
+
+	private final int mask;
+
+	private final byte[] status;
+
+	private final int[] command;
+
+	private final int[] arg1;
+
+	private final int[] arg2;
+
+	private final int[] arg3;
+
+	private final double[] time;
+
+	private final double[] value;
+
+	/**
+	 * The string, port CPU ids or decoding error of each record, or null.
+	 */
+	private final Object[] object;
+
+	/**
+	 * The text of each record that was not decoded, for error reporting, or
+	 * null.
+	 */
+	private final String[] line;
+
+	private final boolean dropOldest;
+
+	/**
+	 * The position of the oldest record, moved by the consumer, and by the
+	 * producer when dropping.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * The position after the newest record, only moved by the producer.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * The head from which the consumer is copying records, or -1. A
+	 * producer about to drop the record at that head waits a little for
+	 * the copy instead, so that a producer that is always ahead does not
+	 * keep the consumer from taking any record.
+	 */
+	private volatile long copying = -1;
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates an empty ring.
+	 *
+	 * @param capacity
+	 *            the minimum number of records held, rounded up to a power
+	 *            of two
+	 * @param dropOldest
+	 *            true to drop the oldest record when the ring is full, false
+	 *            to wait for the consumer
+	 */
+	RecordRing(final int capacity, final boolean dropOldest) {
+		final int size = (capacity <= 2) ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		mask = size - 1;
+		status = new byte[size];
+		command = new int[size];
+		arg1 = new int[size];
+		arg2 = new int[size];
+		arg3 = new int[size];
+		time = new double[size];
+		value = new double[size];
+		object = new Object[size];
+		line = new String[size];
+		this.dropOldest = dropOldest;
+	}
+
+	/**
+	 * @return the number of records the ring holds
+	 */
+	int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Adds a record at the tail. Only called by the producer.
+	 *
+	 * @param records
+	 *            the decoded lines
+	 * @param i
+	 *            the index of the record to add
+	 * @param text
+	 *            the text of the line if it was not decoded, or null
+	 * @return true if the record was added, false if the ring was closed
+	 *         while waiting for room
+	 */
+	boolean offer(final RecordBuffer records, final int i, final String text) {
+		final long t = tail.get();
+		long deadline = 0;
+		while (t - head.get() > mask) {
+			if (closed) {
+				return false;
+			}
+			if (dropOldest) {
+				final long h = head.get();
+				if (copying == h) {
+					if (deadline == 0) {
+						deadline = System.nanoTime() + WAIT_NANOS;
+					}
+					if (System.nanoTime() - deadline < 0) {
+						Thread.yield();
+						continue;
+					}
+				}
+				if ((t - h > mask) && head.compareAndSet(h, h + 1)) {
+					dropped.incrementAndGet();
+				}
+			} else {
+				LockSupport.parkNanos(WAIT_NANOS);
+			}
+		}
+
+		final int slot = (int) t & mask;
+		status[slot] = records.getStatus(i);
+		command[slot] = records.getCommand(i);
+		arg1[slot] = records.getArg1(i);
+		arg2[slot] = records.getArg2(i);
+		arg3[slot] = records.getArg3(i);
+		time[slot] = records.getTime(i);
+		value[slot] = records.getValue(i);
+		object[slot] = records.getObject(i);
+		line[slot] = text;
+		// Publishes the slot to the consumer
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	/**
+	 * Takes the oldest records. Only called by the consumer.
+	 *
+	 * @param records
+	 *            cleared, and receives the records, each with the index of
+	 *            its text in <code>lines</code> as offset
+	 * @param lines
+	 *            cleared, and receives the text of the records that were
+	 *            not decoded
+	 * @param max
+	 *            the maximum number of records to take
+	 * @return the number of records taken
+	 */
+	int drain(final RecordBuffer records, final List<String> lines, final int max) {
+		int batch = max;
+		while (true) {
+			records.clear();
+			lines.clear();
+			final long h = head.get();
+			final int n = (int) Math.min(batch, tail.get() - h);
+			if (n <= 0) {
+				return 0;
+			}
+			copying = h;
+			for (long p = h; p < h + n; p++) {
+				final int slot = (int) p & mask;
+				int lineOffset = -1;
+				if (line[slot] != null) {
+					lineOffset = lines.size();
+					lines.add(line[slot]);
+				}
+				records.add(status[slot], command[slot], arg1[slot], arg2[slot], arg3[slot],
+						time[slot], value[slot], object[slot], lineOffset);
+			}
+			// Fails if the producer dropped records meanwhile, which may
+			// have overwritten the slots read. A producer dropping all the
+			// time leaves time for copying a few records only.
+			final boolean taken = head.compareAndSet(h, h + n);
+			copying = -1;
+			if (taken) {
+				return n;
+			}
+			batch = Math.max(1, n / 2);
+		}
+	}
+
+	/**
+	 * @return the number of records waiting in the ring
+	 */
+	int size() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	/**
+	 * @return the number of records dropped as the ring was full
+	 */
+	long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Stops a producer waiting for room.
+	 */
+	void close() {
+		closed = true;
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Whole lines of a trace read from a stream, such as a decompressed trace
+ * file, which can be decoded independently of the rest of the trace. Like a
+ * {@link TraceChunk}, but held in memory, as a stream cannot be mapped.
+ */
+final class StreamChunk implements Callable<RecordBuffer>, LineSource {
+
+	/**
+	 * Expected number of bytes per line, used to size the record buffer.
+	 */
+	private static final int BYTES_PER_LINE = 24;
+
+	/**
+	 * The bytes read, holding the lines of the chunk up to
+	 * <code>length</code>, followed by the start of the next line up to
+	 * <code>filled</code>.
+	 */
+	private final byte[] data;
+
+	private final int length;
+
+	private final int filled;
+
+	private StreamChunk(final byte[] data, final int length, final int filled) {
+		this.data = data;
+		this.length = length;
+		this.filled = filled;
+	}
+
+	/**
+	 * Decodes all lines of the chunk.
+	 *
+	 * @return the decoded records, one per line
+	 * @throws IOException
+	 *             if a line is too long
+	 */
+	public RecordBuffer call() throws IOException {
+		final MappedFileTokenizer tokenizer = new MappedFileTokenizer(ByteBuffer.wrap(data, 0, length));
+		final RecordBuffer records = new RecordBuffer(length / BYTES_PER_LINE);
+		while (tokenizer.nextLine()) {
+			records.add(tokenizer, (int) tokenizer.getLineOffset());
+		}
+		return records;
+	}
+
+	/**
+	 * Decodes a line of the chunk again, for error reporting.
+	 *
+	 * @param offset
+	 *            the offset of the line in the chunk, as stored in the record
+	 * @return the text of the line
+	 * @throws IOException
+	 *             if the line is too long
+	 */
+	public String getLine(final int offset) throws IOException {
+		final MappedFileTokenizer tokenizer = new MappedFileTokenizer(
+				ByteBuffer.wrap(data, offset, length - offset));
+		tokenizer.nextLine();
+		return tokenizer.getLine();
+	}
+
+	/**
+	 * Reads the next chunk of a stream, of at least the given size unless
+	 * the stream ends. A chunk ends after the last line feed read, or after
+	 * the last carriage return if no line feed was read, so that a
+	 * carriage return and line feed stay together. A line longer than the
+	 * chunk size makes the chunk larger.
+	 *
+	 * @param in
+	 *            the stream
+	 * @param previous
+	 *            the chunk read before, holding the start of the first line
+	 *            of this chunk, or null for the first chunk
+	 * @param size
+	 *            the size of a chunk in bytes
+	 * @return the chunk, or null at the end of the stream
+	 * @throws IOException
+	 *             if reading the stream fails
+	 */
+	static StreamChunk read(final InputStream in, final StreamChunk previous, final int size)
+			throws IOException {
+		final int carried = (previous == null) ? 0 : previous.filled - previous.length;
+		byte[] data = new byte[Math.max(size, 2 * carried)];
+		if (carried > 0) {
+			System.arraycopy(previous.data, previous.length, data, 0, carried);
+		}
+		int filled = carried;
+		while (true) {
+			final int read = in.read(data, filled, data.length - filled);
+			if (read < 0) {
+				// The last line need not be terminated
+				return (filled == 0) ? null : new StreamChunk(data, filled, filled);
+			}
+			filled += read;
+			if (filled == data.length) {
+				final int end = lastLineEnd(data, filled);
+				if (end > 0) {
+					return new StreamChunk(data, end, filled);
+				}
+				data = Arrays.copyOf(data, 2 * data.length);
+			}
+		}
+	}
+
+	/**
+	 * @return the index after the last line feed, or after the last carriage
+	 *         return but the final byte if there is no line feed, or 0
+	 */
+	private static int lastLineEnd(final byte[] data, final int filled) {
+		for (int i = filled - 1; i >= 0; i--) {
+			if (data[i] == '\n') {
+				return i + 1;
+			}
+		}
+		for (int i = filled - 2; i >= 0; i--) {
+			if (data[i] == '\r') {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.statistics.ExecutionStatistic;
+import net.timedoctor.core.model.statistics.InterruptStatistic;
+import net.timedoctor.core.model.statistics.Statistic;
+import net.timedoctor.core.model.statistics.TaskStatistic;
+import net.timedoctor.core.model.statistics.TraceStatistic;
+
+/**
+ * Computes the task statistics of trace files without a user interface, and
+ * prints them as CSV or JSON. Runs from the command line as
+ *
+ * <pre>
+ * java net.timedoctor.core.parser.TraceAnalyzer [-start seconds] [-end seconds]
+ *     [-format csv|json] [-threads n] trace...
+ * </pre>
+ *
+ * The window defaults to the whole trace. Traces are parsed and analyzed
+ * concurrently on a pool of threads, and printed in the order given. The
+ * exit status is 0 if all traces were parsed completely, 1 if some lines
+ * could not be parsed, and 2 if a trace could not be analyzed.
+ */
+public class TraceAnalyzer {
+
+	/**
+	 * The formats in which the statistics can be printed.
+	 */
+	public enum Format {
+		/**
+		 * One record per task, preceded by a header record.
+		 */
+		CSV,
+		/**
+		 * An array with one object per trace, holding an array with one
+		 * object per task.
+		 */
+		JSON
+	}
+
+	private static final String CSV_HEADER = "trace,task,executions,load,"
+			+ "exec_min,exec_avg,exec_max,"
+			+ "interrupts,int_min,int_avg,int_max";
+
+	private final double windowStartTime;
+
+	private final double windowEndTime;
+
+	private final Format format;
+
+	/**
+	 * Creates an analyzer for a time window.
+	 *
+	 * @param windowStartTime
+	 *            the start of the window in seconds
+	 * @param windowEndTime
+	 *            the end of the window in seconds, or a negative value for
+	 *            the end of each trace
+	 * @param format
+	 *            the format in which to print the statistics
+	 */
+	public TraceAnalyzer(final double windowStartTime,
+			final double windowEndTime,
+			final Format format) {
+		this.windowStartTime = windowStartTime;
+		this.windowEndTime = windowEndTime;
+		this.format = format;
+	}
+
+	/**
+	 * Parses a trace file and computes the statistics of its tasks in the
+	 * window.
+	 *
+	 * @param file
+	 *            the trace file
+	 * @param parseMode
+	 *            the way in which the trace file is read
+	 * @param monitor
+	 *            the progress monitor of the parser
+	 * @param sb
+	 *            the buffer to append the formatted statistics to
+	 * @return true, if all the lines in the file were parsed, false otherwise
+	 * @throws InterruptedException
+	 *             if parsing was cancelled
+	 * @throws InvocationTargetException
+	 *             if the trace could not be parsed
+	 */
+	public final boolean analyze(final File file,
+			final Parser.ParseMode parseMode,
+			final IProgressMonitor monitor,
+			final StringBuilder sb) throws InterruptedException, InvocationTargetException {
+		final TraceModel model = new TraceModel();
+		final Parser parser = new Parser(file.getName(), model, file);
+		parser.setParseMode(parseMode);
+		final boolean complete = parser.doParse(monitor);
+
+		final double endTime = (windowEndTime < 0) ? model.getEndTime() : windowEndTime;
+		final TraceStatistic traceStat = new TraceStatistic(model);
+		traceStat.calculate(windowStartTime, endTime);
+
+		if (format == Format.CSV) {
+			appendCsv(sb, file.getPath(), traceStat);
+		} else {
+			appendJson(sb, file.getPath(), complete, traceStat);
+		}
+		return complete;
+	}
+
+	/**
+	 * Analyzes trace files on a pool of threads, and prints their statistics
+	 * in the order of the files. A trace that cannot be analyzed is reported
+	 * on the error stream, and does not stop the others.
+	 *
+	 * @param files
+	 *            the trace files
+	 * @param nThreads
+	 *            the number of traces analyzed at the same time
+	 * @param out
+	 *            the stream to print the statistics to
+	 * @param err
+	 *            the stream to report errors and incomplete traces to
+	 * @return the exit status, see {@link TraceAnalyzer}
+	 * @throws InterruptedException
+	 *             if the thread was interrupted while waiting for a trace
+	 */
+	public final int analyzeAll(final List<File> files,
+			final int nThreads,
+			final PrintStream out,
+			final PrintStream err) throws InterruptedException {
+		// A single trace is parsed on all processors; several traces at the
+		// same time are parsed one thread each, so as not to oversubscribe
+		final Parser.ParseMode parseMode = ((nThreads > 1) && (files.size() > 1))
+				? Parser.ParseMode.MAPPED : Parser.ParseMode.PARALLEL;
+		final ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, nThreads));
+		try {
+			final StringBuilder[] texts = new StringBuilder[files.size()];
+			final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < texts.length; i++) {
+				final File file = files.get(i);
+				final StringBuilder sb = new StringBuilder();
+				texts[i] = sb;
+				results.add(pool.submit(new Callable<Boolean>() {
+					public Boolean call() throws Exception {
+						return analyze(file, parseMode, new NullProgressMonitor(), sb);
+					}
+				}));
+			}
+
+			int status = 0;
+			if (format == Format.CSV) {
+				out.println(CSV_HEADER);
+			} else {
+				out.print("[");
+			}
+			boolean first = true;
+			for (int i = 0; i < files.size(); i++) {
+				try {
+					if (!results.get(i).get()) {
+						err.println(files.get(i).getPath() + ": some lines could not be parsed");
+						status = Math.max(status, 1);
+					}
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof InvocationTargetException) {
+						cause = ((InvocationTargetException) cause).getTargetException();
+					}
+					err.println(files.get(i).getPath() + ": " + cause);
+					status = 2;
+					continue;
+				}
+				if (format == Format.CSV) {
+					out.print(texts[i]);
+				} else {
+					out.print(first ? "\n" : ",\n");
+					out.print(texts[i]);
+				}
+				first = false;
+			}
+			if (format == Format.JSON) {
+				out.println("\n]");
+			}
+			out.flush();
+			return status;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Appends one CSV record per task.
+	 */
+	private static void appendCsv(final StringBuilder sb,
+			final String trace,
+			final TraceStatistic traceStat) {
+		for (Statistic stat : traceStat.getChildren()) {
+			final TaskStatistic task = (TaskStatistic) stat;
+			final InterruptStatistic executions = task.getExecutionsStatistic();
+			final ExecutionStatistic exec = task.getExExecTimeStatistic();
+			final InterruptStatistic interrupts = task.getInterruptStatistic();
+			appendCsvField(sb, trace).append(',');
+			appendCsvField(sb, task.getName()).append(',');
+			sb.append(executions.getNTotal()).append(',');
+			appendDouble(sb, exec.getLoad()).append(',');
+			appendDouble(sb, exec.getMinTime()).append(',');
+			appendDouble(sb, exec.getAvgTime()).append(',');
+			appendDouble(sb, exec.getMaxTime()).append(',');
+			sb.append(interrupts.getNTotal()).append(',');
+			sb.append(interrupts.getNMin()).append(',');
+			sb.append(interrupts.getNAvg()).append(',');
+			sb.append(interrupts.getNMax()).append('\n');
+		}
+	}
+
+	/**
+	 * Appends an object holding the statistics of the tasks of a trace.
+	 */
+	private static void appendJson(final StringBuilder sb,
+			final String trace,
+			final boolean complete,
+			final TraceStatistic traceStat) {
+		sb.append("  {\"trace\": ");
+		appendJsonString(sb, trace);
+		sb.append(", \"complete\": ").append(complete);
+		sb.append(", \"tasks\": [");
+		boolean first = true;
+		for (Statistic stat : traceStat.getChildren()) {
+			final TaskStatistic task = (TaskStatistic) stat;
+			final ExecutionStatistic exec = task.getExExecTimeStatistic();
+			final InterruptStatistic interrupts = task.getInterruptStatistic();
+			sb.append(first ? "\n" : ",\n");
+			first = false;
+			sb.append("    {\"name\": ");
+			appendJsonString(sb, task.getName());
+			sb.append(", \"executions\": ").append(task.getExecutionsStatistic().getNTotal());
+			sb.append(", \"load\": ");
+			appendDouble(sb, exec.getLoad());
+			sb.append(", \"exec\": {\"min\": ");
+			appendDouble(sb, exec.getMinTime());
+			sb.append(", \"avg\": ");
+			appendDouble(sb, exec.getAvgTime());
+			sb.append(", \"max\": ");
+			appendDouble(sb, exec.getMaxTime());
+			sb.append("}, \"interrupts\": {\"total\": ").append(interrupts.getNTotal());
+			sb.append(", \"min\": ").append(interrupts.getNMin());
+			sb.append(", \"avg\": ").append(interrupts.getNAvg());
+			sb.append(", \"max\": ").append(interrupts.getNMax());
+			sb.append("}}");
+		}
+		sb.append(first ? "]}" : "\n  ]}");
+	}
+
+	/**
+	 * Appends a number in a form that CSV and JSON readers accept in any
+	 * locale.
+	 */
+	private static StringBuilder appendDouble(final StringBuilder sb, final double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return sb.append('0');
+		}
+		return sb.append(String.format(Locale.ROOT, "%.9g", value));
+	}
+
+	private static StringBuilder appendCsvField(final StringBuilder sb, final String value) {
+		if ((value.indexOf(',') < 0) && (value.indexOf('"') < 0)
+				&& (value.indexOf('\n') < 0)) {
+			return sb.append(value);
+		}
+		return sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+
+	private static void appendJsonString(final StringBuilder sb, final String value) {
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if ((c == '"') || (c == '\\')) {
+				sb.append('\\').append(c);
+			} else if (c < ' ') {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		sb.append('"');
+	}
+
+	private static void usage() {
+		System.err.println("Usage: TraceAnalyzer [-start seconds] [-end seconds]"
+				+ " [-format csv|json] [-threads n] trace...");
+		System.exit(2);
+	}
+
+	/**
+	 * Analyzes the trace files given on the command line.
+	 *
+	 * @param args
+	 *            the options and trace files, see {@link TraceAnalyzer}
+	 */
+	public static void main(final String[] args) {
+		double startTime = 0d;
+		double endTime = -1d;
+		Format format = Format.CSV;
+		int nThreads = Runtime.getRuntime().availableProcessors();
+		final List<File> files = new ArrayList<File>();
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				final String arg = args[i];
+				if (!arg.startsWith("-")) {
+					files.add(new File(arg));
+				} else if (i + 1 == args.length) {
+					usage();
+				} else if (arg.equals("-start")) {
+					startTime = Double.parseDouble(args[++i]);
+				} else if (arg.equals("-end")) {
+					endTime = Double.parseDouble(args[++i]);
+				} else if (arg.equals("-format")) {
+					format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+				} else if (arg.equals("-threads")) {
+					nThreads = Integer.parseInt(args[++i]);
+				} else {
+					usage();
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			usage();
+		}
+		if (files.isEmpty()) {
+			usage();
+		}
+
+		int status;
+		try {
+			status = new TraceAnalyzer(startTime, endTime, format).analyzeAll(files, nThreads,
+					System.out, System.err);
+		} catch (InterruptedException e) {
+			status = 2;
+		}
+		System.exit(status);
+	}
+}
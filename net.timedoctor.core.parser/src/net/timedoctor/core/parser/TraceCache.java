@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import net.timedoctor.core.model.TraceModel;
+
+/**
+ * A directory of binary trace files holding the calculated models of trace
+ * files that were parsed before, so that opening an unchanged trace file
+ * again loads its model instead of parsing it. An entry is keyed by the
+ * path, size and modification time of the trace file, so changing the file
+ * makes its entry unused.
+ * <p>
+ * Storing an entry removes the entries of older versions of the same trace
+ * file. When the entries take more than the maximum size, the entries that
+ * were least recently stored or loaded are removed.
+ */
+public class TraceCache {
+
+	/**
+	 * The default maximum size of the cache directory: 1 GB.
+	 */
+	public static final long DEFAULT_MAX_SIZE = 1L << 30;
+
+	private static final String SUFFIX = ".tdb";
+
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final File directory;
+
+	private final long maxSize;
+
+	/**
+	 * Creates a cache in a directory, which is created when the first entry
+	 * is stored.
+	 *
+	 * @param directory
+	 *            the cache directory, holding no other files
+	 * @param maxSize
+	 *            the maximum number of bytes of all entries together
+	 */
+	public TraceCache(final File directory, final long maxSize) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the entry of the current version of a trace file, marking it as
+	 * recently used.
+	 *
+	 * @param source
+	 *            the trace file
+	 * @return the binary trace file holding the model of the trace file, or
+	 *         null if there is none
+	 */
+	public final synchronized File lookup(final File source) {
+		final File entry = getEntry(source);
+		if (!entry.isFile()) {
+			return null;
+		}
+		entry.setLastModified(System.currentTimeMillis());
+		return entry;
+	}
+
+	/**
+	 * Stores the model of the current version of a trace file, and evicts
+	 * entries as needed.
+	 *
+	 * @param source
+	 *            the trace file
+	 * @param model
+	 *            the model parsed from the trace file
+	 * @throws IOException
+	 *             if the entry cannot be written
+	 */
+	public final synchronized void store(final File source, final TraceModel model) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create cache directory " + directory);
+		}
+		final File entry = getEntry(source);
+		final File temp = File.createTempFile(entry.getName(), TEMP_SUFFIX, directory);
+		try {
+			new BinaryTraceWriter(model).write(temp);
+			entry.delete();
+			if (!temp.renameTo(entry)) {
+				throw new IOException("Cannot rename " + temp + " to " + entry);
+			}
+		} finally {
+			temp.delete();
+		}
+
+		// Older versions of the trace file will not be looked up again
+		final String prefix = getPathKey(source);
+		for (File file : listEntries()) {
+			if (file.getName().startsWith(prefix) && !file.equals(entry)) {
+				file.delete();
+			}
+		}
+		evict();
+	}
+
+	/**
+	 * Removes the entry of the current version of a trace file, for instance
+	 * because it could not be loaded.
+	 *
+	 * @param source
+	 *            the trace file
+	 */
+	public final synchronized void remove(final File source) {
+		getEntry(source).delete();
+	}
+
+	/**
+	 * Removes the least recently used entries until all entries together
+	 * take at most the maximum size.
+	 */
+	public final synchronized void evict() {
+		final File[] entries = listEntries();
+		final long[] lastUsed = new long[entries.length];
+		final Integer[] order = new Integer[entries.length];
+		long size = 0;
+		for (int i = 0; i < entries.length; i++) {
+			// Read once, as sorting on a changing time is not stable
+			lastUsed[i] = entries[i].lastModified();
+			order[i] = i;
+			size += entries[i].length();
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(final Integer a, final Integer b) {
+				return (lastUsed[a] < lastUsed[b]) ? -1 : ((lastUsed[a] == lastUsed[b]) ? 0 : 1);
+			}
+		});
+		for (int i = 0; (i < order.length) && (size > maxSize); i++) {
+			final File entry = entries[order[i]];
+			final long length = entry.length();
+			if (entry.delete()) {
+				size -= length;
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public final synchronized void clear() {
+		for (File file : listEntries()) {
+			file.delete();
+		}
+	}
+
+	private File[] listEntries() {
+		final File[] entries = directory.listFiles(new FileFilter() {
+			public boolean accept(final File file) {
+				return file.isFile() && file.getName().endsWith(SUFFIX);
+			}
+		});
+		return (entries == null) ? new File[0] : entries;
+	}
+
+	/**
+	 * Returns the entry file for the current version of a trace file. Its
+	 * name consists of a hash of the path, the size and the modification
+	 * time of the trace file.
+	 */
+	private File getEntry(final File source) {
+		return new File(directory, getPathKey(source) + source.length()
+				+ "-" + source.lastModified() + SUFFIX);
+	}
+
+	private String getPathKey(final File source) {
+		String path;
+		try {
+			path = source.getCanonicalPath();
+		} catch (IOException e) {
+			path = source.getAbsolutePath();
+		}
+
+		final byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1").digest(path.getBytes(BinaryTraceFormat.UTF8));
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform supports SHA-1
+			throw new IllegalStateException(e);
+		}
+		final StringBuilder key = new StringBuilder(2 * digest.length + 1);
+		for (byte b : digest) {
+			key.append(HEX_DIGITS[(b >> 4) & 0xf]).append(HEX_DIGITS[b & 0xf]);
+		}
+		return key.append('-').toString();
+	}
+}
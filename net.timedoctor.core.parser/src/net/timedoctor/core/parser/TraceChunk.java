@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+
+/**
+ * A region of a trace file made of whole lines, which can be decoded
+ * independently of the rest of the file.
+ */
+class TraceChunk implements Callable<RecordBuffer>, LineSource {
+
+	/**
+	 * Expected number of bytes per line, used to size the record buffer.
+	 */
+	private static final int BYTES_PER_LINE = 24;
+
+	private final FileChannel channel;
+
+	private final long start;
+
+	private final long end;
+
+	/**
+	 * Creates a chunk.
+	 *
+	 * @param channel
+	 *            the channel of the trace file
+	 * @param start
+	 *            the file offset of the first line of the chunk
+	 * @param end
+	 *            the file offset after the last line of the chunk
+	 */
+	TraceChunk(final FileChannel channel, final long start, final long end) {
+		this.channel = channel;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Decodes all lines of the chunk.
+	 *
+	 * @return the decoded records, one per line
+	 * @throws IOException
+	 *             if reading the file fails
+	 */
+	public RecordBuffer call() throws IOException {
+		final MappedFileTokenizer tokenizer = new MappedFileTokenizer(channel, start, end);
+		final RecordBuffer records = new RecordBuffer((int) ((end - start) / BYTES_PER_LINE));
+		try {
+			while (tokenizer.nextLine()) {
+				records.add(tokenizer, (int) (tokenizer.getLineOffset() - start));
+			}
+		} finally {
+			tokenizer.close();
+		}
+		return records;
+	}
+
+	/**
+	 * Reads a line of the chunk again, for error reporting.
+	 *
+	 * @param offset
+	 *            the offset of the line in the chunk, as stored in the record
+	 * @return the text of the line
+	 * @throws IOException
+	 *             if reading the file fails
+	 */
+	public String getLine(final int offset) throws IOException {
+		final MappedFileTokenizer tokenizer = new MappedFileTokenizer(channel, start + offset, end);
+		try {
+			tokenizer.nextLine();
+			return tokenizer.getLine();
+		} finally {
+			tokenizer.close();
+		}
+	}
+
+	/**
+	 * Splits a file into chunks of about the given size. Every chunk but the
+	 * first starts right after a line terminator.
+	 *
+	 * @param channel
+	 *            the channel of the trace file
+	 * @param fileSize
+	 *            the number of bytes of the file to split
+	 * @param chunkSize
+	 *            the approximate size of a chunk in bytes
+	 * @return the chunks, in file order
+	 * @throws IOException
+	 *             if reading the file fails
+	 */
+	static TraceChunk[] split(final FileChannel channel, final long fileSize,
+			final long chunkSize) throws IOException {
+		final int maxChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
+		final long[] bounds = new long[maxChunks + 1];
+		int count = 0;
+		long boundary = 0;
+		while (boundary < fileSize) {
+			bounds[count++] = boundary;
+			boundary = nextLineStart(channel, boundary + chunkSize, fileSize);
+		}
+		bounds[count] = fileSize;
+
+		final TraceChunk[] chunks = new TraceChunk[count];
+		for (int i = 0; i < count; i++) {
+			chunks[i] = new TraceChunk(channel, bounds[i], bounds[i + 1]);
+		}
+		return chunks;
+	}
+
+	/**
+	 * Finds the first line starting at or after the given offset.
+	 *
+	 * @return the offset of the line start, or the file size
+	 */
+	private static long nextLineStart(final FileChannel channel, final long offset,
+			final long fileSize) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(4096);
+		// A line starts at the offset if the byte before it ends a line
+		long position = offset - 1;
+		while (position < fileSize) {
+			buffer.clear();
+			final int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				final byte b = buffer.get(i);
+				if (b == '\n') {
+					return position + i + 1;
+				} else if (b == '\r') {
+					// Keep \r\n together
+					final long next = position + i + 1;
+					if (i + 1 < read) {
+						return (buffer.get(i + 1) == '\n') ? next + 1 : next;
+					}
+					final ByteBuffer one = ByteBuffer.allocate(1);
+					if ((channel.read(one, next) == 1) && (one.get(0) == '\n')) {
+						return next + 1;
+					}
+					return next;
+				}
+			}
+			position += read;
+		}
+		return fileSize;
+	}
+
+	/**
+	 * Finds the end of the last complete line in a region of a file, for
+	 * reading a file while it is written. Only a line feed ends a line, so
+	 * that a carriage return written before its line feed does not end it.
+	 *
+	 * @param channel
+	 *            the channel of the trace file
+	 * @param start
+	 *            the file offset of the region, at a line start
+	 * @param end
+	 *            the file offset of the end of the region
+	 * @return the offset after the last line feed in the region, or the
+	 *         start if there is none
+	 * @throws IOException
+	 *             if reading the file fails
+	 */
+	static long lastLineEnd(final FileChannel channel, final long start, final long end)
+			throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long position = end;
+		while (position > start) {
+			final int length = (int) Math.min(buffer.capacity(), position - start);
+			buffer.clear();
+			buffer.limit(length);
+			final long from = position - length;
+			int read = 0;
+			while (read < length) {
+				final int n = channel.read(buffer, from + read);
+				if (n <= 0) {
+					return start;
+				}
+				read += n;
+			}
+			for (int i = length - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n') {
+					return from + i + 1;
+				}
+			}
+			position = from;
+		}
+		return start;
+	}
+}
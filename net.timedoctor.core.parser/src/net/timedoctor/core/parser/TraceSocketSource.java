@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives a trace over a TCP connection, for instance from an agent on a
+ * target, instead of reading it from a file. The trace is sent either as the
+ * text of a trace file, or as a binary record stream, which starts with
+ * other bytes than any text trace; see {@link TraceStreamFormat}.
+ * <p>
+ * A network thread accepts one connection at a time, decodes the records
+ * and puts them in a bounded ring. The model is filled from the ring in
+ * batches by {@link Parser#applyReceived(TraceSocketSource, int)}. When the
+ * ring is full, the source either stops reading the connection until there
+ * is room again, which slows down the sender, or drops the oldest records,
+ * which keeps the sender running at the cost of losing part of the trace.
+ */
+public class TraceSocketSource {
+
+	/**
+	 * What the source does with a record received while the ring is full.
+	 */
+	public enum Overflow {
+		/**
+		 * Wait until the records are taken from the ring, and meanwhile
+		 * stop reading the connection.
+		 */
+		BLOCK,
+		/**
+		 * Drop the oldest record in the ring.
+		 */
+		DROP_OLDEST
+	}
+
+	/**
+	 * The port listened on by default.
+	 */
+	public static final int DEFAULT_PORT = 7001;
+
+	/**
+	 * The number of records held by default, some seconds of a busy trace.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+
+	private final InetSocketAddress address;
+
+	private final RecordRing ring;
+
+	private final AtomicLong received = new AtomicLong();
+
+	private ServerSocket serverSocket = null;
+
+	private volatile Socket socket = null;
+
+	private volatile boolean closed = false;
+
+	private volatile IOException error = null;
+
+	private Thread thread = null;
+
+	/**
+	 * Creates a source listening on the loopback address.
+	 *
+	 * @param port
+	 *            the TCP port, or 0 for any free port
+	 * @param capacity
+	 *            the number of records the ring holds at least
+	 * @param overflow
+	 *            what to do when the ring is full
+	 */
+	public TraceSocketSource(final int port, final int capacity, final Overflow overflow) {
+		this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), capacity, overflow);
+	}
+
+	/**
+	 * Creates a source listening on the given address.
+	 *
+	 * @param address
+	 *            the address and TCP port
+	 * @param capacity
+	 *            the number of records the ring holds at least
+	 * @param overflow
+	 *            what to do when the ring is full
+	 */
+	public TraceSocketSource(final InetSocketAddress address, final int capacity,
+			final Overflow overflow) {
+		this.address = address;
+		this.ring = new RecordRing(capacity, overflow == Overflow.DROP_OLDEST);
+	}
+
+	/**
+	 * Starts listening, and the network thread.
+	 *
+	 * @throws IOException
+	 *             if the address cannot be bound
+	 */
+	public synchronized void start() throws IOException {
+		if (serverSocket != null) {
+			throw new IllegalStateException("The source is started already");
+		}
+		serverSocket = new ServerSocket();
+		serverSocket.bind(address);
+		thread = new Thread(new Runnable() {
+			public void run() {
+				receive();
+			}
+		}, "Trace receiver on port " + serverSocket.getLocalPort());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops listening, closes the connection and waits for the network
+	 * thread to end. The records in the ring can still be taken.
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the network thread
+	 */
+	public void close() throws InterruptedException {
+		closed = true;
+		ring.close();
+		final Thread receiver;
+		synchronized (this) {
+			receiver = thread;
+			closeQuietly(serverSocket);
+			closeQuietly(socket);
+		}
+		if (receiver != null) {
+			receiver.join();
+		}
+	}
+
+	/**
+	 * @return the TCP port listened on, or -1 if the source is not started
+	 */
+	public synchronized int getPort() {
+		return (serverSocket == null) ? -1 : serverSocket.getLocalPort();
+	}
+
+	/**
+	 * @return true while a sender is connected
+	 */
+	public boolean isConnected() {
+		return socket != null;
+	}
+
+	/**
+	 * @return the number of records received, including those dropped
+	 */
+	public long getReceivedCount() {
+		return received.get();
+	}
+
+	/**
+	 * @return the number of records dropped because the ring was full
+	 */
+	public long getDroppedCount() {
+		return ring.getDropped();
+	}
+
+	/**
+	 * @return the number of records received that were not taken yet
+	 */
+	public int getPendingCount() {
+		return ring.size();
+	}
+
+	/**
+	 * @return the error that ended the last connection, or null
+	 */
+	public IOException getError() {
+		return error;
+	}
+
+	/**
+	 * Takes the oldest records received. Only called by one thread.
+	 *
+	 * @param records
+	 *            receives the records
+	 * @param lines
+	 *            receives the text of the records that were not decoded
+	 * @param max
+	 *            the maximum number of records to take
+	 * @return the number of records taken
+	 */
+	int drain(final RecordBuffer records, final List<String> lines, final int max) {
+		return ring.drain(records, lines, max);
+	}
+
+	/**
+	 * Accepts connections one by one until the source is closed.
+	 */
+	private void receive() {
+		while (!closed) {
+			final Socket accepted;
+			try {
+				accepted = serverSocket.accept();
+			} catch (IOException e) {
+				// Closed, or the server socket failed
+				if (!closed) {
+					error = e;
+				}
+				return;
+			}
+			synchronized (this) {
+				if (closed) {
+					closeQuietly(accepted);
+					return;
+				}
+				socket = accepted;
+			}
+			try {
+				receive(accepted.getInputStream());
+				error = null;
+			} catch (SocketException e) {
+				if (!closed) {
+					error = e;
+				}
+			} catch (IOException e) {
+				error = e;
+			} finally {
+				synchronized (this) {
+					closeQuietly(accepted);
+					socket = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decodes the records of a connection into the ring, until the sender
+	 * closes it.
+	 */
+	private void receive(final InputStream stream) throws IOException {
+		final BufferedInputStream in = new BufferedInputStream(stream);
+		final RecordBuffer records = new RecordBuffer(1);
+		if (isBinary(in)) {
+			final DataInputStream data = new DataInputStream(in);
+			TraceStreamFormat.readVersion(data);
+			while (TraceStreamFormat.read(data, records, 0)) {
+				if (!put(records, null)) {
+					return;
+				}
+			}
+		} else {
+			final ReaderTokenizer tokenizer = new ReaderTokenizer(
+					new InputStreamReader(in, BinaryTraceFormat.UTF8));
+			while (tokenizer.nextLine()) {
+				records.add(tokenizer, 0);
+				final String text = (records.getStatus(0) == RecordBuffer.STATUS_OK) ? null
+						: tokenizer.getLine();
+				if (!put(records, text)) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts the only record of a buffer in the ring, and clears the buffer.
+	 *
+	 * @return false if the source was closed
+	 */
+	private boolean put(final RecordBuffer records, final String text) {
+		final boolean put = ring.offer(records, 0, text);
+		records.clear();
+		if (put) {
+			received.incrementAndGet();
+		}
+		return put;
+	}
+
+	/**
+	 * Checks whether a stream starts with the magic bytes of a binary record
+	 * stream, and if so skips them.
+	 */
+	private static boolean isBinary(final BufferedInputStream in) throws IOException {
+		final byte[] magic = TraceStreamFormat.MAGIC;
+		in.mark(magic.length);
+		for (int i = 0; i < magic.length; i++) {
+			if (in.read() != magic[i]) {
+				in.reset();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void closeQuietly(final Closeable closeable) {
+		if (closeable == null) {
+			return;
+		}
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			// Nothing left to do with it
+		}
+	}
+}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import net.timedoctor.core.model.Description.DescrType;
+
+/**
+ * Layout of a binary record stream, the compact alternative to the text of a
+ * trace file for sending a trace over a socket. All numbers are big-endian,
+ * in network byte order. The stream starts with the magic bytes and the
+ * format version as int, followed by one record per trace file line: the
+ * command code of the line as a byte, as in {@link TraceTokenizer}, and its
+ * arguments in the order of the text line:
+ * <ul>
+ * <li><code>STA</code> and <code>STO</code>: line type and id as int, time
+ * and value as double</li>
+ * <li><code>OCC</code>, <code>CRE</code> and <code>DEL</code>: line type and
+ * id as int, time as double</li>
+ * <li>port <code>CRE</code> ({@link RecordBuffer#CMD_PORT_CRE}): id as int,
+ * time as double, producer and consumer id as int, and a byte that is 1 if
+ * the producer and consumer CPU ids follow as int</li>
+ * <li><code>TIM</code>: time as double</li>
+ * <li><code>VAL</code>: line type and id as int, value as double</li>
+ * <li><code>DSC</code>: description type and id as int, and a string for a
+ * string description or else the value as double</li>
+ * <li><code>NAM</code>: line type and id as int, name as string</li>
+ * <li><code>DNM</code>: id as int, name as string</li>
+ * <li><code>CPU</code>: id as int, a byte that is 1 for a TDIII command, and
+ * the name as string</li>
+ * <li><code>TIME</code>, <code>SPEED</code> and <code>MEMSPEED</code>: value
+ * as double</li>
+ * <li><code>END</code>: nothing</li>
+ * </ul>
+ * Strings are stored as their length in UTF-8 bytes followed by the bytes, a
+ * length of -1 meaning null, as in a binary trace file.
+ */
+final class TraceStreamFormat {
+
+	/**
+	 * The first bytes of a binary record stream. A text stream cannot start
+	 * with them, as they hold a zero byte.
+	 */
+	static final byte[] MAGIC = {'T', 'D', 'S', 0};
+
+	static final int VERSION = 1;
+
+	/**
+	 * The longest string accepted, to reject a corrupt length before
+	 * allocating it.
+	 */
+	private static final int MAX_STRING_LENGTH = 1 << 16;
+
+	private TraceStreamFormat() {
+	}
+
+	/**
+	 * Writes the magic bytes and the version.
+	 *
+	 * @param out
+	 *            the stream
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	static void writeHeader(final DataOutputStream out) throws IOException {
+		out.write(MAGIC);
+		out.writeInt(VERSION);
+	}
+
+	/**
+	 * Reads the version following the magic bytes, which the caller has
+	 * read already.
+	 *
+	 * @param in
+	 *            the stream
+	 * @throws IOException
+	 *             if reading fails, or the version is not supported
+	 */
+	static void readVersion(final DataInputStream in) throws IOException {
+		final int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported record stream version " + version);
+		}
+	}
+
+	/**
+	 * Writes a decoded record.
+	 *
+	 * @param out
+	 *            the stream
+	 * @param records
+	 *            the decoded lines
+	 * @param i
+	 *            the index of the record, which must have been decoded
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	static void write(final DataOutputStream out, final RecordBuffer records, final int i)
+			throws IOException {
+		final int cmd = records.getCommand(i);
+		out.writeByte(cmd);
+		switch (cmd) {
+		case TraceTokenizer.CMD_STA:
+		case TraceTokenizer.CMD_STO:
+			out.writeInt(records.getArg1(i));
+			out.writeInt(records.getArg2(i));
+			out.writeDouble(records.getTime(i));
+			out.writeDouble(records.getValue(i));
+			break;
+		case TraceTokenizer.CMD_OCC:
+		case TraceTokenizer.CMD_CRE:
+		case TraceTokenizer.CMD_DEL:
+			out.writeInt(records.getArg1(i));
+			out.writeInt(records.getArg2(i));
+			out.writeDouble(records.getTime(i));
+			break;
+		case RecordBuffer.CMD_PORT_CRE:
+			out.writeInt(records.getArg1(i));
+			out.writeDouble(records.getTime(i));
+			out.writeInt(records.getArg2(i));
+			out.writeInt(records.getArg3(i));
+			final int[] cpus = (int[]) records.getObject(i);
+			out.writeByte((cpus != null) ? 1 : 0);
+			if (cpus != null) {
+				out.writeInt(cpus[0]);
+				out.writeInt(cpus[1]);
+			}
+			break;
+		case TraceTokenizer.CMD_TIM:
+			out.writeDouble(records.getTime(i));
+			break;
+		case TraceTokenizer.CMD_VAL:
+			out.writeInt(records.getArg1(i));
+			out.writeInt(records.getArg2(i));
+			out.writeDouble(records.getValue(i));
+			break;
+		case TraceTokenizer.CMD_DSC:
+			out.writeInt(records.getArg1(i));
+			out.writeInt(records.getArg2(i));
+			if (DescrType.parseType(records.getArg1(i)) == DescrType.STRING) {
+				writeString(out, records.getString(i));
+			} else {
+				out.writeDouble(records.getValue(i));
+			}
+			break;
+		case TraceTokenizer.CMD_NAM:
+			out.writeInt(records.getArg1(i));
+			out.writeInt(records.getArg2(i));
+			writeString(out, records.getString(i));
+			break;
+		case TraceTokenizer.CMD_DNM:
+			out.writeInt(records.getArg2(i));
+			writeString(out, records.getString(i));
+			break;
+		case TraceTokenizer.CMD_CPU:
+			out.writeInt(records.getArg1(i));
+			out.writeByte(records.getArg2(i));
+			writeString(out, records.getString(i));
+			break;
+		case TraceTokenizer.CMD_TIME:
+		case TraceTokenizer.CMD_SPEED:
+		case TraceTokenizer.CMD_MEMSPEED:
+			out.writeDouble(records.getValue(i));
+			break;
+		case TraceTokenizer.CMD_END:
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown command " + cmd);
+		}
+	}
+
+	/**
+	 * Reads a record and appends it to a buffer.
+	 *
+	 * @param in
+	 *            the stream
+	 * @param records
+	 *            receives the record
+	 * @param lineOffset
+	 *            the position of the record, stored with it
+	 * @return true if a record was read, false at the end of the stream
+	 * @throws IOException
+	 *             if reading fails, or the stream is corrupt
+	 */
+	static boolean read(final DataInputStream in, final RecordBuffer records, final int lineOffset)
+			throws IOException {
+		final int cmd = in.read();
+		if (cmd < 0) {
+			return false;
+		}
+		int a1 = 0;
+		int a2 = 0;
+		int a3 = 0;
+		double t = 0;
+		double v = 0;
+		Object o = null;
+		switch (cmd) {
+		case TraceTokenizer.CMD_STA:
+		case TraceTokenizer.CMD_STO:
+			a1 = in.readInt();
+			a2 = in.readInt();
+			t = in.readDouble();
+			v = in.readDouble();
+			break;
+		case TraceTokenizer.CMD_OCC:
+		case TraceTokenizer.CMD_CRE:
+		case TraceTokenizer.CMD_DEL:
+			a1 = in.readInt();
+			a2 = in.readInt();
+			t = in.readDouble();
+			break;
+		case RecordBuffer.CMD_PORT_CRE:
+			a1 = in.readInt();
+			t = in.readDouble();
+			a2 = in.readInt();
+			a3 = in.readInt();
+			if (in.readByte() != 0) {
+				o = new int[] {in.readInt(), in.readInt()};
+			}
+			break;
+		case TraceTokenizer.CMD_TIM:
+			t = in.readDouble();
+			break;
+		case TraceTokenizer.CMD_VAL:
+			a1 = in.readInt();
+			a2 = in.readInt();
+			v = in.readDouble();
+			break;
+		case TraceTokenizer.CMD_DSC:
+			a1 = in.readInt();
+			a2 = in.readInt();
+			if (DescrType.parseType(a1) == DescrType.STRING) {
+				o = readString(in);
+			} else {
+				v = in.readDouble();
+			}
+			break;
+		case TraceTokenizer.CMD_NAM:
+			a1 = in.readInt();
+			a2 = in.readInt();
+			o = readString(in);
+			break;
+		case TraceTokenizer.CMD_DNM:
+			a2 = in.readInt();
+			o = readString(in);
+			break;
+		case TraceTokenizer.CMD_CPU:
+			a1 = in.readInt();
+			a2 = in.readByte();
+			o = readString(in);
+			break;
+		case TraceTokenizer.CMD_TIME:
+		case TraceTokenizer.CMD_SPEED:
+		case TraceTokenizer.CMD_MEMSPEED:
+			v = in.readDouble();
+			break;
+		case TraceTokenizer.CMD_END:
+			break;
+		default:
+			// The records cannot be delimited any more
+			throw new IOException("Corrupt record stream, unknown command " + cmd);
+		}
+		records.add(RecordBuffer.STATUS_OK, cmd, a1, a2, a3, t, v, o, lineOffset);
+		return true;
+	}
+
+	private static void writeString(final DataOutputStream out, final String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		final byte[] bytes = s.getBytes(BinaryTraceFormat.UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(final DataInputStream in) throws IOException {
+		final int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > MAX_STRING_LENGTH) {
+			throw new IOException("Corrupt record stream, string of " + length + " bytes");
+		}
+		final byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, BinaryTraceFormat.UTF8);
+	}
+}
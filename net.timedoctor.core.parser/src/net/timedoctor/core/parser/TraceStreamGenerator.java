@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Generates a synthetic trace and sends it to a {@link TraceSocketSource} on
+ * the loopback address, as text or as a binary record stream, for testing
+ * live ingestion without a target. The trace holds rounds in which every
+ * task runs once, the first task writing a queue and being interrupted
+ * every third round, and the other tasks raising an event and setting a
+ * value.
+ */
+public class TraceStreamGenerator {
+
+	/**
+	 * The length of the slot of a task in a round, in microseconds.
+	 */
+	private static final int SLOT = 10;
+
+	private final int nTasks;
+
+	private final int nRounds;
+
+	/**
+	 * Creates a generator.
+	 *
+	 * @param nTasks
+	 *            the number of tasks
+	 * @param nRounds
+	 *            the number of rounds
+	 */
+	public TraceStreamGenerator(final int nTasks, final int nRounds) {
+		this.nTasks = nTasks;
+		this.nRounds = nRounds;
+	}
+
+	/**
+	 * @return the number of lines of the trace
+	 */
+	public int getLineCount() {
+		final int header = 3 + nTasks;
+		final int perRound = 4 * nTasks;
+		final int interrupted = (nRounds + 2) / 3;
+		return header + nRounds * perRound + 2 * interrupted;
+	}
+
+	/**
+	 * Writes the trace as text, as in a trace file.
+	 *
+	 * @param writer
+	 *            receives the trace
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void write(final Writer writer) throws IOException {
+		writer.write("TIME 1000000\n");
+		writer.write("CPU 0 loopback\n");
+		writer.write("NAM 3 1 queue\n");
+		for (int t = 1; t <= nTasks; t++) {
+			writer.write("NAM 0 " + t + " task" + t + "\n");
+		}
+		for (int r = 0; r < nRounds; r++) {
+			for (int t = 1; t <= nTasks; t++) {
+				final long time = ((long) r * nTasks + t - 1) * SLOT;
+				writer.write("STA 0 " + t + " " + time + "\n");
+				if (t == 1) {
+					writer.write("STA 3 1 " + (time + 1) + " 1\n");
+					if (r % 3 == 0) {
+						writer.write("STA 1 1 " + (time + 2) + "\n");
+						writer.write("STO 1 1 " + (time + 3) + "\n");
+					}
+					writer.write("STO 3 1 " + (time + 4) + " 1\n");
+				} else {
+					writer.write("OCC 4 1 " + (time + 1) + "\n");
+					writer.write("VAL 5 1 " + ((r * 7 + t) % 50) + "\n");
+				}
+				writer.write("STO 0 " + t + " " + (time + 5) + "\n");
+			}
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Connects to a source on the loopback address, sends the trace and
+	 * closes the connection.
+	 *
+	 * @param port
+	 *            the port of the source
+	 * @param binary
+	 *            true to send a binary record stream, false to send text
+	 * @throws IOException
+	 *             if connecting or sending fails
+	 */
+	public void send(final int port, final boolean binary) throws IOException {
+		final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		try {
+			final BufferedOutputStream out = new BufferedOutputStream(socket.getOutputStream());
+			if (binary) {
+				writeRecords(new DataOutputStream(out));
+			} else {
+				write(new OutputStreamWriter(out, BinaryTraceFormat.UTF8));
+			}
+			out.flush();
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Writes the trace as a binary record stream, by decoding its text.
+	 */
+	private void writeRecords(final DataOutputStream out) throws IOException {
+		final StringWriter text = new StringWriter();
+		write(text);
+		final ReaderTokenizer tokenizer = new ReaderTokenizer(new StringReader(text.toString()));
+		final RecordBuffer records = new RecordBuffer(1);
+		TraceStreamFormat.writeHeader(out);
+		while (tokenizer.nextLine()) {
+			records.clear();
+			records.add(tokenizer, 0);
+			TraceStreamFormat.write(out, records, 0);
+		}
+		out.flush();
+	}
+}
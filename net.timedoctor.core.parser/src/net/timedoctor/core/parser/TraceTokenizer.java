@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.core.parser;
+
+import java.io.IOException;
+
+/**
+ * Splits a trace file into lines and whitespace separated tokens, and decodes
+ * the tokens of the current line on request. The parser only talks to this
+ * class, so that different input sources can be plugged in without touching
+ * the command handlers.
+ */
+abstract class TraceTokenizer {
+
+	/**
+	 * Max number of arguments (including the command itself)
+	 * in a tag in the trace file.
+	 */
+	static final int MAX_TAG_ARGS = 10;
+
+	/**
+	 * Command codes, as returned by {@link #getCommand()}.
+	 */
+	static final int CMD_UNKNOWN = -1;
+	static final int CMD_STA = 0;
+	static final int CMD_STO = 1;
+	static final int CMD_OCC = 2;
+	static final int CMD_TIM = 3;
+	static final int CMD_VAL = 4;
+	static final int CMD_DSC = 5;
+	static final int CMD_NAM = 6;
+	static final int CMD_DNM = 7;
+	static final int CMD_CRE = 8;
+	static final int CMD_DEL = 9;
+	static final int CMD_CPU = 10;
+	static final int CMD_TIME = 11;
+	static final int CMD_SPEED = 12;
+	static final int CMD_MEMSPEED = 13;
+	static final int CMD_END = 14;
+
+	/**
+	 * Advances to the next line of the input.
+	 *
+	 * @return true if a line was read, false at the end of the input
+	 * @throws IOException
+	 *             if reading the input fails
+	 */
+	abstract boolean nextLine() throws IOException;
+
+	/**
+	 * Returns the number of tokens on the current line, including the command.
+	 * Only the first <code>MAX_TAG_ARGS</code> tokens can be accessed.
+	 *
+	 * @return the number of tokens on the current line
+	 */
+	abstract int getTokenCount();
+
+	/**
+	 * @return the command code of the current line, or <code>CMD_UNKNOWN</code>
+	 */
+	abstract int getCommand();
+
+	/**
+	 * Decodes a token of the current line as an integer.
+	 *
+	 * @param index
+	 *            the index of the token, 0 being the command
+	 * @return the integer value of the token
+	 * @throws NumberFormatException
+	 *             if the token is not a valid integer
+	 */
+	abstract int getInt(int index);
+
+	/**
+	 * Decodes a token of the current line as a double.
+	 *
+	 * @param index
+	 *            the index of the token, 0 being the command
+	 * @return the double value of the token
+	 * @throws NumberFormatException
+	 *             if the token is not a valid number
+	 */
+	abstract double getDouble(int index);
+
+	/**
+	 * Returns a token of the current line as a string.
+	 *
+	 * @param index
+	 *            the index of the token, 0 being the command
+	 * @return the token
+	 */
+	abstract String getString(int index);
+
+	/**
+	 * Returns the text of the current line. Only used for error reporting.
+	 *
+	 * @return the current line
+	 */
+	abstract String getLine();
+
+	/**
+	 * Releases the input.
+	 *
+	 * @throws IOException
+	 *             if closing the input fails
+	 */
+	abstract void close() throws IOException;
+
+	/**
+	 * Throws if the current line has no token at the given index.
+	 *
+	 * @param index
+	 *            the token index to check
+	 */
+	protected final void checkIndex(final int index) {
+		if (index >= getTokenCount()) {
+			throw new IllegalArgumentException("Missing argument " + index);
+		}
+	}
+
+	/**
+	 * Maps a command string to its command code.
+	 *
+	 * @param command
+	 *            the command token
+	 * @return the command code, or <code>CMD_UNKNOWN</code>
+	 */
+	static int parseCommand(final String command) {
+		// Ordered to the average occurrence in a trace file
+		if (command.equals("STA")) {
+			return CMD_STA;
+		} else if (command.equals("STO")) {
+			return CMD_STO;
+		} else if (command.equals("OCC")) {
+			return CMD_OCC;
+		} else if (command.equals("TIM")) {
+			return CMD_TIM;
+		} else if (command.equals("VAL")) {
+			return CMD_VAL;
+		} else if (command.equals("DSC")) {
+			return CMD_DSC;
+		} else if (command.equals("NAM")) {
+			return CMD_NAM;
+		} else if (command.equals("DNM")) {
+			return CMD_DNM;
+		} else if (command.equals("CRE")) {
+			return CMD_CRE;
+		} else if (command.equals("DEL")) {
+			return CMD_DEL;
+		} else if (command.equals("CPU")) {
+			return CMD_CPU;
+		} else if (command.equals("TIME")) {
+			return CMD_TIME;
+		} else if (command.equals("SPEED")) {
+			return CMD_SPEED;
+		} else if (command.equals("MEMSPEED")) {
+			return CMD_MEMSPEED;
+		} else if (command.equals("END")) {
+			return CMD_END;
+		}
+		return CMD_UNKNOWN;
+	}
+}
@@ -0,0 +1,186 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationTargetException;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Section;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.model.lines.PortSampleLine;
+import net.timedoctor.core.parser.BinaryTraceWriter;
+import net.timedoctor.core.parser.Parser;
+
+/**
+ * Tests that a trace converted to a binary trace file loads into the same
+ * model as the trace itself.
+ */
+public class BinaryTraceTest extends TestCase {
+
+	/**
+	 * A trace using every kind of line, names, descriptions, a deleted line,
+	 * a port connected to a queue, and two CPUs with their own speeds.
+	 */
+	private static final String TRACE = "TIME 1000\n"
+			+ "CPU 0 main\n"
+			+ "SPEED 133000000\n"
+			+ "MEMSPEED 100000000\n"
+			+ "CRE 0 1000 0\n"
+			+ "NAM 0 1000 Prod\n"
+			+ "STA 0 1000 1\n"
+			+ "STA 1 10 10\n"
+			+ "DSC 3 0 255\n"
+			+ "STO 1 10 15\n"
+			+ "STA 3 20 15 100\n"
+			+ "NAM 3 20 BufA\n"
+			+ "STA 4 100 16\n"
+			+ "STO 4 100 20\n"
+			+ "CRE 10 60 21\n"
+			+ "CRE 11 1001 21 1000 60\n"
+			+ "STA 11 1001 22 20\n"
+			+ "STO 11 1001 23 5\n"
+			+ "VAL 5 2 0\n"
+			+ "VAL 6 3 100\n"
+			+ "VAL 9 4 50\n"
+			+ "STA 2 30 24\n"
+			+ "OCC 7 50 25\n"
+			+ "DSC 0 1 ready\n"
+			+ "DSC 1 2 256\n"
+			+ "DNM 0 2 bytes_processed\n"
+			+ "STA 8 40 26\n"
+			+ "STO 8 40 27\n"
+			+ "STO 2 30 28\n"
+			+ "STO 3 20 29 50\n"
+			+ "STO 0 1000 30\n"
+			+ "DEL 0 1000 31\n"
+			+ "CPU 1 coprocessor\n"
+			+ "SPEED 200000000\n"
+			+ "STA 0 7 32\n"
+			+ "VAL 5 2 10\n"
+			+ "STO 0 7 40\n"
+			+ "END\n";
+
+	private File tdi;
+
+	private File tdb;
+
+	private TraceModel parsed;
+
+	@Override
+	protected void setUp() throws Exception {
+		tdi = TestTraces.write(TRACE);
+		tdb = File.createTempFile("binary", ".tdb");
+		tdb.deleteOnExit();
+		parsed = TestTraces.parse(tdi);
+	}
+
+	/**
+	 * Writes the parsed model and loads it again, checking all properties
+	 * of the model, its CPUs and its lines.
+	 */
+	public void testWriteAndLoad() throws Exception {
+		new BinaryTraceWriter(parsed).write(tdb);
+		TraceModel loaded = load();
+
+		assertEquals(parsed.getEndTime(), loaded.getEndTime());
+		assertEquals(parsed.getTicksPerSec(), loaded.getTicksPerSec());
+		assertEquals(parsed.getMaxClockSpeed(), loaded.getMaxClockSpeed());
+		assertEquals(parsed.getDescrNames(), loaded.getDescrNames());
+
+		assertEquals(parsed.getCPUs().size(), loaded.getCPUs().size());
+		for (int i = 0; i < parsed.getCPUs().size(); i++) {
+			SampleCPU expected = parsed.getCPUs().get(i);
+			SampleCPU actual = loaded.getCPUs().get(i);
+			assertEquals(expected.getID(), actual.getID());
+			assertEquals(expected.getName(), actual.getName());
+			assertEquals(expected.getClocksPerSec(), actual.getClocksPerSec());
+			assertEquals(expected.getMemClocksPerSec(), actual.getMemClocksPerSec());
+			assertEquals(expected.getSingleMemSpeed(), actual.getSingleMemSpeed());
+		}
+
+		for (LineType type : LineType.values()) {
+			Section expected = parsed.getSections().getSection(type);
+			Section actual = loaded.getSections().getSection(type);
+			if (expected == null) {
+				assertNull(actual);
+				continue;
+			}
+			assertEquals(parsed.getMaxSampleValue(type), loaded.getMaxSampleValue(type));
+			assertEquals(expected.getNrLines(), actual.getNrLines());
+			for (int i = 0; i < expected.getNrLines(); i++) {
+				assertLine(expected.getLine(i), actual.getLine(i));
+			}
+		}
+
+		// Lines can be looked up as in a parsed model
+		SampleLine task = loaded.getSections().getSection(LineType.TASKS)
+				.getLine(loaded.getCPU(1), 7, 0.035);
+		assertNotNull(task);
+		assertEquals("Task 0x7", task.getName());
+		PortSampleLine port = (PortSampleLine) loaded.getSections()
+				.getSection(LineType.PORTS).getLine(0);
+		assertSame(loaded.getSections().getSection(LineType.QUEUES)
+				.getLine(loaded.getCPU(0), 60, 0.025), port.getChannelLine());
+	}
+
+	/**
+	 * Converting a trace in one step gives a binary trace file that loads.
+	 */
+	public void testConvert() throws Exception {
+		assertTrue(BinaryTraceWriter.convert(tdi, tdb, new NullProgressMonitor()));
+		TraceModel loaded = load();
+		assertEquals(parsed.getEndTime(), loaded.getEndTime());
+		assertEquals(2, loaded.getCPUs().size());
+	}
+
+	/**
+	 * A truncated file is reported as a failure to open the trace.
+	 */
+	public void testTruncated() throws Exception {
+		new BinaryTraceWriter(parsed).write(tdb);
+		RandomAccessFile file = new RandomAccessFile(tdb, "rw");
+		try {
+			file.setLength(file.length() / 2);
+		} finally {
+			file.close();
+		}
+		try {
+			load();
+			fail("Expected InvocationTargetException");
+		} catch (InvocationTargetException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+
+	private TraceModel load() throws InterruptedException, InvocationTargetException {
+		TraceModel model = new TraceModel();
+		assertTrue(new Parser("test", model, tdb).doParse(new NullProgressMonitor()));
+		return model;
+	}
+
+	private void assertLine(final SampleLine expected, final SampleLine actual) {
+		assertEquals(expected.getType(), actual.getType());
+		assertEquals(expected.getCPU().getID(), actual.getCPU().getID());
+		assertEquals(expected.getID(), actual.getID());
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getTimeCreate(), actual.getTimeCreate());
+		assertEquals(expected.getTimeDelete(), actual.getTimeDelete());
+		assertEquals(expected.getMaxSampleValue(), actual.getMaxSampleValue());
+		assertEquals(expected.getMaxSampleDuration(), actual.getMaxSampleDuration());
+		assertEquals(expected.getCount(), actual.getCount());
+		for (int i = 0; i < expected.getCount(); i++) {
+			assertEquals(expected.getSampleType(i), actual.getSampleType(i));
+			assertEquals(expected.getTime(i), actual.getTime(i));
+			assertEquals(expected.getVal(i), actual.getVal(i));
+			assertEquals(expected.descrString(expected.getTime(i)),
+					actual.descrString(actual.getTime(i)));
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.parser.Parser;
+import net.timedoctor.core.parser.Parser.ParseMode;
+import net.timedoctor.core.parser.TraceStreamGenerator;
+
+/**
+ * Tests that a trace file compressed with gzip, in one or several members,
+ * or packaged in a ZIP archive, gives the same model as the trace file, in
+ * every parse mode.
+ */
+public class CompressedTraceTest extends TestCase {
+
+	/**
+	 * The number of bytes of the trace compressed in each member of a
+	 * multi-member gzip file, which cuts lines.
+	 */
+	private static final int MEMBER_SIZE = 100000;
+
+	private byte[] trace;
+
+	private TraceModel expected;
+
+	private String expectedUnparsed;
+
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		// Larger than a parallel chunk, with a line that cannot be parsed
+		final StringWriter text = new StringWriter();
+		new TraceStreamGenerator(8, 10000).write(text);
+		trace = text.toString().replaceFirst("\n", "\nBAD 1\n").getBytes("US-ASCII");
+
+		file = File.createTempFile("compressed", ".tdi");
+		file.deleteOnExit();
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(trace);
+		} finally {
+			out.close();
+		}
+		expected = new TraceModel();
+		final Parser parser = new Parser("test", expected, file);
+		assertFalse(parser.doParse(new NullProgressMonitor()));
+		expectedUnparsed = parser.getUnparsedLines();
+	}
+
+	public void testGzip() throws Exception {
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			final GZIPOutputStream gzip = new GZIPOutputStream(out);
+			gzip.write(trace);
+			gzip.finish();
+		} finally {
+			out.close();
+		}
+		assertParsed();
+	}
+
+	public void testMultiMemberGzip() throws Exception {
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			for (int i = 0; i < trace.length; i += MEMBER_SIZE) {
+				final GZIPOutputStream gzip = new GZIPOutputStream(new Unclosed(out));
+				gzip.write(trace, i, Math.min(MEMBER_SIZE, trace.length - i));
+				gzip.close();
+			}
+		} finally {
+			out.close();
+		}
+		assertParsed();
+	}
+
+	public void testZip() throws Exception {
+		final ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+		try {
+			zip.putNextEntry(new ZipEntry("readme.txt"));
+			zip.write("Not the trace".getBytes("US-ASCII"));
+			zip.putNextEntry(new ZipEntry("trace/run.tdi"));
+			zip.write(trace);
+			zip.closeEntry();
+		} finally {
+			zip.close();
+		}
+		assertParsed();
+	}
+
+	/**
+	 * A compressed trace file is not followed, as it cannot grow.
+	 */
+	public void testNotFollowed() throws Exception {
+		testGzip();
+		final Parser parser = new Parser("test", new TraceModel(), file);
+		parser.setFollow(true);
+		parser.doParse(new NullProgressMonitor());
+		assertFalse(parser.isFollowing());
+	}
+
+	private void assertParsed() throws Exception {
+		for (ParseMode mode : ParseMode.values()) {
+			final TraceModel model = new TraceModel();
+			final Parser parser = new Parser("test", model, file);
+			parser.setParseMode(mode);
+			assertFalse(parser.doParse(new NullProgressMonitor()));
+			assertEquals(mode.name(), expectedUnparsed, parser.getUnparsedLines());
+			TestTraces.assertSameModel(mode.name(), expected, model);
+		}
+	}
+
+	/**
+	 * Lets a member be finished without closing the file.
+	 */
+	private static final class Unclosed extends OutputStream {
+
+		private final OutputStream out;
+
+		private Unclosed(final OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			out.write(b);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			out.write(b, off, len);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package net.timedoctor.core.tests.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.statistics.BucketStatistic;
+import net.timedoctor.core.model.statistics.DistributionStatistic;
+import net.timedoctor.core.model.statistics.Histogram;
+import net.timedoctor.core.model.statistics.Statistic;
+import net.timedoctor.core.model.statistics.TaskStatistic;
+
+/**
+ * Tests the histograms and percentiles of the time per execution.
+ */
+public class HistogramTest extends TestCase {
+
+	/**
+	 * The relative error of a percentile: half the width of a bucket.
+	 */
+	private static final double ERROR = 1d / (2 * Histogram.SUB_BUCKETS);
+
+	/**
+	 * Every time falls within the bounds of its bucket.
+	 */
+	public final void testBuckets() {
+		Random random = new Random(1);
+		for (int i = 0; i < 10000; i++) {
+			double time = Math.pow(10, -9 + 10 * random.nextDouble());
+			int bucket = Histogram.getBucket(time);
+			assertTrue(Histogram.getLowerBound(bucket) <= time);
+			assertTrue(time < Histogram.getUpperBound(bucket));
+		}
+		assertEquals(0, Histogram.getBucket(0));
+		assertEquals(Histogram.BUCKETS - 1, Histogram.getBucket(1000));
+	}
+
+	/**
+	 * Percentiles lie within half a bucket of the exact ones, also after
+	 * merging histograms.
+	 */
+	public final void testPercentiles() {
+		Random random = new Random(2);
+		double[] times = new double[20000];
+		Histogram first = new Histogram();
+		Histogram second = new Histogram();
+		for (int i = 0; i < times.length; i++) {
+			times[i] = 1e-4 * Math.exp(2 * random.nextGaussian());
+			((i % 2 == 0) ? first : second).add(times[i]);
+		}
+		first.add(second);
+		assertEquals(times.length, first.getCount());
+
+		Arrays.sort(times);
+		for (double fraction : new double[] { 0.5, 0.9, 0.99, 0.999 }) {
+			double exact = times[(int) Math.ceil(fraction * times.length) - 1];
+			assertEquals(exact, first.getPercentile(fraction), exact * ERROR);
+		}
+		assertEquals(times[times.length - 1], first.getPercentile(1), 0);
+		assertEquals(0d, new Histogram().getPercentile(0.5), 0);
+	}
+
+	/**
+	 * The distribution of a window of a task with many executions counts
+	 * exactly the executions of the window, and a bucket per time.
+	 */
+	public final void testTaskDistribution() throws Exception {
+		// Executions of 1 to 5 us, each followed by 5 us idle
+		int nExecutions = 10000;
+		int[] durations = new int[nExecutions];
+		long[] starts = new long[nExecutions];
+		StringBuilder trace = new StringBuilder("TIME 1000000\nCPU 0 cpu0\n");
+		long time = 0;
+		for (int i = 0; i < nExecutions; i++) {
+			durations[i] = 1 + (i * 7) % 5;
+			starts[i] = time;
+			trace.append("STA 0 1 ").append(time).append('\n');
+			time += durations[i];
+			trace.append("STO 0 1 ").append(time).append('\n');
+			time += 5;
+		}
+		trace.append("END\n");
+
+		TraceModel model = TestTraces.parse(trace.toString());
+		TaskStatistic stat = TestTraces.getTaskStatistic(null, model);
+
+		// A window from within execution 100 to the idle time after
+		// execution 8999, across the blocks
+		double windowStart = (starts[100] + 0.5) * 1e-6;
+		double windowEnd = (starts[9000] - 2) * 1e-6;
+		stat.calculate(windowStart, windowEnd);
+		DistributionStatistic distribution = stat.getExExecTimeStatistic();
+		Histogram histogram = distribution.getHistogram();
+		assertEquals(8900, histogram.getCount());
+
+		int[] exact = Arrays.copyOfRange(durations, 100, 9000);
+		Arrays.sort(exact);
+		for (double fraction : new double[] { 0.5, 0.9, 0.99 }) {
+			double expected = exact[(int) Math.ceil(fraction * exact.length) - 1] * 1e-6;
+			assertEquals(expected, distribution.getPercentile(fraction), expected * ERROR);
+		}
+
+		assertEquals(5, distribution.getChildren().size());
+		long nTotal = 0;
+		for (Statistic child : distribution.getChildren()) {
+			nTotal += ((BucketStatistic) child).getNExecutions();
+		}
+		assertEquals(8900, nTotal);
+
+		// A shorter window leaves out the blocks
+		stat.calculate(windowStart, (starts[105] + 0.5) * 1e-6);
+		assertEquals(6, stat.getExExecTimeStatistic().getHistogram().getCount());
+	}
+}
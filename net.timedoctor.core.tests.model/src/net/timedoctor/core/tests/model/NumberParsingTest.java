@@ -0,0 +1,145 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.Description;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.parser.Parser;
+import net.timedoctor.core.parser.Parser.ParseMode;
+
+/**
+ * Tests that the numbers of a trace are decoded the same way as by
+ * <code>Integer.parseInt</code> and <code>Double.parseDouble</code> in every
+ * parse mode. The mapped modes decode plain numbers in place, and leave
+ * other forms to the JDK parsers.
+ */
+public class NumberParsingTest extends TestCase {
+
+	private static final String[] INTS = { "0", "-0", "+0", "7", "+7", "-7",
+			"007", "-007", "0000000000012", "-0000000002147483648",
+			"2147483647", "-2147483648", "1234567890" };
+
+	private static final String[] BAD_INTS = { "", "+", "-", "2147483648",
+			"-2147483649", "12345678901", "1a", "1.0", "0x10", "--1" };
+
+	private static final String[] DOUBLES = { "0", "-0", "+0", "-0.0", "0.0",
+			"1", "-1", "+1.5", "007.50", "-007.50", ".5", "-.5", "3.", "0.1",
+			"0.3", "123.456", "1e0", "1E5", "1e+5", "1.5e-3", "-1.5E-3",
+			"1e22", "1e-22", "1e23", "1e-23", "9e22", "1e308", "1e309",
+			"1e-400", "1e0400", "4.9e-324", "0e999", "-0e5",
+			"9007199254740991", "9007199254740992", "9007199254740993",
+			"18014398509481985", "123456789012345678901234567890",
+			"0.000000000000000000001", "1.00000000000000000000",
+			"12345678901234567890e-5", "2.2250738585072014E-308",
+			"1.7976931348623157e308", "NaN", "Infinity", "-Infinity", "1d",
+			"1f", "0x1p3", "-0x1.8p1" };
+
+	private static final String[] BAD_DOUBLES = { "", "+", "-", ".", "e5",
+			"1e", "1e+", "1.2.3", "1e5.0", "1,5", "abc", "1e5e5" };
+
+	/**
+	 * Decodes the numbers as the id and value of number descriptions of a
+	 * task, and compares them with the JDK parsers.
+	 */
+	public void testNumbers() throws Exception {
+		final StringBuilder trace = new StringBuilder("TIME 1000\nCPU 0 cpu0\nSTA 0 1 0\n");
+		final List<Integer> ids = new ArrayList<Integer>();
+		final List<Double> values = new ArrayList<Double>();
+		for (String id : INTS) {
+			for (String value : new String[] { "1", DOUBLES[ids.size() % DOUBLES.length] }) {
+				trace.append("DSC 1 ").append(id).append(' ').append(value).append('\n');
+				ids.add(Integer.parseInt(id));
+				values.add(Double.parseDouble(value));
+			}
+		}
+		for (String value : DOUBLES) {
+			trace.append("DSC 1 1 ").append(value).append('\n');
+			ids.add(1);
+			values.add(Double.parseDouble(value));
+		}
+		trace.append("STO 0 1 1000\nEND\n");
+		final File file = TestTraces.write(trace.toString());
+
+		for (ParseMode mode : ParseMode.values()) {
+			final TraceModel model = new TraceModel();
+			final Parser parser = new Parser("test", model, file);
+			parser.setParseMode(mode);
+			assertTrue(mode.name(), parser.doParse(new NullProgressMonitor()));
+			final SampleLine line = model.getSections().getSection(LineType.TASKS).getLine(0);
+			assertEquals(mode.name(), ids.size(), line.getDescCount());
+			for (int i = 0; i < ids.size(); i++) {
+				final Description descr = line.getDescription(i);
+				assertEquals(mode.name(), ids.get(i).intValue(), descr.id);
+				assertEquals(mode.name() + " " + values.get(i),
+						Double.doubleToLongBits(values.get(i)),
+						Double.doubleToLongBits(descr.value));
+			}
+		}
+	}
+
+	/**
+	 * Numbers the JDK parsers reject make the line unparsed.
+	 */
+	public void testBadNumbers() throws Exception {
+		final StringBuilder trace = new StringBuilder("TIME 1000\nCPU 0 cpu0\nSTA 0 1 0\n");
+		final List<String> bad = new ArrayList<String>();
+		for (String id : BAD_INTS) {
+			if (id.length() > 0) {
+				assertRejected(id, true);
+				bad.add("DSC 1 " + id + " 1");
+			}
+		}
+		for (String value : BAD_DOUBLES) {
+			if (value.length() > 0) {
+				assertRejected(value, false);
+				bad.add("DSC 1 1 " + value);
+			}
+		}
+		for (String line : bad) {
+			trace.append(line).append('\n');
+		}
+		// Enough good lines for the trace not to count as corrupt
+		for (int i = 0; i < bad.size(); i++) {
+			trace.append("DSC 1 2 2.5\n");
+		}
+		trace.append("STO 0 1 1000\nEND\n");
+		final File file = TestTraces.write(trace.toString());
+
+		for (ParseMode mode : ParseMode.values()) {
+			final TraceModel model = new TraceModel();
+			final Parser parser = new Parser("test", model, file);
+			parser.setParseMode(mode);
+			assertFalse(mode.name(), parser.doParse(new NullProgressMonitor()));
+			final String unparsed = parser.getUnparsedLines();
+			for (String line : bad) {
+				assertTrue(mode.name() + " " + line, unparsed.contains(": " + line + " ("));
+			}
+			final SampleLine line = model.getSections().getSection(LineType.TASKS).getLine(0);
+			assertEquals(mode.name(), bad.size(), line.getDescCount());
+			for (int i = 0; i < bad.size(); i++) {
+				assertEquals(2.5, line.getDescription(i).value, 0);
+			}
+		}
+	}
+
+	private static void assertRejected(final String number, final boolean integer) {
+		try {
+			if (integer) {
+				Integer.parseInt(number);
+			} else {
+				Double.parseDouble(number);
+			}
+			fail(number);
+		} catch (NumberFormatException e) {
+			// expected
+		}
+	}
+}
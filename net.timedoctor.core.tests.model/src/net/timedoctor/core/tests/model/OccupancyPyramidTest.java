@@ -0,0 +1,121 @@
+package net.timedoctor.core.tests.model;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.model.OccupancyPyramid;
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.Description.DescrType;
+import net.timedoctor.core.model.Sample.SampleType;
+import net.timedoctor.core.model.lines.TaskSampleLine;
+
+/**
+ * Tests the running time and colors a task line's occupancy pyramid gives.
+ */
+public class OccupancyPyramidTest extends TestCase {
+
+	private static final int RUNS = 1000;
+
+	private TraceModel model = new TraceModel();
+
+	private SampleCPU cpu = new SampleCPU(model, 0, "testCPU", 1);
+
+	private SampleLine line;
+
+	@Override
+	protected void setUp() throws Exception {
+		// Runs of a task with color 3, every other one suspended halfway,
+		// followed by a long run with color 5
+		line = new TaskSampleLine(cpu, 0);
+		for (int i = 0; i < RUNS; i++) {
+			line.addSample(SampleType.START, 10 * i);
+			line.addDescription(DescrType.COLOR, 0, 3);
+			if (i % 2 == 0) {
+				line.addSample(SampleType.SUSPEND, 10 * i + 2);
+				line.addSample(SampleType.RESUME, 10 * i + 3);
+			}
+			line.addSample(SampleType.STOP, 10 * i + 4);
+		}
+		line.addSample(SampleType.START, 10 * RUNS);
+		line.addDescription(DescrType.COLOR, 0, 5);
+		line.addSample(SampleType.STOP, 20 * RUNS);
+		line.calculate(20 * RUNS);
+		line.buildPyramid();
+	}
+
+	/**
+	 * The running and suspended time in a range equals the sum of the
+	 * overlaps of the segments with the range.
+	 */
+	public final void testTimes() {
+		OccupancyPyramid occupancy = line.getOccupancy();
+		assertNotNull(occupancy);
+		Random random = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			double from = random.nextDouble() * 21 * RUNS - 500;
+			double to = from + random.nextDouble() * 100;
+			assertEquals(getTime(from, to, true), occupancy.getBusyTime(from, to), 1e-6);
+			assertEquals(getTime(from, to, false), occupancy.getSuspendedTime(from, to), 1e-6);
+		}
+		assertEquals(RUNS * 4 - RUNS / 2 + 10 * RUNS, occupancy.getBusyTime(0, 20 * RUNS), 1e-6);
+	}
+
+	/**
+	 * A range gets the color of the segments running in it.
+	 */
+	public final void testColors() {
+		OccupancyPyramid occupancy = line.getOccupancy();
+		int level = occupancy.getLevel(100);
+		assertTrue(level >= 0);
+		assertEquals(3, occupancy.getColor(level, 1000, 1100));
+		assertEquals(5, occupancy.getColor(level, 15000, 15100));
+		assertEquals(OccupancyPyramid.NO_COLOR, occupancy.getColor(level, -200, -100));
+	}
+
+	/**
+	 * A suspend timed long before the start of the task, as preemption
+	 * can add when lines are out of order, only counts within the line.
+	 */
+	public final void testOutOfOrder() {
+		line = new TaskSampleLine(cpu, 0);
+		line.addSample(SampleType.START, 0);
+		line.addSample(SampleType.SUSPEND, -10 * RUNS);
+		line.addSample(SampleType.RESUME, 1);
+		line.addSample(SampleType.STOP, 4);
+		for (int i = 1; i < RUNS; i++) {
+			line.addSample(SampleType.START, 10 * i);
+			line.addSample(SampleType.STOP, 10 * i + 4);
+		}
+		line.calculate(10 * RUNS);
+		line.buildPyramid();
+
+		OccupancyPyramid occupancy = line.getOccupancy();
+		assertNotNull(occupancy);
+		assertEquals(1, occupancy.getSuspendedTime(0, 10 * RUNS), 1e-6);
+		assertEquals(getTime(10, 10 * RUNS, true), occupancy.getBusyTime(10, 10 * RUNS), 1e-6);
+	}
+
+	/**
+	 * Sums the overlaps of the running or suspended segments with a range.
+	 */
+	private double getTime(final double from, final double to, final boolean busy) {
+		double time = 0;
+		for (int i = 0; i < line.getCount() - 1; i++) {
+			SampleType type = line.getSampleType(i);
+			boolean counted;
+			if (busy) {
+				counted = (type == SampleType.START) || (type == SampleType.RESUME);
+			} else {
+				counted = type == SampleType.SUSPEND;
+			}
+			if (counted) {
+				time += Math.max(0, Math.min(to, line.getTime(i + 1))
+						- Math.max(from, line.getTime(i)));
+			}
+		}
+		return time;
+	}
+}
@@ -0,0 +1,68 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.File;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.parser.Parser;
+import net.timedoctor.core.parser.TraceStreamGenerator;
+import net.timedoctor.core.parser.Parser.ParseMode;
+
+/**
+ * Tests that the mapped and parallel parse modes give the same model as
+ * reading the trace through a <code>Reader</code>. The trace spans several
+ * parallel chunks, whose boundaries fall within lines.
+ */
+public class ParseModeTest extends TestCase {
+
+	/**
+	 * The number of rounds of the generated trace, which makes it about
+	 * 10 MB, several parallel chunks.
+	 */
+	private static final int ROUNDS = 20000;
+
+	private String trace;
+
+	@Override
+	protected void setUp() throws Exception {
+		final StringWriter text = new StringWriter();
+		new TraceStreamGenerator(8, ROUNDS).write(text);
+		// Colors described after the starts of task 2, and lines that
+		// cannot be parsed, spread over the chunks
+		trace = text.toString().replaceAll("(STA 0 2 (\\d+)\n)", "$1DSC 3 0 $2\n")
+				.replaceAll("(STO 0 5 \\d*445\n)", "$1BAD 1\n");
+		assertTrue(trace.length() > 8 << 20);
+	}
+
+	public void testLineFeeds() throws Exception {
+		assertModes(trace);
+	}
+
+	/**
+	 * A chunk boundary must not separate the two bytes of a line terminator.
+	 */
+	public void testCarriageReturns() throws Exception {
+		assertModes(trace.replace("\n", "\r\n"));
+	}
+
+	private void assertModes(final String text) throws Exception {
+		final File file = TestTraces.write(text);
+		final TraceModel expected = new TraceModel();
+		final Parser reader = new Parser("test", expected, file);
+		reader.setParseMode(ParseMode.READER);
+		assertFalse(reader.doParse(new NullProgressMonitor()));
+
+		for (ParseMode mode : new ParseMode[] { ParseMode.MAPPED, ParseMode.PARALLEL }) {
+			final TraceModel model = new TraceModel();
+			final Parser parser = new Parser("test", model, file);
+			parser.setParseMode(mode);
+			assertFalse(mode.name(), parser.doParse(new NullProgressMonitor()));
+			assertEquals(mode.name(), reader.getUnparsedLines(), parser.getUnparsedLines());
+			TestTraces.assertSameModel(mode.name(), expected, model);
+		}
+	}
+}
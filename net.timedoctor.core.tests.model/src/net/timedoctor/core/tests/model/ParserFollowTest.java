@@ -0,0 +1,171 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Section;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.parser.Parser;
+
+/**
+ * Tests that following a trace file as it grows gives the same model as
+ * parsing the complete file, wherever the file is cut.
+ */
+public class ParserFollowTest extends TestCase {
+
+	/**
+	 * A trace with a task preempted by an ISR, colors described after the
+	 * start of an execution, a queue fed through a port with writes read
+	 * later, a semaphore, events, and counters that overflow.
+	 */
+	private static final String[] TRACE = {
+		"TIME 1000",
+		"CPU 0 main",
+		"SPEED 133000000",
+		"STA 0 1 10",
+		"DSC 3 0 255",
+		"STA 1 10 12",
+		"STO 1 10 15",
+		"STA 3 20 16 100",
+		"NAM 3 20 BufA",
+		"CRE 11 1001 17 1 20",
+		"STA 11 1001 18 20",
+		"STA 3 20 19 30",
+		"VAL 5 2 4294967000",
+		"STO 0 1 20",
+		"STA 2 30 21",
+		"STO 3 20 22 50",
+		"VAL 5 2 100",
+		"VAL 6 3 4294967200",
+		"OCC 7 50 23",
+		"STA 0 1 24",
+		"DSC 3 0 65280",
+		"STO 2 30 25",
+		"VAL 6 3 300",
+		"STA 1 10 26",
+		"STO 11 1001 27 20",
+		"STO 1 10 28",
+		"OCC 7 50 29",
+		"STO 0 1 30",
+		"STA 0 1 32",
+		"VAL 5 2 500",
+		"END",
+	};
+
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		file = File.createTempFile("follow", ".tdi");
+		file.deleteOnExit();
+	}
+
+	/**
+	 * Parses every start of the trace spanning some time, cut within a line,
+	 * and adds the rest of the trace a line at a time.
+	 */
+	public void testEveryCut() throws Exception {
+		write(join(0, TRACE.length), false);
+		TraceModel expected = new TraceModel();
+		assertTrue(new Parser("test", expected, file).doParse(new NullProgressMonitor()));
+
+		for (int cut = 6; cut < TRACE.length; cut++) {
+			// The line at the cut is partly written
+			write(join(0, cut) + TRACE[cut].substring(0, 3), false);
+			TraceModel model = new TraceModel();
+			Parser parser = new Parser("test", model, file);
+			parser.setFollow(true);
+			assertTrue(parser.doParse(new NullProgressMonitor()));
+			assertTrue(parser.isFollowing());
+			assertFalse(parser.readAppended());
+
+			write(TRACE[cut].substring(3) + "\n", true);
+			for (int i = cut + 1; i <= TRACE.length; i++) {
+				assertTrue(parser.readAppended());
+				parser.applyAppended();
+				assertFalse(parser.readAppended());
+				if (i < TRACE.length) {
+					write(TRACE[i] + "\n", true);
+				}
+			}
+			assertModel("cut at line " + cut, expected, model);
+		}
+	}
+
+	/**
+	 * Appended lines are read in one batch, and the times of the new samples
+	 * are compensated for the start of the trace.
+	 */
+	public void testBatch() throws Exception {
+		write(join(0, 8), false);
+		TraceModel model = new TraceModel();
+		Parser parser = new Parser("test", model, file);
+		parser.setFollow(true);
+		assertTrue(parser.doParse(new NullProgressMonitor()));
+		assertEquals(0.006, model.getEndTime(), 1e-12);
+
+		write(join(8, TRACE.length), true);
+		assertTrue(parser.readAppended());
+		parser.applyAppended();
+		assertFalse(parser.readAppended());
+		assertEquals(0.022, model.getEndTime(), 1e-12);
+		SampleLine task = model.getSections().getSection(LineType.TASKS).getLine(0);
+		assertEquals(0.022, task.getTime(task.getCount() - 1), 1e-12);
+	}
+
+	private static String join(final int from, final int to) {
+		StringBuilder text = new StringBuilder();
+		for (int i = from; i < to; i++) {
+			text.append(TRACE[i]).append('\n');
+		}
+		return text.toString();
+	}
+
+	private void write(final String text, final boolean append) throws IOException {
+		FileOutputStream stream = new FileOutputStream(file, append);
+		try {
+			stream.write(text.getBytes());
+		} finally {
+			stream.close();
+		}
+	}
+
+	private void assertModel(final String message, final TraceModel expected,
+			final TraceModel actual) {
+		assertEquals(message, expected.getEndTime(), actual.getEndTime());
+		for (LineType type : LineType.values()) {
+			Section expectedSection = expected.getSections().getSection(type);
+			Section actualSection = actual.getSections().getSection(type);
+			if (expectedSection == null) {
+				assertNull(message, actualSection);
+				continue;
+			}
+			assertEquals(message, expected.getMaxSampleValue(type), actual.getMaxSampleValue(type));
+			assertEquals(message, expectedSection.getNrLines(), actualSection.getNrLines());
+			for (int i = 0; i < expectedSection.getNrLines(); i++) {
+				assertLine(message, expectedSection.getLine(i), actualSection.getLine(i));
+			}
+		}
+	}
+
+	private void assertLine(final String message, final SampleLine expected,
+			final SampleLine actual) {
+		String lineMessage = message + ", " + expected.getName();
+		assertEquals(lineMessage, expected.getName(), actual.getName());
+		assertEquals(lineMessage, expected.getMaxSampleDuration(), actual.getMaxSampleDuration());
+		assertEquals(lineMessage, expected.getMaxSampleValue(), actual.getMaxSampleValue());
+		assertEquals(lineMessage, expected.getCount(), actual.getCount());
+		for (int i = 0; i < expected.getCount(); i++) {
+			assertEquals(lineMessage, expected.getSampleType(i), actual.getSampleType(i));
+			assertEquals(lineMessage, expected.getTime(i), actual.getTime(i), 1e-12);
+			assertEquals(lineMessage, expected.getVal(i), actual.getVal(i));
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package net.timedoctor.core.tests.model;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.Sample.SampleType;
+import net.timedoctor.core.model.SampleLine.LineType;
+
+/**
+ * Tests the preemption samples the parser adds to tasks on a trace with two
+ * CPUs. A task or ISR starting on one CPU must not suspend the tasks of the
+ * other CPU.
+ */
+public class ParserPreemptionTest extends TestCase {
+
+	/**
+	 * Task 1 runs on CPU 0 from 0 to 0.8 s and is interrupted by ISR 2 of
+	 * CPU 0. Meanwhile task 2 runs on CPU 1 and is interrupted by ISR 1 of
+	 * CPU 1.
+	 */
+	private static final String TRACE = "TIME 1000\n"
+			+ "CPU 0 cpu0\n"
+			+ "STA 0 1 0\n"
+			+ "CPU 1 cpu1\n"
+			+ "STA 0 2 200\n"
+			+ "STA 1 1 300\n"
+			+ "STO 1 1 400\n"
+			+ "STO 0 2 500\n"
+			+ "CPU 0 cpu0\n"
+			+ "STA 1 2 600\n"
+			+ "STO 1 2 700\n"
+			+ "STO 0 1 800\n"
+			+ "END\n";
+
+	private TraceModel model;
+
+	@Override
+	protected void setUp() throws Exception {
+		model = TestTraces.parse(TRACE);
+	}
+
+	/**
+	 * Only the ISR of its own CPU suspends task 1. Before preemption was
+	 * per CPU, task 2 starting on CPU 1 also suspended task 1, from 0.2 s
+	 * to 0.5 s, which gave it two more samples.
+	 */
+	public void testTaskOnFirstCpu() {
+		SampleLine task = getTask(0, 1);
+		assertSamples(task, new SampleType[] {SampleType.START,
+				SampleType.SUSPEND, SampleType.RESUME, SampleType.STOP,
+				SampleType.END}, new double[] {0, 0.6, 0.7, 0.8});
+	}
+
+	/**
+	 * Task 2 is only suspended by the ISR of CPU 1.
+	 */
+	public void testTaskOnSecondCpu() {
+		SampleLine task = getTask(1, 2);
+		assertSamples(task, new SampleType[] {SampleType.START,
+				SampleType.SUSPEND, SampleType.RESUME, SampleType.STOP,
+				SampleType.END}, new double[] {0.2, 0.3, 0.4, 0.5});
+	}
+
+	private SampleLine getTask(final int cpu, final int id) {
+		SampleLine line = model.getSections().getSection(LineType.TASKS)
+				.getLine(model.getCPU(cpu), id, 0.4);
+		assertNotNull(line);
+		return line;
+	}
+
+	private void assertSamples(final SampleLine line, final SampleType[] types,
+			final double[] times) {
+		assertEquals(types.length, line.getCount());
+		for (int i = 0; i < types.length; i++) {
+			assertEquals(types[i], line.getSampleType(i));
+		}
+		for (int i = 0; i < times.length; i++) {
+			assertEquals(times[i], line.getTime(i), 1e-9);
+		}
+	}
+}
@@ -61,7 +61,8 @@ public class SampleLineTest extends TestCase {
 	 */
 	public final void testHashCode() {
 		SampleLine line = new TaskSampleLine(cpu, 0);
-		int code = (cpu.getID() << 28) | line.getID();
+		long key = ((long) cpu.getID() << 32) | line.getID();
+		int code = (int) (key ^ (key >>> 32));
 		for (int i = 0; i < 10; i++) {
 			assertEquals(code, line.hashCode());
 		}
@@ -209,6 +210,53 @@ public class SampleLineTest extends TestCase {
 		assertEquals(-1d, sample.val);
 	}
 
+	/**
+	 * Tests the primitive sample accessors, and that the values set by
+	 * calculate are visible through them.
+	 *
+	 */
+	public final void testGetSampleFields() {
+		SampleLine line = new TaskSampleLine(cpu, 0);
+		line.setTimeCreate(0.0);
+		line.addSample(Sample.SampleType.START, 1.5);
+		line.addSample(Sample.SampleType.STOP, 2.5);
+		line.calculate(3.0);
+		assertEquals(1.5, line.getTime(0));
+		assertEquals(2.5, line.getTime(1));
+		assertEquals(Sample.SampleType.START, line.getSampleType(0));
+		assertEquals(Sample.SampleType.STOP.ordinal(), line.getTypeOrdinal(1));
+		// The start sample refers to its stop sample
+		assertEquals(1d, line.getVal(0));
+		assertEquals(line.getVal(0), line.getSample(0).val);
+		try {
+			line.getTime(line.getCount());
+			fail("Expected IndexOutOfBoundsException");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Make sure samples survive growing and trimming the sample arrays, and
+	 * that a trimmed line can still grow.
+	 *
+	 */
+	public final void testTrimToSize() {
+		SampleLine line = new TaskSampleLine(cpu, 0);
+		line.setTimeCreate(0.0);
+		for (int i = 0; i < 1000; i++) {
+			line.addSample(Sample.SampleType.EVENT, i, 2 * i);
+		}
+		line.trimToSize();
+		assertEquals(1000, line.getCount());
+		line.addSample(Sample.SampleType.EVENT, 1000, 2000);
+		assertEquals(1001, line.getCount());
+		for (int i = 0; i <= 1000; i++) {
+			assertEquals((double) i, line.getTime(i));
+			assertEquals(2d * i, line.getVal(i));
+		}
+	}
+
 	public void testSampleValToIndex() {
 		fail("Not yet implemented");
 	}
@@ -271,8 +319,26 @@ public class SampleLineTest extends TestCase {
 		fail("Not yet implemented");
 	}
 
+	/**
+	 * Tests that the description string holds all descriptions at a time,
+	 * and is built again when a description is added.
+	 */
 	public void testDescrString() {
-		fail("Not yet implemented");
+		SampleLine line = new TaskSampleLine(cpu, 0);
+		model.addDescrName(1, "name");
+		line.addSample(Sample.SampleType.START, 1.0);
+		line.addDescription(Description.DescrType.STRING, 1, "a");
+		line.addDescription(Description.DescrType.NUMBER, 2, 3.0);
+		line.addSample(Sample.SampleType.STOP, 2.0);
+		line.addDescription(Description.DescrType.STRING, 1, "b");
+		
+		assertEquals("\nname = a\nString (2) = 3", line.descrString(1.0));
+		assertSame(line.descrString(1.0), line.descrString(1.0));
+		assertEquals("\nname = b", line.descrString(2.0));
+		assertEquals("", line.descrString(1.5));
+		
+		line.addDescription(Description.DescrType.STRING, 1, "c");
+		assertEquals("\nname = b\nname = c", line.descrString(2.0));
 	}
 
 	public void testBinarySearch() {
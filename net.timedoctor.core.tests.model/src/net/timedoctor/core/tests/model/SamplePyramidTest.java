@@ -0,0 +1,157 @@
+package net.timedoctor.core.tests.model;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.SamplePyramid;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.Sample.SampleType;
+import net.timedoctor.core.model.lines.CyclesSampleLine;
+import net.timedoctor.core.model.lines.SemaphoreSampleLine;
+import net.timedoctor.core.model.lines.TaskSampleLine;
+
+/**
+ * Tests that the buckets of a pyramid hold the minimum, maximum and last
+ * value of the segments overlapping them.
+ */
+public class SamplePyramidTest extends TestCase {
+
+	/**
+	 * One sample per second, so that the buckets have exact boundaries.
+	 */
+	private static final int COUNT = 4097;
+
+	private TraceModel model = new TraceModel();
+
+	private SampleCPU cpu = new SampleCPU(model, 0, "testCPU", 1);
+
+	/**
+	 * Every level of a semaphore line gives the same as folding the
+	 * segments themselves.
+	 */
+	public final void testLevels() {
+		SampleLine line = new SemaphoreSampleLine(cpu, 0);
+		double[] times = new double[COUNT];
+		double[] vals = new double[COUNT];
+		Random random = new Random(1);
+		for (int i = 0; i < COUNT; i++) {
+			times[i] = i;
+			vals[i] = random.nextInt(100);
+		}
+		line.setSamples(times, vals, new byte[COUNT]);
+		line.buildPyramid();
+		SamplePyramid pyramid = line.getPyramid();
+		assertNotNull(pyramid);
+
+		assertEquals(-1, pyramid.getLevel(1));
+		double[] actual = new double[3];
+		for (double width = 4; width <= COUNT; width *= 2) {
+			int level = pyramid.getLevel(width);
+			for (double from = 0; from < COUNT - 1; from += width) {
+				assertTrue(pyramid.fold(level, from, from + width, actual));
+				assertEquals(fold(line, from, from + width), actual);
+			}
+		}
+		assertFalse(pyramid.fold(0, COUNT, COUNT + 4, actual));
+	}
+
+	/**
+	 * A long segment shows in every bucket it spans, and a cycles line
+	 * holds the number of cycles per second.
+	 */
+	public final void testRate() {
+		SampleLine line = new CyclesSampleLine(cpu, 0);
+		double[] times = new double[COUNT];
+		double[] vals = new double[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			times[i] = (i == 0) ? 0 : (i + 99);
+			vals[i] = 10 * i;
+		}
+		line.setSamples(times, vals, new byte[COUNT]);
+		line.buildPyramid();
+
+		double[] actual = new double[3];
+		assertTrue(line.getPyramid().fold(0, 48, 52, actual));
+		assertEquals(0.1, actual[0], 1e-9);
+		assertEquals(0.1, actual[1], 1e-9);
+		assertTrue(line.getPyramid().fold(0, 200, 204, actual));
+		assertEquals(10, actual[2], 1e-9);
+	}
+
+	/**
+	 * A sample timed before the first one, as in a trace with lines out of
+	 * order, adds its segment to the first bucket.
+	 */
+	public final void testOutOfOrder() {
+		SampleLine line = new SemaphoreSampleLine(cpu, 0);
+		double[] times = new double[COUNT];
+		double[] vals = new double[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			times[i] = i;
+			vals[i] = i % 100;
+		}
+		times[COUNT / 2] = -COUNT;
+		vals[COUNT / 2] = -1;
+		line.setSamples(times, vals, new byte[COUNT]);
+		line.buildPyramid();
+		SamplePyramid pyramid = line.getPyramid();
+		assertNotNull(pyramid);
+
+		double[] actual = new double[3];
+		assertTrue(pyramid.fold(0, 0, 1, actual));
+		assertEquals(-1d, actual[0]);
+	}
+
+	/**
+	 * Lines without a pyramid: a short line, a task line, and a line that
+	 * changed after building its pyramid.
+	 */
+	public final void testNoPyramid() {
+		SampleLine line = new SemaphoreSampleLine(cpu, 0);
+		line.addSample(SampleType.START, 0, 1);
+		line.addSample(SampleType.STOP, 1, 0);
+		line.buildPyramid();
+		assertNull(line.getPyramid());
+
+		line = new TaskSampleLine(cpu, 0);
+		line.setSamples(new double[COUNT], new double[COUNT], new byte[COUNT]);
+		line.buildPyramid();
+		assertNull(line.getPyramid());
+
+		line = new SemaphoreSampleLine(cpu, 0);
+		double[] times = new double[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			times[i] = i;
+		}
+		line.setSamples(times, new double[COUNT], new byte[COUNT]);
+		line.buildPyramid();
+		assertNotNull(line.getPyramid());
+		line.addSample(SampleType.START, COUNT, 1);
+		assertNull(line.getPyramid());
+	}
+
+	/**
+	 * Folds the levels of the segments overlapping a time range.
+	 */
+	private double[] fold(final SampleLine line, final double from, final double to) {
+		double[] expected = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0};
+		for (int i = 1; i < line.getCount(); i++) {
+			if ((line.getTime(i - 1) < to) && (line.getTime(i) > from)) {
+				double value = line.getVal(i - 1);
+				expected[0] = Math.min(expected[0], value);
+				expected[1] = Math.max(expected[1], value);
+				expected[2] = value;
+			}
+		}
+		return expected;
+	}
+
+	private void assertEquals(final double[] expected, final double[] actual) {
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i], 0);
+		}
+	}
+}
@@ -2,6 +2,12 @@ package net.timedoctor.core.tests.model;
 
 import junit.framework.TestCase;
 
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Section;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+
 public class SectionTest extends TestCase {
 
 	public void testSection() {
@@ -44,8 +50,41 @@ public class SectionTest extends TestCase {
 		fail("Not yet implemented");
 	}
 
-	public void testGetLineSampleCPUIntDouble() {
-		fail("Not yet implemented");
+	public void testGetLineSampleCPUIntDouble() throws Exception {
+		TraceModel model = new TraceModel();
+		SampleCPU cpu0 = new SampleCPU(model, 0, "cpu0", 1);
+		SampleCPU cpu1 = new SampleCPU(model, 1, "cpu1", 1);
+
+		// Ids that were packed into the same key with the CPU id
+		SampleLine high = SampleLine.createLine(cpu0, LineType.TASKS, 1 << 28, 0);
+		SampleLine low = SampleLine.createLine(cpu1, LineType.TASKS, 0, 0);
+		Section section = model.getSections().getSection(LineType.TASKS);
+		assertSame(high, section.getLine(cpu0, 1 << 28, 1));
+		assertSame(low, section.getLine(cpu1, 0, 1));
+		assertNull(section.getLine(cpu0, 0, 1));
+
+		// An id reused once its line is deleted
+		SampleLine first = SampleLine.createLine(cpu0, LineType.TASKS, 7, 0);
+		first.setTimeDelete(10);
+		SampleLine second = SampleLine.createLine(cpu0, LineType.TASKS, 7, 10);
+		assertSame(first, section.getLine(cpu0, 7, 5));
+		assertSame(second, section.getLine(cpu0, 7, 11));
+		// Both lines are valid at the delete time, the first one is found
+		assertSame(first, section.getLine(cpu0, 7, 10));
+		assertSame(second, section.getLine(cpu0, 7, 12));
+		assertSame(first, section.getLine(cpu0, 7, 5));
+		section.removeLine(first);
+		assertNull(section.getLine(cpu0, 7, 5));
+		assertSame(second, section.getLine(cpu0, 7, 10));
+
+		for (int id = 100; id < 1100; id++) {
+			SampleLine.createLine(cpu1, LineType.TASKS, id, 0);
+		}
+		for (int id = 100; id < 1100; id++) {
+			assertEquals(id, section.getLine(cpu1, id, 1).getID());
+			assertNull(section.getLine(cpu0, id, 1));
+		}
+		assertSame(high, section.getLine(cpu0, 1 << 28, 1));
 	}
 
 	public void testGetIterator() {
@@ -2,6 +2,9 @@ package net.timedoctor.core.tests.model;
 
 import junit.framework.TestCase;
 
+import net.timedoctor.core.model.SampleCPU;
+import net.timedoctor.core.model.TraceModel;
+
 public class TDModelTest extends TestCase {
 
 	public void testFilename() {
@@ -37,7 +40,30 @@ public class TDModelTest extends TestCase {
 	}
 
 	public void testGetCPU() {
-		fail("Not yet implemented");
+		TraceModel model = new TraceModel();
+		int[] ids = { 3, 0, 70000, -2, 4095, 4096 };
+		SampleCPU[] cpus = new SampleCPU[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			cpus[i] = new SampleCPU(model, ids[i], "cpu" + i, 1);
+			model.addCPU(cpus[i]);
+			assertEquals(i, cpus[i].getIndex());
+		}
+		for (int i = 0; i < ids.length; i++) {
+			assertSame(cpus[i], model.getCPU(ids[i]));
+			assertSame(cpus[i], model.getCPUs().get(cpus[i].getIndex()));
+		}
+		assertNull(model.getCPU(1));
+		assertNull(model.getCPU(-1));
+
+		// The first cpu added with an id is found
+		SampleCPU duplicate = new SampleCPU(model, 3, "duplicate", 1);
+		model.addCPU(duplicate);
+		assertSame(cpus[0], model.getCPU(3));
+
+		cpus[0].setID(1);
+		assertSame(cpus[0], model.getCPU(1));
+		assertSame(duplicate, model.getCPU(3));
+		assertEquals(ids.length, duplicate.getIndex());
 	}
 
 	public void testMultiCPU() {
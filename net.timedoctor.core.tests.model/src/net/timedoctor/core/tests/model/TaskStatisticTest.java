@@ -0,0 +1,168 @@
+package net.timedoctor.core.tests.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.statistics.ExecutionStatistic;
+import net.timedoctor.core.model.statistics.ResponseTimeStatistic;
+import net.timedoctor.core.model.statistics.Statistic;
+import net.timedoctor.core.model.statistics.TaskStatistic;
+import net.timedoctor.core.model.statistics.TraceStatistic;
+
+/**
+ * Tests the statistics of a task in windows starting and ending within its
+ * executions and interrupts.
+ */
+public class TaskStatisticTest extends TestCase {
+
+	/**
+	 * Task 1 runs from 0 to 0.5 s, interrupted by ISR 1 from 0.2 to 0.3 s,
+	 * and from 0.6 to 0.8 s. Task 2 runs from 0.8 to 1 s.
+	 */
+	private static final String TRACE = "TIME 1000\n"
+			+ "CPU 0 cpu0\n"
+			+ "STA 0 1 0\n"
+			+ "STA 1 1 200\n"
+			+ "STO 1 1 300\n"
+			+ "STO 0 1 500\n"
+			+ "STA 0 1 600\n"
+			+ "STO 0 1 800\n"
+			+ "STA 0 2 800\n"
+			+ "STO 0 2 1000\n"
+			+ "END\n";
+
+	private static final double DELTA = 1e-9;
+
+	private TraceStatistic traceStat;
+
+	private TaskStatistic stat;
+
+	@Override
+	protected void setUp() throws Exception {
+		TraceModel model = TestTraces.parse(TRACE);
+		traceStat = new TraceStatistic(model);
+		stat = TestTraces.getTaskStatistic(traceStat, model);
+	}
+
+	private ExecutionStatistic getIncExecTimeStatistic() {
+		return (ExecutionStatistic) stat.getChildren().get(0).getChildren().get(1);
+	}
+
+	private ExecutionStatistic getIntExecTimeStatistic() {
+		return (ExecutionStatistic) stat.getChildren().get(1).getChildren().get(1);
+	}
+
+	/**
+	 * The whole trace counts every execution and interrupt.
+	 */
+	public final void testWholeTrace() {
+		stat.calculate(0, 1);
+		assertEquals(2, stat.getExecutionsStatistic().getNTotal());
+		assertEquals(0.6, stat.getExExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(0.2, stat.getExExecTimeStatistic().getMinTime(), DELTA);
+		assertEquals(0.3, stat.getExExecTimeStatistic().getAvgTime(), DELTA);
+		assertEquals(0.4, stat.getExExecTimeStatistic().getMaxTime(), DELTA);
+		assertEquals(0.7, getIncExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(0.5, getIncExecTimeStatistic().getMaxTime(), DELTA);
+		assertEquals(0.1, getIntExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(1, stat.getInterruptStatistic().getNTotal());
+		assertEquals(0, stat.getInterruptStatistic().getNMin());
+		assertEquals(1, stat.getInterruptStatistic().getNMax());
+	}
+
+	/**
+	 * A window starting in an interrupt clips the execution running at its
+	 * start, but counts its time per execution in full.
+	 */
+	public final void testClippedWindow() {
+		stat.calculate(0.25, 0.7);
+		assertEquals(1, stat.getExecutionsStatistic().getNTotal());
+		assertEquals(0.3, stat.getExExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(0.35, getIncExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(0.05, getIntExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(0.2, stat.getExExecTimeStatistic().getMinTime(), DELTA);
+		assertEquals(0.4, stat.getExExecTimeStatistic().getMaxTime(), DELTA);
+		assertEquals(0, stat.getInterruptStatistic().getNTotal());
+	}
+
+	/**
+	 * A window within an active slice is fully loaded.
+	 */
+	public final void testWindowWithinSlice() {
+		stat.calculate(0.35, 0.45);
+		assertEquals(0.1, stat.getExExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(1.0, stat.getExExecTimeStatistic().getLoad(), DELTA);
+		assertEquals(0, stat.getExecutionsStatistic().getNTotal());
+	}
+
+	/**
+	 * A window after the last execution counts nothing in it.
+	 */
+	public final void testWindowAfterExecutions() {
+		stat.calculate(0.85, 0.95);
+		assertEquals(0, stat.getExecutionsStatistic().getNTotal());
+		assertEquals(0.0, stat.getExExecTimeStatistic().getTotalTime(), DELTA);
+		assertEquals(0.0, stat.getExExecTimeStatistic().getLoad(), DELTA);
+	}
+
+	/**
+	 * The activations give the period, and the response time includes the
+	 * interrupt.
+	 */
+	public final void testResponseTime() {
+		stat.calculate(0, 1);
+		ResponseTimeStatistic response = stat.getResponseTimeStatistic();
+		assertEquals(2, response.getNActivations());
+		assertEquals(1, response.getPeriodStatistic().getN());
+		assertEquals(0.6, response.getPeriodStatistic().getAvgTime(), DELTA);
+		assertEquals(0.0, response.getJitter(), DELTA);
+		assertEquals(0, response.getJitterStatistic().getN());
+		assertEquals(0.5, response.getWorstCaseResponseTime(), DELTA);
+		assertEquals(0.35, response.getResponseTimeStatistic().getAvgTime(), DELTA);
+		
+		// Only the second activation starts in the window
+		stat.calculate(0.1, 1);
+		assertEquals(1, response.getNActivations());
+		assertEquals(0, response.getPeriodStatistic().getN());
+		assertEquals(0.2, response.getWorstCaseResponseTime(), DELTA);
+	}
+
+	/**
+	 * Calculating all tasks in parallel reports each task done once.
+	 */
+	public final void testParallel() {
+		final AtomicInteger worked = new AtomicInteger();
+		assertTrue(traceStat.calculate(0, 1, new TraceStatistic.Progress() {
+			public boolean isCanceled() {
+				return false;
+			}
+
+			public void worked(final int nTasks) {
+				worked.addAndGet(nTasks);
+			}
+		}));
+		assertEquals(2, worked.get());
+		int nExecutions = 0;
+		for (Statistic child : traceStat.getChildren()) {
+			nExecutions += ((TaskStatistic) child).getExecutionsStatistic().getNTotal();
+		}
+		assertEquals(3, nExecutions);
+	}
+
+	/**
+	 * A cancelled calculation reports that it did not complete.
+	 */
+	public final void testCancelled() {
+		assertFalse(traceStat.calculate(0, 1, new TraceStatistic.Progress() {
+			public boolean isCanceled() {
+				return true;
+			}
+
+			public void worked(final int nTasks) {
+				fail("No task should be calculated");
+			}
+		}));
+	}
+}
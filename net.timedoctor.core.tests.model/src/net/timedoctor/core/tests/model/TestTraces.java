@@ -0,0 +1,146 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Section;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.model.statistics.Statistic;
+import net.timedoctor.core.model.statistics.TaskStatistic;
+import net.timedoctor.core.parser.Parser;
+
+/**
+ * Writes traces given as text to temporary files and parses them, for the
+ * tests that need a parsed model.
+ */
+final class TestTraces {
+
+	private TestTraces() {
+		// Only static methods
+	}
+
+	/**
+	 * Writes a trace to a temporary file, deleted when the tests end.
+	 *
+	 * @param trace
+	 *            the text of the trace
+	 * @return the file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	static File write(final String trace) throws IOException {
+		File file = File.createTempFile("trace", ".tdi");
+		file.deleteOnExit();
+		FileWriter writer = new FileWriter(file);
+		try {
+			writer.write(trace);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Parses a trace, and fails if a line of it cannot be parsed.
+	 *
+	 * @param trace
+	 *            the text of the trace
+	 * @return the model of the trace
+	 * @throws Exception
+	 *             if writing or parsing the trace fails
+	 */
+	static TraceModel parse(final String trace) throws Exception {
+		return parse(write(trace));
+	}
+
+	/**
+	 * Parses a trace file, and fails if a line of it cannot be parsed.
+	 *
+	 * @param file
+	 *            the trace file
+	 * @return the model of the trace
+	 * @throws Exception
+	 *             if parsing the trace fails
+	 */
+	static TraceModel parse(final File file) throws Exception {
+		TraceModel model = new TraceModel();
+		Assert.assertTrue(new Parser("test", model, file).doParse(new NullProgressMonitor()));
+		return model;
+	}
+
+	/**
+	 * Creates the statistic of the first task of a model, which must have
+	 * id 1.
+	 *
+	 * @param parent
+	 *            the parent of the statistic, or null
+	 * @param model
+	 *            the model
+	 * @return the statistic of the task
+	 */
+	static TaskStatistic getTaskStatistic(final Statistic parent, final TraceModel model) {
+		SampleLine line = model.getSections().getSection(LineType.TASKS).getLine(0);
+		Assert.assertEquals(1, line.getID());
+		return new TaskStatistic(parent, model, line);
+	}
+
+	/**
+	 * Checks that two models hold the same lines, with the same samples and
+	 * descriptions.
+	 *
+	 * @param message
+	 *            identifies the comparison in failures
+	 * @param expected
+	 *            the expected model
+	 * @param actual
+	 *            the model to check
+	 */
+	static void assertSameModel(final String message, final TraceModel expected,
+			final TraceModel actual) {
+		Assert.assertEquals(message, expected.getEndTime(), actual.getEndTime(), 0);
+		for (LineType type : LineType.values()) {
+			Section expectedSection = expected.getSections().getSection(type);
+			Section actualSection = actual.getSections().getSection(type);
+			if (expectedSection == null) {
+				Assert.assertNull(message, actualSection);
+				continue;
+			}
+			Assert.assertEquals(message, expectedSection.getNrLines(), actualSection.getNrLines());
+			for (int i = 0; i < expectedSection.getNrLines(); i++) {
+				assertSameLine(message, expectedSection.getLine(i), actualSection.getLine(i));
+			}
+		}
+	}
+
+	private static void assertSameLine(final String message, final SampleLine expected,
+			final SampleLine actual) {
+		String lineMessage = message + ", " + expected.getName();
+		Assert.assertEquals(lineMessage, expected.getName(), actual.getName());
+		Assert.assertEquals(lineMessage, expected.getCPU().getID(), actual.getCPU().getID());
+		Assert.assertEquals(lineMessage, expected.getID(), actual.getID());
+		Assert.assertEquals(lineMessage, expected.getCount(), actual.getCount());
+		for (int i = 0; i < expected.getCount(); i++) {
+			Assert.assertEquals(lineMessage, expected.getSampleType(i), actual.getSampleType(i));
+			Assert.assertEquals(lineMessage, expected.getTime(i), actual.getTime(i), 0);
+			Assert.assertEquals(lineMessage, expected.getVal(i), actual.getVal(i), 0);
+		}
+		Assert.assertEquals(lineMessage, expected.getDescCount(), actual.getDescCount());
+		for (int i = 0; i < expected.getDescCount(); i++) {
+			Assert.assertEquals(lineMessage, expected.getDescription(i).time,
+					actual.getDescription(i).time, 0);
+			Assert.assertEquals(lineMessage, expected.getDescription(i).type,
+					actual.getDescription(i).type);
+			Assert.assertEquals(lineMessage, expected.getDescription(i).value,
+					actual.getDescription(i).value, 0);
+			Assert.assertEquals(lineMessage, expected.getDescription(i).text,
+					actual.getDescription(i).text);
+		}
+	}
+}
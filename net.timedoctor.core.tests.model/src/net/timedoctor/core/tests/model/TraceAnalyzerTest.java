@@ -0,0 +1,99 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.parser.TraceAnalyzer;
+import net.timedoctor.core.parser.TraceAnalyzer.Format;
+
+/**
+ * Tests the statistics the headless analyzer prints for several traces
+ * analyzed concurrently.
+ */
+public class TraceAnalyzerTest extends TestCase {
+
+	/**
+	 * Task 1 runs twice: for 0.5 s, of which ISR 1 takes 0.1 s, and for 0.2 s.
+	 * Task 2 runs twice, for 0.1 s and 0.2 s.
+	 */
+	private static final String TRACE = "TIME 1000\n"
+			+ "CPU 0 cpu0\n"
+			+ "NAM 0 1 control\n"
+			+ "STA 0 1 0\n"
+			+ "STA 1 1 200\n"
+			+ "STO 1 1 300\n"
+			+ "STO 0 1 500\n"
+			+ "STA 0 2 500\n"
+			+ "STO 0 2 600\n"
+			+ "STA 0 1 600\n"
+			+ "STO 0 1 800\n"
+			+ "STA 0 2 800\n"
+			+ "STO 0 2 1000\n"
+			+ "END\n";
+
+	private final List<File> files = new ArrayList<File>();
+
+	@Override
+	protected void setUp() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			files.add(TestTraces.write(TRACE));
+		}
+	}
+
+	private String analyze(final Format format, final List<File> traces) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int status = new TraceAnalyzer(0, -1, format).analyzeAll(traces, 2,
+				new PrintStream(out, true), new PrintStream(err, true));
+		assertEquals(err.toString(), 0, status);
+		return out.toString();
+	}
+
+	/**
+	 * Every trace gets one record per task, in the order of the files.
+	 */
+	public final void testCsv() throws Exception {
+		String[] records = analyze(Format.CSV, files).split("\n");
+		assertEquals(1 + 2 * files.size(), records.length);
+		assertTrue(records[0].startsWith("trace,task,"));
+		for (int i = 0; i < files.size(); i++) {
+			String[] control = records[1 + 2 * i].split(",");
+			assertEquals(files.get(i).getPath(), control[0]);
+			assertEquals("control", control[1]);
+			assertEquals(2, Integer.parseInt(control[2]));
+			// 0.6 s of execution, excluding the interrupt, in 1 s
+			assertEquals(0.6, Double.parseDouble(control[3]), 1e-6);
+			assertEquals(0.2, Double.parseDouble(control[4]), 1e-6);
+			assertEquals(0.3, Double.parseDouble(control[5]), 1e-6);
+			assertEquals(0.4, Double.parseDouble(control[6]), 1e-6);
+			assertEquals(1, Integer.parseInt(control[7]));
+			assertEquals(0, Integer.parseInt(control[8]));
+			assertEquals(1, Integer.parseInt(control[10]));
+		}
+	}
+
+	/**
+	 * A trace that cannot be read is reported, and does not stop the others.
+	 */
+	public final void testMissingTrace() throws Exception {
+		List<File> traces = new ArrayList<File>(files);
+		traces.add(1, new File(files.get(0).getPath() + ".missing"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int status = new TraceAnalyzer(0, -1, Format.JSON).analyzeAll(traces, 2,
+				new PrintStream(out, true), new PrintStream(err, true));
+		assertEquals(2, status);
+		assertTrue(err.toString().contains(".missing"));
+		String json = out.toString().trim();
+		assertTrue(json.startsWith("[") && json.endsWith("]"));
+		for (File file : files) {
+			assertTrue(json.contains("\"trace\": \"" + file.getPath() + "\""));
+		}
+		assertTrue(json.contains("\"name\": \"control\""));
+	}
+}
@@ -0,0 +1,159 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.parser.Parser;
+import net.timedoctor.core.parser.TraceCache;
+
+/**
+ * Tests that the parser loads unchanged trace files from the cache, and
+ * parses changed ones again.
+ */
+public class TraceCacheTest extends TestCase {
+
+	private static final String TRACE = "TIME 1000\n"
+			+ "STA 0 1 0\n"
+			+ "STO 0 1 100\n"
+			+ "END\n";
+
+	/**
+	 * Same length as TRACE, with the task stopping at another time.
+	 */
+	private static final String OTHER_TRACE = "TIME 1000\n"
+			+ "STA 0 1 0\n"
+			+ "STO 0 1 200\n"
+			+ "END\n";
+
+	private File directory;
+
+	private File trace;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = File.createTempFile("cache", "");
+		directory.delete();
+		trace = File.createTempFile("cached", ".tdi");
+		write(trace, TRACE);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+		trace.delete();
+	}
+
+	/**
+	 * Reopening an unchanged file loads the cached model, which is
+	 * shown by changing the file without changing its size and modification
+	 * time.
+	 */
+	public void testUnchangedFile() throws Exception {
+		TraceCache cache = new TraceCache(directory, TraceCache.DEFAULT_MAX_SIZE);
+		assertEquals(0.1, getStopTime(parse(cache)), 1e-9);
+		assertNotNull(cache.lookup(trace));
+
+		long lastModified = trace.lastModified();
+		write(trace, OTHER_TRACE);
+		trace.setLastModified(lastModified);
+		assertEquals(0.1, getStopTime(parse(cache)), 1e-9);
+		assertEquals(0.2, getStopTime(parse(null)), 1e-9);
+	}
+
+	/**
+	 * A changed file is parsed again, and replaces the entry of its previous
+	 * version.
+	 */
+	public void testChangedFile() throws Exception {
+		TraceCache cache = new TraceCache(directory, TraceCache.DEFAULT_MAX_SIZE);
+		parse(cache);
+
+		write(trace, OTHER_TRACE.replace("200", "2000"));
+		assertEquals(2, getStopTime(parse(cache)), 1e-9);
+		assertNotNull(cache.lookup(trace));
+		assertEquals(1, directory.listFiles().length);
+	}
+
+	/**
+	 * An entry that cannot be loaded is removed, and the file is parsed.
+	 */
+	public void testDamagedEntry() throws Exception {
+		TraceCache cache = new TraceCache(directory, TraceCache.DEFAULT_MAX_SIZE);
+		parse(cache);
+
+		// Overwrite the format version
+		RandomAccessFile entry = new RandomAccessFile(cache.lookup(trace), "rw");
+		try {
+			entry.seek(4);
+			entry.writeInt(-1);
+		} finally {
+			entry.close();
+		}
+		assertEquals(0.1, getStopTime(parse(cache)), 1e-9);
+		assertNotNull(cache.lookup(trace));
+	}
+
+	/**
+	 * Entries are evicted, least recently used first, when the cache grows
+	 * beyond its maximum size.
+	 */
+	public void testEviction() throws Exception {
+		File other = File.createTempFile("cached", ".tdi");
+		try {
+			write(other, OTHER_TRACE);
+			TraceCache cache = new TraceCache(directory, Long.MAX_VALUE);
+			parse(cache);
+			TraceModel model = new TraceModel();
+			Parser parser = new Parser("test", model, other);
+			parser.setCache(cache);
+			assertTrue(parser.doParse(new NullProgressMonitor()));
+			assertEquals(2, directory.listFiles().length);
+
+			// Make the other file least recently used
+			cache.lookup(other).setLastModified(System.currentTimeMillis() - 60000);
+			long size = cache.lookup(trace).length();
+			new TraceCache(directory, size).evict();
+			assertNotNull(cache.lookup(trace));
+			assertNull(cache.lookup(other));
+		} finally {
+			other.delete();
+		}
+	}
+
+	private TraceModel parse(final TraceCache cache) throws Exception {
+		TraceModel model = new TraceModel();
+		Parser parser = new Parser("test", model, trace);
+		parser.setCache(cache);
+		assertTrue(parser.doParse(new NullProgressMonitor()));
+		return model;
+	}
+
+	private double getStopTime(final TraceModel model) {
+		SampleLine line = model.getSections().getSection(LineType.TASKS).getLine(0);
+		return line.getTime(1);
+	}
+
+	private void write(final File file, final String text) throws IOException {
+		FileWriter writer = new FileWriter(file);
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package net.timedoctor.core.tests.model;
+
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.Section;
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.SampleLine.LineType;
+import net.timedoctor.core.parser.Parser;
+import net.timedoctor.core.parser.TraceSocketSource;
+import net.timedoctor.core.parser.TraceStreamGenerator;
+
+/**
+ * Tests receiving a trace over a loopback connection, as text and as binary
+ * records, with a ring much smaller than the trace.
+ */
+public class TraceSocketSourceTest extends TestCase {
+
+	private static final int BATCH = 500;
+
+	private static final long TIMEOUT = 20000;
+
+	private final TraceStreamGenerator generator = new TraceStreamGenerator(4, 300);
+
+	private TraceSocketSource source;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (source != null) {
+			source.close();
+		}
+	}
+
+	/**
+	 * A text trace received while the sender waits for room in the ring
+	 * gives the same model as the trace file.
+	 */
+	public void testText() throws Exception {
+		assertReceived(false);
+	}
+
+	/**
+	 * A binary record stream gives the same model as the text.
+	 */
+	public void testBinary() throws Exception {
+		assertReceived(true);
+	}
+
+	/**
+	 * A full ring drops the oldest records and keeps the newest.
+	 */
+	public void testDropOldest() throws Exception {
+		source = new TraceSocketSource(0, 64, TraceSocketSource.Overflow.DROP_OLDEST);
+		source.start();
+		generator.send(source.getPort(), false);
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (source.getReceivedCount() < generator.getLineCount()) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+		assertEquals(64, source.getPendingCount());
+		assertEquals(generator.getLineCount() - 64, source.getDroppedCount());
+
+		TraceModel model = new TraceModel();
+		Parser parser = new Parser("test", model);
+		assertTrue(parser.applyReceived(source, BATCH));
+		assertEquals(0, source.getPendingCount());
+		assertFalse(parser.applyReceived(source, BATCH));
+	}
+
+	private void assertReceived(final boolean binary) throws Exception {
+		StringWriter text = new StringWriter();
+		generator.write(text);
+		TraceModel expected = TestTraces.parse(text.toString());
+
+		source = new TraceSocketSource(0, 256, TraceSocketSource.Overflow.BLOCK);
+		source.start();
+		final Exception[] error = new Exception[1];
+		Thread sender = new Thread() {
+			@Override
+			public void run() {
+				try {
+					generator.send(source.getPort(), binary);
+				} catch (Exception e) {
+					error[0] = e;
+				}
+			}
+		};
+		sender.start();
+
+		TraceModel model = new TraceModel();
+		Parser parser = new Parser("test", model);
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (source.getReceivedCount() < generator.getLineCount()
+				|| (source.getPendingCount() > 0)) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			if (!parser.applyReceived(source, BATCH)) {
+				Thread.sleep(1);
+			}
+		}
+		sender.join();
+		assertNull(error[0]);
+		assertEquals(0, source.getDroppedCount());
+		assertNull(source.getError());
+
+		assertEquals(expected.getEndTime(), model.getEndTime(), 1e-12);
+		for (LineType type : LineType.values()) {
+			Section expectedSection = expected.getSections().getSection(type);
+			Section actualSection = model.getSections().getSection(type);
+			if (expectedSection == null) {
+				assertNull(actualSection);
+				continue;
+			}
+			assertEquals(expectedSection.getNrLines(), actualSection.getNrLines());
+			for (int i = 0; i < expectedSection.getNrLines(); i++) {
+				assertLine(expectedSection.getLine(i), actualSection.getLine(i));
+			}
+		}
+	}
+
+	private void assertLine(final SampleLine expected, final SampleLine actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getName(), expected.getCount(), actual.getCount());
+		for (int i = 0; i < expected.getCount(); i++) {
+			assertEquals(expected.getName(), expected.getSampleType(i), actual.getSampleType(i));
+			assertEquals(expected.getName(), expected.getTime(i), actual.getTime(i), 1e-12);
+			assertEquals(expected.getName(), expected.getVal(i), actual.getVal(i));
+		}
+	}
+}
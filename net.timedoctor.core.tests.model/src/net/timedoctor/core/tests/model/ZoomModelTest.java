@@ -0,0 +1,82 @@
+package net.timedoctor.core.tests.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.Executor;
+
+import junit.framework.TestCase;
+
+import net.timedoctor.core.model.ZoomModel;
+import net.timedoctor.core.model.ZoomModel.Change;
+
+/**
+ * Tests that the zoom model notifies its observers of the kinds of changes,
+ * once per burst of changes if a notifier is set.
+ */
+public class ZoomModelTest extends TestCase {
+
+	private ZoomModel zoom = new ZoomModel();
+
+	private List<Object> notifications = new ArrayList<Object>();
+
+	private List<Runnable> scheduled = new ArrayList<Runnable>();
+
+	@Override
+	protected void setUp() throws Exception {
+		zoom.addObserver(new Observer() {
+			public void update(final Observable o, final Object data) {
+				notifications.add(data);
+			}
+		});
+	}
+
+	/**
+	 * Without a notifier, every change notifies the observers.
+	 */
+	public final void testImmediate() {
+		zoom.setTimes(0, 10);
+		zoom.setSelectTime(5);
+		zoom.setSelectTime(5);
+		assertEquals(2, notifications.size());
+		assertTrue(ZoomModel.isChanged(notifications.get(0), Change.TIMES));
+		assertFalse(ZoomModel.isChanged(notifications.get(0), Change.SELECT_TIME));
+		assertTrue(ZoomModel.isChanged(notifications.get(1), Change.SELECT_TIME));
+	}
+
+	/**
+	 * With a notifier, a burst of changes is merged into one notification.
+	 */
+	public final void testCoalesced() {
+		zoom.setNotifier(new Executor() {
+			public void execute(final Runnable command) {
+				scheduled.add(command);
+			}
+		});
+		for (int i = 1; i <= 100; i++) {
+			zoom.setTimes(i, i + 10);
+		}
+		zoom.setSelectTime(5);
+		assertEquals(0, notifications.size());
+		assertEquals(1, scheduled.size());
+		assertEquals(100.0, zoom.getStartTime());
+
+		scheduled.get(0).run();
+		assertEquals(1, notifications.size());
+		assertTrue(ZoomModel.isChanged(notifications.get(0), Change.TIMES));
+		assertTrue(ZoomModel.isChanged(notifications.get(0), Change.SELECT_TIME));
+		assertFalse(ZoomModel.isChanged(notifications.get(0), Change.SELECTED_LINE));
+
+		// The next change schedules a new notification
+		zoom.setSelectTime(6);
+		assertEquals(2, scheduled.size());
+	}
+
+	/**
+	 * Observers not passed a set of changes update on any change.
+	 */
+	public final void testUnknownData() {
+		assertTrue(ZoomModel.isChanged(null, Change.SELECTED_LINE));
+	}
+}
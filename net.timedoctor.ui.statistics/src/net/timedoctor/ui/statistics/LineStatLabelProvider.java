@@ -18,9 +18,13 @@ import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.swt.graphics.Image;
 
 import net.timedoctor.core.model.Times;
+import net.timedoctor.core.model.statistics.BucketStatistic;
 import net.timedoctor.core.model.statistics.CounterStatistic;
+import net.timedoctor.core.model.statistics.DistributionStatistic;
 import net.timedoctor.core.model.statistics.ExecutionStatistic;
 import net.timedoctor.core.model.statistics.InterruptStatistic;
+import net.timedoctor.core.model.statistics.ResponseTimeStatistic;
+import net.timedoctor.core.model.statistics.SpreadStatistic;
 import net.timedoctor.core.model.statistics.Statistic;
 
 public class LineStatLabelProvider extends LabelProvider implements ITableLabelProvider {
@@ -29,16 +33,28 @@ public class LineStatLabelProvider extends LabelProvider implements ITableLabelP
 	private final int MIN_COLUMN = 3;
 	private final int AVG_COLUMN = 4;
 	private final int MAX_COLUMN = 5;
+	private final int P50_COLUMN = 6;
+	private final int P90_COLUMN = 7;
+	private final int P99_COLUMN = 8;
+	private final int P999_COLUMN = 9;
 	
 	public String getColumnText(final Object obj, final int columnIndex) {
 		if (columnIndex == 0) {
 			return ((Statistic) obj).getName();
+		} else if (obj instanceof DistributionStatistic) {
+			return getDistributionStr((DistributionStatistic) obj, columnIndex);
 		} else if (obj instanceof ExecutionStatistic) {
 			return getExecutionStr((ExecutionStatistic) obj, columnIndex);
 		} else if (obj instanceof InterruptStatistic) {
 			return getInterruptStr((InterruptStatistic) obj, columnIndex);
 		} else if (obj instanceof CounterStatistic) {
 			return getCounterStr((CounterStatistic) obj, columnIndex);			
+		} else if (obj instanceof BucketStatistic) {
+			return getBucketStr((BucketStatistic) obj, columnIndex);
+		} else if (obj instanceof ResponseTimeStatistic) {
+			return getResponseTimeStr((ResponseTimeStatistic) obj, columnIndex);
+		} else if (obj instanceof SpreadStatistic) {
+			return getSpreadStr((SpreadStatistic) obj, columnIndex);
 		}		
 		return null;
 	}
@@ -63,6 +79,54 @@ public class LineStatLabelProvider extends LabelProvider implements ITableLabelP
 		return null;
 	}
 	
+	private String getDistributionStr(final DistributionStatistic stat, final int columnIndex) {
+		switch (columnIndex) {
+		case P50_COLUMN:
+			return Times.timeToString(stat.getPercentile(0.5));
+		case P90_COLUMN:
+			return Times.timeToString(stat.getPercentile(0.9));
+		case P99_COLUMN:
+			return Times.timeToString(stat.getPercentile(0.99));
+		case P999_COLUMN:
+			return Times.timeToString(stat.getPercentile(0.999));
+		}
+		return getExecutionStr(stat, columnIndex);
+	}
+	
+	private String getBucketStr(final BucketStatistic stat, final int columnIndex) {
+		switch (columnIndex) {
+		case TOTAL_COLUMN:
+			return String.valueOf(stat.getNExecutions());
+		case LOAD_COLUMN:
+			return percentageStr(stat.getShare());
+		}
+		return null;
+	}
+	
+	private String getResponseTimeStr(final ResponseTimeStatistic stat, final int columnIndex) {
+		switch (columnIndex) {
+		case TOTAL_COLUMN:
+			return String.valueOf(stat.getNActivations());
+		case LOAD_COLUMN:
+			return doubleToIntStr(stat.getLoad()) + " #/s";
+		}
+		return null;
+	}
+	
+	private String getSpreadStr(final SpreadStatistic stat, final int columnIndex) {
+		switch (columnIndex) {
+		case TOTAL_COLUMN:
+			return String.valueOf(stat.getN());
+		case MIN_COLUMN: 
+			return Times.timeToString(stat.getMinTime());
+		case AVG_COLUMN: 
+			return Times.timeToString(stat.getAvgTime());
+		case MAX_COLUMN: 
+			return Times.timeToString(stat.getMaxTime());
+		}
+		return null;
+	}
+	
 	private String getInterruptStr(final InterruptStatistic stat, final int columnIndex) {
 		switch (columnIndex) {
 		case TOTAL_COLUMN:
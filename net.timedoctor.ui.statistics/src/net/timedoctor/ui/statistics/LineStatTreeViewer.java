@@ -13,7 +13,6 @@ package net.timedoctor.ui.statistics;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
@@ -32,6 +31,10 @@ public class LineStatTreeViewer extends StatisticsViewer {
 	private final static String MIN_HEADING 	= "Minimum/Execution";
 	private final static String AVG_HEADING 	= "Average/Execution";
 	private final static String MAX_HEADING 	= "Maximum/Execution";
+	private final static String P50_HEADING 	= "P50";
+	private final static String P90_HEADING 	= "P90";
+	private final static String P99_HEADING 	= "P99";
+	private final static String P999_HEADING 	= "P99.9";
 
 	private TreeViewer viewer;
 	
@@ -41,7 +44,11 @@ public class LineStatTreeViewer extends StatisticsViewer {
 			LOAD_HEADING,
 			MIN_HEADING,
 			AVG_HEADING,
-			MAX_HEADING
+			MAX_HEADING,
+			P50_HEADING,
+			P90_HEADING,
+			P99_HEADING,
+			P999_HEADING
 	};
 	
 	public LineStatTreeViewer(final Composite topComposite) {
@@ -70,7 +77,8 @@ public class LineStatTreeViewer extends StatisticsViewer {
 		viewer.setContentProvider(new StatContentProvider());
 		viewer.setLabelProvider(new LineStatLabelProvider());
 		
-		viewer.setAutoExpandLevel(AbstractTreeViewer.ALL_LEVELS);
+		// Expand the statistics, but not the histogram buckets under them
+		viewer.setAutoExpandLevel(2);
 	}
 
 	private void createColumns(final Tree tree) {
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.ui.statistics;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.model.statistics.TraceStatistic;
+
+/**
+ * Calculates the statistics of all tasks in the background, on all
+ * processors. The same job is rescheduled for every new time window, after
+ * cancelling it, so that at most one calculation writes the statistics at a
+ * time. It is also cancelled while lines of a followed trace change. Once
+ * done, it tells its page in the user interface thread.
+ */
+public class TraceStatisticJob extends Job {
+
+	private final TraceStatisticsPage page;
+
+	private final Display display;
+
+	/**
+	 * The model of the statistics, which is the family of the job.
+	 */
+	private final TraceModel traceModel;
+
+	private final TraceStatistic traceStat;
+
+	private double startTime;
+
+	private double endTime;
+
+	/**
+	 * The number of the request for the current window, passed back to the
+	 * page to recognize results for an older window.
+	 */
+	private int request;
+
+	/**
+	 * Constructs a job calculating the given statistics.
+	 *
+	 * @param page
+	 *            receives the result
+	 * @param display
+	 *            the display of the page
+	 * @param traceModel
+	 *            the model of the statistics
+	 * @param traceStat
+	 *            the statistics to calculate
+	 */
+	public TraceStatisticJob(final TraceStatisticsPage page,
+			final Display display,
+			final TraceModel traceModel,
+			final TraceStatistic traceStat) {
+		super("Calculating statistics");
+		this.page = page;
+		this.display = display;
+		this.traceModel = traceModel;
+		this.traceStat = traceStat;
+		setSystem(true);
+	}
+
+	/**
+	 * Sets the window for the next run of the job.
+	 *
+	 * @param startTime
+	 *            the start of the window
+	 * @param endTime
+	 *            the end of the window
+	 * @param request
+	 *            the number of the request
+	 */
+	public synchronized void setWindow(final double startTime,
+			final double endTime,
+			final int request) {
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.request = request;
+	}
+
+	/**
+	 * The job belongs to the family of the model of its statistics, which is
+	 * cancelled and joined before the lines change.
+	 * 
+	 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+	 */
+	@Override
+	public boolean belongsTo(final Object family) {
+		return family == traceModel;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	protected IStatus run(final IProgressMonitor monitor) {
+		final double start;
+		final double end;
+		final int runRequest;
+		synchronized (this) {
+			start = startTime;
+			end = endTime;
+			runRequest = request;
+		}
+
+		monitor.beginTask(getName(), traceStat.getChildren().size());
+		final boolean done = traceStat.calculate(start, end, new TraceStatistic.Progress() {
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+
+			public void worked(final int nTasks) {
+				synchronized (monitor) {
+					monitor.worked(nTasks);
+				}
+			}
+		});
+		monitor.done();
+		if (!done) {
+			return Status.CANCEL_STATUS;
+		}
+
+		if (!display.isDisposed()) {
+			display.asyncExec(new Runnable() {
+				public void run() {
+					page.calculationDone(runRequest);
+				}
+			});
+		}
+		return Status.OK_STATUS;
+	}
+}
@@ -19,6 +19,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.ProgressBar;
 import org.eclipse.ui.IActionBars;
 import org.eclipse.ui.actions.ActionFactory;
 
@@ -31,13 +32,29 @@ import net.timedoctor.ui.statistics.actions.CopyAction;
 import net.timedoctor.ui.statistics.actions.PrintAction;
 
 public class TraceStatisticsPage implements Observer, IStatisticsViewPage {
+	/**
+	 * Calculations taking less time than this, in milliseconds, show no
+	 * progress.
+	 */
+	private static final int PROGRESS_DELAY = 200;
+	
 	private ZoomModel zoomModel;
+	private TraceModel traceModel;
 	private StatisticsTimeModel timeModel;
 	
 	private TraceStatTableViewer tableViewer;
 	private TraceStatistic traceStat;
+	private TraceStatisticJob job;
+	
+	/**
+	 * The number of the last calculation requested, and whether it is
+	 * running.
+	 */
+	private int request = 0;
+	private boolean calculating = false;
 	
 	private Composite topComposite;
+	private ProgressBar progressBar;
 	private IAction copyAction;
 	private IAction printAction;
 	
@@ -54,11 +71,60 @@ public class TraceStatisticsPage implements Observer, IStatisticsViewPage {
 	 */
 	public void update(Observable o, Object arg) {
 		if (o instanceof ZoomModel) {
-			timeModel.setTimes(zoomModel.getStartTime(), zoomModel.getEndTime());
-		} else {
+			if (ZoomModel.isChanged(arg, ZoomModel.Change.TIMES)) {
+				timeModel.setTimes(zoomModel.getStartTime(), zoomModel.getEndTime());
+			}
+		} else if (o instanceof TraceModel) {
+			if (calculating) {
+				// The calculation may have been cancelled while the lines changed
+				scheduleCalculation();
+			}
+		} else if (job != null) {
 			// Show statistics for the current zoom range
-			traceStat.calculate(timeModel.getStartTime(), timeModel.getEndTime());
-			tableViewer.refresh();
+			scheduleCalculation();
+		}
+	}
+	
+	/**
+	 * Calculates the statistics for the current window in the background,
+	 * cancelling the calculation for the previous window.
+	 */
+	private void scheduleCalculation() {
+		final int scheduled = ++request;
+		calculating = true;
+		job.cancel();
+		job.setWindow(timeModel.getStartTime(), timeModel.getEndTime(), scheduled);
+		job.schedule();
+		
+		topComposite.getDisplay().timerExec(PROGRESS_DELAY, new Runnable() {
+			public void run() {
+				if (calculating && (request == scheduled) && !progressBar.isDisposed()) {
+					showProgress(true);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Shows the statistics once calculated, unless a calculation for a
+	 * newer window is requested.
+	 * 
+	 * @param calculated the number of the calculation done
+	 */
+	void calculationDone(final int calculated) {
+		if ((calculated != request) || topComposite.isDisposed()) {
+			return;
+		}
+		calculating = false;
+		showProgress(false);
+		tableViewer.refresh();
+	}
+	
+	private void showProgress(final boolean show) {
+		if (progressBar.getVisible() != show) {
+			((GridData) progressBar.getLayoutData()).exclude = !show;
+			progressBar.setVisible(show);
+			topComposite.layout();
 		}
 	}
 	
@@ -67,11 +133,13 @@ public class TraceStatisticsPage implements Observer, IStatisticsViewPage {
 	 */
 	public void setModels(final ZoomModel zoomModel, final TraceModel traceModel) {
 		this.zoomModel = zoomModel;		
+		this.traceModel = traceModel;
 		this.timeModel = new StatisticsTimeModel();
 		
 		traceStat = new TraceStatistic(traceModel);
 		
 		this.zoomModel.addObserver(this);
+		this.traceModel.addObserver(this);
 		this.timeModel.addObserver(this);
 	}
 
@@ -90,10 +158,17 @@ public class TraceStatisticsPage implements Observer, IStatisticsViewPage {
 		StatTimeViewer timeViewer = new StatTimeViewer(topComposite, timeModel);
 		timeViewer.setLayoutData(new GridData(SWT.LEFT, SWT.TOP, true, false, 1, 1));
 		
+		progressBar = new ProgressBar(topComposite, SWT.HORIZONTAL | SWT.INDETERMINATE);
+		GridData progressData = new GridData(SWT.FILL, SWT.TOP, true, false, 1, 1);
+		progressData.exclude = true;
+		progressBar.setLayoutData(progressData);
+		progressBar.setVisible(false);
+		
 		tableViewer = new TraceStatTableViewer(topComposite);
 		tableViewer.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true, 1, 1));		
 		tableViewer.setInput(traceStat);
 		
+		job = new TraceStatisticJob(this, topComposite.getDisplay(), traceModel, traceStat);
 		timeModel.setTimes(zoomModel.getStartTime(), zoomModel.getEndTime());
 	}
 
@@ -137,7 +212,11 @@ public class TraceStatisticsPage implements Observer, IStatisticsViewPage {
 	 */
 	public void dispose() {
 		zoomModel.deleteObserver(this);
+		traceModel.deleteObserver(this);
 		timeModel.deleteObserver(this);
+		if (job != null) {
+			job.cancel();
+		}
 	}
 
 	public void copyToClipboard() {
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.ui.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.TraceModel;
+
+/**
+ * Determines in the background which lines have samples in a time window,
+ * for hiding the lines that have none. The job is cancelled when the window
+ * changes again before it is done, and while lines of a followed trace
+ * change. Once done, it passes the lines whose visibility must change to its
+ * viewer in the user interface thread.
+ */
+public class AutoHideJob extends Job {
+
+	private final IAutoHideClient client;
+
+	private final Display display;
+
+	/**
+	 * The model of the lines, which is the family of the job.
+	 */
+	private final TraceModel traceModel;
+
+	private final double startTime;
+
+	private final double endTime;
+
+	private final TraceLineViewer[] viewers;
+
+	/**
+	 * The visibility of the lines when the job was scheduled.
+	 */
+	private final boolean[] visible;
+
+	/**
+	 * Constructs a job for the given lines and time window. The visibility
+	 * of the lines is taken now, in the user interface thread.
+	 *
+	 * @param client
+	 *            receives the result
+	 * @param display
+	 *            the display of the viewer
+	 * @param traceModel
+	 *            the model of the lines
+	 * @param viewers
+	 *            the lines to show or hide
+	 * @param startTime
+	 *            the start of the time window
+	 * @param endTime
+	 *            the end of the time window
+	 */
+	public AutoHideJob(final IAutoHideClient client,
+			final Display display,
+			final TraceModel traceModel,
+			final List<TraceLineViewer> viewers,
+			final double startTime,
+			final double endTime) {
+		super("Hiding empty lines");
+		this.client = client;
+		this.display = display;
+		this.traceModel = traceModel;
+		this.viewers = viewers.toArray(new TraceLineViewer[viewers.size()]);
+		this.startTime = startTime;
+		this.endTime = endTime;
+
+		visible = new boolean[this.viewers.length];
+		for (int i = 0; i < visible.length; i++) {
+			visible[i] = this.viewers[i].isVisible();
+		}
+		setSystem(true);
+	}
+
+	/**
+	 * The job belongs to the family of the model of its lines, which is
+	 * cancelled and joined before the lines change.
+	 * 
+	 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+	 */
+	@Override
+	public boolean belongsTo(final Object family) {
+		return family == traceModel;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	protected IStatus run(final IProgressMonitor monitor) {
+		final List<TraceLineViewer> shown = new ArrayList<TraceLineViewer>();
+		final List<TraceLineViewer> hidden = new ArrayList<TraceLineViewer>();
+		for (int i = 0; i < viewers.length; i++) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			SampleLine line = viewers[i].getLine();
+			boolean hasSamples = line.hasSamples(startTime, endTime);
+			if (hasSamples != visible[i]) {
+				if (hasSamples) {
+					shown.add(viewers[i]);
+				} else {
+					hidden.add(viewers[i]);
+				}
+			}
+		}
+
+		if (!display.isDisposed()) {
+			display.asyncExec(new Runnable() {
+				public void run() {
+					client.autoHideDone(AutoHideJob.this, shown, hidden);
+				}
+			});
+		}
+		return Status.OK_STATUS;
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.ui.trace;
+
+import java.util.concurrent.Executor;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Runs notifications in the user interface thread, at most once per display
+ * frame. Set on a {@link net.timedoctor.core.model.ZoomModel} so that
+ * dragging the scroll bar or the cursor repaints the view once per frame
+ * instead of once per mouse event.
+ */
+public class FrameNotifier implements Executor {
+
+	/**
+	 * The duration of a display frame in milliseconds.
+	 */
+	private static final int FRAME_MILLIS = 16;
+
+	private final Display display;
+
+	private long lastRun = 0;
+
+	/**
+	 * Constructs a notifier running in the thread of the given display.
+	 *
+	 * @param display
+	 *            the display of the view
+	 */
+	public FrameNotifier(final Display display) {
+		this.display = display;
+	}
+
+	/**
+	 * Runs a notification at the start of the next frame.
+	 *
+	 * @param command
+	 *            the notification
+	 */
+	public void execute(final Runnable command) {
+		if (display.isDisposed()) {
+			return;
+		}
+		int delay = (int) Math.max(0, lastRun + FRAME_MILLIS - System.currentTimeMillis());
+		display.timerExec(delay, new Runnable() {
+			public void run() {
+				lastRun = System.currentTimeMillis();
+				command.run();
+			}
+		});
+	}
+}
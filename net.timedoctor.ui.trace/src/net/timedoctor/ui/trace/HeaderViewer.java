@@ -148,13 +148,17 @@ public class HeaderViewer implements Observer {
 	 * @param o
 	 *            the <code>Observable</code> calling the update
 	 * @param data
-	 *            has no effect
+	 *            the changes of the zoom model
 	 */
 	public final void update(final Observable o, final Object data) {		
-		updateLogo();
+		if (ZoomModel.isChanged(data, ZoomModel.Change.SELECTED_LINE)) {
+			updateLogo();
+		}
 	
-		ruler.redraw();
-		ruler.update();
+		if (ZoomModel.isChanged(data, ZoomModel.Change.TIMES)) {
+			ruler.redraw();
+			ruler.update();
+		}
 	}
 
 	private void updateLogo() {		
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.ui.trace;
+
+import java.util.List;
+
+/**
+ * Interface used by auto-hide jobs to pass their result
+ */
+public interface IAutoHideClient {
+
+	/**
+	 * Shows or hides the lines whose visibility changed. Called in the user
+	 * interface thread.
+	 * 
+	 * @param job
+	 * 		the job done
+	 * @param shown
+	 * 		the lines to show
+	 * @param hidden
+	 * 		the lines to hide
+	 */
+	void autoHideDone(AutoHideJob job, List<TraceLineViewer> shown, List<TraceLineViewer> hidden);
+}
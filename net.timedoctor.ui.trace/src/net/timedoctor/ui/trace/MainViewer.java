@@ -10,7 +10,9 @@
  *******************************************************************************/
 package net.timedoctor.ui.trace;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -37,7 +39,6 @@ import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
-import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.ScrollBar;
 import org.eclipse.swt.widgets.Slider;
 
@@ -53,7 +54,7 @@ import net.timedoctor.ui.trace.TraceCursorFactory.CursorType;
  * The main view, containing sashes, sections, labels, and traces. Vertical
  * scrolling is automatic when the content is larger than the client area.
  */
-public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
+public class MainViewer implements IScrollClient, Observer, ISelectionProvider, IAutoHideClient {
 	
 	/**
 	 * Horizontal scrollbar settings.
@@ -111,6 +112,24 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 	 * and the horizontal scrollbar needs to be updated.
 	 */
 	private int zoomPercentage = 0;
+
+	/**
+	 * Set while the lines in view are updated, as laying out the panes
+	 * scrolls them again.
+	 */
+	private boolean updatingRows = false;
+
+	/**
+	 * The job hiding the lines without samples in the current time window,
+	 * or null if it is done.
+	 */
+	private AutoHideJob autoHideJob = null;
+
+	/**
+	 * The end time of the trace when last shown, to notice a followed trace
+	 * growing.
+	 */
+	private double modelEndTime;
 	
 	private HashMap<Section, SectionViewer> sectionViewerMap = new HashMap<Section, SectionViewer>();
 	
@@ -155,7 +174,8 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 		preferenceStore = TracePluginActivator.getDefault().getPreferenceStore();		
 		preferenceStore.addPropertyChangeListener(propertyListener);
 		
-		zoomModel.setTimes(0, traceModel.getEndTime() / 2);
+		modelEndTime = traceModel.getEndTime();
+		zoomModel.setTimes(0, modelEndTime / 2);
 	}
 	
 	public void dispose() {
@@ -164,6 +184,7 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 		selectionChangedListeners.clear();
 		
 		preferenceStore.removePropertyChangeListener(propertyListener);
+		cancelAutoHide();
 	}
 
 	/**
@@ -210,8 +231,9 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 				baseLine,
 				traceModel,
 				zoomModel);
+		SampleHitTester hitTester = new SampleHitTester(zoomModel);
 
-		createTraceLines(traceCursorListener);
+		createTraceLines(traceCursorListener, hitTester);
 		
 		initializeScrollbars();		
 	}
@@ -221,8 +243,11 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 	 * 
 	 * @param traceSelectListener
 	 * 			  The TraceSelectListener object
+	 * @param hitTester
+	 * 			  Finds the samples under the mouse
 	 */
-	private void createTraceLines(final TraceCursorListener traceCursorListener) {
+	private void createTraceLines(final TraceCursorListener traceCursorListener,
+			final SampleHitTester hitTester) {
 		// Add lines in the order of lineType.
 		for (LineType type : LineType.values()) {
 			if (type != LineType.PORTS) {
@@ -231,7 +256,7 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 				if (s != null) {
 					SectionViewer sectionViewer = createSectionViewer(type, s);
 					sectionViewer.createTraceLines(leftContent, rightContent,
-							s, traceCursorListener);
+							s, traceCursorListener, hitTester);
 				}
 			}
 		}
@@ -320,17 +345,50 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 	 * @param o
 	 *            the <code>Observable</code> calling the update
 	 * @param data
-	 *            has no effect
+	 *            the changes of the zoom model
 	 */
 	public final void update(final Observable o, final Object data) {
 		if (o instanceof TraceModel) {
+			final AutoHideJob pending = autoHideJob;
+			if (traceModel.getEndTime() != modelEndTime) {
+				traceGrown();
+			}
+			if ((pending != null) && (pending == autoHideJob)) {
+				// The job may have been cancelled while the lines changed
+				scheduleAutoHide();
+			}
 			updateVisibility();
 		} else {
-			setHorizontalScroll();
-			updateAutoHide();
-			traceModel.setChanged();
+			if (ZoomModel.isChanged(data, ZoomModel.Change.TIMES)) {
+				setHorizontalScroll();
+				if (preferenceStore.getBoolean(TracePluginActivator.AUTO_HIDE_PREFERENCE)) {
+					scheduleAutoHide();
+				} else {
+					updateAutoHide();
+					traceModel.setChanged();
+				}
+			}
 			
-			updateSelection(zoomModel.getSelectedLine(), false);
+			if (ZoomModel.isChanged(data, ZoomModel.Change.TIMES)
+					|| ZoomModel.isChanged(data, ZoomModel.Change.SELECTED_LINE)) {
+				updateSelection(zoomModel.getSelectedLine(), false);
+			}
+		}
+	}
+	
+	/**
+	 * Keeps showing the end of a followed trace that grew: a time window at
+	 * the end of the trace moves along with it, any other window stays.
+	 */
+	private void traceGrown() {
+		double oldEndTime = modelEndTime;
+		modelEndTime = traceModel.getEndTime();
+		double zoomEndTime = zoomModel.getEndTime();
+		if (zoomEndTime >= oldEndTime) {
+			double growth = modelEndTime - oldEndTime;
+			zoomModel.setTimes(zoomModel.getStartTime() + growth, zoomEndTime + growth);
+		} else {
+			setHorizontalScroll();
 		}
 	}
 	
@@ -341,10 +399,10 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 
 		if (newSelectionLine != null && newSelectionLine.isVisible()) {
 			SectionViewer sectionViewer = sectionViewerMap.get(newSelectionLine.getSection());
-			Control control = sectionViewer.selectLine(newSelectionLine, true);
+			int location = sectionViewer.selectLine(newSelectionLine, true);
 
-			if (control != null && updateView) {
-				updateView(control);
+			if (location >= 0 && updateView) {
+				updateView(location);
 			}
 			
 			currentSelectedLine = newSelectionLine;
@@ -352,10 +410,9 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 		}
 	}
 
-	private void updateView(Control control) {
+	private void updateView(final int location) {
 		ScrollBar bar = verticalScroll.getVerticalBar();
 
-		int location       = control.getLocation().y;
 		int halfViewHeight = bar.getSize().y / 2; // Half of the current visible portion
 		int fullHeight     = rightContent.computeSize(SWT.DEFAULT, SWT.DEFAULT).y;
 
@@ -369,13 +426,13 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 			selection = location - halfViewHeight; // So that the selected line is in middle of the visible view
 		}
 
-		setScroll(selection); // Updates the leftContent
-
 		Point p = rightContent.getLocation();
 		p.y = -selection;
 		rightContent.setLocation(p); // Updates the rightContent
 
 		bar.setSelection(selection); // Updates the scroll bar
+
+		setScroll(selection); // Updates the leftContent and the lines in view
 	}
 	
 	private void updateVisibility() {
@@ -386,11 +443,66 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 	}
 
 	private void updateAutoHide() {
+		cancelAutoHide();
 		for (SectionViewer currentSection : sectionViewerMap.values()) {
 			currentSection.updateAutoHide();
 		}
 		layout();
 	}
+
+	/**
+	 * Hides the lines without samples in the current time window in the
+	 * background, cancelling the job for the previous window.
+	 */
+	private void scheduleAutoHide() {
+		cancelAutoHide();
+		ArrayList<TraceLineViewer> viewers = new ArrayList<TraceLineViewer>();
+		for (SectionViewer currentSection : sectionViewerMap.values()) {
+			currentSection.collectAutoHideLines(viewers);
+		}
+		autoHideJob = new AutoHideJob(this, rightContent.getDisplay(), traceModel,
+				viewers, zoomModel.getStartTime(), zoomModel.getEndTime());
+		autoHideJob.schedule();
+	}
+
+	private void cancelAutoHide() {
+		if (autoHideJob != null) {
+			autoHideJob.cancel();
+			autoHideJob = null;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see net.timedoctor.ui.trace.IAutoHideClient#autoHideDone(net.timedoctor.ui.trace.AutoHideJob, java.util.List, java.util.List)
+	 */
+	public void autoHideDone(final AutoHideJob job, 
+			final List<TraceLineViewer> shown, 
+			final List<TraceLineViewer> hidden) {
+		if ((job != autoHideJob) || rightContent.isDisposed()) {
+			// A newer window is being handled
+			return;
+		}
+		autoHideJob = null;
+
+		boolean changed = false;
+		for (TraceLineViewer viewer : shown) {
+			if (viewer.isExpanded() && !viewer.isVisible()) {
+				viewer.setVisible(true);
+				changed = true;
+			}
+		}
+		for (TraceLineViewer viewer : hidden) {
+			if (viewer.isExpanded() && viewer.isVisible()) {
+				viewer.setVisible(false);
+				changed = true;
+			}
+		}
+
+		if (changed) {
+			layout();
+			traceModel.setChanged();
+		}
+	}
 	                               
 	private void setHorizontalScroll() {
 		// MR would be more accurate and faster to store the zoomModel factor in the zoomModel
@@ -446,6 +558,41 @@ public class MainViewer implements IScrollClient, Observer, ISelectionProvider {
 	public void setScroll(final int selection) {
 		((GridData) leftContent.getLayoutData()).verticalIndent = - selection;
 		leftContent.getParent().layout(false);
+		updateRows(selection);
+	}
+
+	/**
+	 * Creates the controls of the lines in view, and disposes those of the
+	 * lines scrolled out of view. Lines up to half a view above and below the
+	 * visible part get controls too, so that scrolling by small steps does
+	 * not create controls on every step.
+	 * 
+	 * @param selection
+	 *            the vertical scroll position
+	 */
+	private void updateRows(final int selection) {
+		if (updatingRows) {
+			return;
+		}
+		updatingRows = true;
+		try {
+			int viewHeight = verticalScroll.getClientArea().height;
+			int margin = viewHeight / 2;
+			// Lines measured on creation move the sections below them, so
+			// check once more after laying out
+			for (int pass = 0; pass < 2; pass++) {
+				boolean changed = false;
+				for (SectionViewer sectionViewer : sectionViewerMap.values()) {
+					changed |= sectionViewer.updateRows(selection - margin, selection + viewHeight + margin);
+				}
+				if (!changed) {
+					break;
+				}
+				layout();
+			}
+		} finally {
+			updatingRows = false;
+		}
 	}
 
 	/* (non-Javadoc)
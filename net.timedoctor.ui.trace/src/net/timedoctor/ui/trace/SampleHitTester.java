@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.ui.trace;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.ZoomModel;
+import net.timedoctor.core.model.Sample.SampleType;
+
+/**
+ * Finds the sample under the mouse in the trace lines of a viewer, for
+ * showing its information. The sample found at a pixel column of a line is
+ * kept until the zoom, the width of the view or the samples of the line
+ * change, so that moving the mouse over a line searches each column only
+ * once.
+ */
+public class SampleHitTester {
+	private static final int POPUP_CURSOR_OFFSET = 6;
+
+	/**
+	 * Marks a column that was not searched yet.
+	 */
+	private static final int UNKNOWN = -2;
+
+	/**
+	 * A question for the sample at a position, reused from one mouse event
+	 * to the next.
+	 */
+	public static final class Query {
+		/**
+		 * The line under the mouse.
+		 */
+		public SampleLine line;
+
+		/**
+		 * The horizontal position of the mouse.
+		 */
+		public int x;
+
+		/**
+		 * The width of the view of the lines.
+		 */
+		public int width;
+
+		/**
+		 * The index of the sample found, or -1 if there is none.
+		 */
+		public int sampleIndex;
+	}
+
+	/**
+	 * The samples found in the columns of a line, for a number of samples.
+	 */
+	private static final class Columns {
+		private final int[] sampleIndices;
+
+		private final int count;
+
+		Columns(final int width, final int count) {
+			sampleIndices = new int[width];
+			Arrays.fill(sampleIndices, UNKNOWN);
+			this.count = count;
+		}
+	}
+
+	private final ZoomModel zoom;
+
+	private final Map<SampleLine, Columns> columns = new IdentityHashMap<SampleLine, Columns>();
+
+	private double startTime;
+
+	private double endTime;
+
+	private int width;
+
+	/**
+	 * Constructs a hit tester for the lines of a viewer.
+	 *
+	 * @param zoom
+	 *            the zoom of the viewer
+	 */
+	public SampleHitTester(final ZoomModel zoom) {
+		this.zoom = zoom;
+	}
+
+	/**
+	 * Finds the sample at the position of a query, and sets its index in the
+	 * query.
+	 *
+	 * @param query
+	 *            the line and position
+	 */
+	public void hitTest(final Query query) {
+		if ((zoom.getStartTime() != startTime) || (zoom.getEndTime() != endTime)
+				|| (query.width != width)) {
+			columns.clear();
+			startTime = zoom.getStartTime();
+			endTime = zoom.getEndTime();
+			width = query.width;
+		}
+		if ((query.x < 0) || (query.x >= width)) {
+			query.sampleIndex = findSample(query.line, query.x);
+			return;
+		}
+
+		final SampleLine line = query.line;
+		Columns lineColumns = columns.get(line);
+		if ((lineColumns == null) || (lineColumns.count != line.getCount())) {
+			lineColumns = new Columns(width, line.getCount());
+			columns.put(line, lineColumns);
+		}
+		int sampleIndex = lineColumns.sampleIndices[query.x];
+		if (sampleIndex == UNKNOWN) {
+			sampleIndex = findSample(line, query.x);
+			lineColumns.sampleIndices[query.x] = sampleIndex;
+		}
+		query.sampleIndex = sampleIndex;
+	}
+
+	private int findSample(final SampleLine line, final int x) {
+		if (line.getCount() == 0) {
+			return -1;
+		}
+
+		double zoomFactor = zoom.getPixelsPerTime(width);
+		double time = zoom.getTimeAtPosition(x, width);
+		int index = line.binarySearch(time);
+
+		switch (line.getType()) {
+		case EVENTS:
+		case SEMAPHORES:
+		case QUEUES:
+		case NOTES:
+		{
+			double timeDifference = Math.abs(line.getTime(index) - time);
+			int dx = (int) (timeDifference * zoomFactor);
+
+			if (dx < POPUP_CURSOR_OFFSET) {
+				return index;
+			}
+
+			index++;
+			if (index >= line.getCount()) {
+				return -1;
+			}
+
+			timeDifference = Math.abs(line.getTime(index) - time);
+			dx = (int) (timeDifference * zoomFactor);
+
+			if (dx < POPUP_CURSOR_OFFSET) {
+				return index;
+			}
+
+			return -1;
+		}
+
+		case VALUES:
+		case CYCLES:
+		case MEM_CYCLES:
+		{
+			if (line.getTime(index) > time) {
+				return -1;
+			}
+
+			if (index < line.getCount() - 2) {
+				return index;
+			}
+
+			return -1;
+		}
+
+		case TASKS:
+		case ISRS:
+		case AGENTS:
+		{
+			if (line.getTime(index) > time) {
+				return -1;
+			}
+
+			SampleType taskSampleType = line.getSampleType(index);
+
+			switch (taskSampleType) {
+			case START:
+			case SUSPEND:
+			case RESUME:
+				return index;
+			default:
+				return -1;
+			}
+		}
+
+		default:
+			return -1;
+		}
+	}
+}
@@ -10,13 +10,14 @@
  *******************************************************************************/
 package net.timedoctor.ui.trace;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
-import org.eclipse.swt.widgets.Control;
 
 import net.timedoctor.core.model.SampleLine;
 import net.timedoctor.core.model.Section;
@@ -27,6 +28,11 @@ import net.timedoctor.core.model.ZoomModel;
  * An instance of this class holds a number of trace lines of the same type
  * (tasks, ISRs, Queues, etc.) The section has a header at the top and a
  * splitter at the bottom to resize the height of the section.
+ * <p>
+ * Only the lines in or near the visible part of the view have a label and a
+ * trace canvas. The lines above and below them are represented by a filler
+ * of the same height in each pane, so that the number of controls does not
+ * grow with the number of lines in the trace.
  */
 public class SectionViewer implements IExpandClient{
 
@@ -38,6 +44,35 @@ public class SectionViewer implements IExpandClient{
 	private Composite traceHeader;
 	private MainViewer mainViewer;
 	private Section section;
+	private Composite labelPane;
+	private Composite tracePane;
+	private TraceCursorListener traceCursorListener;
+	private SampleHitTester hitTester;
+	
+	/**
+	 * The lines of the section in the order in which they are shown.
+	 */
+	private ArrayList<TraceLineViewer> rows = new ArrayList<TraceLineViewer>();
+
+	/**
+	 * Whether the order of the rows changed since their controls were last
+	 * placed.
+	 */
+	private boolean rowsMoved = false;
+
+	/**
+	 * The fillers taking the place of the lines above and below the lines
+	 * with controls.
+	 */
+	private Composite topLabelFiller;
+	private Composite topTraceFiller;
+	private Composite bottomLabelFiller;
+	private Composite bottomTraceFiller;
+
+	/**
+	 * The height of lines whose controls were never created.
+	 */
+	private int defaultRowHeight;
 	
 	/**
 	 * Constructs a new SectionViewer, and creates and lays out the trace lines.
@@ -70,6 +105,12 @@ public class SectionViewer implements IExpandClient{
 		TraceLineSeparator separator = new TraceLineSeparator(this, leftPane, rightPane);
 		separator.setBackground(rightPane.getDisplay().getSystemColor(SWT.COLOR_WHITE));
 
+		topLabelFiller = createFiller(leftPane);
+		topTraceFiller = createFiller(rightPane);
+		bottomLabelFiller = createFiller(leftPane);
+		bottomTraceFiller = createFiller(rightPane);
+		defaultRowHeight = sectionHeader.getHeaderHeight();
+
 		sectionHeader.addExpandClient(this);
 	}
 
@@ -123,31 +164,56 @@ public class SectionViewer implements IExpandClient{
 	}
 
 	/**
-	 * Creates the trace lines from the model (eventually; currently uses dummy
-	 * data), populating the label and trace views in the process.
+	 * Creates an empty composite taking the place of lines without controls.
+	 * 
+	 * @param parent
+	 *            the pane of the window
+	 * @return the filler
+	 */
+	private Composite createFiller(final Composite parent) {
+		Composite filler = new Composite(parent, SWT.NONE);
+		GridData fillerGridData = new GridData(SWT.FILL, SWT.TOP, true, false, 1, 1);
+		fillerGridData.heightHint = 0;
+		fillerGridData.exclude = true;
+		filler.setLayoutData(fillerGridData);
+		filler.setVisible(false);
+		filler.setBackground(parent.getDisplay().getSystemColor(SWT.COLOR_WHITE));
+		return filler;
+	}
+
+	/**
+	 * Creates the trace lines from the model. Their labels and traces are
+	 * created by {@link #updateRows(int, int)} once they come into view.
 	 * 
-	 * @param labels
+	 * @param labelPane
 	 *            the label view to populate
-	 * @param traces
+	 * @param tracePane
 	 *            the trace view to populate
-	 * @param model
-	 *            the model containing data on the whole trace
+	 * @param section
+	 *            the section of the model holding the lines
+	 * @param traceCursorListener
+	 *            the listener moving the cursor over the traces
+	 * @param hitTester
+	 *            finds the samples under the mouse
 	 */
 	public void createTraceLines(final Composite labelPane,
 			final Composite tracePane, 
 			final Section section, 
-			final TraceCursorListener traceCursorListener) {
+			final TraceCursorListener traceCursorListener,
+			final SampleHitTester hitTester) {
 				
 		this.section = section;
+		this.labelPane = labelPane;
+		this.tracePane = tracePane;
+		this.traceCursorListener = traceCursorListener;
+		this.hitTester = hitTester;
 		for (SampleLine line : section.getLines()) {			
 			new TraceLineViewer(this,					
-					labelPane, 
-					tracePane,
 					line,
 					zoomModel, 
-					traceModel, 
-					traceCursorListener);
+					traceModel);
 		}
+		syncRows();
 	}
 	
 	public void addTraceLineViewer(final TraceLineViewer traceLineViewer) {
@@ -158,6 +224,115 @@ public class SectionViewer implements IExpandClient{
 		traceLineViewerMap.remove(traceLineViewer.getLine());
 	}
 
+	/**
+	 * Orders the rows as the lines of the section, after lines were added,
+	 * removed or reordered.
+	 */
+	public void syncRows() {
+		rows.clear();
+		for (SampleLine line : section.getLines()) {
+			TraceLineViewer traceLineViewer = traceLineViewerMap.get(line);
+			if (traceLineViewer != null) {
+				rows.add(traceLineViewer);
+			}
+		}
+		rowsMoved = true;
+	}
+
+	/**
+	 * Creates the controls of the visible lines overlapping the given part of
+	 * the trace pane, disposes the controls of the other lines, and sizes the
+	 * fillers to take the place of the lines without controls. The caller
+	 * lays out the panes if anything changed.
+	 * 
+	 * @param viewTop
+	 *            the top of the part to show, in trace pane coordinates
+	 * @param viewBottom
+	 *            the bottom of the part to show, in trace pane coordinates
+	 * @return true if controls were created or disposed, or fillers resized
+	 */
+	public boolean updateRows(final int viewTop, final int viewBottom) {
+		int first = rows.size();
+		int last = first - 1;
+		int y = getRowsTop();
+		for (int i = 0; i < rows.size(); i++) {
+			TraceLineViewer row = rows.get(i);
+			if (row.isVisible()) {
+				int bottom = y + row.getHeight(defaultRowHeight) + TraceLineSeparator.SEPARATOR_HEIGHT;
+				if ((bottom > viewTop) && (y < viewBottom)) {
+					first = Math.min(first, i);
+					last = i;
+				}
+				y = bottom;
+			}
+		}
+
+		boolean changed = rowsMoved;
+		int topHeight = 0;
+		int bottomHeight = 0;
+		for (int i = 0; i < rows.size(); i++) {
+			TraceLineViewer row = rows.get(i);
+			boolean inWindow = (i >= first) && (i <= last);
+			if (!inWindow) {
+				if (row.hasControls()) {
+					row.disposeControls();
+					changed = true;
+				}
+				if (row.isVisible()) {
+					int height = row.getHeight(defaultRowHeight) + TraceLineSeparator.SEPARATOR_HEIGHT;
+					if (i < first) {
+						topHeight += height;
+					} else {
+						bottomHeight += height;
+					}
+				}
+			} else if (row.isVisible() && !row.hasControls()) {
+				row.createControls(labelPane, tracePane, traceCursorListener, hitTester);
+				defaultRowHeight = row.getHeight(defaultRowHeight);
+				changed = true;
+			}
+		}
+
+		if (changed) {
+			for (int i = first; i <= last; i++) {
+				TraceLineViewer row = rows.get(i);
+				if (row.hasControls()) {
+					row.moveAbove(bottomLabelFiller, bottomTraceFiller);
+				}
+			}
+			rowsMoved = false;
+		}
+
+		changed |= setFillerHeight(topLabelFiller, topTraceFiller, topHeight);
+		changed |= setFillerHeight(bottomLabelFiller, bottomTraceFiller, bottomHeight);
+		return changed;
+	}
+
+	/**
+	 * Returns the top of the first line in the trace pane.
+	 */
+	private int getRowsTop() {
+		return traceHeader.getLocation().y + traceHeader.getSize().y
+				+ TraceLineSeparator.SEPARATOR_HEIGHT;
+	}
+
+	private boolean setFillerHeight(final Composite labelFiller, 
+			final Composite traceFiller, 
+			final int height) {
+		GridData labelGridData = (GridData) labelFiller.getLayoutData();
+		if (labelGridData.heightHint == height) {
+			return false;
+		}
+		GridData traceGridData = (GridData) traceFiller.getLayoutData();
+		labelGridData.heightHint = height;
+		traceGridData.heightHint = height;
+		labelGridData.exclude = (height == 0);
+		traceGridData.exclude = (height == 0);
+		labelFiller.setVisible(height != 0);
+		traceFiller.setVisible(height != 0);
+		return true;
+	}
+
 	/**
 	 * Collapse the section by hiding all trace lines 
 	 */
@@ -181,6 +356,27 @@ public class SectionViewer implements IExpandClient{
 		traceModel.setChanged();
 	}
 	
+	/**
+	 * Returns whether the lines of the section are shown.
+	 * 
+	 * @return true if the section is expanded
+	 */
+	public boolean isExpanded() {
+		return isExpanded;
+	}
+
+	/**
+	 * Adds the lines of the section that may be hidden automatically.
+	 * 
+	 * @param viewers
+	 *            receives the lines, none if the section is collapsed
+	 */
+	public void collectAutoHideLines(final List<TraceLineViewer> viewers) {
+		if (isExpanded) {
+			viewers.addAll(rows);
+		}
+	}
+	
 	public void updateAutoHide() {
 		if (isExpanded) {
 			for (TraceLineViewer traceLineViewer : traceLineViewerMap.values()) {
@@ -205,11 +401,37 @@ public class SectionViewer implements IExpandClient{
 	 * @param line The {@link SampleLine} to select or deselect
 	 * @param select true to select, false to deselect
 	 * 
-	 * @return The selected {@link Control} or null, if unable to select
+	 * @return The location of the line in the trace pane, or -1 if the line
+	 *         is not visible
 	 */
-	public Control selectLine(final SampleLine line, boolean select) {
+	public int selectLine(final SampleLine line, boolean select) {
 		TraceLineViewer traceLineViewer = traceLineViewerMap.get(line);
-		return traceLineViewer.selectLine(select);
+		traceLineViewer.selectLine(select);
+		return getRowLocation(traceLineViewer);
+	}
+
+	/**
+	 * Returns the location of a line in the trace pane, whether or not its
+	 * controls exist.
+	 * 
+	 * @param traceLineViewer
+	 *            the line
+	 * @return the top of the line, or -1 if the line is not visible
+	 */
+	private int getRowLocation(final TraceLineViewer traceLineViewer) {
+		if (!traceLineViewer.isVisible()) {
+			return -1;
+		}
+		int y = getRowsTop();
+		for (TraceLineViewer row : rows) {
+			if (row == traceLineViewer) {
+				return y;
+			}
+			if (row.isVisible()) {
+				y += row.getHeight(defaultRowHeight) + TraceLineSeparator.SEPARATOR_HEIGHT;
+			}
+		}
+		return -1;
 	}
 
 	/**
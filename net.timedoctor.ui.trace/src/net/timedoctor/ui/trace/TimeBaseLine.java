@@ -46,11 +46,13 @@ public class TimeBaseLine extends TimeLine {
 	 * @param o
 	 *            the <code>Observable</code> calling the update
 	 * @param data
-	 *            has no effect
+	 *            the changes of the zoom model
 	 */
 	@Override
 	public void update(final Observable o, final Object data) {
-		updatePositionAndLabel(zoom.getSelectTime());
+		if (isMoved(data)) {
+			updatePositionAndLabel(zoom.getSelectTime());
+		}
 	}
 
 	private void addSelectionListener() {
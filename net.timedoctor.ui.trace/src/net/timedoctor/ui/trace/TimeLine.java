@@ -234,10 +234,25 @@ public class TimeLine implements Observer {
 	 * @param o
 	 *            the <code>Observable</code> calling the update
 	 * @param data
-	 *            has no effect
+	 *            the changes of the zoom model
 	 */
 	public void update(final Observable o, final Object data) {
-		updatePositionAndLabel(cursorTime);
+		if (isMoved(data)) {
+			updatePositionAndLabel(cursorTime);
+		}
+	}
+
+	/**
+	 * Returns whether a change of the zoom model moves the line or changes
+	 * its label.
+	 * 
+	 * @param data
+	 *            the changes of the zoom model
+	 * @return true if the line must be updated
+	 */
+	protected boolean isMoved(final Object data) {
+		return ZoomModel.isChanged(data, ZoomModel.Change.TIMES)
+				|| ZoomModel.isChanged(data, ZoomModel.Change.SELECT_TIME);
 	}
 
 	protected void updatePositionAndLabel(final double time) {
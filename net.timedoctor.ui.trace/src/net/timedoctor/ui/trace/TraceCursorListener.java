@@ -37,6 +37,11 @@ public class TraceCursorListener implements MouseMoveListener, MouseTrackListene
 	private double traceEndTime;
 	private Cursor scrollCursor = null;
 	
+	// Where the cursor was last set, to skip moves that do not change it
+	private int cursorX = -1;
+	private double cursorStartTime;
+	private double cursorEndTime;
+	
 	/**
 	 * Constructor.
 	 */
@@ -77,7 +82,13 @@ public class TraceCursorListener implements MouseMoveListener, MouseTrackListene
 			
 			scrollToCursor(e.x);
 		}
-		else {
+		else if ((e.x != cursorX) 
+				|| (timeModel.getStartTime() != cursorStartTime)
+				|| (timeModel.getEndTime() != cursorEndTime)) {
+			// Moving between lines at the same position leaves the cursor
+			cursorX = e.x;
+			cursorStartTime = timeModel.getStartTime();
+			cursorEndTime = timeModel.getEndTime();
 			traceCursor.setCursor(e.x);
 		}
 	}
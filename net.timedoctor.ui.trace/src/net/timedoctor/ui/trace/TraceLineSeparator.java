@@ -28,7 +28,7 @@ public class TraceLineSeparator {
 	/**
 	 * The height in pixels of the separator between labels.
 	 */
-	private static final int SEPARATOR_HEIGHT = 2;
+	static final int SEPARATOR_HEIGHT = 2;
 	
 	private SectionViewer sectionViewer;
 	private Label labelSeparator;
@@ -107,6 +107,19 @@ public class TraceLineSeparator {
 		traceSeparator.moveBelow(targetSeparator.traceSeparator);
 	}	
 
+	/**
+	 * Moves the separator above the given controls.
+	 * 
+	 * @param labelControl
+	 *            the control in the labels composite
+	 * @param traceControl
+	 *            the control in the traces composite
+	 */
+	public void moveAbove(final Control labelControl, final Control traceControl) {
+		labelSeparator.moveAbove(labelControl);
+		traceSeparator.moveAbove(traceControl);
+	}
+
 	// Bit ugly to move other controls here, but only way to hide all access to internals
 	public void moveLineBelow(final Control label, final Control trace) {
 		label.moveBelow(labelSeparator);
@@ -133,6 +146,14 @@ public class TraceLineSeparator {
 		}
 	}
 
+	/**
+	 * Disposes the separator.
+	 */
+	public void dispose() {
+		labelSeparator.dispose();
+		traceSeparator.dispose();
+	}
+
 	public void setBackground(final Color color) {
 		traceSeparator.setBackground(color);		
 	}
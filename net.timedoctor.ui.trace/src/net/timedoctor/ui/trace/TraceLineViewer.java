@@ -31,8 +31,17 @@ import net.timedoctor.ui.trace.canvases.TraceCanvas;
  * Creates the label and trace to view a <code>SampleLine</code>, and places
  * them in the right composites in the gui, retaining symbolic links for
  * organizational purposes.
+ * <p>
+ * The label, trace and separator only exist while the line is in or near the
+ * visible part of the view; the {@link SectionViewer} creates and disposes
+ * them when scrolling. The height, visibility and selection of the line are
+ * kept while they do not exist.
  */
 public class TraceLineViewer implements ISashClient {
+	/**
+	 * The separator below the line, or null if the controls of the line do
+	 * not exist.
+	 */
 	private TraceLineSeparator traceLineSeparator;
 	
 	/**
@@ -62,21 +71,23 @@ public class TraceLineViewer implements ISashClient {
 	private ZoomModel zoom;
 
 	private boolean isVisible = true;
+
+	private boolean isSelected = false;
+
+	/**
+	 * The height of the line, or -1 if it is not known yet.
+	 */
+	private int height = -1;
 	
 	private SectionViewer sectionViewer;
 
 	private IPreferenceStore preferenceStore;
 	
 	/**
-	 * Constructs a new TraceLineViewer.
+	 * Constructs a new TraceLineViewer, without creating its controls.
 	 * 
-	 * @param topLine
-	 *            the trace line above this line, <code>null</code> if this
-	 *            line is the first in the section.
-	 * @param labelPane
-	 *            the labels composite
-	 * @param tracePane
-	 *            the traces composite
+	 * @param sectionViewer
+	 *            the section holding the line
 	 * @param sampleLine
 	 *            the sample line containing data for this line
 	 * @param zoomData
@@ -85,12 +96,9 @@ public class TraceLineViewer implements ISashClient {
 	 *            model containing data on the whole trace
 	 */
 	public TraceLineViewer(final SectionViewer sectionViewer,
-			final Composite labelPane,
-			final Composite tracePane,
 			final SampleLine sampleLine, 
 			final ZoomModel zoomData,
-			final TraceModel model, 
-			final TraceCursorListener traceCursorListener) {
+			final TraceModel model) {
 
 		this.sectionViewer = sectionViewer;
 		this.line = sampleLine;
@@ -98,9 +106,28 @@ public class TraceLineViewer implements ISashClient {
 		this.model = model;
 		
 		sectionViewer.addTraceLineViewer(this);
-		
+		preferenceStore = TracePluginActivator.getDefault().getPreferenceStore(); 
+	}
+
+	/**
+	 * Creates the label, trace and separator of the line at the end of the
+	 * panes. The caller moves them to their place.
+	 * 
+	 * @param labelPane
+	 *            the labels composite
+	 * @param tracePane
+	 *            the traces composite
+	 * @param traceCursorListener
+	 *            the listener moving the cursor over the traces
+	 * @param hitTester
+	 *            finds the samples under the mouse
+	 */
+	public void createControls(final Composite labelPane,
+			final Composite tracePane,
+			final TraceCursorListener traceCursorListener,
+			final SampleHitTester hitTester) {
 		createLabel(labelPane);		
-		createTrace(tracePane, traceCursorListener);
+		createTrace(tracePane, traceCursorListener, hitTester);
 		
 		traceLineSeparator = new TraceLineSeparator(sectionViewer, labelPane, tracePane);
 		
@@ -109,9 +136,82 @@ public class TraceLineViewer implements ISashClient {
 		traceLineSeparator.addMouseListener(sashListener);
 		
 		setupReordering();
-				
-		setMinHeight();
-		preferenceStore = TracePluginActivator.getDefault().getPreferenceStore(); 
+
+		if (height == -1) {
+			setMinHeight();
+		} else {
+			setHeight(height);
+		}
+		if (!isVisible) {
+			exclude(true);
+		}
+		selectLine(isSelected);
+	}
+
+	/**
+	 * Disposes the label, trace and separator of the line.
+	 */
+	public void disposeControls() {
+		label.dispose();
+		trace.dispose();
+		traceLineSeparator.dispose();
+		label = null;
+		trace = null;
+		traceLineSeparator = null;
+	}
+
+	/**
+	 * Returns whether the label, trace and separator of the line exist.
+	 * 
+	 * @return true if the controls exist
+	 */
+	public boolean hasControls() {
+		return label != null;
+	}
+
+	/**
+	 * Moves the controls of the line above the given controls, keeping the
+	 * label above its separator and the trace above its sash.
+	 * 
+	 * @param labelControl
+	 *            the control in the labels composite
+	 * @param traceControl
+	 *            the control in the traces composite
+	 */
+	public void moveAbove(final Control labelControl, final Control traceControl) {
+		label.moveAbove(labelControl);
+		trace.moveAbove(traceControl);
+		traceLineSeparator.moveAbove(labelControl, traceControl);
+	}
+
+	/**
+	 * Returns the height of the line, or the given height if it is not known
+	 * because the controls of the line were never created.
+	 * 
+	 * @param defaultHeight
+	 *            the height to use if it is not known
+	 * @return the height in pixels, without the separator
+	 */
+	public int getHeight(final int defaultHeight) {
+		return (height == -1) ? defaultHeight : height;
+	}
+
+	/**
+	 * Returns whether the line is shown.
+	 * 
+	 * @return true if the line is visible
+	 */
+	public boolean isVisible() {
+		return isVisible;
+	}
+
+	/**
+	 * Returns whether the section of the line is expanded.
+	 * 
+	 * @return true if the section is expanded
+	 */
+	public boolean isExpanded() {
+		return sectionViewer.isExpanded();
 	}
 
 	/**
@@ -134,7 +234,8 @@ public class TraceLineViewer implements ISashClient {
 	 *            the traces composite
 	 */
 	private void createTrace(final Composite sectionTrace, 
-			final TraceCursorListener traceCursorListener) {
+			final TraceCursorListener traceCursorListener,
+			final SampleHitTester hitTester) {
 
 		trace = TraceCanvas.createCanvas(sectionTrace, line, zoom, model);
 		trace.setMinHeight(label.computeSize(SWT.DEFAULT, SWT.DEFAULT).y); //Set the initial height same as that of the label 
@@ -152,7 +253,7 @@ public class TraceLineViewer implements ISashClient {
 		trace.addMouseListener(zoomListener);
 		trace.addMouseMoveListener(zoomListener);
 				
-		trace.addMouseMoveListener(new TraceToolTipListener(line, zoom));
+		trace.addMouseMoveListener(new TraceToolTipListener(line, hitTester));
 	}
 
 	public void moveBelow(final TraceLineSeparator separator) {
@@ -160,13 +261,15 @@ public class TraceLineViewer implements ISashClient {
 		if (sectionViewer != targetSectionViewer) {
 			sectionViewer.removeTraceLineViewer(this);
 			targetSectionViewer.addTraceLineViewer(this);
+			sectionViewer.syncRows();
 			
 			sectionViewer = targetSectionViewer;
 			traceLineSeparator.setSectionViewer(targetSectionViewer);
 		}
+		sectionViewer.syncRows();
 		traceLineSeparator.moveBelow(separator);
 		separator.moveLineBelow(label, trace);
-		layout();
+		sectionViewer.layout();
 		model.setChanged(); //Notify TraceModel listeners
 	}
 	
@@ -193,6 +296,11 @@ public class TraceLineViewer implements ISashClient {
 	}	
 	
 	public void setHeight(final int height) {
+		this.height = height;
+		if (!hasControls()) {
+			return;
+		}
+
 		GridData labelGridData = (GridData) label.getLayoutData();
 		labelGridData.heightHint = height;
 			
@@ -234,27 +342,32 @@ public class TraceLineViewer implements ISashClient {
 	 */
 	public void setVisible(final boolean visible) {
 		if (isVisible != visible) {
-			traceLineSeparator.setVisible(visible);
-			
-			GridData traceGridData = (GridData) trace.getLayoutData();
-			traceGridData.exclude = !visible;
-			trace.setVisible(visible);
-
-			GridData labelGridData = (GridData) label.getLayoutData();
-			labelGridData.exclude = !visible;
-			label.setVisible(visible);
-
+			if (hasControls()) {
+				exclude(!visible);
+			}
 			isVisible = visible;
 			line.setVisible(visible);
 		}
 		
-		if (visible) {
-			setHeight(trace.getHeight());
-		} else {
+		if (!visible) {
 			selectLine(false);
+		} else if (hasControls()) {
+			setHeight(trace.getHeight());
 		}
 	}
 
+	private void exclude(final boolean exclude) {
+		traceLineSeparator.setVisible(!exclude);
+			
+		GridData traceGridData = (GridData) trace.getLayoutData();
+		traceGridData.exclude = exclude;
+		trace.setVisible(!exclude);
+
+		GridData labelGridData = (GridData) label.getLayoutData();
+		labelGridData.exclude = exclude;
+		label.setVisible(!exclude);
+	}
+
 	private void setupReordering() {
 		// Link back to this class as the drag source in the reorder listener
 		label.setData(this);
@@ -277,11 +390,6 @@ public class TraceLineViewer implements ISashClient {
 		target.addDropListener(reorderListener);
 	}
 	
-	private void layout() {
-		label.getParent().layout();
-		trace.getParent().layout();
-	}
-	
 	/**
 	 * Returns the {@link SampleLine} which is represented by this {@link TraceLineViewer}
 	 * @return The {@link SampleLine}
@@ -294,10 +402,13 @@ public class TraceLineViewer implements ISashClient {
 	 * Selects or deselects this {@link TraceLineViewer}
 	 *  
 	 * @param select true, to select; false, to deselect
-	 * 
-	 * @return The selected {@link Control} or null, if unable to select
 	 */
-	public Control selectLine(boolean select) {
+	public void selectLine(boolean select) {
+		isSelected = select;
+		if (!hasControls()) {
+			return;
+		}
+
 		if (select){
 			label.setBackground(label.getDisplay().getSystemColor(SWT.COLOR_DARK_BLUE));
 			label.setForeground(label.getDisplay().getSystemColor(SWT.COLOR_WHITE));
@@ -305,7 +416,5 @@ public class TraceLineViewer implements ISashClient {
 			label.setBackground(label.getDisplay().getSystemColor(SWT.COLOR_WHITE));
 			label.setForeground(label.getParent().getForeground());
 		}
-		
-		return isVisible ? trace : null;
 	}
 }
\ No newline at end of file
@@ -53,6 +53,16 @@ public class TracePluginActivator extends AbstractUIPlugin {
 	 * String constant used in preference page for Sub pixel load.
 	 */
 	public static final String SUB_PIXEL_LOAD = "SUB_PIXEL_LOAD";
+
+	/**
+	 * String constant used in preference page for caching parsed traces.
+	 */
+	public static final String TRACE_CACHE_PREFERENCE = "TRACE_CACHE_PREFERENCE";
+
+	/**
+	 * String constant used in preference page for following traces that grow.
+	 */
+	public static final String FOLLOW_PREFERENCE = "FOLLOW_PREFERENCE";
 	
 	public TracePluginActivator() {
 		plugin = this;
@@ -86,5 +96,7 @@ public class TracePluginActivator extends AbstractUIPlugin {
 		preferenceStore.setDefault(TracePluginActivator.SEMAPHORE_QUEUE_PREFERENCE,       false);
 		preferenceStore.setDefault(TracePluginActivator.PROPORTIONAL_QUEUES_PREFERENCE,   false);
 		preferenceStore.setDefault(TracePluginActivator.PROPORTIONAL_COUNTERS_PREFERENCE, false);
+		preferenceStore.setDefault(TracePluginActivator.TRACE_CACHE_PREFERENCE,           true);
+		preferenceStore.setDefault(TracePluginActivator.FOLLOW_PREFERENCE,                false);
 	}
 }
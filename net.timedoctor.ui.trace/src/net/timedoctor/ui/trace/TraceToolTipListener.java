@@ -16,9 +16,6 @@ import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
 
 import net.timedoctor.core.model.SampleLine;
-import net.timedoctor.core.model.ZoomModel;
-import net.timedoctor.core.model.Sample.SampleType;
-import net.timedoctor.core.model.SampleLine.LineType;
 import net.timedoctor.ui.trace.canvases.TraceCanvas;
 
 /**
@@ -27,22 +24,21 @@ import net.timedoctor.ui.trace.canvases.TraceCanvas;
  * position
  */
 public class TraceToolTipListener implements MouseMoveListener {
-	private static final int POPUP_CURSOR_OFFSET = 6;
-
-	private ZoomModel zoom;
+	private final SampleHitTester hitTester;
 	
-	private SampleLine line;
+	private final SampleHitTester.Query query = new SampleHitTester.Query();
 
 	/*
 	 * Constructor for TracePopupListener class.
 	 * 
-	 * @param zoomData the observable model part containing zoom/scroll zoom
+	 * @param line the line of the canvas listened to
+	 * @param hitTester finds the samples for the lines of the viewer
 	 * 
 	 */
 	public TraceToolTipListener(final SampleLine line,
-			final ZoomModel zoomData) {
-		this.line = line;
-		this.zoom = zoomData;
+			final SampleHitTester hitTester) {
+		this.hitTester = hitTester;
+		query.line = line;
 	}
 
 	/*
@@ -52,86 +48,10 @@ public class TraceToolTipListener implements MouseMoveListener {
 	 */
 	public void mouseMove(final MouseEvent e) {
 		TraceCanvas canvas = (TraceCanvas) e.widget;
-		canvas.showSampleInfo(getSampleIndex(e));
-	}
-
-	private int getSampleIndex(final MouseEvent e) {
-		int width = getWidth(e);
-		
-		double zoomFactor = zoom.getPixelsPerTime(width);
-		double time = zoom.getTimeAtPosition(e.x, width);
-		int index = line.binarySearch(time);
-		
-		LineType lineType = line.getType();
-		
-		switch(lineType) {
-		case EVENTS:
-		case SEMAPHORES:
-		case QUEUES:
-		case NOTES:
-		{
-			double timeDifference = Math.abs(line.getSample(index).time - time);
-			int dx = (int) (timeDifference * zoomFactor);
-			
-			if (dx < POPUP_CURSOR_OFFSET) {
-				return index;
-			}
-			
-			index++;
-			
-			try {
-				timeDifference = Math.abs(line.getSample(index).time - time);
-			} catch (IndexOutOfBoundsException e1) {
-				return -1;
-			}
-			
-			dx = (int) (timeDifference * zoomFactor);
-			
-			if (dx < POPUP_CURSOR_OFFSET) {
-				return index;
-			}			
-			
-			return -1;			
-		}
-		
-		case VALUES:
-		case CYCLES:
-		case MEM_CYCLES:
-		{
-			if (line.getSample(index).time > time) {
-				return -1;
-			}
-			
-			if (index < line.getCount() - 2) {
-				return index;
-			}
-			
-			return -1;
-		}
-		
-		case TASKS:
-		case ISRS:
-		case AGENTS:
-		{
-			if (line.getSample(index).time > time) {
-				return -1;
-			}
-			
-			SampleType taskSampleType = line.getSample(index).type;
-			
-			switch(taskSampleType){
-			case START:
-			case SUSPEND:
-			case RESUME:
-				return index;
-			default:
-				return -1;			
-			}			
-		}
-		
-		default:
-			return -1;
-		}
+		query.x = e.x;
+		query.width = getWidth(e);
+		hitTester.hitTest(query);
+		canvas.showSampleInfo(query.sampleIndex);
 	}
 
 	private int getWidth(final MouseEvent e) {
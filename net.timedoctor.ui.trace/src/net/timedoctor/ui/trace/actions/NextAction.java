@@ -38,17 +38,17 @@ public class NextAction extends TraceAction {
 		if (selectedLine != null) {
 			int index = selectedLine.binarySearch(baselineTime);
 
-			if ((selectedLine.getSample(index).time == baselineTime)
+			if ((selectedLine.getTime(index) == baselineTime)
 					&& (index < selectedLine.getCount() - 2)) {
 				index++;
 			} else {
 				while ((index < selectedLine.getCount() - 2)
-						&& (selectedLine.getSample(index).time < baselineTime)) {
+						&& (selectedLine.getTime(index) < baselineTime)) {
 					index++;
 				}
 			}
 
-			double nextSampleTime = selectedLine.getSample(index).time;
+			double nextSampleTime = selectedLine.getTime(index);
 			gotoTime(nextSampleTime);
 		}
 	}
@@ -37,17 +37,17 @@ public class PreviousAction extends TraceAction {
 		if (selectedLine != null) {
 			int index = selectedLine.binarySearch(baselineTime);
 
-			if ((selectedLine.getSample(index).time == baselineTime)
+			if ((selectedLine.getTime(index) == baselineTime)
 					&& (index > 0)) {
 				index--;
 			} else {
 				while ((index > 0)
-						&& (selectedLine.getSample(index).time > baselineTime)) {
+						&& (selectedLine.getTime(index) > baselineTime)) {
 					index--;
 				}
 			}
 
-			double prevSampleTime = selectedLine.getSample(index).time;
+			double prevSampleTime = selectedLine.getTime(index);
 			gotoTime(prevSampleTime);
 		}
 	}
@@ -46,7 +46,7 @@ public class AgentCanvas extends TraceCanvas {
 			final TraceModel model) {
 		super(parent, zoom, new TaskSampleInfo(line, zoom));
 
-		addPaintListener(new TaskPaintListener(Colors.getColorRegistry().get(Colors.SEA_GREEN), line, zoom, model));
+		setTracePaintListener(line, new TaskPaintListener(Colors.getColorRegistry().get(Colors.SEA_GREEN), line, zoom, model));
 	}
 
 	/* (non-Javadoc)
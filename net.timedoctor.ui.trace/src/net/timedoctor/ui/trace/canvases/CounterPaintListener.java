@@ -129,17 +129,32 @@ public class CounterPaintListener extends TracePaintListener implements PaintLis
 			e.gc.setForeground(color);
 			e.gc.setBackground(fillColor);
 
+			// Zoomed out, paint pixel by pixel instead of sample by sample
+			int level = getPyramidLevel(line, e, drawStartTime, drawEndTime, pixelsPerSec);
+			if (level >= 0) {
+				double scale;
+				if ((line.getType() == SampleLine.LineType.CYCLES)
+						|| (line.getType() == SampleLine.LineType.MEM_CYCLES)) {
+					scale = 1 / frequency;
+				} else {
+					scale = 1 / maxFilling;
+				}
+				paintPyramid(e, line.getPyramid(), level, startTime, pixelsPerSec,
+						canvasHeight, traceDrawHeight, scale, color, fillColor);
+				return;
+			}
+
 			int index = Math.max(1, line.binarySearch(drawStartTime));
 			double curMaxFilling = 0;
 			double curMinFilling = 0;
 			for (; index < line.getCount(); index++) {
-				int xCur = boundedInt((line.getSample(index - 1).time - startTime) * pixelsPerSec);
-				int xNext = boundedInt((line.getSample(index).time - startTime) * pixelsPerSec);
+				int xCur = boundedInt((line.getTime(index - 1) - startTime) * pixelsPerSec);
+				int xNext = boundedInt((line.getTime(index) - startTime) * pixelsPerSec);
 
-				double timeDifference = line.getSample(index).time
-					- line.getSample(index - 1).time;
-				double valueDifference = line.getSample(index).val
-					- line.getSample(index - 1).val;
+				double timeDifference = line.getTime(index)
+					- line.getTime(index - 1);
+				double valueDifference = line.getVal(index)
+					- line.getVal(index - 1);
 				
 				double curFilling;
 				if ((line.getType() == SampleLine.LineType.CYCLES)
@@ -206,7 +221,7 @@ public class CounterPaintListener extends TracePaintListener implements PaintLis
 				e.gc.drawLine(xCur, canvasHeight - minFillHeight, 
 						xCur, canvasHeight - maxFillHeight);
 
-				if (line.getSample(index).time > drawEndTime) {
+				if (line.getTime(index) > drawEndTime) {
 					break;
 				}
 
@@ -38,7 +38,7 @@ public class EventCanvas extends TraceCanvas {
 			final SampleLine line,
 			final ZoomModel zoom) {
 		super(parent, zoom, new EventSampleInfo(line, zoom));
-		addPaintListener(new EventPaintListener(Colors.getColorRegistry().get(Colors.DARK_MAGENTA),
+		setTracePaintListener(line, new EventPaintListener(Colors.getColorRegistry().get(Colors.DARK_MAGENTA),
 				Colors.getColorRegistry().get(Colors.LIGHT_PINK), line, zoom));
 	}
 
@@ -121,13 +121,13 @@ public class EventPaintListener extends TracePaintListener implements PaintListe
 			e.gc.setForeground(color);
 			for (int xOld = -1; index < line.getCount() - 1; index++) {
 
-				if (line.getSample(index).time > drawEndTime) {
+				if (line.getTime(index) > drawEndTime) {
 					break;
 				}
 
-				final int xStart = boundedInt((line.getSample(index).time - timeOffset)
+				final int xStart = boundedInt((line.getTime(index) - timeOffset)
 						* zoom);
-				final int xEnd = boundedInt((line.getSample(index + 1).time - timeOffset)
+				final int xEnd = boundedInt((line.getTime(index + 1) - timeOffset)
 						* zoom);
 
 				if (xEnd <= xOld) {
@@ -135,8 +135,8 @@ public class EventPaintListener extends TracePaintListener implements PaintListe
 				}
 				xOld = xEnd;
 
-				if ((line.getSample(index).type == SampleType.START) ||
-						(( line.getType() == SampleLine.LineType.SEMAPHORES) && (line.getSample(index).val > 0)) ) {
+				if ((line.getSampleType(index) == SampleType.START) ||
+						(( line.getType() == SampleLine.LineType.SEMAPHORES) && (line.getVal(index) > 0)) ) {
 					e.gc.setBackground(fillColor);
 					e.gc.fillRectangle(xStart, canvasHeight - EVENT_BAR_HEIGHT, xEnd - xStart,
 							EVENT_BAR_HEIGHT);
@@ -144,7 +144,7 @@ public class EventPaintListener extends TracePaintListener implements PaintListe
 							EVENT_BAR_HEIGHT);
 				}
 				
-				if (line.getSample(index).type == SampleType.STOP) {
+				if (line.getSampleType(index) == SampleType.STOP) {
 					sampleFlag.draw(e, color, fillColor, xStart, VERTICAL_PADDING, traceHeight);
 				} else {
 					sampleFlag.draw(e, color, color, xStart, VERTICAL_PADDING, traceHeight);
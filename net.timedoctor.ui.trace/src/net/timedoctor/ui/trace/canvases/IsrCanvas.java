@@ -43,7 +43,7 @@ public class IsrCanvas extends TraceCanvas {
 			final TraceModel model) {
 		super(parent, zoom, new TaskSampleInfo(line, zoom));
 
-		addPaintListener(new TaskPaintListener(Colors.getColorRegistry().get(Colors.DARK_GREEN), line, zoom, model));
+		setTracePaintListener(line, new TaskPaintListener(Colors.getColorRegistry().get(Colors.DARK_GREEN), line, zoom, model));
 	}
 
 	/* (non-Javadoc)
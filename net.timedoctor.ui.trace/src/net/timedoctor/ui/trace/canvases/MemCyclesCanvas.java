@@ -53,7 +53,7 @@ public class MemCyclesCanvas extends TraceCanvas {
 		counterPaintListener = new CounterPaintListener(Colors.getColorRegistry().get(Colors.DARK_CYAN), 
 								Colors.getColorRegistry().get(Colors.LIGHT_CYAN),
 								line, zoom);
-		addPaintListener(counterPaintListener);
+		setTracePaintListener(line, counterPaintListener);
 	}
 
 	/* (non-Javadoc)
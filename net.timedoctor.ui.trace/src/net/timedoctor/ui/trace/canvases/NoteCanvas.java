@@ -37,7 +37,7 @@ public class NoteCanvas extends TraceCanvas {
 			final SampleLine line,
 			final ZoomModel zoom) {
 		super(parent, zoom, new NoteSampleInfo(line, zoom));
-		addPaintListener(new NotePaintListener(Colors.getColorRegistry().get(Colors.DARK_GOLDENROD), line, zoom));
+		setTracePaintListener(line, new NotePaintListener(Colors.getColorRegistry().get(Colors.DARK_GOLDENROD), line, zoom));
 		
 	}
 
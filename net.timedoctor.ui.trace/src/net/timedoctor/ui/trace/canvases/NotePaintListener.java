@@ -105,11 +105,11 @@ public class NotePaintListener extends TracePaintListener implements PaintListen
 
             for (int xOld = -1; index < line.getCount() - 1; index++) {
 
-                if (line.getSample(index).time > drawEndTime) {
+                if (line.getTime(index) > drawEndTime) {
                     break;
                 }
 
-                final int xStart = boundedInt((line.getSample(index).time - timeOffset)
+                final int xStart = boundedInt((line.getTime(index) - timeOffset)
                         * zoom);
                 if ( xStart <= xOld ) {
                     continue;
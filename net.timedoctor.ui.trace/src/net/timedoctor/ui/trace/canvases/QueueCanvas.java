@@ -55,7 +55,7 @@ public class QueueCanvas extends TraceCanvas {
 		queuePaintListener = new QueuePaintListener(Colors.getColorRegistry().get(Colors.DARK_RED), 
 								Colors.getColorRegistry().get(Colors.MISTY_ROSE),
 								line, zoom, model);
-		addPaintListener(queuePaintListener);
+		setTracePaintListener(line, queuePaintListener);
 	}
 	
 	/* (non-Javadoc)
@@ -115,15 +115,23 @@ public class QueuePaintListener extends TracePaintListener implements PaintListe
 			
 			drawGridLines(e, canvasHeight); 
 
+			// Zoomed out, paint pixel by pixel instead of sample by sample
+			int level = getPyramidLevel(line, e, drawStartTime, drawEndTime, pixelsPerSec);
+			if (level >= 0) {
+				paintPyramid(e, line.getPyramid(), level, startTime, pixelsPerSec,
+						canvasHeight, traceDrawHeight, 1 / maxFilling, color, fillColor);
+				return;
+			}
+
 			int index = Math.max(1, line.binarySearch(drawStartTime));
 			double curMaxFilling = 0;
 			double curMinFilling = 0;
 			for (; index < line.getCount(); index++) {
-				int xCur = boundedInt((line.getSample(index - 1).time - startTime) * pixelsPerSec);
-				int xNext = boundedInt((line.getSample(index).time - startTime) * pixelsPerSec);
+				int xCur = boundedInt((line.getTime(index - 1) - startTime) * pixelsPerSec);
+				int xNext = boundedInt((line.getTime(index) - startTime) * pixelsPerSec);
 
 				// TODO hide >> 32 in model interface
-				double curFilling = line.getSample(index - 1).val;
+				double curFilling = line.getVal(index - 1);
 				if (line.getType() == LineType.QUEUES) {
 					curFilling = (long)(curFilling) >> 32;
 				}
@@ -185,7 +193,7 @@ public class QueuePaintListener extends TracePaintListener implements PaintListe
 				e.gc.drawLine(xCur, canvasHeight - minFillHeight, 
 						xCur, canvasHeight - maxFillHeight);
 
-				if (line.getSample(index).time > drawEndTime) {
+				if (line.getTime(index) > drawEndTime) {
 					break;
 				}
 
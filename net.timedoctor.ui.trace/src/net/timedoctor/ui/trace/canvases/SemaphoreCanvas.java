@@ -60,11 +60,9 @@ public class SemaphoreCanvas extends TraceCanvas {
 
 	private void installPaintListener() {
 		if (preferenceStore.getBoolean(TracePluginActivator.SEMAPHORE_QUEUE_PREFERENCE)) {
-			removePaintListener(eventPaintListener);
-			addPaintListener(queuePaintListener);
+			setTracePaintListener(line, queuePaintListener);
 		} else {
-			removePaintListener(queuePaintListener);
-			addPaintListener(eventPaintListener);
+			setTracePaintListener(line, eventPaintListener);
 		}
 	}
 
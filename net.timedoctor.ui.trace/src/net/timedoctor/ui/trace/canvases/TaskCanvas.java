@@ -50,7 +50,7 @@ public class TaskCanvas extends TraceCanvas {
 		fTaskPaintListener = new TaskPaintListener(Colors.getColorRegistry().get(Colors.DARK_BLUE), line, zoom, model);
 		updateSubPixelPreference();
 		
-		addPaintListener(fTaskPaintListener);
+		setTracePaintListener(line, fTaskPaintListener);
 	}
 
 	private void updateSubPixelPreference() {
@@ -17,6 +17,7 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
 
+import net.timedoctor.core.model.OccupancyPyramid;
 import net.timedoctor.core.model.SampleLine;
 import net.timedoctor.core.model.TraceModel;
 import net.timedoctor.core.model.ZoomModel;
@@ -54,6 +55,12 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 	 * Length of <code>colorList</code>.
 	 */
 	private static final int MAX_COLORS = 8;
+
+	/**
+	 * Relative error allowed in the running time of a pixel that is fully
+	 * occupied, as the running time is a sum of sample durations.
+	 */
+	private static final double FULL_PIXEL_TOLERANCE = 1e-9;
 	
 	/**
 	 * The line containing data to visualize.
@@ -144,25 +151,36 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 			e.gc.setBackground(e.display.getSystemColor(SWT.COLOR_WHITE));
 			e.gc.fillRectangle(e.x, e.y, e.width, e.height);
 
-			if ((line.getSample(index).time <= drawStartTime)
-					&& (line.getSample(index).type != SampleType.STOP)) {
+			// Zoomed out, paint pixel by pixel instead of sample by sample
+			OccupancyPyramid occupancy = line.getOccupancy();
+			if ((occupancy != null)
+					&& hasMoreSamplesThanPixels(line, e, drawStartTime, drawEndTime)) {
+				int level = occupancy.getLevel(1 / zoom);
+				if (level >= 0) {
+					paintOccupancy(e, occupancy, level, zoom, canvasHeight, traceHeight);
+					return;
+				}
+			}
+
+			if ((line.getTime(index) <= drawStartTime)
+					&& (line.getSampleType(index) != SampleType.STOP)) {
 				active = true;
 			}
 			
 			for (int xEndOld = -1; index < line.getCount(); index++) { //for loop over all the samples starting from 'index'
-				if (line.getSample(index).time > drawEndTime) {
+				if (line.getTime(index) > drawEndTime) {
 					break;
 				}
-				if (!active && (line.getSample(index).type == SampleType.START)) {
+				if (!active && (line.getSampleType(index) == SampleType.START)) {
 					active = true;
 				}
 				if (active) {
-					if ((line.getSample(index).type == SampleType.START)
-							|| (line.getSample(index).type == SampleType.RESUME)) {
+					if ((line.getSampleType(index) == SampleType.START)
+							|| (line.getSampleType(index) == SampleType.RESUME)) {
                         
-						final int xStart = boundedInt((line.getSample(index).time - timeOffset)
+						final int xStart = boundedInt((line.getTime(index) - timeOffset)
 								* zoom);
-						final int xEnd = boundedInt((line.getSample(index + 1).time - timeOffset)
+						final int xEnd = boundedInt((line.getTime(index + 1) - timeOffset)
 								* zoom);
 
 						if (!fSubPixelOn && (xEnd <= xEndOld)) {
@@ -171,11 +189,11 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 
 						e.gc.setForeground(color); 
 
-						if (line.getSample(index).type == SampleType.RESUME) {
-							colorIndex = (int) line.getSample(index).val;
+						if (line.getSampleType(index) == SampleType.RESUME) {
+							colorIndex = (int) line.getVal(index);
 						} else {
-							colorIndex = (int) line.getSample((int) line
-									.getSample(index).val).val;
+							colorIndex = (int) line.getVal((int) line
+									.getVal(index));
 						}
 
 						if (colorIndex < 0) {
@@ -204,10 +222,10 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 						if (fSubPixelOn && (xStart == xEnd)) {
 							if (xEndOld == xStart) {
 								//We have already calculated a totalTimeIn1Pixel for this pixel
-								totalTimeIn1Pixel += (line.getSample(index+1).time - line.getSample(index).time);								
+								totalTimeIn1Pixel += (line.getTime(index+1) - line.getTime(index));								
 							} else {
 								//First sample in this pixel
-								totalTimeIn1Pixel = (line.getSample(index+1).time - line.getSample(index).time);								
+								totalTimeIn1Pixel = (line.getTime(index+1) - line.getTime(index));								
 							}	
 
 							subPixelTraceHeight = (int)Math.ceil(totalTimeIn1Pixel * zoom * traceHeight);
@@ -217,16 +235,16 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 							//The sample spans two pixels, so we need to redraw both pixels							
 							if (xEndOld == xStart) {
 								//We have already calculated a totalTimeIn1Pixel for the first pixel
-								totalTimeIn1Pixel += ((xStart + 1)/zoom + timeOffset - line.getSample(index).time);								
+								totalTimeIn1Pixel += ((xStart + 1)/zoom + timeOffset - line.getTime(index));								
 							} else {
 								//First sample in the first pixel
-								totalTimeIn1Pixel = ((xStart + 1)/zoom + timeOffset - line.getSample(index).time);								
+								totalTimeIn1Pixel = ((xStart + 1)/zoom + timeOffset - line.getTime(index));								
 							}
 							
 							subPixelTraceHeight = (int)Math.ceil(totalTimeIn1Pixel * zoom * traceHeight);
 							e.gc.drawLine(xStart, canvasHeight, xStart, canvasHeight - subPixelTraceHeight); //draw this pixel
 							
-							totalTimeIn1Pixel = (line.getSample(index + 1).time - ((xStart + 1)/zoom + timeOffset));
+							totalTimeIn1Pixel = (line.getTime(index + 1) - ((xStart + 1)/zoom + timeOffset));
 							subPixelTraceHeight = (int)Math.ceil(totalTimeIn1Pixel * zoom * traceHeight);
 							e.gc.drawLine(xEnd, canvasHeight, xEnd, canvasHeight - subPixelTraceHeight); //draw next pixel
 							
@@ -238,18 +256,18 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 							totalTimeIn1Pixel = 0;
 						}
 						xEndOld = xEnd;
-					} else if (line.getSample(index).type == SampleType.SUSPEND) {
+					} else if (line.getSampleType(index) == SampleType.SUSPEND) {
 						// Handle preemption by another task or ISR
 						
-						final int j = (int) line.getSample(index).val;
-						if (line.getSample(j).time < drawStartTime) {
+						final int j = (int) line.getVal(index);
+						if (line.getTime(j) < drawStartTime) {
 							index = j - 1;
 							continue;
 						}
-						final int xStart = boundedInt((line.getSample(index).time - timeOffset)
+						final int xStart = boundedInt((line.getTime(index) - timeOffset)
 								* zoom);
 						final int xEnd = Math.max(xStart + 1, boundedInt((line
-								.getSample(j).time - timeOffset)
+								.getTime(j) - timeOffset)
 								* zoom));
 						xEndOld = xEnd;
 						index = j - 1;
@@ -267,8 +285,8 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 									traceHeight);
 						}
 
-					} else if ((line.getSample(index).type == SampleType.STOP)
-							|| (line.getSample(index).type == SampleType.END)) {
+					} else if ((line.getSampleType(index) == SampleType.STOP)
+							|| (line.getSampleType(index) == SampleType.END)) {
 						active = false;
 					}
 				}
@@ -276,6 +294,60 @@ public class TaskPaintListener extends TracePaintListener implements PaintListen
 		}
 	}
 	
+	/**
+	 * Paints the line pixel by pixel from its occupancy pyramid. A pixel in
+	 * which the line runs, or is suspended, all the time is painted as part
+	 * of a block. Another pixel in which the line runs or is suspended is
+	 * painted as a line, as high as the load in the pixel for sub-pixel load.
+	 * 
+	 * @param e
+	 *            the paint event
+	 * @param occupancy
+	 *            the occupancy pyramid of the line
+	 * @param level
+	 *            the level of the pyramid to take colors from
+	 * @param zoom
+	 *            the number of pixels per second
+	 * @param canvasHeight
+	 *            the height of the canvas
+	 * @param traceHeight
+	 *            the height of the trace blocks
+	 */
+	private void paintOccupancy(final PaintEvent e, final OccupancyPyramid occupancy,
+			final int level, final double zoom, final int canvasHeight, final int traceHeight) {
+		final double fullTime = (1 - FULL_PIXEL_TOLERANCE) / zoom;
+		for (int x = e.x; x <= e.x + e.width; x++) {
+			final double from = timeOffset + (x / zoom);
+			final double to = timeOffset + ((x + 1) / zoom);
+			final double busyTime = occupancy.getBusyTime(from, to);
+			final double suspendedTime = occupancy.getSuspendedTime(from, to);
+
+			e.gc.setForeground(color);
+			if ((busyTime >= fullTime) || (suspendedTime >= fullTime)) {
+				if (busyTime >= fullTime) {
+					colorIndex = occupancy.getColor(level, from, to);
+					if (colorIndex < 0) {
+						e.gc.setBackground(e.display.getSystemColor(SWT.COLOR_WHITE));
+					} else {
+						final String colorType = colorList[colorIndex % MAX_COLORS];
+						e.gc.setBackground(Colors.getColorRegistry().get(colorType));
+					}
+				} else {
+					e.gc.setBackground(e.display.getSystemColor(SWT.COLOR_GRAY));
+				}
+				e.gc.fillRectangle(x, VERTICAL_PADDING, 1, traceHeight);
+				e.gc.drawPoint(x, VERTICAL_PADDING);
+				e.gc.drawPoint(x, VERTICAL_PADDING + traceHeight);
+			} else if (fSubPixelOn && (busyTime > 0)) {
+				// The load is exact, as is the running time in the pixel
+				final int subPixelTraceHeight = (int) Math.ceil(busyTime * zoom * traceHeight);
+				e.gc.drawLine(x, canvasHeight, x, canvasHeight - subPixelTraceHeight);
+			} else if ((busyTime > 0) || (suspendedTime > 0)) {
+				e.gc.drawLine(x, canvasHeight, x, VERTICAL_PADDING);
+			}
+		}
+	}
+
 	public void enableSubPixel(boolean enable) {
 		fSubPixelOn = enable && (line.getType() == LineType.TASKS);
 	}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.ui.trace.canvases;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+
+import net.timedoctor.core.model.SampleLine;
+
+/**
+ * Holds the painted tiles of trace lines, evicting the least recently used
+ * tiles when their estimated size exceeds a maximum. Evicted tiles are
+ * disposed. Must only be used from the UI thread.
+ */
+public final class TileCache {
+
+	/**
+	 * The estimated number of bytes per pixel of a tile.
+	 */
+	private static final int BYTES_PER_PIXEL = 4;
+
+	/**
+	 * Identifies a tile: the line, its number of samples and the time of its
+	 * last sample, the zoom factor, the height of the canvas and the index of
+	 * the tile in time. A line of a followed trace may move its last sample
+	 * without adding one.
+	 */
+	private static final class TileKey {
+		private final SampleLine line;
+		private final int count;
+		private final double endTime;
+		private final float zoom;
+		private final int height;
+		private final long index;
+
+		TileKey(final SampleLine line, final float zoom, final int height, final long index) {
+			this.line = line;
+			this.count = line.getCount();
+			this.endTime = line.getEndTime();
+			this.zoom = zoom;
+			this.height = height;
+			this.index = index;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof TileKey)) {
+				return false;
+			}
+			TileKey other = (TileKey) obj;
+			return (line == other.line) && (count == other.count)
+					&& (endTime == other.endTime)
+					&& (Float.floatToIntBits(zoom) == Float.floatToIntBits(other.zoom))
+					&& (height == other.height) && (index == other.index);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = System.identityHashCode(line);
+			hash = 31 * hash + count;
+			long bits = Double.doubleToLongBits(endTime);
+			hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+			hash = 31 * hash + Float.floatToIntBits(zoom);
+			hash = 31 * hash + height;
+			return 31 * hash + (int) (index ^ (index >>> 32));
+		}
+	}
+
+	/**
+	 * A painted tile and its estimated size, which is kept as the size of a
+	 * disposed image is not known.
+	 */
+	private static final class Tile {
+		private final Image image;
+		private final long size;
+
+		Tile(final Image image) {
+			Rectangle bounds = image.getBounds();
+			this.image = image;
+			this.size = (long) bounds.width * bounds.height * BYTES_PER_PIXEL;
+		}
+	}
+
+	private final LinkedHashMap<TileKey, Tile> tiles = new LinkedHashMap<TileKey, Tile>(16, 0.75f, true);
+
+	private final long maxBytes;
+
+	private long bytes = 0;
+
+	/**
+	 * Constructs an empty cache.
+	 *
+	 * @param maxBytes
+	 *            the maximum estimated size of the tiles held
+	 */
+	public TileCache(final long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns a tile, marking it as recently used.
+	 *
+	 * @param line
+	 *            the line painted on the tile
+	 * @param zoom
+	 *            the number of pixels per second
+	 * @param height
+	 *            the height of the tile
+	 * @param index
+	 *            the index of the tile in time
+	 * @return the tile, or null if it is not in the cache
+	 */
+	public Image get(final SampleLine line, final float zoom, final int height, final long index) {
+		TileKey key = new TileKey(line, zoom, height, index);
+		Tile tile = tiles.get(key);
+		if (tile == null) {
+			return null;
+		}
+		if (tile.image.isDisposed()) {
+			tiles.remove(key);
+			bytes -= tile.size;
+			return null;
+		}
+		return tile.image;
+	}
+
+	/**
+	 * Adds a tile, evicting the least recently used tiles if the cache grows
+	 * too large.
+	 *
+	 * @param line
+	 *            the line painted on the tile
+	 * @param zoom
+	 *            the number of pixels per second
+	 * @param height
+	 *            the height of the tile
+	 * @param index
+	 *            the index of the tile in time
+	 * @param image
+	 *            the tile, disposed by the cache
+	 */
+	public void put(final SampleLine line, final float zoom, final int height, final long index,
+			final Image image) {
+		Tile tile = new Tile(image);
+		Tile old = tiles.put(new TileKey(line, zoom, height, index), tile);
+		if (old != null) {
+			dispose(old);
+		}
+		bytes += tile.size;
+
+		Iterator<Tile> it = tiles.values().iterator();
+		while ((bytes > maxBytes) && it.hasNext()) {
+			Tile eldest = it.next();
+			if (eldest == tile) {
+				break;
+			}
+			it.remove();
+			dispose(eldest);
+		}
+	}
+
+	/**
+	 * Removes and disposes the tiles of a line, after a change in the way it
+	 * is painted.
+	 *
+	 * @param line
+	 *            the line
+	 */
+	public void invalidate(final SampleLine line) {
+		Iterator<Map.Entry<TileKey, Tile>> it = tiles.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<TileKey, Tile> entry = it.next();
+			if (entry.getKey().line == line) {
+				it.remove();
+				dispose(entry.getValue());
+			}
+		}
+	}
+
+	private void dispose(final Tile tile) {
+		bytes -= tile.size;
+		if (!tile.image.isDisposed()) {
+			tile.image.dispose();
+		}
+	}
+}
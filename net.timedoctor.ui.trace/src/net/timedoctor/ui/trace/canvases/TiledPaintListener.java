@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.ui.trace.canvases;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Transform;
+import org.eclipse.swt.widgets.Canvas;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.ZoomModel;
+
+/**
+ * Paints a trace canvas from tiles of a fixed width in time, painted by the
+ * paint listener of the line and kept in a {@link TileCache}. Scrolling
+ * horizontally only paints the tiles that come into view; the others are
+ * copied from the cache.
+ * <p>
+ * Tiles missing from the cache are painted while painting the canvas, for at
+ * most {@link #PAINT_BUDGET_NANOS}. The tiles left are shown as placeholders,
+ * and painted in later runs of the event loop, so that a zoom on a large
+ * trace does not block the user interface until every line is painted.
+ */
+public class TiledPaintListener implements PaintListener {
+
+	/**
+	 * The width in pixels of a tile.
+	 */
+	private static final int TILE_WIDTH = 256;
+
+	/**
+	 * The time spent painting missing tiles per paint of a canvas.
+	 */
+	private static final long PAINT_BUDGET_NANOS = 20000000L;
+
+	/**
+	 * Above this number of tiles per paint, painting directly is cheaper.
+	 */
+	private static final long MAX_TILES = 64;
+
+	/**
+	 * The maximum estimated size of the tiles of all canvases.
+	 */
+	private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+
+	private static final TileCache tiles = new TileCache(MAX_CACHE_BYTES);
+
+	private final SampleLine line;
+
+	private final ZoomModel zoom;
+
+	private final PaintListener painter;
+
+	/**
+	 * Whether painting the tiles left is scheduled.
+	 */
+	private boolean scheduled = false;
+
+	/**
+	 * Constructs a listener painting a line from tiles.
+	 *
+	 * @param line
+	 *            the line painted
+	 * @param zoom
+	 *            contains zoom and scroll data
+	 * @param painter
+	 *            the listener painting the tiles
+	 */
+	public TiledPaintListener(final SampleLine line,
+			final ZoomModel zoom,
+			final PaintListener painter) {
+		this.line = line;
+		this.zoom = zoom;
+		this.painter = painter;
+	}
+
+	/**
+	 * Returns the listener painting the tiles.
+	 *
+	 * @return the listener
+	 */
+	public PaintListener getPainter() {
+		return painter;
+	}
+
+	/**
+	 * Removes the tiles of the line from the cache, after a change in the way
+	 * it is painted.
+	 */
+	public void invalidate() {
+		tiles.invalidate(line);
+	}
+
+	/**
+	 * Copies the tiles overlapping the painted area to the canvas, painting
+	 * missing tiles within the time budget.
+	 *
+	 * @param e
+	 *            an event containing information about the paint
+	 *
+	 * @see PaintListener#paintControl(PaintEvent)
+	 */
+	public void paintControl(final PaintEvent e) {
+		Canvas canvas = (Canvas) e.widget;
+		double startTime = zoom.getStartTime();
+		double endTime = zoom.getEndTime();
+		// guarantees trace drawing is unaffected by appearance of vertical
+		// scrollbar, as in the paint listeners.
+		int fullWidth = canvas.getParent().getParent().getParent().getBounds().width;
+		int height = canvas.getBounds().height;
+		if ((startTime == endTime) || (fullWidth <= 0) || (height <= 0)) {
+			painter.paintControl(e);
+			return;
+		}
+
+		double pixelsPerSec = fullWidth / (endTime - startTime);
+		// Rounded, so that scrolling, which may change the interval in its
+		// last bits, keeps the tiles
+		float tileZoom = (float) pixelsPerSec;
+		double tileDuration = TILE_WIDTH / (double) tileZoom;
+		long first = (long) Math.floor((startTime + e.x / pixelsPerSec) / tileDuration);
+		long last = (long) Math.floor((startTime + (e.x + e.width) / pixelsPerSec) / tileDuration);
+		if (last - first >= MAX_TILES) {
+			painter.paintControl(e);
+			return;
+		}
+
+		long deadline = System.nanoTime() + PAINT_BUDGET_NANOS;
+		boolean painted = false;
+		boolean pending = false;
+		for (long index = first; index <= last; index++) {
+			int x = (int) Math.floor((index * tileDuration - startTime) * pixelsPerSec);
+			Image tile = tiles.get(line, tileZoom, height, index);
+			if ((tile == null) && (!painted || (System.nanoTime() < deadline))) {
+				tile = paintTile(canvas, x, height);
+				tiles.put(line, tileZoom, height, index, tile);
+				painted = true;
+			}
+			if (tile != null) {
+				e.gc.drawImage(tile, x, 0);
+			} else {
+				e.gc.setBackground(e.display.getSystemColor(SWT.COLOR_WIDGET_LIGHT_SHADOW));
+				e.gc.fillRectangle(x, 0, TILE_WIDTH, height);
+				pending = true;
+			}
+		}
+
+		if (pending) {
+			schedulePaint(canvas);
+		}
+	}
+
+	/**
+	 * Paints a tile with the paint listener of the line, as if it painted the
+	 * part of the canvas the tile covers.
+	 */
+	private Image paintTile(final Canvas canvas, final int x, final int height) {
+		Display display = canvas.getDisplay();
+		Image image = new Image(display, TILE_WIDTH, height);
+		GC gc = new GC(image);
+		Transform transform = new Transform(display);
+		try {
+			transform.translate(-x, 0);
+			gc.setTransform(transform);
+			gc.setFont(canvas.getFont());
+
+			Event event = new Event();
+			event.widget = canvas;
+			event.display = display;
+			event.gc = gc;
+			event.x = x;
+			event.y = 0;
+			event.width = TILE_WIDTH;
+			event.height = height;
+			painter.paintControl(new PaintEvent(event));
+		} finally {
+			transform.dispose();
+			gc.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Repaints the canvas in a later run of the event loop, to paint the
+	 * tiles left.
+	 */
+	private void schedulePaint(final Canvas canvas) {
+		if (scheduled) {
+			return;
+		}
+		scheduled = true;
+		canvas.getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				scheduled = false;
+				if (!canvas.isDisposed()) {
+					canvas.redraw();
+				}
+			}
+		});
+	}
+}
@@ -15,9 +15,11 @@ import java.util.Observer;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
 
@@ -38,6 +40,13 @@ public abstract class TraceCanvas extends Canvas implements Observer, IPropertyC
 	protected static final int MAXIMUM_ROW_HEIGHT = 70;
 	
 	private AbstractSampleInfo sampleInfo;
+	
+	/**
+	 * The sample whose information the tool tip shows, -1 for none.
+	 */
+	private int toolTipSample = -1;
+	private ZoomModel zoom;
+	private TiledPaintListener tiledPaintListener;
 	protected IPreferenceStore preferenceStore;
 	
 	protected int minHeight;
@@ -58,15 +67,28 @@ public abstract class TraceCanvas extends Canvas implements Observer, IPropertyC
 		super(parent, SWT.NO_BACKGROUND | SWT.DOUBLE_BUFFERED);
 		
 		this.sampleInfo = sampleInfo;
+		this.zoom = zoom;
 		zoom.addObserver(this);
 		
 		preferenceStore = TracePluginActivator.getDefault().getPreferenceStore();
 		
+		// Added before this canvas, so that the tiles are gone before
+		// subclasses redraw on a preference change
+		final IPropertyChangeListener tileInvalidator = new IPropertyChangeListener() {
+			public void propertyChange(final PropertyChangeEvent event) {
+				if (tiledPaintListener != null) {
+					tiledPaintListener.invalidate();
+				}
+			}
+		};
+		preferenceStore.addPropertyChangeListener(tileInvalidator);
 		preferenceStore.addPropertyChangeListener(this);
 		
 		super.addDisposeListener(new DisposeListener() {
 			public void widgetDisposed(DisposeEvent e) {
+				preferenceStore.removePropertyChangeListener(tileInvalidator);
 				preferenceStore.removePropertyChangeListener(TraceCanvas.this);
+				zoom.deleteObserver(TraceCanvas.this);
 			}
 		});
 	}
@@ -120,19 +142,48 @@ public abstract class TraceCanvas extends Canvas implements Observer, IPropertyC
 	}
 
 	/**
-	 * Redraws the line when scroll or zoom state changes.
+	 * Sets the paint listener painting the line. The canvas is painted from
+	 * tiles the listener paints, see {@link TiledPaintListener}.
+	 * 
+	 * @param line
+	 *            the line painted
+	 * @param painter
+	 *            the paint listener of the line
+	 */
+	protected final void setTracePaintListener(final SampleLine line, final PaintListener painter) {
+		if (tiledPaintListener != null) {
+			if (tiledPaintListener.getPainter() == painter) {
+				return;
+			}
+			removePaintListener(tiledPaintListener);
+			tiledPaintListener.invalidate();
+		}
+		tiledPaintListener = new TiledPaintListener(line, zoom, painter);
+		addPaintListener(tiledPaintListener);
+	}
+
+	/**
+	 * Redraws the line when scroll or zoom state changes. The paint is left
+	 * to the event loop, so that the canvases in view are painted together.
 	 * 
 	 * @param o
 	 *            the <code>Observable</code> triggering the update
 	 * @param data
-	 *            has no effect on this update
+	 *            the changes of the zoom model
 	 */
 	public final void update(final Observable o, final Object data) {
-		redraw();
-		update();
+		if (ZoomModel.isChanged(data, ZoomModel.Change.TIMES)) {
+			toolTipSample = -1;
+			setToolTipText(null);
+			redraw();
+		}
 	}
 
 	public void showSampleInfo(final int sampleIndex) {
+		if (sampleIndex == toolTipSample) {
+			return;
+		}
+		toolTipSample = sampleIndex;
 		if (sampleIndex >= 0) {
 			setToolTipText(sampleInfo.getInfoStr(sampleIndex));
 		} else {
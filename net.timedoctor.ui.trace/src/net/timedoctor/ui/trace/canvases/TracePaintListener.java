@@ -11,7 +11,10 @@
 package net.timedoctor.ui.trace.canvases;
 
 import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.graphics.Color;
 
+import net.timedoctor.core.model.SampleLine;
+import net.timedoctor.core.model.SamplePyramid;
 import net.timedoctor.ui.trace.Colors;
 
 /**
@@ -46,6 +49,117 @@ public class TracePaintListener {
 		}
 	}
 
+	/**
+	 * Returns the level of the pyramid of a line to paint from, if painting
+	 * pixel by pixel from the pyramid is cheaper than painting sample by
+	 * sample.
+	 * 
+	 * @param line
+	 *            the line to paint
+	 * @param e
+	 *            the paint event
+	 * @param drawStartTime
+	 *            the time at the left of the painted area
+	 * @param drawEndTime
+	 *            the time at the right of the painted area
+	 * @param pixelsPerSec
+	 *            the zoom factor
+	 * @return the level, or -1 to paint sample by sample
+	 */
+	protected int getPyramidLevel(final SampleLine line, final PaintEvent e,
+			final double drawStartTime, final double drawEndTime,
+			final double pixelsPerSec) {
+		SamplePyramid pyramid = line.getPyramid();
+		if ((pyramid == null) || !hasMoreSamplesThanPixels(line, e, drawStartTime, drawEndTime)) {
+			return -1;
+		}
+		return pyramid.getLevel(1 / pixelsPerSec);
+	}
+
+	/**
+	 * Returns whether the painted area of a line holds more samples than
+	 * pixels, so that painting pixel by pixel is cheaper.
+	 * 
+	 * @param line
+	 *            the line to paint
+	 * @param e
+	 *            the paint event
+	 * @param drawStartTime
+	 *            the time at the left of the painted area
+	 * @param drawEndTime
+	 *            the time at the right of the painted area
+	 * @return true if there are more samples than pixels
+	 */
+	protected boolean hasMoreSamplesThanPixels(final SampleLine line, final PaintEvent e,
+			final double drawStartTime, final double drawEndTime) {
+		return line.binarySearch(drawEndTime) - line.binarySearch(drawStartTime) > e.width;
+	}
+
+	/**
+	 * Paints a filling line pixel by pixel from a level of its pyramid: per
+	 * pixel a bar of the last value, and a vertical line from the minimum to
+	 * the maximum value within the pixel.
+	 * 
+	 * @param e
+	 *            the paint event
+	 * @param pyramid
+	 *            the pyramid of the line
+	 * @param level
+	 *            the level of the pyramid to paint from
+	 * @param startTime
+	 *            the time at the left of the canvas
+	 * @param pixelsPerSec
+	 *            the zoom factor
+	 * @param canvasHeight
+	 *            the height of the canvas
+	 * @param traceDrawHeight
+	 *            the height in pixels of a full line
+	 * @param scale
+	 *            the factor converting values of the pyramid to fillings,
+	 *            with 1 a full line
+	 * @param color
+	 *            the color of the contour
+	 * @param fillColor
+	 *            the color of the bars
+	 */
+	protected void paintPyramid(final PaintEvent e, final SamplePyramid pyramid,
+			final int level, final double startTime, final double pixelsPerSec,
+			final int canvasHeight, final int traceDrawHeight, final double scale,
+			final Color color, final Color fillColor) {
+		double[] minMaxLast = new double[3];
+		for (int x = e.x; x <= e.x + e.width; x++) {
+			double from = startTime + x / pixelsPerSec;
+			if (!pyramid.fold(level, from, from + 1 / pixelsPerSec, minMaxLast)) {
+				continue;
+			}
+			double curMinFilling = minMaxLast[0] * scale;
+			double curMaxFilling = minMaxLast[1] * scale;
+			double curFilling = minMaxLast[2] * scale;
+
+			// Show at least one pixel if there is something in the line
+			int curFillHeight = 0;
+			if (curFilling > 0) {
+				curFillHeight = Math.max(1, (int) (traceDrawHeight * curFilling));
+			}
+			int minFillHeight = 0;
+			if (curMinFilling > 0) {
+				minFillHeight = Math.max(1, (int) (traceDrawHeight * curMinFilling));
+			}
+			int maxFillHeight = (int) (traceDrawHeight * curMaxFilling);
+
+			e.gc.setForeground(color);
+			e.gc.setBackground(fillColor);
+			e.gc.fillRectangle(x, canvasHeight + 1, 1, -curFillHeight);
+			e.gc.drawLine(x, canvasHeight - curFillHeight,
+					x + 1, canvasHeight - curFillHeight);
+			e.gc.setForeground(fillColor);
+			e.gc.drawLine(x, canvasHeight, x, canvasHeight - minFillHeight);
+			e.gc.setForeground(color);
+			e.gc.drawLine(x, canvasHeight - minFillHeight,
+					x, canvasHeight - maxFillHeight);
+		}
+	}
+
 	/**
 	 * Ensures the given value is within the valid x-values and casts it to an
 	 * int. If the value is too low, returns <code>X_MIN</code>. If it's too
@@ -51,7 +51,7 @@ public class ValueCanvas extends TraceCanvas {
 		counterPaintListener = new CounterPaintListener(Colors.getColorRegistry().get(Colors.DARK_CYAN), 
 								Colors.getColorRegistry().get(Colors.LIGHT_CYAN),
 								line, zoom);
-		addPaintListener(counterPaintListener);
+		setTracePaintListener(line, counterPaintListener);
 	}
 
 	/* (non-Javadoc)
@@ -25,12 +25,12 @@ public class CycleSampleInfo extends AbstractSampleInfo {
 	
 	@Override
 	protected void fillInfoString(StringBuilder sb, int index) {
-		double startTime = line.getSample(index).time;
-		double endTime = line.getSample(index + 1).time;
+		double startTime = line.getTime(index);
+		double endTime = line.getTime(index + 1);
 		double timeInterval = endTime - startTime; // based on sample times
 		// value stored is a cycle count
-		double valueDifference = line.getSample(index + 1).val
-				- line.getSample(index).val;
+		double valueDifference = line.getVal(index + 1)
+				- line.getVal(index);
 
 		// Average values
 		double[] result = line.getCounterDifference(zoom.getStartTime(), 
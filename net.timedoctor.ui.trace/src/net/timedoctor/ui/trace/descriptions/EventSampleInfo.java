@@ -24,10 +24,10 @@ public class EventSampleInfo extends AbstractSampleInfo {
 	
 	@Override
 	protected void fillInfoString(StringBuilder sb, int index) {
-		double startTime = line.getSample(index).time;
-		double value = line.getSample(index).val;
+		double startTime = line.getTime(index);
+		double value = line.getVal(index);
 		
-		sb.append(line.getSample(index).type == SampleType.START ? "Send @ "
+		sb.append(line.getSampleType(index) == SampleType.START ? "Send @ "
 				: "Receive @ ");
 		sb.append(timeToStr(startTime));
 		sb.append("\nSeq. Number = ");
@@ -23,7 +23,7 @@ public class NoteSampleInfo extends AbstractSampleInfo {
 	
 	@Override
 	protected void fillInfoString(StringBuilder sb, int index) {
-		double startTime = line.getSample(index).time;
+		double startTime = line.getTime(index);
 		
 		sb.append("Note @ ");
 		sb.append(timeToStr(startTime));
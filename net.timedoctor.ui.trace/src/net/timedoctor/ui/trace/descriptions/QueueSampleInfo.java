@@ -25,13 +25,13 @@ public class QueueSampleInfo extends AbstractSampleInfo {
 	@Override
 	protected void fillInfoString(StringBuilder sb, int index) {
 		final int LOW_MASK = 0x00000000ffffffff;
-		SampleType type = line.getSample(index).type;
-		long value = (long) line.getSample(index).val;
+		SampleType type = line.getSampleType(index);
+		long value = (long) line.getVal(index);
 		int size = (int) (value >> 32);
 		int ii = (int) (value & LOW_MASK);
 
-		double startTime = line.getSample(index).time;
-		double endTime = line.getSample(ii).time;
+		double startTime = line.getTime(index);
+		double endTime = line.getTime(ii);
 
 		sb.append("Size = " + size);
 		sb.append(((type == SampleType.START) ? "\nSend @ " : "\nReceive @ "));
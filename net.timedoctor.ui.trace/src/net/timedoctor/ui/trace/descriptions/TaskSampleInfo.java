@@ -23,8 +23,8 @@ public class TaskSampleInfo extends AbstractSampleInfo {
 	
 	@Override
 	protected void fillInfoString(StringBuilder sb, int index) {
-		double startTime = line.getSample(index).time;
-		double endTime = line.getSample(index + 1).time;
+		double startTime = line.getTime(index);
+		double endTime = line.getTime(index + 1);
 
 		sb.append(timeBoundsToStr(startTime, endTime) + "\n");
 		sb.append(timeIntervalToStr(startTime, endTime));
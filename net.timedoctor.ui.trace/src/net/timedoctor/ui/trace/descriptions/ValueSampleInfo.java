@@ -25,10 +25,10 @@ public class ValueSampleInfo extends AbstractSampleInfo {
 	
 	@Override
 	protected void fillInfoString(StringBuilder sb, int index) {
-		double startTime = line.getSample(index).time;
-		double endTime = line.getSample(index + 1).time;
-		double valueDifference = line.getSample(index + 1).val
-				- line.getSample(index).val;
+		double startTime = line.getTime(index);
+		double endTime = line.getTime(index + 1);
+		double valueDifference = line.getVal(index + 1)
+				- line.getVal(index);
 
 		// Average values
 		double[] result = line.getCounterDifference(zoom.getStartTime(), 
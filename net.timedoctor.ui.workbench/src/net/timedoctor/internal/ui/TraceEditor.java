@@ -37,19 +37,29 @@ import net.timedoctor.core.model.SampleLine;
 import net.timedoctor.core.model.TraceModel;
 import net.timedoctor.core.model.ZoomModel;
 import net.timedoctor.core.parser.Parser;
+import net.timedoctor.core.parser.TraceCache;
 import net.timedoctor.internal.ui.actions.CopyAction;
 import net.timedoctor.internal.ui.outline.TraceOutlinePage;
 import net.timedoctor.internal.ui.properties.SampleLinePropertySource;
+import net.timedoctor.ui.trace.FrameNotifier;
+import net.timedoctor.ui.trace.TracePluginActivator;
 import net.timedoctor.ui.trace.TraceViewer;
 
 /**
- * The main editor for TimeDoctor. Created upon open of a .tdi file, calls a parser on
+ * The main editor for TimeDoctor. Created upon open of a .tdi or .tdb file, or of a .tdi
+ * file compressed with gzip or packaged in a ZIP archive, calls a parser on
  * the file and creates a traceModel, then creates and populates all subelements
  * necessary to display and manipulate the data.
  */
 public class TraceEditor extends EditorPart implements ISelectionChangedListener {
 	public final static String ID = "net.timedoctor.ui.workbench.TraceEditor";
 
+	/**
+	 * Directory in the state location of the trace plug-in holding the models
+	 * of traces that were opened before.
+	 */
+	private static final String CACHE_DIRECTORY = "traceCache";
+
 	private IContentOutlinePage fOutlinePage = null;
 
 	/**
@@ -69,6 +79,13 @@ public class TraceEditor extends EditorPart implements ISelectionChangedListener
 
 	private String unParsedLines = null;
 
+	/**
+	 * The parser of the trace, kept to follow the trace file as it grows.
+	 */
+	private Parser parser;
+
+	private TraceFollowJob followJob = null;
+
 	/**
 	 * *.tdi files cannot be saved. Throws an UnsupportedOperationException if
 	 * called.
@@ -124,10 +141,17 @@ public class TraceEditor extends EditorPart implements ISelectionChangedListener
 
 		traceModel = new TraceModel();
 		zoomModel = new ZoomModel();
+		zoomModel.setNotifier(new FrameNotifier(site.getShell().getDisplay()));
 		
 		File ioFile = iPath.getPath().toFile();
 		
-		final Parser parser = new Parser("Opening trace", traceModel, ioFile);
+		parser = new Parser("Opening trace", traceModel, ioFile);
+		final TracePluginActivator activator = TracePluginActivator.getDefault();
+		if (activator.getPreferenceStore().getBoolean(TracePluginActivator.TRACE_CACHE_PREFERENCE)) {
+			parser.setCache(new TraceCache(activator.getStateLocation().append(CACHE_DIRECTORY).toFile(),
+					TraceCache.DEFAULT_MAX_SIZE));
+		}
+		parser.setFollow(activator.getPreferenceStore().getBoolean(TracePluginActivator.FOLLOW_PREFERENCE));
 
 		IWorkbenchWindow window = this.getSite().getWorkbenchWindow();
 		try {
@@ -232,6 +256,11 @@ public class TraceEditor extends EditorPart implements ISelectionChangedListener
 		
 		if (unParsedLines != null)
 			UnparsedMessageDialog.displayMessage(parent.getShell(), unParsedLines);
+		
+		if (parser.isFollowing()) {
+			followJob = new TraceFollowJob(parser, traceModel, parent.getDisplay());
+			followJob.schedule();
+		}
 	}
 
 	/**
@@ -265,6 +294,11 @@ public class TraceEditor extends EditorPart implements ISelectionChangedListener
 	 */
 	@Override
 	public void dispose() {		
+		if (followJob != null) {
+			followJob.cancel();
+			followJob = null;
+		}
+		
 		if (traceViewer != null)
 				traceViewer.dispose();
 		
@@ -278,6 +312,7 @@ public class TraceEditor extends EditorPart implements ISelectionChangedListener
 		
 		traceModel = null;		
 		zoomModel = null;
+		parser = null;
 
 		super.dispose();
 	}
@@ -230,7 +230,7 @@ public class TraceEditorActionBars extends EditorActionBarContributor implements
 			if (selectedLine.getCount() < 2) {
 				endTime = -1;
 			} else {
-				endTime = selectedLine.getSample(selectedLine.getCount() - 2).time;
+				endTime = selectedLine.getTime(selectedLine.getCount() - 2);
 			}
 			
 			if (selectTime < endTime) {
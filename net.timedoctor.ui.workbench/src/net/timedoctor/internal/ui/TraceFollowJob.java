@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2026 TimeDoctor contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License version 1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     TimeDoctor contributors - initial API and implementation
+ *******************************************************************************/
+package net.timedoctor.internal.ui;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import net.timedoctor.core.model.TraceModel;
+import net.timedoctor.core.parser.Parser;
+
+/**
+ * Follows a trace file while it is being written. The job polls the file in
+ * the background and decodes the lines appended to it in batches; every
+ * batch is added to the model in the user interface thread, so that it is
+ * not painted halfway, and the observers of the model are notified once per
+ * batch. The jobs of the model's family, which read its lines in the
+ * background, are cancelled and joined before a batch changes the lines;
+ * their owners schedule them again when notified. The job reschedules itself
+ * until it is cancelled.
+ */
+public class TraceFollowJob extends Job {
+
+	/**
+	 * The time in milliseconds between polls of the file.
+	 */
+	private static final long POLL_INTERVAL = 500;
+
+	private final Parser parser;
+
+	private final TraceModel traceModel;
+
+	private final Display display;
+
+	private IOException error = null;
+
+	/**
+	 * Constructs a job following the file of a parser.
+	 *
+	 * @param parser
+	 *            the parser that parsed the file in follow mode
+	 * @param traceModel
+	 *            the model the parser fills
+	 * @param display
+	 *            the display showing the model
+	 */
+	public TraceFollowJob(final Parser parser,
+			final TraceModel traceModel,
+			final Display display) {
+		super("Following trace");
+		this.parser = parser;
+		this.traceModel = traceModel;
+		this.display = display;
+		setSystem(true);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	protected IStatus run(final IProgressMonitor monitor) {
+		try {
+			while (!monitor.isCanceled() && parser.readAppended()) {
+				if (display.isDisposed()) {
+					return Status.CANCEL_STATUS;
+				}
+				display.syncExec(new Runnable() {
+					public void run() {
+						if (monitor.isCanceled()) {
+							return;
+						}
+						try {
+							cancelReaders();
+							parser.applyAppended();
+							traceModel.setChanged();
+						} catch (IOException e) {
+							error = e;
+						}
+					}
+				});
+				if (error != null) {
+					throw error;
+				}
+			}
+		} catch (IOException e) {
+			// Stop following, the trace read so far stays shown
+			return new Status(IStatus.WARNING, "net.timedoctor.ui.workbench",
+					"Stopped following the trace: " + e.getMessage(), e);
+		}
+
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+		schedule(POLL_INTERVAL);
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Cancels the jobs reading the lines of the model, and waits until they
+	 * are done. These jobs pass their results to the user interface thread
+	 * asynchronously, so they can be joined from it.
+	 * 
+	 * @throws InterruptedIOException
+	 *             if interrupted while waiting
+	 */
+	private void cancelReaders() throws InterruptedIOException {
+		final IJobManager jobManager = Job.getJobManager();
+		jobManager.cancel(traceModel);
+		try {
+			jobManager.join(traceModel, null);
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while waiting for the jobs reading the trace");
+		}
+	}
+}
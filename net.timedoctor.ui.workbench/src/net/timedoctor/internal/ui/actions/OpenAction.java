@@ -42,8 +42,9 @@ public class OpenAction extends Action implements IWorkbenchAction {
 	public void run() {
 		FileDialog fileDialog = new FileDialog(window.getShell(), SWT.OPEN | SWT.MULTI);
 		fileDialog.setFilterNames(new String[] {
-				"TimeDoctor Trace Files (*.tdi)", "All Files (*.*)" });
-		fileDialog.setFilterExtensions(new String[] { "*.tdi", "*.*" });
+				"TimeDoctor Trace Files (*.tdi)", "TimeDoctor Binary Trace Files (*.tdb)",
+				"Compressed Trace Files (*.gz, *.zip)", "All Files (*.*)" });
+		fileDialog.setFilterExtensions(new String[] { "*.tdi", "*.tdb", "*.gz;*.zip", "*.*" });
 		fileDialog.setFileName(null);
 
 		fileDialog.open();
@@ -73,6 +73,14 @@ public class OptionsPreferencePage extends FieldEditorPreferencePage implements
 		BooleanFieldEditor subPixelLoad = new BooleanFieldEditor(TracePluginActivator.SUB_PIXEL_LOAD,
 				"Display task height proportionally to its CPU load", getFieldEditorParent());
 		addField(subPixelLoad);
+
+		BooleanFieldEditor traceCache = new BooleanFieldEditor(TracePluginActivator.TRACE_CACHE_PREFERENCE,
+				"Cache parsed traces to reopen them faster", getFieldEditorParent());
+		addField(traceCache);
+
+		BooleanFieldEditor follow = new BooleanFieldEditor(TracePluginActivator.FOLLOW_PREFERENCE,
+				"Follow trace files while they are being written", getFieldEditorParent());
+		addField(follow);
 		
 		listener = new IPropertyChangeListener() {
 			public void propertyChange(PropertyChangeEvent event) {